@@ -0,0 +1,150 @@
+package com.rafael.pedido.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rafael.pedido.codec.PedidoBinarioHttpMessageConverter;
+import com.rafael.pedido.codec.PedidoJsonHttpMessageConverter;
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.exception.ErrorResponse;
+
+/**
+ * Mede a leitura do corpo de uma requisição e a escrita do corpo de uma
+ * resposta pelo conversor HTTP, como no Spring MVC.
+ * <p>
+ * O parâmetro {@code conversor} compara o conversor do Jackson, com o
+ * ObjectMapper configurado como o do Spring Boot, com o
+ * {@link PedidoJsonHttpMessageConverter} e com o formato binário do
+ * {@link PedidoBinarioHttpMessageConverter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PedidoConversorBenchmark {
+
+    @Param({ "jackson", "codec", "binario" })
+    public String conversor;
+
+    private HttpMessageConverter<Object> conversorHttp;
+    private MediaType tipo;
+    private PedidoDTO pedido;
+    private ErrorResponse erro;
+    private byte[] corpo;
+    private Saida saida;
+
+    /**
+     * Cria o conversor, o pedido, a resposta de erro e o corpo lido.
+     *
+     * @throws IOException se o pedido não puder ser serializado.
+     */
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void preparar() throws IOException {
+        conversorHttp = switch (conversor) {
+            case "codec" -> new PedidoJsonHttpMessageConverter();
+            case "binario" -> new PedidoBinarioHttpMessageConverter();
+            default -> (HttpMessageConverter<Object>) (HttpMessageConverter<?>) new MappingJackson2HttpMessageConverter(
+                    Jackson2ObjectMapperBuilder.json()
+                            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                            .build());
+        };
+        tipo = "binario".equals(conversor) ? PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO
+                : MediaType.APPLICATION_JSON;
+        pedido = new PedidoDTO("3f2b8c1e-pedido-123456", "Cliente de Exemplo", 123_456);
+        erro = new ErrorResponse("Pedido não encontrado com o ID informado.", 404);
+        saida = new Saida();
+        conversorHttp.write(pedido, tipo, saida);
+        corpo = saida.corpo.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] escreverPedido() throws IOException {
+        saida.corpo.reset();
+        conversorHttp.write(pedido, tipo, saida);
+        return saida.corpo.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] escreverErro() throws IOException {
+        saida.corpo.reset();
+        conversorHttp.write(erro, tipo, saida);
+        return saida.corpo.toByteArray();
+    }
+
+    @Benchmark
+    public Object lerPedido() throws IOException {
+        return conversorHttp.read(PedidoDTO.class, new Entrada(corpo, tipo));
+    }
+
+    /**
+     * Corpo de uma requisição em memória.
+     */
+    private static final class Entrada implements HttpInputMessage {
+
+        private final byte[] corpo;
+        private final MediaType tipo;
+
+        Entrada(byte[] corpo, MediaType tipo) {
+            this.corpo = corpo;
+            this.tipo = tipo;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(corpo);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders cabecalhos = new HttpHeaders();
+            cabecalhos.setContentType(tipo);
+            return cabecalhos;
+        }
+    }
+
+    /**
+     * Corpo de uma resposta em memória, reaproveitado entre as escritas.
+     */
+    private static final class Saida implements HttpOutputMessage {
+
+        private final ByteArrayOutputStream corpo = new ByteArrayOutputStream(256);
+        private final HttpHeaders cabecalhos = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return corpo;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return cabecalhos;
+        }
+    }
+}
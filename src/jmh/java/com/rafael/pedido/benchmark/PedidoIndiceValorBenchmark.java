@@ -0,0 +1,77 @@
+package com.rafael.pedido.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+import com.rafael.pedido.repository.armazenamento.HeapPedidoStore;
+import com.rafael.pedido.repository.armazenamento.OffHeapPedidoStore;
+import com.rafael.pedido.repository.armazenamento.TipoArmazenamento;
+
+/**
+ * Mede as consultas por faixa de valor e dos maiores pedidos no
+ * PedidoRepository com 100 mil, 1 milhão e 10 milhões de pedidos, com os
+ * índices no heap ({@code HEAP}) e fora dele ({@code OFF_HEAP}).
+ * <p>
+ * Os valores são distribuídos uniformemente entre R$ 0,01 e R$ 100.000,00, e
+ * cada consulta por faixa começa em um valor aleatório e lê uma página de 100
+ * pedidos. Como o índice localiza o início da faixa em {@code O(log n)}, o
+ * tempo de cada consulta deve crescer pouco entre as quantidades de pedidos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class PedidoIndiceValorBenchmark {
+
+    private static final long VALOR_MAXIMO = 10_000_000;
+    private static final int PAGINA = 100;
+
+    @Param({ "100000", "1000000", "10000000" })
+    private int pedidos;
+
+    @Param({ "HEAP", "OFF_HEAP" })
+    private TipoArmazenamento armazenamento;
+
+    private PedidoRepository repositorio;
+
+    /**
+     * Cria o repositório com a quantidade de pedidos do parâmetro.
+     */
+    @Setup
+    public void preparar() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        repositorio = new PedidoRepository(
+                armazenamento == TipoArmazenamento.HEAP ? new HeapPedidoStore() : new OffHeapPedidoStore(), null);
+        for (int i = 0; i < pedidos; i++) {
+            repositorio.salvar(new Pedido("pedido-" + i, "Cliente " + i % 1_000, aleatorio.nextLong(1, VALOR_MAXIMO + 1)));
+        }
+    }
+
+    @Benchmark
+    public List<Pedido> consultarPorValor() {
+        long minimo = ThreadLocalRandom.current().nextLong(1, VALOR_MAXIMO + 1);
+        return repositorio.consultarPorValor(minimo, VALOR_MAXIMO, 0, null, PAGINA);
+    }
+
+    @Benchmark
+    public List<Pedido> consultarMaiores() {
+        return repositorio.consultarMaiores(PAGINA);
+    }
+}
@@ -0,0 +1,58 @@
+package com.rafael.pedido.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.pedido.dto.PedidoDTO;
+
+/**
+ * Mede a serialização e a desserialização do PedidoDTO em JSON com o
+ * ObjectMapper configurado como o do Spring Boot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PedidoJsonBenchmark {
+
+    private ObjectMapper mapeador;
+    private PedidoDTO pedido;
+    private byte[] json;
+
+    /**
+     * Cria o ObjectMapper e o JSON desserializado.
+     *
+     * @throws IOException se o pedido não puder ser serializado.
+     */
+    @Setup
+    public void preparar() throws IOException {
+        mapeador = Jackson2ObjectMapperBuilder.json().build();
+        pedido = new PedidoDTO("3f2b8c1e-pedido-123456", "Cliente de Exemplo", 123_456);
+        json = mapeador.writeValueAsBytes(pedido);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        return mapeador.writeValueAsBytes(pedido);
+    }
+
+    @Benchmark
+    public PedidoDTO desserializar() throws IOException {
+        return mapeador.readValue(json, PedidoDTO.class);
+    }
+}
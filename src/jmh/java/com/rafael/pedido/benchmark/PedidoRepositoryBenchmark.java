@@ -0,0 +1,133 @@
+package com.rafael.pedido.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+
+/**
+ * Mede a consulta e a gravação de pedidos no PedidoRepository em memória com
+ * 1, 4 e todas as threads disponíveis.
+ * As gravações substituem pedidos de um conjunto fixo de IDs, de forma que a
+ * memória ocupada não cresça durante a medição.
+ * <p>
+ * A consulta por cliente lê uma página de 100 pedidos a partir de um cursor
+ * aleatório, entre os cerca de mil pedidos de cada cliente.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PedidoRepositoryBenchmark {
+
+    private static final int PEDIDOS = 1 << 20;
+    private static final int PAGINA = 100;
+
+    private PedidoRepository repositorio;
+    private Pedido[] pedidos;
+
+    /**
+     * Cria o repositório com todos os pedidos do conjunto.
+     */
+    @Setup
+    public void preparar() {
+        repositorio = new PedidoRepository();
+        pedidos = new Pedido[PEDIDOS];
+        for (int i = 0; i < pedidos.length; i++) {
+            pedidos[i] = new Pedido("pedido-" + i, "Cliente " + i % 1_000, 1_000 + i % 100_000);
+            repositorio.salvar(pedidos[i]);
+        }
+    }
+
+    /**
+     * Posição de cada thread no conjunto de pedidos, iniciada em um ponto
+     * aleatório para que as threads não acessem os mesmos pedidos.
+     */
+    @State(Scope.Thread)
+    public static class Sequencia {
+
+        private int indice = ThreadLocalRandom.current().nextInt(PEDIDOS);
+
+        int proximo() {
+            return indice++ & (PEDIDOS - 1);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<Pedido> consultar1Thread(Sequencia sequencia) {
+        return consultar(sequencia);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Pedido> consultar4Threads(Sequencia sequencia) {
+        return consultar(sequencia);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Optional<Pedido> consultarNThreads(Sequencia sequencia) {
+        return consultar(sequencia);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void salvar1Thread(Sequencia sequencia) {
+        salvar(sequencia);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void salvar4Threads(Sequencia sequencia) {
+        salvar(sequencia);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void salvarNThreads(Sequencia sequencia) {
+        salvar(sequencia);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<Pedido> consultarPorCliente1Thread(Sequencia sequencia) {
+        return consultarPorCliente(sequencia);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Pedido> consultarPorClienteNThreads(Sequencia sequencia) {
+        return consultarPorCliente(sequencia);
+    }
+
+    private Optional<Pedido> consultar(Sequencia sequencia) {
+        return repositorio.consultar(pedidos[sequencia.proximo()].getId());
+    }
+
+    private List<Pedido> consultarPorCliente(Sequencia sequencia) {
+        Pedido cursor = pedidos[sequencia.proximo()];
+        return repositorio.consultarPorCliente(cursor.getCliente(), cursor.getId(), PAGINA);
+    }
+
+    private void salvar(Sequencia sequencia) {
+        repositorio.salvar(pedidos[sequencia.proximo()]);
+    }
+}
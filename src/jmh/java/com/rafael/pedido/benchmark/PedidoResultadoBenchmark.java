@@ -0,0 +1,165 @@
+package com.rafael.pedido.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.pedido.codec.PedidoJsonCodec;
+import com.rafael.pedido.controller.PedidoController;
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.exception.ErrorResponse;
+import com.rafael.pedido.exception.GlobalExceptionHandler;
+import com.rafael.pedido.idempotencia.IdempotenciaProperties;
+import com.rafael.pedido.idempotencia.RespostasIdempotentes;
+import com.rafael.pedido.metricas.PedidoMetricas;
+import com.rafael.pedido.publisher.OutboxProperties;
+import com.rafael.pedido.publisher.PedidoPublisher;
+import com.rafael.pedido.publisher.PoliticaFilaCheia;
+import com.rafael.pedido.publisher.PublicacaoProperties;
+import com.rafael.pedido.publisher.RelayOutbox;
+import com.rafael.pedido.repository.PedidoRepository;
+import com.rafael.pedido.service.ExportadorPedidos;
+import com.rafael.pedido.service.PedidoService;
+import com.rafael.pedido.service.ResultadoConsulta;
+import com.rafael.pedido.service.ResultadoCriacao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+/**
+ * Mede as respostas 404 da consulta de um pedido inexistente e 409 da criação
+ * de um pedido duplicado, do serviço até o corpo da resposta de erro.
+ * <p>
+ * O parâmetro {@code caminho} compara o {@link PedidoController}, que recebe
+ * do serviço um {@link ResultadoConsulta} ou {@link ResultadoCriacao} e monta
+ * a resposta diretamente, com o caminho anterior, em que o serviço lançava uma
+ * exceção tratada pelo {@link GlobalExceptionHandler}. No caminho anterior a
+ * exceção é tratada aqui mesmo, sem a resolução de exceções do Spring MVC, de
+ * forma que a diferença medida é o custo mínimo das exceções.
+ * <p>
+ * {@link #consultarInexistenteComCorpo()} também escreve o corpo em JSON com
+ * o {@link PedidoJsonCodec}, como o conversor HTTP, de forma que o custo da
+ * criação do {@link ErrorResponse}, do seu horário e da serialização entre na
+ * medida.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PedidoResultadoBenchmark {
+
+    private static final String ID_EXISTENTE = "pedido-existente";
+    private static final PedidoDTO DUPLICADO = new PedidoDTO(ID_EXISTENTE, "Cliente", 1_000);
+
+    @Param({ "excecao", "resultado" })
+    public String caminho;
+
+    private PedidoPublisher publicador;
+    private PedidoService servico;
+    private PedidoController controlador;
+    private GlobalExceptionHandler tratador;
+    private final ByteArrayOutputStream corpo = new ByteArrayOutputStream(256);
+
+    /**
+     * Cria o serviço, o controlador e o repositório com o pedido duplicado.
+     */
+    @Setup(Level.Trial)
+    public void preparar() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        PedidoRepository repositorio = new PedidoRepository();
+        publicador = new PedidoPublisher(pedidos -> {
+        }, new PublicacaoProperties(8192, 500, Duration.ofMillis(20), 1, PoliticaFilaCheia.BLOQUEAR,
+                Duration.ofSeconds(1)), registro);
+        new RelayOutbox(repositorio, publicador, new OutboxProperties(Duration.ofSeconds(1), 500,
+                Duration.ofSeconds(30)), registro);
+        servico = new PedidoService(repositorio, publicador,
+                Validation.buildDefaultValidatorFactory().getValidator(), PedidoMetricas.desabilitadas());
+        controlador = new PedidoController(servico, new ExportadorPedidos(repositorio, new ObjectMapper()),
+                new RespostasIdempotentes(new IdempotenciaProperties(Duration.ofHours(1), 100),
+                        registro));
+        tratador = new GlobalExceptionHandler();
+
+        servico.criarPedido(DUPLICADO);
+    }
+
+    /**
+     * Encerra o publicador.
+     */
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        publicador.close();
+    }
+
+    /**
+     * Consulta um pedido inexistente.
+     *
+     * @return a resposta 404.
+     */
+    @Benchmark
+    public ResponseEntity<?> consultarInexistente() {
+        if ("resultado".equals(caminho)) {
+            return controlador.consultarPedido(null, "pedido-inexistente");
+        }
+        try {
+            if (servico.consultar("pedido-inexistente") instanceof ResultadoConsulta.Encontrado encontrado) {
+                return ResponseEntity.ok(encontrado.pedido());
+            }
+            throw new NoSuchElementException("Pedido não encontrado com o ID informado.");
+        } catch (NoSuchElementException e) {
+            return tratador.tratarExcecaoDeElementoNaoEncontrado(e);
+        }
+    }
+
+    /**
+     * Consulta um pedido inexistente e escreve o corpo da resposta em JSON.
+     *
+     * @return o tamanho do corpo da resposta 404.
+     * @throws IOException se o corpo não puder ser escrito.
+     */
+    @Benchmark
+    public int consultarInexistenteComCorpo() throws IOException {
+        corpo.reset();
+        PedidoJsonCodec.escrever((ErrorResponse) consultarInexistente().getBody(), corpo);
+        return corpo.size();
+    }
+
+    /**
+     * Cria um pedido com o ID de um pedido existente.
+     *
+     * @return a resposta 409, ou 400 no caminho anterior.
+     */
+    @Benchmark
+    public ResponseEntity<?> criarDuplicado() {
+        if ("resultado".equals(caminho)) {
+            return controlador.criarPedido(null, DUPLICADO);
+        }
+        try {
+            if (servico.criarPedido(DUPLICADO) instanceof ResultadoCriacao.Criado criado) {
+                return ResponseEntity.ok(criado.pedido());
+            }
+            throw new IllegalArgumentException("Pedido já existe com o ID informado.");
+        } catch (IllegalArgumentException e) {
+            return tratador.tratarExcecaoDeArgumentoIlegal(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.rafael.pedido.benchmark;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.metricas.PedidoMetricas;
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.publisher.OutboxProperties;
+import com.rafael.pedido.publisher.PedidoPublisher;
+import com.rafael.pedido.publisher.PoliticaFilaCheia;
+import com.rafael.pedido.publisher.PublicacaoProperties;
+import com.rafael.pedido.publisher.RelayOutbox;
+import com.rafael.pedido.repository.PedidoRepository;
+import com.rafael.pedido.service.PedidoService;
+import com.rafael.pedido.service.ResultadoConsulta;
+import com.rafael.pedido.service.ResultadoCriacao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.validation.Validation;
+
+/**
+ * Mede a criação e a consulta de um pedido pelo PedidoService, com o
+ * repositório em memória e o publicador assíncrono publicando em um canal sem
+ * custo. O serviço é recriado a cada iteração, de forma que os pedidos
+ * criados não se acumulem entre as iterações.
+ * <p>
+ * O parâmetro {@code metricas} compara o serviço sem métricas com o serviço
+ * publicando as métricas em um registro do Prometheus, medindo o custo da
+ * instrumentação.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PedidoServiceBenchmark {
+
+    private static final int PEDIDOS_EXISTENTES = 1 << 17;
+
+    @Param({ "desabilitadas", "prometheus" })
+    public String metricas;
+
+    private PedidoPublisher publicador;
+    private PedidoService servico;
+    private String[] ids;
+
+    /**
+     * Cria o serviço e o repositório com os pedidos consultados.
+     */
+    @Setup(Level.Iteration)
+    public void preparar() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        PedidoRepository repositorio = new PedidoRepository();
+        publicador = new PedidoPublisher(pedidos -> {
+        }, new PublicacaoProperties(8192, 500, Duration.ofMillis(20), 1, PoliticaFilaCheia.BLOQUEAR,
+                Duration.ofSeconds(1)), registro);
+        new RelayOutbox(repositorio, publicador, new OutboxProperties(Duration.ofSeconds(1), 500,
+                Duration.ofSeconds(30)), registro);
+        PedidoMetricas pedidoMetricas = "prometheus".equals(metricas)
+                ? new PedidoMetricas(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT))
+                : PedidoMetricas.desabilitadas();
+        servico = new PedidoService(repositorio, publicador,
+                Validation.buildDefaultValidatorFactory().getValidator(), pedidoMetricas);
+
+        ids = new String[PEDIDOS_EXISTENTES];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "pedido-" + i;
+            repositorio.salvar(new Pedido(ids[i], "Cliente " + i % 1_000, 1_000 + i % 100_000));
+        }
+        repositorio.confirmarEnvio(Arrays.asList(ids));
+    }
+
+    /**
+     * Encerra o publicador da iteração.
+     */
+    @TearDown(Level.Iteration)
+    public void encerrar() {
+        publicador.close();
+    }
+
+    /**
+     * Sequência de IDs de cada thread do benchmark.
+     */
+    @State(Scope.Thread)
+    public static class Sequencia {
+
+        private final String prefixo = UUID.randomUUID() + "-";
+        private long proximoId;
+        private int proximoIndice;
+
+        String novoId() {
+            return prefixo + proximoId++;
+        }
+
+        int proximoIndice() {
+            return proximoIndice++ & (PEDIDOS_EXISTENTES - 1);
+        }
+    }
+
+    /**
+     * Cria um pedido com um ID novo.
+     *
+     * @param sequencia a sequência de IDs da thread.
+     * @return o resultado da criação.
+     */
+    @Benchmark
+    public ResultadoCriacao criarPedido(Sequencia sequencia) {
+        return servico.criarPedido(new PedidoDTO(sequencia.novoId(), "Cliente", 1_000));
+    }
+
+    /**
+     * Consulta um pedido existente.
+     *
+     * @param sequencia a sequência de IDs da thread.
+     * @return o resultado da consulta.
+     */
+    @Benchmark
+    public ResultadoConsulta consultar(Sequencia sequencia) {
+        return servico.consultar(ids[sequencia.proximoIndice()]);
+    }
+}
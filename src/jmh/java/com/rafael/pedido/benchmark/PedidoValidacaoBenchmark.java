@@ -0,0 +1,58 @@
+package com.rafael.pedido.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rafael.pedido.dto.PedidoDTO;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+/**
+ * Mede a validação do PedidoDTO pelo Bean Validation, com um pedido válido e
+ * com um pedido que viola todas as restrições.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PedidoValidacaoBenchmark {
+
+    private Validator validador;
+    private PedidoDTO pedidoValido;
+    private PedidoDTO pedidoInvalido;
+
+    /**
+     * Cria o validador e os pedidos validados.
+     */
+    @Setup
+    public void preparar() {
+        validador = Validation.buildDefaultValidatorFactory().getValidator();
+        pedidoValido = new PedidoDTO("pedido-1", "Cliente de Exemplo", 123_456);
+        pedidoInvalido = new PedidoDTO("", " ", -100);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PedidoDTO>> validarPedidoValido() {
+        return validador.validate(pedidoValido);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PedidoDTO>> validarPedidoInvalido() {
+        return validador.validate(pedidoInvalido);
+    }
+}
@@ -0,0 +1,72 @@
+package com.rafael.pedido.admissao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuração responsável por registrar o controle de admissão na frente
+ * da criação e das consultas de pedidos do Spring MVC. A exportação fica de
+ * fora, já que a sua duração depende da quantidade de pedidos e não da carga.
+ * Com {@code pedido.admissao.habilitada=false}, todas as requisições são
+ * admitidas.
+ * <p>
+ * Com as threads de plataforma do Tomcat, os limites de cada classe e a soma
+ * das requisições admitidas são reduzidos a {@code server.tomcat.threads.max}:
+ * as requisições acima dessa quantidade aguardariam uma thread na fila do
+ * Tomcat, antes do interceptador, onde a sua espera não entra na latência que
+ * ajusta os limites e onde elas nunca seriam recusadas. Com as threads
+ * virtuais, não há essa fila e os limites configurados são mantidos.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissaoProperties.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdmissaoConfig implements WebMvcConfigurer {
+
+    private final AdmissaoProperties propriedades;
+    private final ControleAdmissao controle;
+
+    /**
+     * Construtor da configuração do controle de admissão.
+     *
+     * @param propriedades     os limites de cada classe de requisição.
+     * @param serverProperties as configurações do servidor, com a quantidade
+     *                         máxima de threads do Tomcat.
+     * @param environment      o ambiente, usado para verificar se as threads
+     *                         virtuais estão habilitadas.
+     * @param meterRegistry    o registro onde as métricas são publicadas.
+     */
+    public AdmissaoConfig(AdmissaoProperties propriedades, ServerProperties serverProperties,
+            Environment environment, MeterRegistry meterRegistry) {
+        this.propriedades = propriedades;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.controle = new ControleAdmissao(propriedades, Integer.MAX_VALUE, meterRegistry);
+        } else {
+            int threads = serverProperties.getTomcat().getThreads().getMax();
+            this.controle = new ControleAdmissao(propriedades.limitadaA(threads), threads, meterRegistry);
+        }
+    }
+
+    /**
+     * Registra o interceptador do controle de admissão nos endpoints de
+     * pedidos.
+     *
+     * @param registry o registro dos interceptadores do Spring MVC.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!propriedades.habilitada()) {
+            return;
+        }
+        registry.addInterceptor(new InterceptadorAdmissao(controle))
+                .addPathPatterns("/pedidos", "/pedidos/**")
+                .excludePathPatterns("/pedidos/exportacao");
+    }
+}
@@ -0,0 +1,68 @@
+package com.rafael.pedido.admissao;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurações do controle de admissão das requisições de pedidos.
+ *
+ * @param habilitada Se as requisições excedentes são recusadas com o status
+ *                   503.
+ * @param prioridade A classe com prioridade: enquanto ela estiver no seu
+ *                   limite, as requisições da outra classe são recusadas.
+ * @param retryAfter O tempo informado no cabeçalho {@code Retry-After} das
+ *                   requisições recusadas.
+ * @param criacao    O limite de concorrência da criação de pedidos.
+ * @param leitura    O limite de concorrência das consultas de pedidos.
+ */
+@ConfigurationProperties(prefix = "pedido.admissao")
+public record AdmissaoProperties(
+        @DefaultValue("true") boolean habilitada,
+        @DefaultValue("CRIACAO") ClasseRequisicao prioridade,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue Limite criacao,
+        @DefaultValue Limite leitura) {
+
+    /**
+     * Retorna as configurações com o limite máximo de cada classe reduzido a
+     * uma concorrência máxima, como a quantidade de threads do servidor.
+     *
+     * @param concorrenciaMaxima a concorrência máxima de cada classe.
+     * @return as configurações com os limites reduzidos.
+     */
+    public AdmissaoProperties limitadaA(int concorrenciaMaxima) {
+        return new AdmissaoProperties(habilitada, prioridade, retryAfter, criacao.limitadoA(concorrenciaMaxima),
+                leitura.limitadoA(concorrenciaMaxima));
+    }
+
+    /**
+     * Configurações do limite adaptativo de concorrência de uma classe de
+     * requisições.
+     *
+     * @param limiteInicial  O limite antes da primeira medição.
+     * @param limiteMinimo   O menor limite, mantido mesmo com a latência
+     *                       acima da máxima.
+     * @param limiteMaximo   O maior limite.
+     * @param latenciaMaxima A latência a partir da qual o limite é reduzido.
+     * @param fatorReducao   O fator aplicado ao limite a cada redução.
+     */
+    public record Limite(
+            @DefaultValue("100") int limiteInicial,
+            @DefaultValue("10") int limiteMinimo,
+            @DefaultValue("1000") int limiteMaximo,
+            @DefaultValue("50ms") Duration latenciaMaxima,
+            @DefaultValue("0.9") double fatorReducao) {
+
+        /**
+         * Retorna o limite com o máximo reduzido à concorrência informada e o
+         * inicial e o mínimo ajustados para não passarem do novo máximo.
+         */
+        Limite limitadoA(int concorrenciaMaxima) {
+            int maximo = Math.min(limiteMaximo, concorrenciaMaxima);
+            return new Limite(Math.min(limiteInicial, maximo), Math.min(limiteMinimo, maximo), maximo,
+                    latenciaMaxima, fatorReducao);
+        }
+    }
+}
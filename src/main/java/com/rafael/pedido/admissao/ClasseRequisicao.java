@@ -0,0 +1,14 @@
+package com.rafael.pedido.admissao;
+
+/**
+ * Classes das requisições de pedidos, cada uma com o seu próprio limite de
+ * concorrência no {@link ControleAdmissao}.
+ */
+public enum ClasseRequisicao {
+
+    /** Criação de pedidos, individual ou em lote. */
+    CRIACAO,
+
+    /** Consultas de pedidos, por ID, em lote, por cliente ou por valor. */
+    LEITURA
+}
@@ -0,0 +1,150 @@
+package com.rafael.pedido.admissao;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Controle de admissão das requisições de pedidos, com um
+ * {@link LimiteAdaptativo} de concorrência para cada
+ * {@link ClasseRequisicao}.
+ * <p>
+ * Uma requisição é admitida enquanto a concorrência da sua classe estiver
+ * abaixo do limite; caso contrário, é recusada na hora com
+ * {@link SobrecargaException}, sem aguardar em fila. As requisições da classe
+ * sem prioridade também são recusadas enquanto a classe com prioridade
+ * estiver no seu limite, de forma que, na sobrecarga, elas sejam descartadas
+ * primeiro. Além dos limites das classes, a soma das requisições admitidas
+ * de todas as classes não passa de um limite total, como a quantidade de
+ * threads do servidor, para que as requisições admitidas não aguardem uma
+ * thread em uma fila que a latência medida não enxerga.
+ * <p>
+ * O limite e a concorrência de cada classe são publicados nos medidores
+ * {@code pedido.admissao.limite} e {@code pedido.admissao.concorrencia}, e as
+ * recusas no contador {@code pedido.admissao.recusadas}, com a tag
+ * {@code classe}.
+ */
+public class ControleAdmissao {
+
+    private final Map<ClasseRequisicao, LimiteAdaptativo> limites = new EnumMap<>(ClasseRequisicao.class);
+    private final Map<ClasseRequisicao, Counter> recusadas = new EnumMap<>(ClasseRequisicao.class);
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final int limiteTotal;
+    private final ClasseRequisicao prioridade;
+    private final Duration retryAfter;
+
+    /**
+     * Construtor do controle de admissão.
+     *
+     * @param propriedades  os limites de cada classe, a prioridade e o tempo
+     *                      do {@code Retry-After}.
+     * @param limiteTotal   a quantidade máxima de requisições admitidas de
+     *                      todas as classes ao mesmo tempo.
+     * @param meterRegistry o registro onde as métricas são publicadas.
+     */
+    public ControleAdmissao(AdmissaoProperties propriedades, int limiteTotal, MeterRegistry meterRegistry) {
+        this(propriedades, limiteTotal, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * Construtor com o relógio informado, usado nos testes do ajuste dos
+     * limites.
+     */
+    ControleAdmissao(AdmissaoProperties propriedades, int limiteTotal, MeterRegistry meterRegistry,
+            LongSupplier relogio) {
+        this.limiteTotal = limiteTotal;
+        this.prioridade = propriedades.prioridade();
+        this.retryAfter = propriedades.retryAfter();
+        limites.put(ClasseRequisicao.CRIACAO, new LimiteAdaptativo(propriedades.criacao(), relogio));
+        limites.put(ClasseRequisicao.LEITURA, new LimiteAdaptativo(propriedades.leitura(), relogio));
+
+        for (Map.Entry<ClasseRequisicao, LimiteAdaptativo> entrada : limites.entrySet()) {
+            String classe = entrada.getKey().name().toLowerCase(Locale.ROOT);
+            LimiteAdaptativo limite = entrada.getValue();
+            Gauge.builder("pedido.admissao.limite", limite, LimiteAdaptativo::limite)
+                    .description("Limite de concorrência das requisições admitidas")
+                    .tag("classe", classe)
+                    .register(meterRegistry);
+            Gauge.builder("pedido.admissao.concorrencia", limite, LimiteAdaptativo::emUso)
+                    .description("Requisições admitidas em andamento")
+                    .tag("classe", classe)
+                    .register(meterRegistry);
+            recusadas.put(entrada.getKey(), Counter.builder("pedido.admissao.recusadas")
+                    .description("Requisições recusadas por sobrecarga")
+                    .tag("classe", classe)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Método responsável por admitir uma requisição da classe informada.
+     *
+     * @param classe A classe da requisição.
+     * @return A permissão da requisição, que deve ser liberada ao terminar.
+     * @throws SobrecargaException Se a classe ou o total estiverem no seu
+     *                             limite ou, sem prioridade, se a classe com
+     *                             prioridade estiver no dela.
+     */
+    public Permissao admitir(ClasseRequisicao classe) {
+        LimiteAdaptativo limite = limites.get(classe);
+        boolean cedeLugar = classe != prioridade && limites.get(prioridade).saturado();
+        if (cedeLugar || !reservarTotal()) {
+            throw recusar(classe);
+        }
+        if (!limite.tentarAdmitir()) {
+            emAndamento.decrementAndGet();
+            throw recusar(classe);
+        }
+        return new Permissao(this, limite, limite.agora());
+    }
+
+    private boolean reservarTotal() {
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= limiteTotal) {
+                return false;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private SobrecargaException recusar(ClasseRequisicao classe) {
+        recusadas.get(classe).increment();
+        return new SobrecargaException("Servidor sobrecarregado, tente novamente mais tarde.", retryAfter);
+    }
+
+    /**
+     * Permissão de uma requisição admitida, liberada ao terminar a requisição
+     * para que a sua latência ajuste o limite da classe.
+     */
+    public static final class Permissao {
+
+        private final ControleAdmissao controle;
+        private final LimiteAdaptativo limite;
+        private final long inicio;
+
+        private Permissao(ControleAdmissao controle, LimiteAdaptativo limite, long inicio) {
+            this.controle = controle;
+            this.limite = limite;
+            this.inicio = inicio;
+        }
+
+        /**
+         * Libera a requisição e ajusta o limite da classe pela latência
+         * desde a admissão.
+         */
+        public void liberar() {
+            limite.liberar(inicio);
+            controle.emAndamento.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.rafael.pedido.admissao;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Interceptador do Spring MVC que passa as requisições de pedidos pelo
+ * {@link ControleAdmissao} antes do controlador. As criações
+ * ({@code POST /pedidos} e {@code POST /pedidos/lote}) e as consultas (os
+ * demais endpoints, incluindo {@code POST /pedidos/busca}) são admitidas em
+ * classes separadas. Uma requisição recusada lança
+ * {@link SobrecargaException}, respondida com o status 503 pelo tratamento
+ * global de exceções.
+ */
+class InterceptadorAdmissao implements HandlerInterceptor {
+
+    private static final String ATRIBUTO_PERMISSAO = InterceptadorAdmissao.class.getName() + ".permissao";
+    private static final String CAMINHO_BUSCA = "/pedidos/busca";
+
+    private final ControleAdmissao controle;
+
+    /**
+     * Construtor do interceptador.
+     *
+     * @param controleAdmissao o controle que admite ou recusa as requisições.
+     */
+    InterceptadorAdmissao(ControleAdmissao controleAdmissao) {
+        this.controle = controleAdmissao;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(ATRIBUTO_PERMISSAO, controle.admitir(classificar(request)));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (request.getAttribute(ATRIBUTO_PERMISSAO) instanceof ControleAdmissao.Permissao permissao) {
+            request.removeAttribute(ATRIBUTO_PERMISSAO);
+            permissao.liberar();
+        }
+    }
+
+    private static ClasseRequisicao classificar(HttpServletRequest request) {
+        boolean criacao = "POST".equals(request.getMethod())
+                && !request.getRequestURI().endsWith(CAMINHO_BUSCA);
+        return criacao ? ClasseRequisicao.CRIACAO : ClasseRequisicao.LEITURA;
+    }
+}
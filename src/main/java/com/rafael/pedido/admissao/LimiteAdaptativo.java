@@ -0,0 +1,112 @@
+package com.rafael.pedido.admissao;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de concorrência ajustado pela latência observada, no modelo AIMD
+ * (aumento aditivo, redução multiplicativa) do controle de congestionamento
+ * do TCP.
+ * <p>
+ * Cada requisição concluída dentro da latência máxima, com a concorrência
+ * acima da metade do limite, aumenta o limite em {@code 1 / limite}, ou seja,
+ * em uma unidade a cada limite de requisições. Uma requisição acima da
+ * latência máxima multiplica o limite pelo fator de redução, no máximo uma vez
+ * a cada latência máxima, de forma que as requisições lentas admitidas antes
+ * da redução não o reduzam novamente.
+ */
+final class LimiteAdaptativo {
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final long latenciaMaximaNanos;
+    private final double fatorReducao;
+    private final LongSupplier relogio;
+    private final AtomicInteger emUso = new AtomicInteger();
+
+    private volatile double limite;
+    private long ultimaReducao;
+
+    /**
+     * Construtor do limite adaptativo.
+     *
+     * @param configuracao os limites, a latência máxima e o fator de redução.
+     * @param relogio      o relógio em nanossegundos, como
+     *                     {@link System#nanoTime()}.
+     */
+    LimiteAdaptativo(AdmissaoProperties.Limite configuracao, LongSupplier relogio) {
+        if (configuracao.limiteMinimo() < 1 || configuracao.limiteMaximo() < configuracao.limiteMinimo()
+                || configuracao.fatorReducao() <= 0 || configuracao.fatorReducao() >= 1) {
+            throw new IllegalArgumentException("Limite de admissão inválido: " + configuracao);
+        }
+        this.limiteMinimo = configuracao.limiteMinimo();
+        this.limiteMaximo = configuracao.limiteMaximo();
+        this.latenciaMaximaNanos = configuracao.latenciaMaxima().toNanos();
+        this.fatorReducao = configuracao.fatorReducao();
+        this.relogio = relogio;
+        this.limite = Math.max(limiteMinimo, Math.min(limiteMaximo, configuracao.limiteInicial()));
+        this.ultimaReducao = relogio.getAsLong() - latenciaMaximaNanos;
+    }
+
+    /**
+     * Admite uma requisição se a concorrência estiver abaixo do limite.
+     *
+     * @return True se a requisição foi admitida e deve ser liberada com
+     *         {@link #liberar(long)} ao terminar.
+     */
+    boolean tentarAdmitir() {
+        while (true) {
+            int atual = emUso.get();
+            if (atual >= (int) limite) {
+                return false;
+            }
+            if (emUso.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera uma requisição admitida e ajusta o limite pela sua latência.
+     *
+     * @param inicio o instante da admissão, no relógio do limite.
+     */
+    void liberar(long inicio) {
+        long agora = relogio.getAsLong();
+        int concorrencia = emUso.getAndDecrement();
+        ajustar(agora - inicio, concorrencia, agora);
+    }
+
+    /**
+     * Retorna o instante atual no relógio do limite.
+     */
+    long agora() {
+        return relogio.getAsLong();
+    }
+
+    /**
+     * Verifica se a concorrência atingiu o limite.
+     */
+    boolean saturado() {
+        return emUso.get() >= (int) limite;
+    }
+
+    int limite() {
+        return (int) limite;
+    }
+
+    int emUso() {
+        return emUso.get();
+    }
+
+    private synchronized void ajustar(long latencia, int concorrencia, long agora) {
+        if (latencia > latenciaMaximaNanos) {
+            if (agora - ultimaReducao >= latenciaMaximaNanos) {
+                limite = Math.max(limiteMinimo, limite * fatorReducao);
+                ultimaReducao = agora;
+            }
+        } else if (concorrencia * 2 >= limite) {
+            limite = Math.min(limiteMaximo, limite + 1 / limite);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.rafael.pedido.admissao;
+
+import java.time.Duration;
+
+/**
+ * Exceção lançada quando o {@link ControleAdmissao} recusa uma requisição
+ * porque a sua classe atingiu o limite de concorrência. Como as recusas são
+ * numerosas justamente durante a sobrecarga, a exceção não guarda o stack
+ * trace.
+ */
+public class SobrecargaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    /**
+     * Construtor da exceção.
+     *
+     * @param mensagem   A mensagem de erro.
+     * @param retryAfter O tempo após o qual o cliente pode tentar novamente.
+     */
+    public SobrecargaException(String mensagem, Duration retryAfter) {
+        super(mensagem, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Retorna o tempo após o qual o cliente pode tentar novamente.
+     *
+     * @return O tempo informado no cabeçalho {@code Retry-After}.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,26 @@
+package com.rafael.pedido.codec;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuração responsável por registrar o conversor do formato binário
+ * {@value PedidoBinarioHttpMessageConverter#TIPO_PEDIDO_BINARIO} no Spring MVC.
+ */
+@Configuration
+public class BinarioConfig implements WebMvcConfigurer {
+
+    /**
+     * Registra o conversor depois dos demais, para que o JSON continue sendo
+     * o formato das respostas quando o cliente aceita qualquer formato.
+     *
+     * @param converters os conversores do Spring MVC.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new PedidoBinarioHttpMessageConverter());
+    }
+}
@@ -0,0 +1,20 @@
+package com.rafael.pedido.codec;
+
+/**
+ * Exceção lançada quando o conteúdo lido pelo {@link PedidoBinarioCodec} está
+ * truncado, malformado ou não corresponde a um pedido.
+ */
+public class BinarioInvalidoException extends IllegalArgumentException {
+
+    /**
+     * Construtor da exceção com a descrição do erro e a posição em que ele foi
+     * encontrado.
+     *
+     * @param mensagem A descrição do erro.
+     * @param posicao  A posição do erro, em bytes, a partir do início do
+     *                 conteúdo.
+     */
+    public BinarioInvalidoException(String mensagem, int posicao) {
+        super(mensagem + " (posição " + posicao + ")");
+    }
+}
@@ -0,0 +1,31 @@
+package com.rafael.pedido.codec;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuração responsável por registrar o conversor JSON próprio do
+ * {@link com.rafael.pedido.dto.PedidoDTO} e do
+ * {@link com.rafael.pedido.exception.ErrorResponse} no Spring MVC. Com
+ * {@code pedido.codec.habilitado=false}, os dois tipos voltam a ser
+ * convertidos pelo Jackson.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "pedido.codec", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class CodecConfig implements WebMvcConfigurer {
+
+    /**
+     * Registra o conversor antes dos demais, para que ele seja escolhido no
+     * lugar do conversor do Jackson.
+     *
+     * @param converters os conversores do Spring MVC.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new PedidoJsonHttpMessageConverter());
+    }
+}
@@ -0,0 +1,216 @@
+package com.rafael.pedido.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Escrita de um documento JSON em UTF-8 em um buffer de bytes, enviado à saída
+ * de uma só vez ao final.
+ * <p>
+ * Os textos são escapados como no gerador do Jackson: aspas, barra invertida
+ * e caracteres de controle, estes com os escapes curtos, como {@code \n}, ou
+ * com o código hexadecimal em maiúsculas. Os pares substitutos, como os dos
+ * emojis, também são escritos com o código hexadecimal de cada metade, como
+ * faz o Jackson; os demais caracteres são escritos em UTF-8, sem escape.
+ */
+final class EscritorJson {
+
+    private static final byte[] HEXADECIMAL = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULO = { 'n', 'u', 'l', 'l' };
+
+    /** Escape de cada caractere ASCII: 0 sem escape, 'u' para o código hexadecimal, ou a letra do escape curto. */
+    private static final byte[] ESCAPES = new byte[128];
+
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            ESCAPES[i] = 'u';
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+    }
+
+    private byte[] buffer;
+    private int tamanho;
+
+    /**
+     * Construtor do escritor com a capacidade inicial do buffer.
+     *
+     * @param capacidade A quantidade de bytes reservada inicialmente.
+     */
+    EscritorJson(int capacidade) {
+        this.buffer = new byte[capacidade];
+    }
+
+    /**
+     * Escreve bytes já codificados, como os nomes dos campos com a pontuação.
+     */
+    void bruto(byte[] bytes) {
+        garantir(bytes.length);
+        System.arraycopy(bytes, 0, buffer, tamanho, bytes.length);
+        tamanho += bytes.length;
+    }
+
+    /**
+     * Escreve um texto entre aspas, ou {@code null}.
+     */
+    void texto(String texto) {
+        if (texto == null) {
+            bruto(NULO);
+            return;
+        }
+        int quantidade = texto.length();
+        garantir(quantidade * 6 + 2);
+        byte[] saida = buffer;
+        int posicao = tamanho;
+        saida[posicao++] = '"';
+        for (int i = 0; i < quantidade; i++) {
+            char caractere = texto.charAt(i);
+            if (caractere < 0x80) {
+                byte escape = ESCAPES[caractere];
+                if (escape == 0) {
+                    saida[posicao++] = (byte) caractere;
+                } else if (escape == 'u') {
+                    saida[posicao++] = '\\';
+                    saida[posicao++] = 'u';
+                    saida[posicao++] = '0';
+                    saida[posicao++] = '0';
+                    saida[posicao++] = HEXADECIMAL[caractere >> 4];
+                    saida[posicao++] = HEXADECIMAL[caractere & 0xf];
+                } else {
+                    saida[posicao++] = '\\';
+                    saida[posicao++] = escape;
+                }
+            } else if (caractere < 0x800) {
+                saida[posicao++] = (byte) (0xc0 | caractere >> 6);
+                saida[posicao++] = (byte) (0x80 | caractere & 0x3f);
+            } else if (Character.isSurrogate(caractere)) {
+                saida[posicao++] = '\\';
+                saida[posicao++] = 'u';
+                saida[posicao++] = HEXADECIMAL[caractere >> 12];
+                saida[posicao++] = HEXADECIMAL[caractere >> 8 & 0xf];
+                saida[posicao++] = HEXADECIMAL[caractere >> 4 & 0xf];
+                saida[posicao++] = HEXADECIMAL[caractere & 0xf];
+            } else {
+                saida[posicao++] = (byte) (0xe0 | caractere >> 12);
+                saida[posicao++] = (byte) (0x80 | caractere >> 6 & 0x3f);
+                saida[posicao++] = (byte) (0x80 | caractere & 0x3f);
+            }
+        }
+        saida[posicao++] = '"';
+        tamanho = posicao;
+    }
+
+    /**
+     * Escreve um número inteiro.
+     */
+    void numero(int valor) {
+        garantir(11);
+        if (valor < 0) {
+            buffer[tamanho++] = '-';
+        }
+        digitos(Math.abs((long) valor), 1);
+    }
+
+    /**
+     * Escreve um valor em centavos como um número decimal com duas casas, como
+     * {@code 1234.50}.
+     */
+    void centavos(long centavos) {
+        garantir(22);
+        if (centavos < 0) {
+            buffer[tamanho++] = '-';
+        }
+        digitos(Math.abs(centavos / 100), 1);
+        buffer[tamanho++] = '.';
+        digitos(Math.abs(centavos % 100), 2);
+    }
+
+    /**
+     * Escreve uma data e hora entre aspas no formato ISO-8601, como o
+     * {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}: os segundos sempre
+     * presentes e a fração somente com os dígitos significativos.
+     */
+    void dataHora(LocalDateTime dataHora) {
+        if (dataHora == null) {
+            bruto(NULO);
+            return;
+        }
+        if (dataHora.getYear() < 0 || dataHora.getYear() > 9999) {
+            texto(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dataHora));
+            return;
+        }
+        garantir(31);
+        buffer[tamanho++] = '"';
+        digitos(dataHora.getYear(), 4);
+        buffer[tamanho++] = '-';
+        digitos(dataHora.getMonthValue(), 2);
+        buffer[tamanho++] = '-';
+        digitos(dataHora.getDayOfMonth(), 2);
+        buffer[tamanho++] = 'T';
+        digitos(dataHora.getHour(), 2);
+        buffer[tamanho++] = ':';
+        digitos(dataHora.getMinute(), 2);
+        buffer[tamanho++] = ':';
+        digitos(dataHora.getSecond(), 2);
+        int nano = dataHora.getNano();
+        if (nano > 0) {
+            int casas = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                casas--;
+            }
+            buffer[tamanho++] = '.';
+            digitos(nano, casas);
+        }
+        buffer[tamanho++] = '"';
+    }
+
+    /**
+     * Envia os bytes escritos para a saída.
+     *
+     * @param saida A saída do documento.
+     * @throws IOException Se a escrita na saída falhar.
+     */
+    void escreverEm(OutputStream saida) throws IOException {
+        saida.write(buffer, 0, tamanho);
+    }
+
+    /**
+     * Retorna uma cópia dos bytes escritos.
+     */
+    byte[] bytes() {
+        return Arrays.copyOf(buffer, tamanho);
+    }
+
+    /**
+     * Escreve um número não negativo com ao menos a quantidade de dígitos
+     * informada, completando com zeros à esquerda.
+     */
+    private void digitos(long valor, int minimo) {
+        int quantidade = 1;
+        for (long resto = valor / 10; resto > 0; resto /= 10) {
+            quantidade++;
+        }
+        quantidade = Math.max(quantidade, minimo);
+        for (int i = tamanho + quantidade - 1; i >= tamanho; i--) {
+            buffer[i] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        }
+        tamanho += quantidade;
+    }
+
+    private void garantir(int adicionais) {
+        if (tamanho + adicionais > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, tamanho + adicionais));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.rafael.pedido.codec;
+
+/**
+ * Exceção lançada quando o JSON lido pelo {@link PedidoJsonCodec} está
+ * malformado ou não corresponde a um pedido.
+ */
+public class JsonInvalidoException extends IllegalArgumentException {
+
+    /**
+     * Construtor da exceção com a descrição do erro e a posição em que ele foi
+     * encontrado.
+     *
+     * @param mensagem A descrição do erro.
+     * @param posicao  A posição do erro, em bytes, a partir do início do JSON.
+     */
+    public JsonInvalidoException(String mensagem, int posicao) {
+        super(mensagem + " (posição " + posicao + ")");
+    }
+}
@@ -0,0 +1,418 @@
+package com.rafael.pedido.codec;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.rafael.pedido.model.Centavos;
+
+/**
+ * Leitura de um documento JSON em UTF-8 diretamente dos bytes, sem montar
+ * árvore nem mapa intermediário. Os campos de um objeto são percorridos na
+ * ordem do documento e os valores são convertidos assim que lidos.
+ * <p>
+ * Segue as mesmas regras do ObjectMapper do Spring Boot para os tipos lidos
+ * pelo {@link PedidoJsonCodec}: números, {@code true} e {@code false} são
+ * aceitos onde se espera um texto, {@code null} em um valor monetário é lido
+ * como zero e campos desconhecidos são ignorados.
+ */
+final class LeitorJson {
+
+    private static final String MENSAGEM_VALOR_INVALIDO = "Valor monetário inválido ou com mais de duas casas decimais.";
+    private static final int PROFUNDIDADE_MAXIMA = 1_000;
+    /** Dígitos inteiros que cabem em um {@code long} depois de somadas as duas casas decimais. */
+    private static final int MAXIMO_DIGITOS_RAPIDOS = 16;
+    private static final byte[] NULO = { 'n', 'u', 'l', 'l' };
+    private static final byte[] VERDADEIRO = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSO = { 'f', 'a', 'l', 's', 'e' };
+
+    private final byte[] json;
+    private final int inicio;
+    private final int fim;
+    private int posicao;
+
+    /**
+     * Construtor do leitor de um trecho de um array de bytes.
+     *
+     * @param json   Os bytes do documento.
+     * @param inicio A posição do primeiro byte do documento.
+     * @param fim    A posição seguinte ao último byte do documento.
+     */
+    LeitorJson(byte[] json, int inicio, int fim) {
+        this.json = json;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.posicao = inicio;
+    }
+
+    /**
+     * Retorna o próximo byte depois dos espaços, sem consumi-lo.
+     *
+     * @return O próximo byte, ou -1 no fim do documento.
+     */
+    int proximo() {
+        while (posicao < fim) {
+            byte b = json[posicao];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return b;
+            }
+            posicao++;
+        }
+        return -1;
+    }
+
+    /**
+     * Consome o caractere informado, se ele for o próximo depois dos espaços.
+     *
+     * @param caractere O caractere estrutural esperado.
+     * @return True se o caractere foi consumido.
+     */
+    boolean consumir(char caractere) {
+        if (proximo() == caractere) {
+            posicao++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consome o caractere informado, que deve ser o próximo depois dos
+     * espaços.
+     *
+     * @param caractere O caractere estrutural esperado.
+     * @throws JsonInvalidoException Se o próximo caractere for outro.
+     */
+    void esperar(char caractere) {
+        if (!consumir(caractere)) {
+            throw erro("Esperado '" + caractere + "'");
+        }
+    }
+
+    /**
+     * Lê o literal {@code null}.
+     *
+     * @throws JsonInvalidoException Se o próximo valor não for nulo.
+     */
+    void lerNulo() {
+        proximo();
+        literal(NULO);
+    }
+
+    /**
+     * Lê o nome de um campo e o compara com os nomes conhecidos, sem criar
+     * uma String quando o nome não tem sequências de escape.
+     *
+     * @param nomes Os nomes conhecidos, em UTF-8.
+     * @return A posição do nome lido em {@code nomes}, ou -1 se ele for
+     *         desconhecido.
+     */
+    int lerCampo(byte[][] nomes) {
+        if (proximo() != '"') {
+            throw erro("Esperado o nome de um campo");
+        }
+        int inicioTexto = ++posicao;
+        while (posicao < fim && json[posicao] != '"' && json[posicao] != '\\' && (json[posicao] & 0xff) >= 0x20) {
+            posicao++;
+        }
+        if (posicao < fim && json[posicao] == '"') {
+            int tamanho = posicao++ - inicioTexto;
+            for (int i = 0; i < nomes.length; i++) {
+                if (Arrays.equals(json, inicioTexto, inicioTexto + tamanho, nomes[i], 0, nomes[i].length)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        posicao = inicioTexto - 1;
+        String nome = lerTexto();
+        for (int i = 0; i < nomes.length; i++) {
+            if (nome.equals(new String(nomes[i], StandardCharsets.UTF_8))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lê um valor que deve ser um texto. Números e os literais {@code true} e
+     * {@code false} são lidos como o seu texto.
+     *
+     * @return O texto lido, ou nulo para o literal {@code null}.
+     * @throws JsonInvalidoException Se o valor for um objeto ou um array.
+     */
+    String lerTextoOuEscalar() {
+        int b = proximo();
+        if (b == '"') {
+            return lerTexto();
+        }
+        if (b == 'n') {
+            literal(NULO);
+            return null;
+        }
+        if (b == 't') {
+            literal(VERDADEIRO);
+            return "true";
+        }
+        if (b == 'f') {
+            literal(FALSO);
+            return "false";
+        }
+        if (b == '-' || (b >= '0' && b <= '9')) {
+            int inicioNumero = posicao;
+            lerNumero();
+            return new String(json, inicioNumero, posicao - inicioNumero, StandardCharsets.ISO_8859_1);
+        }
+        throw erro("Esperado um texto");
+    }
+
+    /**
+     * Lê um valor monetário decimal como centavos, sem passar por
+     * {@code double}.
+     *
+     * @return O valor em centavos, ou zero para o literal {@code null}.
+     * @throws JsonInvalidoException Se o valor não for um número, tiver mais
+     *                               de duas casas decimais ou não couber em um
+     *                               {@code long}.
+     */
+    long lerCentavos() {
+        int b = proximo();
+        if (b == 'n') {
+            literal(NULO);
+            return 0;
+        }
+        if (b != '-' && (b < '0' || b > '9')) {
+            throw erro("Esperado um número");
+        }
+
+        int inicioNumero = posicao;
+        boolean decimal = lerNumero();
+        int ponto = -1;
+        boolean expoente = false;
+        for (int i = inicioNumero; i < posicao; i++) {
+            if (json[i] == '.') {
+                ponto = i;
+            } else if (json[i] == 'e' || json[i] == 'E') {
+                expoente = true;
+            }
+        }
+
+        // Caso comum, como 1234 ou 1234.50: os centavos são calculados direto
+        // dos dígitos. Os demais passam pela conversão exata do BigDecimal.
+        boolean negativo = b == '-';
+        int inicioDigitos = negativo ? inicioNumero + 1 : inicioNumero;
+        int digitosInteiros = (ponto < 0 ? posicao : ponto) - inicioDigitos;
+        int digitosFracao = ponto < 0 ? 0 : posicao - ponto - 1;
+        if (!expoente && digitosFracao <= Centavos.CASAS_DECIMAIS && digitosInteiros <= MAXIMO_DIGITOS_RAPIDOS) {
+            long centavos = 0;
+            for (int i = inicioDigitos; i < posicao; i++) {
+                if (i != ponto) {
+                    centavos = centavos * 10 + (json[i] - '0');
+                }
+            }
+            for (int i = digitosFracao; i < Centavos.CASAS_DECIMAIS; i++) {
+                centavos *= 10;
+            }
+            return negativo ? -centavos : centavos;
+        }
+
+        String texto = new String(json, inicioNumero, posicao - inicioNumero, StandardCharsets.ISO_8859_1);
+        try {
+            return decimal ? Centavos.deDecimal(new BigDecimal(texto)) : Centavos.deInteiro(Long.parseLong(texto));
+        } catch (ArithmeticException | NumberFormatException ex) {
+            throw erro(MENSAGEM_VALOR_INVALIDO);
+        }
+    }
+
+    /**
+     * Lê e descarta o próximo valor, de qualquer tipo.
+     *
+     * @throws JsonInvalidoException Se o valor estiver malformado.
+     */
+    void pularValor() {
+        pularValor(0);
+    }
+
+    private void pularValor(int profundidade) {
+        int b = proximo();
+        switch (b) {
+            case '"' -> pularTexto();
+            case 'n' -> literal(NULO);
+            case 't' -> literal(VERDADEIRO);
+            case 'f' -> literal(FALSO);
+            case '{', '[' -> {
+                if (profundidade == PROFUNDIDADE_MAXIMA) {
+                    throw erro("Profundidade máxima de aninhamento excedida");
+                }
+                posicao++;
+                char fechamento = b == '{' ? '}' : ']';
+                if (consumir(fechamento)) {
+                    return;
+                }
+                do {
+                    if (b == '{') {
+                        if (proximo() != '"') {
+                            throw erro("Esperado o nome de um campo");
+                        }
+                        pularTexto();
+                        esperar(':');
+                    }
+                    pularValor(profundidade + 1);
+                } while (consumir(','));
+                esperar(fechamento);
+            }
+            default -> {
+                if (b != '-' && (b < '0' || b > '9')) {
+                    throw erro("Valor inesperado");
+                }
+                lerNumero();
+            }
+        }
+    }
+
+    /**
+     * Lê um texto entre aspas, decodificando as sequências de escape.
+     */
+    private String lerTexto() {
+        int inicioTexto = ++posicao;
+        while (posicao < fim) {
+            byte b = json[posicao];
+            if (b == '"') {
+                return new String(json, inicioTexto, posicao++ - inicioTexto, StandardCharsets.UTF_8);
+            }
+            if (b == '\\') {
+                break;
+            }
+            if ((b & 0xff) < 0x20) {
+                throw erro("Caractere de controle sem escape em um texto");
+            }
+            posicao++;
+        }
+
+        StringBuilder texto = new StringBuilder(posicao - inicioTexto + 16);
+        int inicioTrecho = inicioTexto;
+        while (posicao < fim) {
+            byte b = json[posicao];
+            if (b == '"') {
+                texto.append(new String(json, inicioTrecho, posicao++ - inicioTrecho, StandardCharsets.UTF_8));
+                return texto.toString();
+            }
+            if ((b & 0xff) < 0x20) {
+                throw erro("Caractere de controle sem escape em um texto");
+            }
+            if (b != '\\') {
+                posicao++;
+                continue;
+            }
+
+            texto.append(new String(json, inicioTrecho, posicao - inicioTrecho, StandardCharsets.UTF_8));
+            if (++posicao == fim) {
+                break;
+            }
+            switch (json[posicao++]) {
+                case '"' -> texto.append('"');
+                case '\\' -> texto.append('\\');
+                case '/' -> texto.append('/');
+                case 'b' -> texto.append('\b');
+                case 'f' -> texto.append('\f');
+                case 'n' -> texto.append('\n');
+                case 'r' -> texto.append('\r');
+                case 't' -> texto.append('\t');
+                case 'u' -> texto.append(lerHexadecimal());
+                default -> throw erro("Sequência de escape inválida");
+            }
+            inicioTrecho = posicao;
+        }
+        throw erro("Texto sem as aspas de fechamento");
+    }
+
+    private char lerHexadecimal() {
+        if (fim - posicao < 4) {
+            throw erro("Sequência de escape inválida");
+        }
+        int valor = 0;
+        for (int i = 0; i < 4; i++) {
+            int digito = Character.digit(json[posicao++], 16);
+            if (digito < 0) {
+                throw erro("Sequência de escape inválida");
+            }
+            valor = valor << 4 | digito;
+        }
+        return (char) valor;
+    }
+
+    private void pularTexto() {
+        posicao++;
+        while (posicao < fim) {
+            byte b = json[posicao++];
+            if (b == '"') {
+                return;
+            }
+            if ((b & 0xff) < 0x20) {
+                throw erro("Caractere de controle sem escape em um texto");
+            }
+            if (b == '\\') {
+                posicao++;
+            }
+        }
+        throw erro("Texto sem as aspas de fechamento");
+    }
+
+    /**
+     * Lê um número seguindo a gramática do JSON, sem convertê-lo.
+     *
+     * @return True se o número tiver parte decimal ou expoente.
+     */
+    private boolean lerNumero() {
+        if (json[posicao] == '-') {
+            posicao++;
+        }
+        if (posicao < fim && json[posicao] == '0') {
+            posicao++;
+        } else if (digitos() == 0) {
+            throw erro("Número inválido");
+        }
+        boolean decimal = false;
+        if (posicao < fim && json[posicao] == '.') {
+            posicao++;
+            decimal = true;
+            if (digitos() == 0) {
+                throw erro("Número inválido");
+            }
+        }
+        if (posicao < fim && (json[posicao] == 'e' || json[posicao] == 'E')) {
+            posicao++;
+            decimal = true;
+            if (posicao < fim && (json[posicao] == '+' || json[posicao] == '-')) {
+                posicao++;
+            }
+            if (digitos() == 0) {
+                throw erro("Número inválido");
+            }
+        }
+        if (posicao < fim && (json[posicao] >= '0' && json[posicao] <= '9')) {
+            throw erro("Número inválido");
+        }
+        return decimal;
+    }
+
+    private int digitos() {
+        int inicioDigitos = posicao;
+        while (posicao < fim && json[posicao] >= '0' && json[posicao] <= '9') {
+            posicao++;
+        }
+        return posicao - inicioDigitos;
+    }
+
+    private void literal(byte[] esperado) {
+        if (fim - posicao < esperado.length
+                || !Arrays.equals(json, posicao, posicao + esperado.length, esperado, 0, esperado.length)) {
+            throw erro("Valor inesperado");
+        }
+        posicao += esperado.length;
+    }
+
+    private JsonInvalidoException erro(String mensagem) {
+        return new JsonInvalidoException(mensagem, posicao - inicio);
+    }
+}
@@ -0,0 +1,199 @@
+package com.rafael.pedido.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.exception.ErrorResponse;
+
+/**
+ * Conversão do {@link PedidoDTO} e do {@link ErrorResponse} em um formato
+ * binário compacto, com os campos na ordem fixa e cada texto precedido do seu
+ * tamanho.
+ * <p>
+ * Os números são gravados em varint, com 7 bits por byte e o bit mais alto
+ * indicando que há mais bytes, como no Protocol Buffers:
+ * <ul>
+ * <li>texto: o tamanho em bytes mais um, em varint, seguido dos bytes em
+ * UTF-8; o tamanho zero indica um texto nulo;</li>
+ * <li>pedido: {@code [id][cliente][valor total]}, com o valor total em
+ * centavos em varint zigzag, de forma que valores pequenos, positivos ou
+ * negativos, ocupem poucos bytes;</li>
+ * <li>resposta de erro: {@code [horário][mensagem][status]}, com o horário
+ * como texto no formato ISO-8601 e o status em varint.</li>
+ * </ul>
+ * Um pedido típico ocupa pouco mais que o tamanho do ID e do cliente, sem os
+ * nomes dos campos, as aspas e o valor em texto do JSON.
+ */
+public final class PedidoBinarioCodec {
+
+    /** Maior quantidade de bytes de um varint de 64 bits. */
+    private static final int TAMANHO_MAXIMO_VARINT = 10;
+
+    private PedidoBinarioCodec() {
+    }
+
+    /**
+     * Lê um pedido no formato binário.
+     *
+     * @param conteudo Os bytes do pedido.
+     * @param inicio   A posição do primeiro byte do pedido.
+     * @param fim      A posição seguinte ao último byte do pedido.
+     * @return O pedido lido.
+     * @throws BinarioInvalidoException Se o conteúdo estiver truncado, tiver
+     *                                  um tamanho inválido ou bytes depois do
+     *                                  pedido.
+     */
+    public static PedidoDTO lerPedido(byte[] conteudo, int inicio, int fim) {
+        Leitor leitor = new Leitor(conteudo, inicio, fim);
+        String id = leitor.texto();
+        String cliente = leitor.texto();
+        long valorTotalCentavos = leitor.zigzag();
+        leitor.fim();
+        return new PedidoDTO(id, cliente, valorTotalCentavos);
+    }
+
+    /**
+     * Escreve um pedido no formato binário.
+     *
+     * @param pedido O pedido escrito.
+     * @return Os bytes do pedido.
+     */
+    public static byte[] escrever(PedidoDTO pedido) {
+        byte[] id = bytes(pedido.id());
+        byte[] cliente = bytes(pedido.cliente());
+        Escritor escritor = new Escritor(tamanhoMaximo(id) + tamanhoMaximo(cliente) + TAMANHO_MAXIMO_VARINT);
+        escritor.texto(id);
+        escritor.texto(cliente);
+        escritor.varint(pedido.valorTotalCentavos() << 1 ^ pedido.valorTotalCentavos() >> 63);
+        return escritor.bytes();
+    }
+
+    /**
+     * Escreve uma resposta de erro no formato binário.
+     *
+     * @param erro A resposta de erro escrita.
+     * @return Os bytes da resposta de erro.
+     */
+    public static byte[] escrever(ErrorResponse erro) {
+        LocalDateTime horario = erro.getHorario();
+        byte[] textoHorario = horario == null ? null
+                : bytes(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(horario));
+        byte[] mensagem = bytes(erro.getMensagem());
+        Escritor escritor = new Escritor(
+                tamanhoMaximo(textoHorario) + tamanhoMaximo(mensagem) + TAMANHO_MAXIMO_VARINT);
+        escritor.texto(textoHorario);
+        escritor.texto(mensagem);
+        escritor.varint(erro.getStatus() & 0xffffffffL);
+        return escritor.bytes();
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto == null ? null : texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int tamanhoMaximo(byte[] texto) {
+        return TAMANHO_MAXIMO_VARINT + (texto == null ? 0 : texto.length);
+    }
+
+    /**
+     * Leitura dos campos de um pedido, com a verificação dos limites do
+     * conteúdo antes de cada campo.
+     */
+    private static final class Leitor {
+
+        private final byte[] conteudo;
+        private final int inicio;
+        private final int fim;
+        private int posicao;
+
+        Leitor(byte[] conteudo, int inicio, int fim) {
+            this.conteudo = conteudo;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.posicao = inicio;
+        }
+
+        String texto() {
+            long tamanho = varint();
+            if (tamanho == 0) {
+                return null;
+            }
+            if (tamanho < 0 || tamanho - 1 > fim - posicao) {
+                throw erro("Texto maior que o conteúdo restante");
+            }
+            int quantidade = (int) tamanho - 1;
+            String texto = new String(conteudo, posicao, quantidade, StandardCharsets.UTF_8);
+            posicao += quantidade;
+            return texto;
+        }
+
+        long zigzag() {
+            long valor = varint();
+            return valor >>> 1 ^ -(valor & 1);
+        }
+
+        long varint() {
+            long valor = 0;
+            for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+                if (posicao >= fim) {
+                    throw erro("Conteúdo truncado");
+                }
+                byte b = conteudo[posicao++];
+                valor |= (long) (b & 0x7f) << deslocamento;
+                if (b >= 0) {
+                    return valor;
+                }
+            }
+            throw erro("Número com mais de 10 bytes");
+        }
+
+        void fim() {
+            if (posicao != fim) {
+                throw erro("Bytes inesperados depois do pedido");
+            }
+        }
+
+        private BinarioInvalidoException erro(String mensagem) {
+            return new BinarioInvalidoException(mensagem, posicao - inicio);
+        }
+    }
+
+    /**
+     * Escrita dos campos em um buffer dimensionado para o maior tamanho
+     * possível, de forma que seja alocado uma única vez.
+     */
+    private static final class Escritor {
+
+        private final byte[] buffer;
+        private int tamanho;
+
+        Escritor(int capacidade) {
+            this.buffer = new byte[capacidade];
+        }
+
+        void texto(byte[] texto) {
+            if (texto == null) {
+                varint(0);
+                return;
+            }
+            varint(texto.length + 1L);
+            System.arraycopy(texto, 0, buffer, tamanho, texto.length);
+            tamanho += texto.length;
+        }
+
+        void varint(long valor) {
+            while ((valor & ~0x7fL) != 0) {
+                buffer[tamanho++] = (byte) (valor & 0x7f | 0x80);
+                valor >>>= 7;
+            }
+            buffer[tamanho++] = (byte) valor;
+        }
+
+        byte[] bytes() {
+            return tamanho == buffer.length ? buffer : Arrays.copyOf(buffer, tamanho);
+        }
+    }
+}
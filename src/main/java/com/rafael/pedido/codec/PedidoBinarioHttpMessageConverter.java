@@ -0,0 +1,67 @@
+package com.rafael.pedido.codec;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.exception.ErrorResponse;
+
+/**
+ * Conversor HTTP do {@link PedidoDTO} e do {@link ErrorResponse} no formato
+ * binário do {@link PedidoBinarioCodec}, com o tipo de conteúdo
+ * {@value #TIPO_PEDIDO_BINARIO}.
+ * <p>
+ * Lê somente o {@link PedidoDTO} e escreve os dois tipos, de forma que os
+ * erros de uma requisição binária também sejam respondidos no formato
+ * binário. O pedido lido passa pela mesma validação do pedido em JSON.
+ */
+public class PedidoBinarioHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    /** Tipo de conteúdo do formato binário. */
+    public static final String TIPO_PEDIDO_BINARIO = "application/x-pedido";
+
+    /** Tipo de conteúdo do formato binário. */
+    public static final MediaType PEDIDO_BINARIO = MediaType.parseMediaType(TIPO_PEDIDO_BINARIO);
+
+    /**
+     * Construtor do conversor para {@value #TIPO_PEDIDO_BINARIO}.
+     */
+    public PedidoBinarioHttpMessageConverter() {
+        super(PEDIDO_BINARIO);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == PedidoDTO.class || clazz == ErrorResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == PedidoDTO.class && canRead(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        byte[] conteudo = inputMessage.getBody().readAllBytes();
+        try {
+            return PedidoBinarioCodec.lerPedido(conteudo, 0, conteudo.length);
+        } catch (BinarioInvalidoException ex) {
+            throw new HttpMessageNotReadableException("Pedido binário inválido: " + ex.getMessage(), ex,
+                    inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object objeto, HttpOutputMessage outputMessage) throws IOException {
+        byte[] conteudo = objeto instanceof PedidoDTO pedido
+                ? PedidoBinarioCodec.escrever(pedido)
+                : PedidoBinarioCodec.escrever((ErrorResponse) objeto);
+        outputMessage.getHeaders().setContentLength(conteudo.length);
+        outputMessage.getBody().write(conteudo);
+    }
+}
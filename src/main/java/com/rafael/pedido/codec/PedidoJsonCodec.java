@@ -0,0 +1,149 @@
+package com.rafael.pedido.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.exception.ErrorResponse;
+
+/**
+ * Conversão JSON do {@link PedidoDTO} e do {@link ErrorResponse} escrita à
+ * mão, sem reflexão.
+ * <p>
+ * A leitura percorre os bytes do corpo da requisição uma única vez e monta o
+ * pedido direto dos campos lidos; a escrita monta a resposta em um buffer de
+ * bytes e a envia à saída de uma só vez. O JSON produzido é idêntico, byte a
+ * byte, ao do ObjectMapper do Spring Boot: os campos na mesma ordem, o valor
+ * total com duas casas decimais, os textos com os mesmos escapes e o horário
+ * no formato ISO-8601. A leitura aceita os mesmos documentos que o
+ * ObjectMapper aceita para o {@link PedidoDTO}.
+ */
+public final class PedidoJsonCodec {
+
+    private static final int CAMPO_ID = 0;
+    private static final int CAMPO_CLIENTE = 1;
+    private static final int CAMPO_VALOR_TOTAL = 2;
+    private static final byte[][] CAMPOS_PEDIDO = { ascii("id"), ascii("cliente"), ascii("valorTotal") };
+
+    private static final byte[] INICIO_PEDIDO = ascii("{\"id\":");
+    private static final byte[] CLIENTE = ascii(",\"cliente\":");
+    private static final byte[] VALOR_TOTAL = ascii(",\"valorTotal\":");
+    private static final byte[] INICIO_ERRO = ascii("{\"horario\":");
+    private static final byte[] MENSAGEM = ascii(",\"mensagem\":");
+    private static final byte[] STATUS = ascii(",\"status\":");
+    private static final byte[] FIM_OBJETO = ascii("}");
+
+    /** Tamanho do JSON de um pedido sem o ID e o cliente. */
+    private static final int TAMANHO_PEDIDO = 64;
+    /** Tamanho do JSON de uma resposta de erro sem a mensagem. */
+    private static final int TAMANHO_ERRO = 80;
+
+    private PedidoJsonCodec() {
+    }
+
+    /**
+     * Lê um pedido de um documento JSON em UTF-8.
+     *
+     * @param json   Os bytes do documento.
+     * @param inicio A posição do primeiro byte do documento.
+     * @param fim    A posição seguinte ao último byte do documento.
+     * @return O pedido lido, ou nulo se o documento for o literal
+     *         {@code null}.
+     * @throws JsonInvalidoException Se o documento estiver malformado ou não
+     *                               for um objeto com os campos do pedido.
+     */
+    public static PedidoDTO lerPedido(byte[] json, int inicio, int fim) {
+        LeitorJson leitor = new LeitorJson(json, inicio, fim);
+        if (leitor.proximo() == 'n') {
+            leitor.lerNulo();
+            return null;
+        }
+
+        String id = null;
+        String cliente = null;
+        long valorTotalCentavos = 0;
+        leitor.esperar('{');
+        if (!leitor.consumir('}')) {
+            do {
+                int campo = leitor.lerCampo(CAMPOS_PEDIDO);
+                leitor.esperar(':');
+                switch (campo) {
+                    case CAMPO_ID -> id = leitor.lerTextoOuEscalar();
+                    case CAMPO_CLIENTE -> cliente = leitor.lerTextoOuEscalar();
+                    case CAMPO_VALOR_TOTAL -> valorTotalCentavos = leitor.lerCentavos();
+                    default -> leitor.pularValor();
+                }
+            } while (leitor.consumir(','));
+            leitor.esperar('}');
+        }
+        return new PedidoDTO(id, cliente, valorTotalCentavos);
+    }
+
+    /**
+     * Escreve um pedido em JSON na saída, sem fechá-la.
+     *
+     * @param pedido O pedido escrito.
+     * @param saida  A saída do documento.
+     * @throws IOException Se a escrita na saída falhar.
+     */
+    public static void escrever(PedidoDTO pedido, OutputStream saida) throws IOException {
+        escritor(pedido).escreverEm(saida);
+    }
+
+    /**
+     * Escreve um pedido em JSON.
+     *
+     * @param pedido O pedido escrito.
+     * @return Os bytes do documento, em UTF-8.
+     */
+    public static byte[] escrever(PedidoDTO pedido) {
+        return escritor(pedido).bytes();
+    }
+
+    /**
+     * Escreve uma resposta de erro em JSON na saída, sem fechá-la.
+     *
+     * @param erro  A resposta de erro escrita.
+     * @param saida A saída do documento.
+     * @throws IOException Se a escrita na saída falhar.
+     */
+    public static void escrever(ErrorResponse erro, OutputStream saida) throws IOException {
+        String mensagem = erro.getMensagem();
+        EscritorJson escritor = new EscritorJson(TAMANHO_ERRO + tamanhoMaximo(mensagem));
+        escritor.bruto(INICIO_ERRO);
+        escritor.dataHora(erro.getHorario());
+        escritor.bruto(MENSAGEM);
+        escritor.texto(mensagem);
+        escritor.bruto(STATUS);
+        escritor.numero(erro.getStatus());
+        escritor.bruto(FIM_OBJETO);
+        escritor.escreverEm(saida);
+    }
+
+    private static EscritorJson escritor(PedidoDTO pedido) {
+        EscritorJson escritor = new EscritorJson(
+                TAMANHO_PEDIDO + tamanhoMaximo(pedido.id()) + tamanhoMaximo(pedido.cliente()));
+        escritor.bruto(INICIO_PEDIDO);
+        escritor.texto(pedido.id());
+        escritor.bruto(CLIENTE);
+        escritor.texto(pedido.cliente());
+        escritor.bruto(VALOR_TOTAL);
+        escritor.centavos(pedido.valorTotalCentavos());
+        escritor.bruto(FIM_OBJETO);
+        return escritor;
+    }
+
+    /**
+     * Retorna o maior tamanho possível de um texto escrito em JSON, com todos
+     * os caracteres escapados em seis bytes, para que o buffer seja alocado
+     * uma única vez.
+     */
+    private static int tamanhoMaximo(String texto) {
+        return texto == null ? 4 : texto.length() * 6 + 2;
+    }
+
+    private static byte[] ascii(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+}
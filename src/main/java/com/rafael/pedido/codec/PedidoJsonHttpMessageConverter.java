@@ -0,0 +1,66 @@
+package com.rafael.pedido.codec;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.exception.ErrorResponse;
+
+/**
+ * Conversor HTTP do {@link PedidoDTO} e do {@link ErrorResponse} em JSON com o
+ * {@link PedidoJsonCodec}, no lugar do conversor do Jackson.
+ * <p>
+ * Lê somente o {@link PedidoDTO}, do corpo em UTF-8, e escreve os dois tipos;
+ * os demais tipos, e os corpos com outra codificação, continuam sendo
+ * convertidos pelo Jackson.
+ */
+public class PedidoJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    /**
+     * Construtor do conversor para {@code application/json} e
+     * {@code application/*+json}.
+     */
+    public PedidoJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == PedidoDTO.class || clazz == ErrorResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        if (clazz != PedidoDTO.class || !canRead(mediaType)) {
+            return false;
+        }
+        Charset codificacao = mediaType == null ? null : mediaType.getCharset();
+        return codificacao == null || codificacao.equals(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        byte[] json = inputMessage.getBody().readAllBytes();
+        try {
+            return PedidoJsonCodec.lerPedido(json, 0, json.length);
+        } catch (JsonInvalidoException ex) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object objeto, HttpOutputMessage outputMessage) throws IOException {
+        if (objeto instanceof PedidoDTO pedido) {
+            PedidoJsonCodec.escrever(pedido, outputMessage.getBody());
+        } else {
+            PedidoJsonCodec.escrever((ErrorResponse) objeto, outputMessage.getBody());
+        }
+    }
+}
@@ -1,15 +1,39 @@
 package com.rafael.pedido.controller;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.rafael.pedido.codec.PedidoBinarioHttpMessageConverter;
+import com.rafael.pedido.dto.PaginaPedidosDTO;
 import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.dto.ResultadoBuscaDTO;
+import com.rafael.pedido.dto.ResultadoLoteDTO;
+import com.rafael.pedido.exception.ErrorResponse;
+import com.rafael.pedido.idempotencia.RespostasIdempotentes;
+import com.rafael.pedido.idempotencia.RespostasIdempotentes.RespostaIdempotente;
+import com.rafael.pedido.service.ExportadorPedidos;
 import com.rafael.pedido.service.PedidoService;
+import com.rafael.pedido.service.ResultadoConsulta;
+import com.rafael.pedido.service.ResultadoCriacao;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 
@@ -19,42 +43,332 @@ import org.springframework.web.bind.annotation.PathVariable;
 /**
  * Controlador responsável por lidar com requisições relacionadas a pedidos.
  * Oferece endpoints para criação e consulta de pedidos.
+ * <p>
+ * Pedidos duplicados na criação e pedidos não encontrados na consulta são
+ * resultados esperados, recebidos do serviço como {@link ResultadoCriacao} e
+ * {@link ResultadoConsulta} e respondidos diretamente com 409 e 404, sem
+ * passar pelo tratamento de exceções.
+ * <p>
+ * Usado com a aplicação no Spring MVC, o padrão; com o perfil
+ * {@code reativo}, os mesmos endpoints são atendidos pelo
+ * {@link PedidoControllerReativo}.
  */
 @RestController
 @RequestMapping("/pedidos")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PedidoController {
 
+    /** Cabeçalho com a chave de idempotência da criação de um pedido. */
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /** Cabeçalho que indica uma resposta repetida de uma requisição anterior. */
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    /**
+     * Cache da consulta de um pedido: caches compartilhados podem guardar a
+     * resposta por um minuto e, depois disso, revalidá-la com o ETag.
+     */
+    static final CacheControl CACHE_PEDIDO = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+
+    /**
+     * Formatos da consulta de um pedido, na ordem de preferência quando o
+     * cliente aceita mais de um com a mesma qualidade.
+     */
+    private static final List<MediaType> FORMATOS_PEDIDO = List.of(MediaType.APPLICATION_JSON,
+            PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO);
+
+    private static final String PEDIDO_DUPLICADO = "Pedido já existe com o ID informado.";
+    static final String PEDIDO_NAO_ENCONTRADO = "Pedido não encontrado com o ID informado.";
+
     private final PedidoService service;
+    private final ExportadorPedidos exportador;
+    private final RespostasIdempotentes respostasIdempotentes;
 
     /**
      * Construtor do controlador de pedidos.
      *
-     * @param pedidoService o serviço responsável pelas regras de negócio dos
-     *                      pedidos
+     * @param pedidoService         o serviço responsável pelas regras de
+     *                              negócio dos pedidos
+     * @param exportadorPedidos     o exportador de todos os pedidos em NDJSON.
+     * @param respostasIdempotentes as respostas guardadas por chave de
+     *                              idempotência.
      */
-    public PedidoController(PedidoService pedidoService) {
+    public PedidoController(PedidoService pedidoService, ExportadorPedidos exportadorPedidos,
+            RespostasIdempotentes respostasIdempotentes) {
         this.service = pedidoService;
+        this.exportador = exportadorPedidos;
+        this.respostasIdempotentes = respostasIdempotentes;
     }
 
     /**
      * Endpoint para criar um novo pedido.
+     * Com o cabeçalho {@value #IDEMPOTENCY_KEY}, uma nova requisição com a
+     * mesma chave e o mesmo pedido recebe a resposta da primeira, sem criar o
+     * pedido novamente, com o cabeçalho {@value #IDEMPOTENT_REPLAYED}.
      *
-     * @param pedidoDTO o pedido a ser criado.
-     * @return o pedido criado,
+     * @param chaveIdempotencia a chave de idempotência, ou omitida para
+     *                          criar o pedido sem guardar a resposta.
+     * @param pedidoDTO         o pedido a ser criado.
+     * @return o pedido criado e status 201 Created, ou status 409 Conflict se
+     *         já existir um pedido com o ID.
      */
     @PostMapping
-    public ResponseEntity<PedidoDTO> criarPedido(@Valid @RequestBody PedidoDTO pedidoDTO) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.criarPedido(pedidoDTO));
+    public ResponseEntity<?> criarPedido(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String chaveIdempotencia,
+            @Valid @RequestBody PedidoDTO pedidoDTO) {
+        if (chaveIdempotencia == null) {
+            return respostaCriacao(service.criarPedido(pedidoDTO), false);
+        }
+
+        RespostaIdempotente resposta = respostasIdempotentes.executar(chaveIdempotencia, pedidoDTO,
+                () -> service.criarPedido(pedidoDTO));
+        return respostaCriacao(resposta.resultado(), resposta.repetida());
+    }
+
+    /**
+     * Endpoint para criar um lote de pedidos em uma única requisição.
+     * Os pedidos são validados individualmente, de forma que um pedido inválido
+     * ou duplicado não impede a criação dos demais.
+     *
+     * @param pedidosDTO os pedidos a serem criados.
+     * @return O resultado de cada pedido do lote e status 200 OK.
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLoteDTO> criarPedidos(@RequestBody List<PedidoDTO> pedidosDTO) {
+        return ResponseEntity.ok(service.criarPedidos(pedidosDTO));
+    }
+
+    /**
+     * Endpoint para consultar vários pedidos pelos seus IDs em uma única
+     * requisição.
+     * IDs não encontrados são informados na resposta, sem gerar erro.
+     *
+     * @param idsPedidos os identificadores dos pedidos a serem consultados.
+     * @return Os pedidos encontrados, os IDs ausentes e status 200 OK.
+     */
+    @PostMapping("/busca")
+    public ResponseEntity<ResultadoBuscaDTO> consultarPedidos(@RequestBody List<String> idsPedidos) {
+        return ResponseEntity.ok(service.consultarPedidos(idsPedidos));
+    }
+
+    /**
+     * Endpoint para listar os pedidos de um cliente em páginas, em ordem
+     * crescente de ID.
+     *
+     * @param cliente o cliente dos pedidos.
+     * @param cursor  o cursor devolvido na página anterior, omitido na
+     *                primeira página.
+     * @param limite  a quantidade máxima de pedidos da página.
+     * @return Os pedidos da página, o cursor da próxima página e status 200 OK.
+     */
+    @GetMapping(params = "cliente")
+    public ResponseEntity<PaginaPedidosDTO> consultarPorCliente(@RequestParam String cliente,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(service.consultarPorCliente(cliente, cursor, limite));
+    }
+
+    /**
+     * Endpoint para listar os pedidos com valor total dentro de uma faixa, em
+     * páginas, em ordem crescente de valor.
+     *
+     * @param valorMinimo o menor valor total, incluído.
+     * @param valorMaximo o maior valor total, incluído.
+     * @param cursor      o cursor devolvido na página anterior, omitido na
+     *                    primeira página.
+     * @param limite      a quantidade máxima de pedidos da página.
+     * @return Os pedidos da página, o cursor da próxima página e status 200 OK.
+     */
+    @GetMapping(params = { "valorMinimo", "valorMaximo" })
+    public ResponseEntity<PaginaPedidosDTO> consultarPorValor(@RequestParam BigDecimal valorMinimo,
+            @RequestParam BigDecimal valorMaximo, @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(service.consultarPorValor(valorMinimo, valorMaximo, cursor, limite));
+    }
+
+    /**
+     * Endpoint para listar os pedidos de maior valor total, em ordem
+     * decrescente de valor.
+     *
+     * @param maiores a quantidade de pedidos retornados.
+     * @return Os pedidos de maior valor total e status 200 OK.
+     */
+    @GetMapping(params = "maiores")
+    public ResponseEntity<List<PedidoDTO>> consultarMaiores(@RequestParam int maiores) {
+        return ResponseEntity.ok(service.consultarMaiores(maiores));
+    }
+
+    /**
+     * Endpoint para exportar todos os pedidos em JSON delimitado por linhas
+     * (NDJSON), em ordem crescente de ID.
+     * Os pedidos são escritos diretamente na resposta conforme são lidos, e a
+     * resposta é compactada com gzip quando o cliente o aceita no cabeçalho
+     * {@code Accept-Encoding}.
+     *
+     * @param aposId         o ID da última linha já recebida, para retomar uma
+     *                       exportação interrompida, ou omitido para exportar
+     *                       todos os pedidos.
+     * @param acceptEncoding as codificações aceitas pelo cliente.
+     * @param resposta       a resposta onde os pedidos são escritos.
+     * @throws IOException Se a escrita na resposta falhar.
+     */
+    @GetMapping("/exportacao")
+    public void exportarPedidos(@RequestParam(required = false) String aposId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse resposta) throws IOException {
+        resposta.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        resposta.setCharacterEncoding("UTF-8");
+        resposta.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!aceitaGzip(acceptEncoding)) {
+            exportador.exportar(aposId, resposta.getOutputStream());
+            return;
+        }
+
+        resposta.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        try (GZIPOutputStream gzip = new GZIPOutputStream(resposta.getOutputStream(), 64 * 1024)) {
+            exportador.exportar(aposId, gzip);
+        }
     }
 
     /**
      * Endpoint para consultar um pedido existente pelo seu ID.
+     * A resposta traz o ETag da versão do pedido no formato negociado com o
+     * cabeçalho {@code Accept}, JSON ou binário; se o cabeçalho
+     * {@code If-None-Match} contiver esse ETag, a resposta é 304 Not Modified,
+     * sem corpo. Como as duas representações do pedido podem ser guardadas
+     * por caches compartilhados, as respostas trazem {@code Vary: Accept}.
      *
-     * @param idPedido o identificador do pedido a ser consultado.
-     * @return Os dados do pedido encontrado e status 200 OK.
+     * @param accept      os formatos aceitos pelo cliente, ou omitido.
+     * @param ifNoneMatch os ETags já guardados pelo cliente, ou omitido.
+     * @param idPedido    o identificador do pedido a ser consultado.
+     * @return Os dados do pedido encontrado e status 200 OK, status 304 Not
+     *         Modified se o cliente já tiver a versão atual, ou status 404 Not
+     *         Found se o pedido não existir.
      */
     @GetMapping("/{idPedido}")
-    public ResponseEntity<PedidoDTO> consultarPedido(@PathVariable @NotBlank String idPedido) {
-        return ResponseEntity.ok(service.consultar(idPedido));
+    public ResponseEntity<?> consultarPedido(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @PathVariable @NotBlank String idPedido) {
+        if (!(service.consultar(idPedido) instanceof ResultadoConsulta.Encontrado encontrado)) {
+            return erro(HttpStatus.NOT_FOUND, PEDIDO_NAO_ENCONTRADO);
+        }
+
+        MediaType formato = formatoPedido(accept);
+        String etag = etag(encontrado.versao(), formato);
+        if (contemEtag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_PEDIDO)
+                    .varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok().eTag(etag).cacheControl(CACHE_PEDIDO)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (formato != null) {
+            resposta.contentType(formato);
+        }
+        return resposta.body(encontrado.pedido());
+    }
+
+    static ResponseEntity<?> respostaCriacao(ResultadoCriacao resultado, boolean repetida) {
+        if (resultado instanceof ResultadoCriacao.Criado criado) {
+            ResponseEntity.BodyBuilder resposta = ResponseEntity.status(HttpStatus.CREATED);
+            if (repetida) {
+                resposta.header(IDEMPOTENT_REPLAYED, "true");
+            }
+            return resposta.body(criado.pedido());
+        }
+        return erro(HttpStatus.CONFLICT, PEDIDO_DUPLICADO);
+    }
+
+    static ResponseEntity<ErrorResponse> erro(HttpStatus status, String mensagem) {
+        return ResponseEntity.status(status).body(new ErrorResponse(mensagem, status.value()));
+    }
+
+    static String etag(long versao) {
+        return '"' + Long.toHexString(versao) + '"';
+    }
+
+    /**
+     * ETag da versão do pedido em um formato. O JSON mantém o ETag da versão,
+     * e os demais formatos recebem o subtipo como sufixo, para que uma
+     * representação nunca seja validada com o ETag da outra.
+     */
+    static String etag(long versao, MediaType formato) {
+        if (formato == null || MediaType.APPLICATION_JSON.equalsTypeAndSubtype(formato)) {
+            return etag(versao);
+        }
+        return '"' + Long.toHexString(versao) + '-' + formato.getSubtype() + '"';
+    }
+
+    /**
+     * Escolhe o formato da consulta de um pedido a partir do cabeçalho
+     * Accept: o de maior qualidade e, entre os de mesma qualidade, o aceito
+     * explicitamente em vez de por um curinga. Sem o cabeçalho, o formato é
+     * JSON.
+     *
+     * @return O formato escolhido, ou nulo se o cliente não aceitar nenhum
+     *         deles, para que a negociação do Spring responda 406.
+     */
+    static MediaType formatoPedido(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+
+        List<MediaType> aceitos;
+        try {
+            aceitos = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType escolhido = null;
+        double melhorQualidade = 0;
+        boolean melhorExplicito = false;
+        for (MediaType aceito : aceitos) {
+            double qualidade = aceito.getQualityValue();
+            boolean explicito = aceito.isConcrete();
+            boolean melhor = qualidade > melhorQualidade
+                    || qualidade == melhorQualidade && explicito && !melhorExplicito;
+            for (MediaType formato : FORMATOS_PEDIDO) {
+                if (qualidade > 0 && melhor && aceito.includes(formato)) {
+                    escolhido = formato;
+                    melhorQualidade = qualidade;
+                    melhorExplicito = explicito;
+                    break;
+                }
+            }
+        }
+        return escolhido;
+    }
+
+    /**
+     * Verifica se a lista de ETags do If-None-Match contém o ETag informado,
+     * com a comparação fraca, que ignora o prefixo {@code W/}.
+     */
+    static boolean contemEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            candidato = candidato.trim();
+            if (candidato.startsWith("W/")) {
+                candidato = candidato.substring(2);
+            }
+            if (candidato.equals("*") || candidato.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacao : acceptEncoding.split(",")) {
+            String[] partes = codificacao.split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,230 @@
+package com.rafael.pedido.controller;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rafael.pedido.dto.PaginaPedidosDTO;
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.dto.ResultadoBuscaDTO;
+import com.rafael.pedido.dto.ResultadoLoteDTO;
+import com.rafael.pedido.idempotencia.RespostasIdempotentes;
+import com.rafael.pedido.repository.armazenamento.ArmazenamentoProperties;
+import com.rafael.pedido.repository.armazenamento.TipoArmazenamento;
+import com.rafael.pedido.repository.persistencia.ModoDurabilidade;
+import com.rafael.pedido.repository.persistencia.PersistenciaProperties;
+import com.rafael.pedido.service.PedidoService;
+import com.rafael.pedido.service.ResultadoConsulta;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Controlador reativo dos pedidos, usado no lugar do {@link PedidoController}
+ * com a aplicação no Spring WebFlux, ativado pelo perfil {@code reativo}.
+ * Oferece os mesmos endpoints, com as mesmas respostas, exceto a exportação.
+ * <p>
+ * A criação de um pedido responde depois que o pedido for publicado, sem
+ * ocupar uma thread durante a espera: o publicador conclui a confirmação da
+ * publicação e a resposta segue em outra thread, liberando a thread
+ * remetente. Se a publicação falhar, o pedido está no outbox e a resposta é a
+ * mesma, como no {@link PedidoController}.
+ * <p>
+ * O repositório fica em memória e é acessado na própria thread da requisição.
+ * Quando uma operação do repositório pode aguardar o disco (a persistência
+ * nos modos {@link ModoDurabilidade#SINCRONO} e {@link ModoDurabilidade#GRUPO}
+ * ou o armazenamento em {@link TipoArmazenamento#CAMADAS}), ela é executada
+ * no {@link Schedulers#boundedElastic()}, para não bloquear as threads do
+ * servidor. A criação em lote aguarda espaço na fila de publicação com a
+ * política {@code BLOQUEAR} e, por isso, também é executada nele.
+ */
+@RestController
+@RequestMapping("/pedidos")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PedidoControllerReativo {
+
+    private final PedidoService service;
+    private final RespostasIdempotentes respostasIdempotentes;
+    private final Scheduler escalonadorRepositorio;
+
+    /**
+     * Construtor do controlador reativo de pedidos.
+     *
+     * @param pedidoService           o serviço responsável pelas regras de
+     *                                negócio dos pedidos.
+     * @param respostasIdempotentes   as respostas guardadas por chave de
+     *                                idempotência.
+     * @param persistenciaProperties  as configurações da persistência, para
+     *                                saber se a gravação aguarda o disco.
+     * @param armazenamentoProperties as configurações do armazenamento, para
+     *                                saber se a consulta pode ler o disco.
+     */
+    public PedidoControllerReativo(PedidoService pedidoService, RespostasIdempotentes respostasIdempotentes,
+            PersistenciaProperties persistenciaProperties, ArmazenamentoProperties armazenamentoProperties) {
+        this.service = pedidoService;
+        this.respostasIdempotentes = respostasIdempotentes;
+        this.escalonadorRepositorio = acessaDisco(persistenciaProperties, armazenamentoProperties)
+                ? Schedulers.boundedElastic()
+                : Schedulers.immediate();
+    }
+
+    /**
+     * Endpoint para criar um novo pedido, respondido depois que o pedido for
+     * publicado. Com o cabeçalho {@value PedidoController#IDEMPOTENCY_KEY},
+     * segue as mesmas regras do {@link PedidoController}.
+     *
+     * @param chaveIdempotencia a chave de idempotência, ou omitida para
+     *                          criar o pedido sem guardar a resposta.
+     * @param pedidoDTO         o pedido a ser criado.
+     * @return o pedido criado e status 201 Created, ou status 409 Conflict se
+     *         já existir um pedido com o ID.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<?>> criarPedido(
+            @RequestHeader(value = PedidoController.IDEMPOTENCY_KEY, required = false) String chaveIdempotencia,
+            @Valid @RequestBody Mono<PedidoDTO> pedidoDTO) {
+        return pedidoDTO.flatMap(pedido -> {
+            if (chaveIdempotencia == null) {
+                return Mono.fromFuture(() -> service.criarPedidoAssincrono(pedido))
+                        .subscribeOn(escalonadorRepositorio)
+                        .map(resultado -> PedidoController.respostaCriacao(resultado, false));
+            }
+            return Mono.fromFuture(() -> respostasIdempotentes.executarAssincrono(chaveIdempotencia, pedido,
+                    () -> service.criarPedidoAssincrono(pedido)))
+                    .subscribeOn(escalonadorRepositorio)
+                    .map(resposta -> PedidoController.respostaCriacao(resposta.resultado(), resposta.repetida()));
+        }).publishOn(Schedulers.parallel());
+    }
+
+    /**
+     * Endpoint para criar um lote de pedidos em uma única requisição.
+     *
+     * @param pedidosDTO os pedidos a serem criados.
+     * @return O resultado de cada pedido do lote e status 200 OK.
+     */
+    @PostMapping("/lote")
+    public Mono<ResponseEntity<ResultadoLoteDTO>> criarPedidos(@RequestBody Mono<List<PedidoDTO>> pedidosDTO) {
+        return pedidosDTO.publishOn(Schedulers.boundedElastic())
+                .map(pedidos -> ResponseEntity.ok(service.criarPedidos(pedidos)));
+    }
+
+    /**
+     * Endpoint para consultar vários pedidos pelos seus IDs em uma única
+     * requisição.
+     *
+     * @param idsPedidos os identificadores dos pedidos a serem consultados.
+     * @return Os pedidos encontrados, os IDs ausentes e status 200 OK.
+     */
+    @PostMapping("/busca")
+    public Mono<ResponseEntity<ResultadoBuscaDTO>> consultarPedidos(@RequestBody Mono<List<String>> idsPedidos) {
+        return idsPedidos.publishOn(escalonadorRepositorio)
+                .map(ids -> ResponseEntity.ok(service.consultarPedidos(ids)));
+    }
+
+    /**
+     * Endpoint para listar os pedidos de um cliente em páginas, em ordem
+     * crescente de ID.
+     *
+     * @param cliente o cliente dos pedidos.
+     * @param cursor  o cursor devolvido na página anterior, omitido na
+     *                primeira página.
+     * @param limite  a quantidade máxima de pedidos da página.
+     * @return Os pedidos da página, o cursor da próxima página e status 200 OK.
+     */
+    @GetMapping(params = "cliente")
+    public Mono<ResponseEntity<PaginaPedidosDTO>> consultarPorCliente(@RequestParam String cliente,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "100") int limite) {
+        return noRepositorio(() -> ResponseEntity.ok(service.consultarPorCliente(cliente, cursor, limite)));
+    }
+
+    /**
+     * Endpoint para listar os pedidos com valor total dentro de uma faixa, em
+     * páginas, em ordem crescente de valor.
+     *
+     * @param valorMinimo o menor valor total, incluído.
+     * @param valorMaximo o maior valor total, incluído.
+     * @param cursor      o cursor devolvido na página anterior, omitido na
+     *                    primeira página.
+     * @param limite      a quantidade máxima de pedidos da página.
+     * @return Os pedidos da página, o cursor da próxima página e status 200 OK.
+     */
+    @GetMapping(params = { "valorMinimo", "valorMaximo" })
+    public Mono<ResponseEntity<PaginaPedidosDTO>> consultarPorValor(@RequestParam BigDecimal valorMinimo,
+            @RequestParam BigDecimal valorMaximo, @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite) {
+        return noRepositorio(
+                () -> ResponseEntity.ok(service.consultarPorValor(valorMinimo, valorMaximo, cursor, limite)));
+    }
+
+    /**
+     * Endpoint para listar os pedidos de maior valor total, em ordem
+     * decrescente de valor.
+     *
+     * @param maiores a quantidade de pedidos retornados.
+     * @return Os pedidos de maior valor total e status 200 OK.
+     */
+    @GetMapping(params = "maiores")
+    public Mono<ResponseEntity<List<PedidoDTO>>> consultarMaiores(@RequestParam int maiores) {
+        return noRepositorio(() -> ResponseEntity.ok(service.consultarMaiores(maiores)));
+    }
+
+    /**
+     * Endpoint para consultar um pedido existente pelo seu ID, com o ETag da
+     * versão do pedido, como no {@link PedidoController}.
+     *
+     * @param ifNoneMatch os ETags já guardados pelo cliente, ou omitido.
+     * @param idPedido    o identificador do pedido a ser consultado.
+     * @return Os dados do pedido encontrado e status 200 OK, status 304 Not
+     *         Modified se o cliente já tiver a versão atual, ou status 404 Not
+     *         Found se o pedido não existir.
+     */
+    @GetMapping("/{idPedido}")
+    public Mono<ResponseEntity<?>> consultarPedido(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @PathVariable @NotBlank String idPedido) {
+        return noRepositorio(() -> {
+            if (!(service.consultar(idPedido) instanceof ResultadoConsulta.Encontrado encontrado)) {
+                return PedidoController.erro(HttpStatus.NOT_FOUND, PedidoController.PEDIDO_NAO_ENCONTRADO);
+            }
+
+            String etag = PedidoController.etag(encontrado.versao());
+            if (PedidoController.contemEtag(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                        .cacheControl(PedidoController.CACHE_PEDIDO).build();
+            }
+            return ResponseEntity.ok().eTag(etag).cacheControl(PedidoController.CACHE_PEDIDO)
+                    .body(encontrado.pedido());
+        });
+    }
+
+    /**
+     * Executa uma operação do repositório no escalonador adequado: na própria
+     * thread da requisição ou, se a operação puder aguardar o disco, no
+     * {@link Schedulers#boundedElastic()}.
+     */
+    private <T> Mono<T> noRepositorio(Callable<T> operacao) {
+        return Mono.fromCallable(operacao).subscribeOn(escalonadorRepositorio);
+    }
+
+    private static boolean acessaDisco(PersistenciaProperties persistencia, ArmazenamentoProperties armazenamento) {
+        boolean gravacaoAguardaDisco = persistencia.habilitada()
+                && persistencia.modoDurabilidade() != ModoDurabilidade.ASSINCRONO;
+        return gravacaoAguardaDisco || armazenamento.tipo() == TipoArmazenamento.CAMADAS;
+    }
+}
@@ -0,0 +1,13 @@
+package com.rafael.pedido.dto;
+
+/**
+ * DTO (Data Transfer Object) com o resultado de um pedido enviado em lote.
+ *
+ * @param indice   A posição do pedido no lote enviado.
+ * @param id       O ID do pedido, como enviado.
+ * @param status   O resultado do processamento do pedido.
+ * @param mensagem O motivo pelo qual o pedido não foi criado, ou null quando
+ *                 ele foi criado.
+ */
+public record ItemLoteDTO(int indice, String id, StatusItemLote status, String mensagem) {
+}
@@ -0,0 +1,13 @@
+package com.rafael.pedido.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) com uma página dos pedidos de um cliente.
+ *
+ * @param pedidos       Os pedidos da página, em ordem crescente de ID.
+ * @param proximoCursor O cursor a ser informado para obter a próxima página,
+ *                      ou null quando não houver mais pedidos.
+ */
+public record PaginaPedidosDTO(List<PedidoDTO> pedidos, String proximoCursor) {
+}
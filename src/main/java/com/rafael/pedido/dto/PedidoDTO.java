@@ -1,5 +1,8 @@
 package com.rafael.pedido.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.rafael.pedido.model.Pedido;
 
 import jakarta.validation.constraints.NotBlank;
@@ -8,27 +11,33 @@ import jakarta.validation.constraints.Positive;
 /**
  * DTO (Data Transfer Object) usado para transportar os dados de um pedido.
  * Inclui validações para garantir que os dados sejam válidos.
+ * <p>
+ * O valor total é mantido em centavos e aparece no JSON como o número decimal
+ * {@code valorTotal}, com no máximo duas casas decimais.
  */
 public record PedidoDTO(
         @NotBlank(message = "ID do pedido não pode ser nulo ou vazio.") String id,
         @NotBlank(message = "Cliente não pode ser nulo ou vazio.") String cliente,
-        @Positive(message = "Valor total deve ser positivo.") double valorTotal) {
+        @JsonProperty("valorTotal")
+        @JsonSerialize(using = ValorMonetarioJson.Serializador.class)
+        @JsonDeserialize(using = ValorMonetarioJson.Desserializador.class)
+        @Positive(message = "Valor total deve ser positivo.") long valorTotalCentavos) {
 
     /**
      * Construtor que converte um objeto Pedido para um PedidoDTO.
-     * 
+     *
      * @param pedido O objeto Pedido a ser convertido.
      */
     public PedidoDTO(Pedido pedido) {
-        this(pedido.getId(), pedido.getCliente(), pedido.getValorTotal());
+        this(pedido.getId(), pedido.getCliente(), pedido.getValorTotalCentavos());
     }
 
     /**
      * Converte o PedidoDTO de volta para a entidade Pedido.
-     * 
+     *
      * @return Um objeto Pedido com os dados convertidos do DTO.
      */
     public Pedido toEntity() {
-        return new Pedido(id, cliente, valorTotal);
+        return new Pedido(id, cliente, valorTotalCentavos);
     }
 }
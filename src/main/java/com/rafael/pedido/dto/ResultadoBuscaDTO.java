@@ -0,0 +1,13 @@
+package com.rafael.pedido.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) com o resultado da consulta de vários pedidos
+ * pelos seus IDs.
+ *
+ * @param encontrados Os pedidos encontrados, na ordem dos IDs consultados.
+ * @param ausentes    Os IDs consultados para os quais não existe pedido.
+ */
+public record ResultadoBuscaDTO(List<PedidoDTO> encontrados, List<String> ausentes) {
+}
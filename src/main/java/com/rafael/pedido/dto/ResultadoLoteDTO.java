@@ -0,0 +1,30 @@
+package com.rafael.pedido.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) com o resultado da criação de um lote de pedidos.
+ * Contém o resultado de cada pedido, na mesma ordem do lote enviado, e os
+ * totais de cada status.
+ *
+ * @param criados    A quantidade de pedidos criados.
+ * @param duplicados A quantidade de pedidos ignorados por já existirem.
+ * @param invalidos  A quantidade de pedidos ignorados por serem inválidos.
+ * @param itens      O resultado de cada pedido do lote.
+ */
+public record ResultadoLoteDTO(int criados, int duplicados, int invalidos, List<ItemLoteDTO> itens) {
+
+    /**
+     * Construtor que calcula os totais a partir do resultado de cada pedido.
+     *
+     * @param itens O resultado de cada pedido do lote.
+     */
+    public ResultadoLoteDTO(List<ItemLoteDTO> itens) {
+        this(contar(itens, StatusItemLote.CRIADO), contar(itens, StatusItemLote.DUPLICADO),
+                contar(itens, StatusItemLote.INVALIDO), itens);
+    }
+
+    private static int contar(List<ItemLoteDTO> itens, StatusItemLote status) {
+        return (int) itens.stream().filter(item -> item.status() == status).count();
+    }
+}
@@ -0,0 +1,16 @@
+package com.rafael.pedido.dto;
+
+/**
+ * Resultado do processamento de um pedido enviado em lote.
+ */
+public enum StatusItemLote {
+
+    /** O pedido foi criado. */
+    CRIADO,
+
+    /** Já existia um pedido com o mesmo ID, e o pedido foi ignorado. */
+    DUPLICADO,
+
+    /** O pedido não passou nas validações e foi ignorado. */
+    INVALIDO
+}
@@ -0,0 +1,71 @@
+package com.rafael.pedido.dto;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.rafael.pedido.model.Centavos;
+
+/**
+ * Conversão JSON dos valores monetários guardados em centavos.
+ * <p>
+ * No JSON, os valores continuam sendo números decimais, como
+ * {@code 1234.50}. A leitura converte o número diretamente do texto para
+ * centavos, sem passar por {@code double}, e recusa valores com mais de duas
+ * casas decimais ou que não caibam em um {@code long}.
+ */
+public final class ValorMonetarioJson {
+
+    private static final String MENSAGEM_VALOR_INVALIDO = "Valor monetário inválido ou com mais de duas casas decimais.";
+
+    private ValorMonetarioJson() {
+    }
+
+    /**
+     * Escreve um valor em centavos como um número decimal com duas casas.
+     */
+    public static class Serializador extends JsonSerializer<Long> {
+
+        @Override
+        public void serialize(Long centavos, JsonGenerator gerador, SerializerProvider provedor) throws IOException {
+            gerador.writeNumber(Centavos.formatar(centavos));
+        }
+    }
+
+    /**
+     * Lê um número decimal como um valor em centavos.
+     */
+    public static class Desserializador extends JsonDeserializer<Long> {
+
+        @Override
+        public Long deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            JsonToken token = parser.currentToken();
+            try {
+                if (token == JsonToken.VALUE_NUMBER_INT) {
+                    return Centavos.deInteiro(parser.getLongValue());
+                }
+                if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    return Centavos.deDecimal(parser.getDecimalValue());
+                }
+            } catch (ArithmeticException ex) {
+                throw JsonMappingException.from(parser, MENSAGEM_VALOR_INVALIDO);
+            }
+            return (Long) contexto.handleUnexpectedToken(Long.class, parser);
+        }
+
+        /**
+         * Lê o valor nulo como zero, como acontece com os demais campos
+         * primitivos, para que ele seja recusado pela validação.
+         */
+        @Override
+        public Long getNullValue(DeserializationContext contexto) {
+            return 0L;
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.rafael.pedido.exception;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * Representa a resposta de erro que será retornada para o cliente.
  * Contém informações sobre a mensagem de erro, status e horário do erro.
+ * <p>
+ * O horário é truncado no segundo e reaproveitado pelos erros do mesmo
+ * segundo, de forma que as respostas 404 e 409, que são as mais frequentes,
+ * não consultem o fuso horário nem criem um novo horário a cada erro.
  */
 public class ErrorResponse {
+
+    private static volatile HorarioEmCache horarioEmCache = new HorarioEmCache(Long.MIN_VALUE, null);
+
     private LocalDateTime horario;
     private String mensagem;
     private int status;
@@ -18,7 +27,7 @@ public class ErrorResponse {
      * @param status   Código de status HTTP associado ao erro.
      */
     public ErrorResponse(String mensagem, int status) {
-        this.horario = LocalDateTime.now();
+        this.horario = horarioAtual();
         this.mensagem = mensagem;
         this.status = status;
     }
@@ -45,4 +54,24 @@ public class ErrorResponse {
     public static ErrorResponse fromException(Exception ex, int status) {
         return new ErrorResponse(ex.getMessage(), status);
     }
+
+    /**
+     * Retorna o horário atual truncado no segundo, calculado somente na
+     * primeira chamada de cada segundo.
+     *
+     * @return O horário atual, no fuso horário padrão.
+     */
+    static LocalDateTime horarioAtual() {
+        long segundo = Math.floorDiv(System.currentTimeMillis(), 1000L);
+        HorarioEmCache cache = horarioEmCache;
+        if (cache.segundo() != segundo) {
+            cache = new HorarioEmCache(segundo,
+                    LocalDateTime.ofInstant(Instant.ofEpochSecond(segundo), ZoneId.systemDefault()));
+            horarioEmCache = cache;
+        }
+        return cache.horario();
+    }
+
+    private record HorarioEmCache(long segundo, LocalDateTime horario) {
+    }
 }
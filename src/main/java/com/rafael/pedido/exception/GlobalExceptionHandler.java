@@ -1,12 +1,21 @@
 package com.rafael.pedido.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.ServletRequestBindingException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import com.rafael.pedido.admissao.SobrecargaException;
+import com.rafael.pedido.idempotencia.ChaveIdempotenciaReutilizadaException;
+
 import java.util.NoSuchElementException;
 
 /**
@@ -55,6 +64,48 @@ public class GlobalExceptionHandler {
                 .body(ErrorResponse.fromException(ex, HttpStatus.UNPROCESSABLE_ENTITY.value()));
     }
 
+    /**
+     * Método que trata exceções de corpo de requisição ilegível, como um JSON
+     * malformado ou um valor monetário com mais de duas casas decimais.
+     *
+     * @param ex a exceção lançada
+     * @return Resposta com o status 400 e a mensagem de erro
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> tratarExcecaoDeCorpoIlegivel(HttpMessageNotReadableException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponse.fromException(ex, HttpStatus.BAD_REQUEST.value()));
+    }
+
+    /**
+     * Método que trata exceções de parâmetro com tipo inválido, como um limite
+     * de página que não é um número.
+     *
+     * @param ex a exceção lançada
+     * @return Resposta com o status 400 e a mensagem de erro
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> tratarExcecaoDeTipoDeParametro(MethodArgumentTypeMismatchException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponse.fromException(ex, HttpStatus.BAD_REQUEST.value()));
+    }
+
+    /**
+     * Método que trata exceções de parâmetros da requisição ausentes ou que não
+     * correspondem a nenhuma consulta.
+     *
+     * @param ex a exceção lançada
+     * @return Resposta com o status 400 e a mensagem de erro
+     */
+    @ExceptionHandler(ServletRequestBindingException.class)
+    public ResponseEntity<ErrorResponse> tratarExcecaoDeParametroDaRequisicao(ServletRequestBindingException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponse.fromException(ex, HttpStatus.BAD_REQUEST.value()));
+    }
+
     /**
      * Método que trata exceções de validação de handler.
      *
@@ -94,6 +145,81 @@ public class GlobalExceptionHandler {
                 .body(ErrorResponse.fromException(ex, HttpStatus.NOT_FOUND.value()));
     }
 
+    /**
+     * Método que trata exceções de validação do corpo da requisição no Spring
+     * WebFlux, usado com o perfil {@code reativo}.
+     *
+     * @param ex a exceção lançada
+     * @return Resposta com o status 422 e a mensagem de erro
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> tratarExcecaoDeValidacaoReativa(WebExchangeBindException ex) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ErrorResponse.fromException(ex, HttpStatus.UNPROCESSABLE_ENTITY.value()));
+    }
+
+    /**
+     * Método que trata exceções de corpo ilegível, parâmetros ausentes ou com
+     * tipo inválido no Spring WebFlux, usado com o perfil {@code reativo}.
+     *
+     * @param ex a exceção lançada
+     * @return Resposta com o status 400 e a mensagem de erro
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> tratarExcecaoDeEntradaReativa(ServerWebInputException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponse.fromException(ex, HttpStatus.BAD_REQUEST.value()));
+    }
+
+    /**
+     * Método que trata exceções de recurso não encontrado no Spring WebFlux,
+     * usado com o perfil {@code reativo}.
+     *
+     * @param ex a exceção lançada
+     * @return Resposta com o status 404 e a mensagem de erro
+     */
+    @ExceptionHandler(org.springframework.web.reactive.resource.NoResourceFoundException.class)
+    public ResponseEntity<ErrorResponse> tratarExcecaoDeRecursoReativoNaoEncontrado(
+            org.springframework.web.reactive.resource.NoResourceFoundException ex) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(ErrorResponse.fromException(ex, HttpStatus.NOT_FOUND.value()));
+    }
+
+    /**
+     * Método que trata exceções de chave de idempotência reutilizada com um
+     * pedido diferente do original.
+     *
+     * @param ex a exceção lançada
+     * @return Resposta com o status 422 e a mensagem de erro
+     */
+    @ExceptionHandler(ChaveIdempotenciaReutilizadaException.class)
+    public ResponseEntity<ErrorResponse> tratarExcecaoDeChaveIdempotenciaReutilizada(
+            ChaveIdempotenciaReutilizadaException ex) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ErrorResponse.fromException(ex, HttpStatus.UNPROCESSABLE_ENTITY.value()));
+    }
+
+    /**
+     * Método que trata exceções de sobrecarga, lançadas quando o controle de
+     * admissão recusa uma requisição.
+     *
+     * @param ex a exceção lançada
+     * @return Resposta com o status 503, o cabeçalho Retry-After e a mensagem
+     *         de erro
+     */
+    @ExceptionHandler(SobrecargaException.class)
+    public ResponseEntity<ErrorResponse> tratarExcecaoDeSobrecarga(SobrecargaException ex) {
+        long segundos = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1_000);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(segundos))
+                .body(ErrorResponse.fromException(ex, HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+
     /**
      * Método que trata exceções genéricas.
      *
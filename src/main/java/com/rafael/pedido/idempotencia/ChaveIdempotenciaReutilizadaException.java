@@ -0,0 +1,19 @@
+package com.rafael.pedido.idempotencia;
+
+/**
+ * Exceção lançada quando uma chave de idempotência já usada é enviada com um
+ * pedido diferente do pedido da requisição original.
+ */
+public class ChaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Construtor da exceção.
+     *
+     * @param mensagem A mensagem de erro.
+     */
+    public ChaveIdempotenciaReutilizadaException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,30 @@
+package com.rafael.pedido.idempotencia;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuração responsável por criar o registro das respostas idempotentes.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotenciaProperties.class)
+public class IdempotenciaConfig {
+
+    /**
+     * Cria o registro das respostas idempotentes com a validade e o limite de
+     * memória configurados.
+     *
+     * @param propriedades  as configurações das chaves de idempotência.
+     * @param meterRegistry o registro onde as métricas do cache são
+     *                      publicadas.
+     * @return o registro das respostas idempotentes.
+     */
+    @Bean
+    public RespostasIdempotentes respostasIdempotentes(IdempotenciaProperties propriedades,
+            MeterRegistry meterRegistry) {
+        return new RespostasIdempotentes(propriedades, meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.rafael.pedido.idempotencia;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurações das chaves de idempotência da criação de pedidos.
+ *
+ * @param validade    Tempo durante o qual a resposta de uma criação é repetida
+ *                    para novas requisições com a mesma chave.
+ * @param taxaMaxima  Quantidade máxima de novas chaves por segundo que devem
+ *                    ser guardadas durante toda a validade. Junto com a
+ *                    validade, define a quantidade máxima de chaves; acima
+ *                    dela, as chaves mais antigas são descartadas antes de
+ *                    expirarem.
+ */
+@ConfigurationProperties(prefix = "pedido.idempotencia")
+public record IdempotenciaProperties(
+        @DefaultValue("24h") Duration validade,
+        @DefaultValue("10") double taxaMaxima) {
+
+    /**
+     * Retorna a quantidade máxima de chaves guardadas: as chaves recebidas
+     * na taxa máxima durante a validade.
+     *
+     * @return A quantidade máxima de chaves, no mínimo uma.
+     */
+    public long maximoChaves() {
+        return Math.max(1, (long) Math.ceil(taxaMaxima * validade.toMillis() / 1_000.0));
+    }
+}
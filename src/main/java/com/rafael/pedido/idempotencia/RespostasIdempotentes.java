@@ -0,0 +1,276 @@
+package com.rafael.pedido.idempotencia;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.service.ResultadoCriacao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Registro das respostas da criação de pedidos por chave de idempotência.
+ * <p>
+ * A primeira requisição com uma chave cria o pedido e guarda a resposta. As
+ * requisições seguintes com a mesma chave e o mesmo pedido recebem a resposta
+ * guardada, sem chegar ao repositório nem ao publicador; assim, o cliente
+ * pode reenviar uma criação cuja resposta se perdeu sem receber o erro de
+ * pedido duplicado. Requisições simultâneas com a mesma chave aguardam a
+ * primeira terminar. Se a criação falhar ou encontrar um pedido já
+ * existente, nada é guardado e a próxima requisição com a chave tenta criar
+ * o pedido novamente.
+ * <p>
+ * As respostas ficam em um cache do Caffeine, concorrente, que as descarta
+ * após a validade configurada. A quantidade de chaves é limitada pela taxa
+ * máxima de novas chaves multiplicada pela validade; acima dela, as chaves
+ * são descartadas em ordem de gravação, das mais antigas para as mais novas,
+ * e não pela frequência de uso, que descartaria primeiro justamente a chave
+ * recém-guardada à espera de um reenvio. Os acertos, as faltas e as remoções
+ * são publicados nos medidores {@code cache.*} com a tag
+ * {@code cache=idempotencia}, e as chaves descartadas antes de expirarem no
+ * contador {@value #METRICA_DESCARTADAS}.
+ */
+public class RespostasIdempotentes {
+
+    /** Quantidade máxima de caracteres de uma chave de idempotência. */
+    public static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    /** Contador das chaves descartadas antes de expirarem. */
+    static final String METRICA_DESCARTADAS = "pedido.idempotencia.descartadas";
+
+    /** Quantidade máxima de chaves descartadas de uma vez. */
+    private static final int DESCARTE_MAXIMO = 1_000;
+
+    private final AsyncCache<String, Registro> respostas;
+    private final Policy.FixedExpiration<String, Registro> expiracao;
+    private final long maximoChaves;
+    private final Counter descartadas;
+    private final ReentrantLock descarte = new ReentrantLock();
+
+    /**
+     * Construtor do registro das respostas idempotentes.
+     *
+     * @param propriedades  a validade das respostas e a taxa máxima de novas
+     *                      chaves.
+     * @param meterRegistry o registro onde as métricas do cache são
+     *                      publicadas.
+     */
+    public RespostasIdempotentes(IdempotenciaProperties propriedades, MeterRegistry meterRegistry) {
+        this(propriedades, meterRegistry, Ticker.systemTicker());
+    }
+
+    /**
+     * Construtor com o relógio informado, usado nos testes da validade das
+     * respostas.
+     */
+    RespostasIdempotentes(IdempotenciaProperties propriedades, MeterRegistry meterRegistry, Ticker relogio) {
+        this.respostas = Caffeine.newBuilder()
+                .ticker(relogio)
+                .recordStats()
+                .expireAfterWrite(propriedades.validade())
+                .buildAsync();
+        this.expiracao = respostas.synchronous().policy().expireAfterWrite().orElseThrow();
+        this.maximoChaves = propriedades.maximoChaves();
+        this.descartadas = Counter.builder(METRICA_DESCARTADAS)
+                .description("Chaves de idempotência descartadas antes de expirarem")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, respostas, "idempotencia");
+    }
+
+    /**
+     * Método responsável por criar um pedido uma única vez por chave.
+     *
+     * @param chave      A chave de idempotência enviada pelo cliente.
+     * @param requisicao O pedido recebido na requisição.
+     * @param criacao    A criação do pedido, executada somente se a chave
+     *                   ainda não tiver uma resposta guardada.
+     * @return A resposta da criação e se ela foi repetida de uma requisição
+     *         anterior.
+     * @throws IllegalArgumentException              Se a chave for vazia ou
+     *                                               maior que
+     *                                               {@value #TAMANHO_MAXIMO_CHAVE}
+     *                                               caracteres.
+     * @throws ChaveIdempotenciaReutilizadaException Se a chave já tiver sido
+     *                                               usada com outro pedido.
+     */
+    public RespostaIdempotente executar(String chave, PedidoDTO requisicao, Supplier<ResultadoCriacao> criacao) {
+        validarChave(chave);
+
+        while (true) {
+            CompletableFuture<Registro> nova = new CompletableFuture<>();
+            CompletableFuture<Registro> existente = respostas.asMap().putIfAbsent(chave, nova);
+            if (existente == null) {
+                descartarExcedentes();
+                try {
+                    ResultadoCriacao resultado = criacao.get();
+                    nova.complete(new Registro(requisicao, resultado));
+                    if (resultado instanceof ResultadoCriacao.Duplicado) {
+                        respostas.asMap().remove(chave, nova);
+                    }
+                    return new RespostaIdempotente(resultado, false);
+                } catch (RuntimeException e) {
+                    // Uma resposta que falhou é retirada do cache pelo Caffeine.
+                    nova.completeExceptionally(e);
+                    throw e;
+                }
+            }
+
+            Registro registro;
+            try {
+                registro = existente.join();
+            } catch (CompletionException e) {
+                // A requisição original falhou; esta tenta criar o pedido.
+                respostas.asMap().remove(chave, existente);
+                continue;
+            }
+            return repetir(registro, requisicao);
+        }
+    }
+
+    /**
+     * Método responsável por criar um pedido uma única vez por chave, sem
+     * bloquear a thread que o chama.
+     * Segue as mesmas regras de {@link #executar}, mas a criação retorna o
+     * seu resultado de forma assíncrona e as requisições simultâneas com a
+     * mesma chave são concluídas quando a primeira terminar, em vez de
+     * aguardá-la.
+     *
+     * @param chave      A chave de idempotência enviada pelo cliente.
+     * @param requisicao O pedido recebido na requisição.
+     * @param criacao    A criação do pedido, executada somente se a chave
+     *                   ainda não tiver uma resposta guardada.
+     * @return A resposta da criação e se ela foi repetida de uma requisição
+     *         anterior, concluída com
+     *         {@link ChaveIdempotenciaReutilizadaException} se a chave já
+     *         tiver sido usada com outro pedido.
+     * @throws IllegalArgumentException Se a chave for vazia ou maior que
+     *                                  {@value #TAMANHO_MAXIMO_CHAVE}
+     *                                  caracteres.
+     */
+    public CompletableFuture<RespostaIdempotente> executarAssincrono(String chave, PedidoDTO requisicao,
+            Supplier<CompletableFuture<ResultadoCriacao>> criacao) {
+        validarChave(chave);
+
+        CompletableFuture<Registro> nova = new CompletableFuture<>();
+        CompletableFuture<Registro> existente = respostas.asMap().putIfAbsent(chave, nova);
+        if (existente == null) {
+            descartarExcedentes();
+            CompletableFuture<ResultadoCriacao> criado;
+            try {
+                criado = criacao.get();
+            } catch (RuntimeException e) {
+                nova.completeExceptionally(e);
+                throw e;
+            }
+            return criado.whenComplete((resultado, erro) -> {
+                if (erro != null) {
+                    // Uma resposta que falhou é retirada do cache pelo Caffeine.
+                    nova.completeExceptionally(erro);
+                    return;
+                }
+                nova.complete(new Registro(requisicao, resultado));
+                if (resultado instanceof ResultadoCriacao.Duplicado) {
+                    respostas.asMap().remove(chave, nova);
+                }
+            }).thenApply(resultado -> new RespostaIdempotente(resultado, false));
+        }
+
+        return existente.handle((registro, erro) -> {
+            if (erro != null) {
+                // A requisição original falhou; esta tenta criar o pedido.
+                respostas.asMap().remove(chave, existente);
+                return executarAssincrono(chave, requisicao, criacao);
+            }
+            try {
+                return CompletableFuture.completedFuture(repetir(registro, requisicao));
+            } catch (ChaveIdempotenciaReutilizadaException e) {
+                return CompletableFuture.<RespostaIdempotente>failedFuture(e);
+            }
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Retorna a quantidade de respostas guardadas.
+     *
+     * @return A quantidade de chaves com resposta no cache.
+     */
+    long entradas() {
+        respostas.synchronous().cleanUp();
+        return respostas.synchronous().estimatedSize();
+    }
+
+    /**
+     * Descarta as chaves mais antigas enquanto a quantidade de chaves passar
+     * do máximo. As chaves cuja criação ainda não terminou não são
+     * descartadas. Se outra thread já estiver descartando, retorna sem
+     * aguardá-la.
+     */
+    private void descartarExcedentes() {
+        if (respostas.synchronous().estimatedSize() <= maximoChaves || !descarte.tryLock()) {
+            return;
+        }
+        try {
+            long excedente;
+            while ((excedente = respostas.synchronous().estimatedSize() - maximoChaves) > 0) {
+                int removidas = 0;
+                Map<String, Registro> antigas = expiracao.oldest((int) Math.min(excedente, DESCARTE_MAXIMO));
+                for (Map.Entry<String, Registro> antiga : antigas.entrySet()) {
+                    if (respostas.synchronous().asMap().remove(antiga.getKey(), antiga.getValue())) {
+                        removidas++;
+                    }
+                }
+                if (removidas == 0) {
+                    return;
+                }
+                descartadas.increment(removidas);
+            }
+        } finally {
+            descarte.unlock();
+        }
+    }
+
+    private static void validarChave(String chave) {
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IllegalArgumentException("A chave de idempotência deve ter entre 1 e "
+                    + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+    }
+
+    /**
+     * Retorna a resposta guardada para uma nova requisição com a mesma chave.
+     */
+    private static RespostaIdempotente repetir(Registro registro, PedidoDTO requisicao) {
+        if (!registro.requisicao().equals(requisicao)) {
+            throw new ChaveIdempotenciaReutilizadaException(
+                    "Chave de idempotência já utilizada com um pedido diferente.");
+        }
+        return new RespostaIdempotente(registro.resultado(),
+                registro.resultado() instanceof ResultadoCriacao.Criado);
+    }
+
+    /**
+     * Resposta de uma criação de pedido com chave de idempotência.
+     *
+     * @param resultado O resultado da criação.
+     * @param repetida  True se o pedido foi criado por uma requisição anterior
+     *                  com a mesma chave e a resposta foi repetida.
+     */
+    public record RespostaIdempotente(ResultadoCriacao resultado, boolean repetida) {
+    }
+
+    /**
+     * Pedido recebido na requisição original e o resultado da sua criação.
+     */
+    private record Registro(PedidoDTO requisicao, ResultadoCriacao resultado) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.rafael.pedido.importacao;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formatos de arquivo aceitos na importação de pedidos, identificados pela
+ * extensão do arquivo.
+ */
+public enum FormatoArquivo {
+
+    /**
+     * Um objeto JSON por linha, com os campos do PedidoDTO, como na exportação
+     * dos pedidos. Extensões {@code .ndjson} e {@code .jsonl}.
+     */
+    NDJSON,
+
+    /**
+     * Uma linha por pedido com os campos {@code id,cliente,valorTotal}, com um
+     * cabeçalho opcional. Extensão {@code .csv}.
+     */
+    CSV;
+
+    /**
+     * Identifica o formato de um arquivo pela sua extensão.
+     *
+     * @param arquivo O arquivo.
+     * @return O formato do arquivo.
+     * @throws IllegalArgumentException Se a extensão não for reconhecida.
+     */
+    public static FormatoArquivo doArquivo(Path arquivo) {
+        String nome = arquivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (nome.endsWith(".ndjson") || nome.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        if (nome.endsWith(".csv")) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Formato de arquivo não reconhecido: " + arquivo);
+    }
+}
@@ -0,0 +1,36 @@
+package com.rafael.pedido.importacao;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.pedido.repository.PedidoRepository;
+
+import jakarta.validation.Validator;
+
+/**
+ * Configuração responsável por criar o importador de pedidos em massa.
+ */
+@Configuration
+@EnableConfigurationProperties(ImportacaoProperties.class)
+public class ImportacaoConfig {
+
+    /**
+     * Cria o importador de pedidos com a quantidade de threads e o tamanho de
+     * bloco configurados.
+     *
+     * @param pedidoRepository o repositório onde os pedidos são salvos.
+     * @param objectMapper     o mapeador usado para ler as linhas NDJSON.
+     * @param validator        o validador aplicado a cada pedido lido.
+     * @param propriedades     as configurações da importação.
+     * @return o importador de pedidos.
+     */
+    @Bean
+    public ImportadorPedidos importadorPedidos(PedidoRepository pedidoRepository, ObjectMapper objectMapper,
+            Validator validator, ImportacaoProperties propriedades) {
+        int threads = propriedades.threads() > 0 ? propriedades.threads() : Runtime.getRuntime().availableProcessors();
+        return new ImportadorPedidos(pedidoRepository, objectMapper, validator, threads,
+                Math.toIntExact(propriedades.tamanhoBloco().toBytes()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.rafael.pedido.importacao;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Classe responsável por importar o arquivo configurado em
+ * {@code pedido.importacao.arquivo} na inicialização da aplicação e registrar
+ * no log a quantidade de pedidos importados e a vazão da importação.
+ * <p>
+ * Se a importação falhar, a inicialização é interrompida; ao iniciar a
+ * aplicação novamente com o mesmo arquivo, a importação continua do último
+ * bloco carregado.
+ */
+@Component
+@ConditionalOnProperty(prefix = "pedido.importacao", name = "arquivo")
+public class ImportacaoNaInicializacao implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportacaoNaInicializacao.class);
+
+    private final ImportadorPedidos importador;
+    private final ImportacaoProperties propriedades;
+
+    /**
+     * Construtor da importação na inicialização.
+     *
+     * @param importadorPedidos o importador de pedidos.
+     * @param propriedades      as configurações da importação.
+     */
+    public ImportacaoNaInicializacao(ImportadorPedidos importadorPedidos, ImportacaoProperties propriedades) {
+        this.importador = importadorPedidos;
+        this.propriedades = propriedades;
+    }
+
+    /**
+     * Importa o arquivo configurado.
+     *
+     * @param args os argumentos da aplicação.
+     * @throws IOException se o arquivo não puder ser importado.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        ResultadoImportacao resultado = importador.importar(propriedades.arquivo());
+        LOGGER.info("Importação de {} concluída em {} ms a partir do byte {}: {} pedidos importados, "
+                + "{} duplicados e {} inválidos ({} pedidos/s).", propriedades.arquivo(),
+                resultado.duracao().toMillis(), resultado.retomadoEm(), resultado.importados(),
+                resultado.duplicados(), resultado.invalidos(), Math.round(resultado.pedidosPorSegundo()));
+    }
+}
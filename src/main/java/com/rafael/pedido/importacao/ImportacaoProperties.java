@@ -0,0 +1,24 @@
+package com.rafael.pedido.importacao;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configurações da importação de pedidos em massa.
+ *
+ * @param arquivo      Arquivo NDJSON ou CSV importado na inicialização da
+ *                     aplicação, ou nulo para não importar nenhum arquivo.
+ * @param threads      Quantidade de threads que leem e validam os blocos do
+ *                     arquivo. Zero usa uma thread por processador.
+ * @param tamanhoBloco Tamanho aproximado de cada bloco do arquivo lido por
+ *                     uma thread e carregado no repositório de uma vez.
+ */
+@ConfigurationProperties(prefix = "pedido.importacao")
+public record ImportacaoProperties(
+        Path arquivo,
+        @DefaultValue("0") int threads,
+        @DefaultValue("4MB") DataSize tamanhoBloco) {
+}
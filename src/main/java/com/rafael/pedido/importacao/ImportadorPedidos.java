@@ -0,0 +1,319 @@
+package com.rafael.pedido.importacao;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.model.Centavos;
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+
+import jakarta.validation.Validator;
+
+/**
+ * Classe responsável por importar em massa os pedidos de um arquivo NDJSON ou
+ * CSV.
+ * <p>
+ * O arquivo é mapeado em memória em blocos terminados em fim de linha. Os
+ * blocos são lidos e validados em paralelo, com as mesmas regras do
+ * {@link PedidoDTO}, e carregados no repositório na ordem do arquivo, cada
+ * bloco com uma única chamada a
+ * {@link PedidoRepository#importarTodosSeAusentes(List)}. Pedidos com ID já
+ * existente são ignorados, assim como linhas que não contêm um pedido válido.
+ * Os pedidos importados não são publicados novamente, já que fazem parte do
+ * histórico do sistema de origem.
+ * <p>
+ * Depois de cada bloco carregado, a posição do fim do bloco é gravada em um
+ * arquivo de progresso ao lado do arquivo importado, com o sufixo
+ * {@value #SUFIXO_PROGRESSO}. Se a importação falhar, a próxima importação do
+ * mesmo arquivo continua a partir dessa posição; como os duplicados são
+ * ignorados, um bloco carregado novamente não gera pedidos repetidos. O
+ * arquivo de progresso é removido ao final de uma importação completa.
+ */
+public class ImportadorPedidos {
+
+    /** Sufixo do arquivo que guarda a posição já importada de um arquivo. */
+    public static final String SUFIXO_PROGRESSO = ".progresso";
+
+    private static final byte FIM_DE_LINHA = '\n';
+    private static final String CABECALHO_CSV = "id,cliente,valorTotal";
+
+    private final PedidoRepository repositorio;
+    private final ObjectReader leitor;
+    private final Validator validador;
+    private final int threads;
+    private final int tamanhoBloco;
+
+    /**
+     * Construtor do importador de pedidos.
+     *
+     * @param pedidoRepository o repositório onde os pedidos são salvos.
+     * @param objectMapper     o mapeador usado para ler as linhas NDJSON.
+     * @param validator        o validador aplicado a cada pedido lido.
+     * @param threads          a quantidade de threads que leem os blocos.
+     * @param tamanhoBloco     o tamanho aproximado de cada bloco, em bytes.
+     */
+    public ImportadorPedidos(PedidoRepository pedidoRepository, ObjectMapper objectMapper, Validator validator,
+            int threads, int tamanhoBloco) {
+        if (threads < 1 || tamanhoBloco < 1) {
+            throw new IllegalArgumentException("A quantidade de threads e o tamanho do bloco devem ser positivos.");
+        }
+        this.repositorio = pedidoRepository;
+        this.leitor = objectMapper.readerFor(PedidoDTO.class);
+        this.validador = validator;
+        this.threads = threads;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    /**
+     * Método responsável por importar os pedidos de um arquivo, retomando uma
+     * importação anterior interrompida, se houver.
+     *
+     * @param arquivo O arquivo NDJSON ou CSV, com o formato identificado pela
+     *                extensão.
+     * @return A quantidade de pedidos importados, duplicados e inválidos e a
+     *         duração da importação.
+     * @throws IOException Se o arquivo não puder ser lido ou uma linha for
+     *                     maior que o tamanho do bloco.
+     */
+    public ResultadoImportacao importar(Path arquivo) throws IOException {
+        FormatoArquivo formato = FormatoArquivo.doArquivo(arquivo);
+        Path progresso = arquivo.resolveSibling(arquivo.getFileName() + SUFIXO_PROGRESSO);
+        long inicio = System.nanoTime();
+        long importados = 0;
+        long duplicados = 0;
+        long invalidos = 0;
+        long retomadoEm;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            retomadoEm = lerProgresso(progresso, tamanho);
+            long posicao = retomadoEm;
+            Deque<Future<Bloco>> pendentes = new ArrayDeque<>();
+            IOException falha = null;
+
+            while ((posicao < tamanho && falha == null) || !pendentes.isEmpty()) {
+                while (posicao < tamanho && falha == null && pendentes.size() < threads * 2) {
+                    ByteBuffer regiao;
+                    try {
+                        regiao = proximoBloco(canal, posicao, tamanho);
+                    } catch (IOException e) {
+                        // Os blocos anteriores ainda são carregados, para que a
+                        // importação seja retomada a partir do bloco com falha.
+                        falha = e;
+                        break;
+                    }
+                    boolean primeiro = posicao == 0;
+                    posicao += regiao.limit();
+                    long fim = posicao;
+                    pendentes.add(executor.submit(() -> lerBloco(regiao, formato, primeiro, fim)));
+                }
+                if (pendentes.isEmpty()) {
+                    break;
+                }
+
+                Bloco bloco = aguardar(pendentes.removeFirst());
+                boolean[] salvos = repositorio.importarTodosSeAusentes(bloco.pedidos());
+                for (boolean salvo : salvos) {
+                    if (salvo) {
+                        importados++;
+                    } else {
+                        duplicados++;
+                    }
+                }
+                invalidos += bloco.invalidos();
+                gravarProgresso(progresso, bloco.fim());
+            }
+            if (falha != null) {
+                throw falha;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Files.deleteIfExists(progresso);
+        return new ResultadoImportacao(importados, duplicados, invalidos, retomadoEm,
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Mapeia o próximo bloco do arquivo, terminando no último fim de linha
+     * dentro do tamanho do bloco, ou no fim do arquivo.
+     */
+    private ByteBuffer proximoBloco(FileChannel canal, long posicao, long tamanho) throws IOException {
+        long tamanhoRegiao = Math.min(tamanhoBloco, tamanho - posicao);
+        ByteBuffer regiao = canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanhoRegiao);
+        if (posicao + tamanhoRegiao == tamanho) {
+            return regiao;
+        }
+
+        int fim = regiao.limit() - 1;
+        while (fim >= 0 && regiao.get(fim) != FIM_DE_LINHA) {
+            fim--;
+        }
+        if (fim < 0) {
+            throw new IOException("Linha maior que o tamanho do bloco na posição " + posicao + ".");
+        }
+        return regiao.limit(fim + 1);
+    }
+
+    /**
+     * Lê e valida os pedidos de um bloco do arquivo.
+     */
+    private Bloco lerBloco(ByteBuffer regiao, FormatoArquivo formato, boolean inicioDoArquivo, long fim) {
+        List<Pedido> pedidos = new ArrayList<>();
+        int invalidos = 0;
+        byte[] linha = new byte[256];
+
+        int inicioLinha = 0;
+        while (inicioLinha < regiao.limit()) {
+            int fimLinha = inicioLinha;
+            while (fimLinha < regiao.limit() && regiao.get(fimLinha) != FIM_DE_LINHA) {
+                fimLinha++;
+            }
+            int tamanhoLinha = fimLinha - inicioLinha;
+            if (tamanhoLinha > 0 && regiao.get(fimLinha - 1) == '\r') {
+                tamanhoLinha--;
+            }
+            if (linha.length < tamanhoLinha) {
+                linha = new byte[Math.max(tamanhoLinha, linha.length * 2)];
+            }
+            regiao.get(inicioLinha, linha, 0, tamanhoLinha);
+            boolean cabecalho = inicioDoArquivo && inicioLinha == 0 && formato == FormatoArquivo.CSV
+                    && CABECALHO_CSV.equalsIgnoreCase(new String(linha, 0, tamanhoLinha, StandardCharsets.UTF_8));
+            inicioLinha = fimLinha + 1;
+
+            if (cabecalho || emBranco(linha, tamanhoLinha)) {
+                continue;
+            }
+            PedidoDTO pedidoDTO = formato == FormatoArquivo.NDJSON
+                    ? lerJson(linha, tamanhoLinha)
+                    : lerCsv(new String(linha, 0, tamanhoLinha, StandardCharsets.UTF_8));
+            if (pedidoDTO != null && validador.validate(pedidoDTO).isEmpty()) {
+                pedidos.add(pedidoDTO.toEntity());
+            } else {
+                invalidos++;
+            }
+        }
+        return new Bloco(pedidos, invalidos, fim);
+    }
+
+    private PedidoDTO lerJson(byte[] linha, int tamanho) {
+        try {
+            return leitor.readValue(linha, 0, tamanho);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lê uma linha CSV com os campos {@code id,cliente,valorTotal}. Campos
+     * entre aspas podem conter vírgulas, e aspas dentro deles são escritas em
+     * dobro.
+     */
+    static PedidoDTO lerCsv(String linha) {
+        List<String> campos = new ArrayList<>(3);
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char caractere = linha.charAt(i);
+            if (entreAspas) {
+                if (caractere != '"') {
+                    campo.append(caractere);
+                } else if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else {
+                    entreAspas = false;
+                }
+            } else if (caractere == '"') {
+                entreAspas = true;
+            } else if (caractere == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(caractere);
+            }
+        }
+        campos.add(campo.toString());
+        if (entreAspas || campos.size() != 3) {
+            return null;
+        }
+
+        try {
+            long valorTotal = Centavos.deDecimal(new BigDecimal(campos.get(2).trim()));
+            return new PedidoDTO(campos.get(0), campos.get(1), valorTotal);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static boolean emBranco(byte[] linha, int tamanho) {
+        for (int i = 0; i < tamanho; i++) {
+            if (linha[i] != ' ' && linha[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long lerProgresso(Path progresso, long tamanhoArquivo) throws IOException {
+        if (!Files.exists(progresso)) {
+            return 0;
+        }
+        try {
+            long posicao = Long.parseLong(Files.readString(progresso).trim());
+            return posicao >= 0 && posicao <= tamanhoArquivo ? posicao : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Grava a posição já importada em um arquivo temporário e o move sobre o
+     * arquivo de progresso, para que uma falha durante a gravação não deixe um
+     * progresso incompleto.
+     */
+    private static void gravarProgresso(Path progresso, long posicao) throws IOException {
+        Path temporario = progresso.resolveSibling(progresso.getFileName() + ".tmp");
+        Files.writeString(temporario, Long.toString(posicao));
+        Files.move(temporario, progresso, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Bloco aguardar(Future<Bloco> bloco) throws IOException {
+        try {
+            return bloco.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importação interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao ler um bloco do arquivo.", e.getCause());
+        }
+    }
+
+    /**
+     * Pedidos válidos de um bloco do arquivo, a quantidade de linhas
+     * inválidas e a posição do fim do bloco no arquivo.
+     */
+    private record Bloco(List<Pedido> pedidos, int invalidos, long fim) {
+    }
+}
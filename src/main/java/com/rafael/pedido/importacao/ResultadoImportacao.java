@@ -0,0 +1,38 @@
+package com.rafael.pedido.importacao;
+
+import java.time.Duration;
+
+/**
+ * Resultado da importação de um arquivo de pedidos.
+ *
+ * @param importados Quantidade de pedidos salvos no repositório.
+ * @param duplicados Quantidade de pedidos ignorados porque o ID já existia.
+ * @param invalidos  Quantidade de linhas ignoradas por não conterem um pedido
+ *                   válido.
+ * @param retomadoEm Posição do arquivo, em bytes, a partir da qual a
+ *                   importação foi feita; maior que zero quando uma
+ *                   importação interrompida foi retomada.
+ * @param duracao    Duração da importação.
+ */
+public record ResultadoImportacao(long importados, long duplicados, long invalidos, long retomadoEm,
+        Duration duracao) {
+
+    /**
+     * Retorna a quantidade de linhas de pedidos lidas do arquivo.
+     *
+     * @return A soma dos pedidos importados, duplicados e inválidos.
+     */
+    public long lidos() {
+        return importados + duplicados + invalidos;
+    }
+
+    /**
+     * Retorna a vazão da importação, em pedidos lidos por segundo.
+     *
+     * @return A quantidade de pedidos lidos por segundo.
+     */
+    public double pedidosPorSegundo() {
+        long nanos = Math.max(duracao.toNanos(), 1);
+        return lidos() * 1e9 / nanos;
+    }
+}
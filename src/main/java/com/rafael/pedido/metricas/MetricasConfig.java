@@ -0,0 +1,42 @@
+package com.rafael.pedido.metricas;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.validation.Validator;
+
+/**
+ * Configuração responsável por instrumentar a validação dos pedidos recebidos
+ * pelo Spring MVC. Com o perfil {@code reativo}, a validação do Spring WebFlux
+ * é instrumentada pela {@link MetricasReativasConfig}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MetricasConfig implements WebMvcConfigurer {
+
+    private final Validator validador;
+    private final PedidoMetricas metricas;
+
+    /**
+     * Construtor da configuração das métricas.
+     *
+     * @param validator      o validador do Bean Validation da aplicação.
+     * @param pedidoMetricas as métricas de pedidos.
+     */
+    public MetricasConfig(Validator validator, PedidoMetricas pedidoMetricas) {
+        this.validador = validator;
+        this.metricas = pedidoMetricas;
+    }
+
+    /**
+     * Substitui o validador do Spring MVC por um que mede a validação dos
+     * pedidos.
+     *
+     * @return o validador instrumentado.
+     */
+    @Override
+    public org.springframework.validation.Validator getValidator() {
+        return new ValidadorInstrumentado(validador, metricas);
+    }
+}
@@ -0,0 +1,41 @@
+package com.rafael.pedido.metricas;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import jakarta.validation.Validator;
+
+/**
+ * Configuração responsável por instrumentar a validação dos pedidos recebidos
+ * pelo Spring WebFlux, usado com o perfil {@code reativo}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class MetricasReativasConfig implements WebFluxConfigurer {
+
+    private final Validator validador;
+    private final PedidoMetricas metricas;
+
+    /**
+     * Construtor da configuração das métricas da variante reativa.
+     *
+     * @param validator      o validador do Bean Validation da aplicação.
+     * @param pedidoMetricas as métricas de pedidos.
+     */
+    public MetricasReativasConfig(Validator validator, PedidoMetricas pedidoMetricas) {
+        this.validador = validator;
+        this.metricas = pedidoMetricas;
+    }
+
+    /**
+     * Substitui o validador do Spring WebFlux por um que mede a validação dos
+     * pedidos.
+     *
+     * @return o validador instrumentado.
+     */
+    @Override
+    public org.springframework.validation.Validator getValidator() {
+        return new ValidadorInstrumentado(validador, metricas);
+    }
+}
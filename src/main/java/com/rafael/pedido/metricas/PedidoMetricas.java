@@ -0,0 +1,159 @@
+package com.rafael.pedido.metricas;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Classe responsável pelas métricas da criação e da consulta de pedidos.
+ * Conta os pedidos criados, duplicados, não encontrados e inválidos e mede a
+ * latência de cada etapa (validação, repositório e publicação) em
+ * histogramas, publicados em {@code /actuator/prometheus}.
+ * <p>
+ * Todos os medidores são registrados na construção e as medições recebem a
+ * duração em nanossegundos, obtida com {@link System#nanoTime()}, de forma
+ * que registrar uma medição não aloca objetos no caminho das requisições.
+ */
+@Component
+public class PedidoMetricas {
+
+    private static final String ETAPA = "pedido.etapa";
+
+    private final Counter criados;
+    private final Counter duplicados;
+    private final Counter naoEncontrados;
+    private final Counter invalidos;
+
+    private final Timer validacao;
+    private final Timer gravacao;
+    private final Timer publicacao;
+    private final Timer consulta;
+
+    /**
+     * Construtor das métricas de pedidos.
+     *
+     * @param meterRegistry o registro onde as métricas são publicadas.
+     */
+    public PedidoMetricas(MeterRegistry meterRegistry) {
+        this.criados = contador("pedido.criados", "Pedidos criados", meterRegistry);
+        this.duplicados = contador("pedido.duplicados", "Pedidos recusados por ID já existente", meterRegistry);
+        this.naoEncontrados = contador("pedido.nao.encontrados", "Consultas de pedidos não encontrados",
+                meterRegistry);
+        this.invalidos = contador("pedido.invalidos", "Pedidos recusados na validação", meterRegistry);
+
+        this.validacao = etapa("validacao", "criar", meterRegistry);
+        this.gravacao = etapa("repositorio", "criar", meterRegistry);
+        this.publicacao = etapa("publicacao", "criar", meterRegistry);
+        this.consulta = etapa("repositorio", "consultar", meterRegistry);
+    }
+
+    /**
+     * Cria métricas que não registram nada, para uso fora do contexto do
+     * Spring.
+     *
+     * @return As métricas desabilitadas.
+     */
+    public static PedidoMetricas desabilitadas() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        registro.config().meterFilter(MeterFilter.deny());
+        return new PedidoMetricas(registro);
+    }
+
+    /**
+     * Conta pedidos criados.
+     *
+     * @param quantidade A quantidade de pedidos.
+     */
+    public void contarCriados(int quantidade) {
+        criados.increment(quantidade);
+    }
+
+    /**
+     * Conta pedidos recusados por já existir um pedido com o mesmo ID.
+     *
+     * @param quantidade A quantidade de pedidos.
+     */
+    public void contarDuplicados(int quantidade) {
+        duplicados.increment(quantidade);
+    }
+
+    /**
+     * Conta consultas de pedidos que não foram encontrados.
+     *
+     * @param quantidade A quantidade de pedidos.
+     */
+    public void contarNaoEncontrados(int quantidade) {
+        naoEncontrados.increment(quantidade);
+    }
+
+    /**
+     * Conta pedidos recusados na validação.
+     *
+     * @param quantidade A quantidade de pedidos.
+     */
+    public void contarInvalidos(int quantidade) {
+        invalidos.increment(quantidade);
+    }
+
+    /**
+     * Registra a duração da validação de um pedido.
+     *
+     * @param nanos A duração, em nanossegundos.
+     */
+    public void registrarValidacao(long nanos) {
+        validacao.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra a duração da gravação de um pedido no repositório.
+     *
+     * @param nanos A duração, em nanossegundos.
+     */
+    public void registrarGravacao(long nanos) {
+        gravacao.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra a duração do envio de um pedido ao publicador.
+     *
+     * @param nanos A duração, em nanossegundos.
+     */
+    public void registrarPublicacao(long nanos) {
+        publicacao.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra a duração da consulta de um pedido no repositório.
+     *
+     * @param nanos A duração, em nanossegundos.
+     */
+    public void registrarConsulta(long nanos) {
+        consulta.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Counter contador(String nome, String descricao, MeterRegistry meterRegistry) {
+        return Counter.builder(nome)
+                .description(descricao)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cria o histograma de latência de uma etapa, com faixas de 1 µs a 10 s.
+     */
+    private static Timer etapa(String etapa, String operacao, MeterRegistry meterRegistry) {
+        return Timer.builder(ETAPA)
+                .description("Latência de cada etapa da criação e da consulta de pedidos")
+                .tags("etapa", etapa, "operacao", operacao)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.rafael.pedido.metricas;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import com.rafael.pedido.dto.PedidoDTO;
+
+import jakarta.validation.Validator;
+
+/**
+ * Validador do Spring MVC e do Spring WebFlux que mede a validação dos
+ * pedidos recebidos com {@code @Valid} e conta os pedidos inválidos nas
+ * {@link PedidoMetricas}.
+ * Os demais objetos são validados sem medição.
+ */
+class ValidadorInstrumentado extends SpringValidatorAdapter {
+
+    private final PedidoMetricas metricas;
+
+    /**
+     * Construtor do validador instrumentado.
+     *
+     * @param validator      o validador do Bean Validation que faz a validação.
+     * @param pedidoMetricas as métricas onde a validação é registrada.
+     */
+    ValidadorInstrumentado(Validator validator, PedidoMetricas pedidoMetricas) {
+        super(validator);
+        this.metricas = pedidoMetricas;
+    }
+
+    @Override
+    public void validate(Object alvo, Errors erros) {
+        validate(alvo, erros, new Object[0]);
+    }
+
+    @Override
+    public void validate(Object alvo, Errors erros, Object... dicas) {
+        if (!(alvo instanceof PedidoDTO)) {
+            super.validate(alvo, erros, dicas);
+            return;
+        }
+
+        int errosAnteriores = erros.getErrorCount();
+        long inicio = System.nanoTime();
+        super.validate(alvo, erros, dicas);
+        metricas.registrarValidacao(System.nanoTime() - inicio);
+        if (erros.getErrorCount() > errosAnteriores) {
+            metricas.contarInvalidos(1);
+        }
+    }
+}
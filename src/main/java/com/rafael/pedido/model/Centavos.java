@@ -0,0 +1,90 @@
+package com.rafael.pedido.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversões entre valores monetários decimais e valores em centavos.
+ * <p>
+ * Os valores são guardados em centavos, em um {@code long}, e convertidos de e
+ * para a representação decimal somente nas bordas da aplicação, sem passar
+ * por {@code double}.
+ */
+public final class Centavos {
+
+    /** Quantidade de casas decimais de um valor monetário. */
+    public static final int CASAS_DECIMAIS = 2;
+
+    private static final long CENTAVOS_POR_UNIDADE = 100;
+    private static final int MAXIMO_DIGITOS_INTEIROS = 17;
+
+    private Centavos() {
+    }
+
+    /**
+     * Converte um valor decimal em centavos, sem arredondamento.
+     *
+     * @param valor O valor decimal.
+     * @return O valor em centavos.
+     * @throws ArithmeticException Se o valor tiver mais de duas casas decimais
+     *                             ou não couber em um {@code long}.
+     */
+    public static long deDecimal(BigDecimal valor) {
+        // Normaliza antes de validar, para que expoentes muito grandes, como em
+        // 1e999999999, sejam recusados sem calcular potências de dez enormes.
+        BigDecimal normalizado = valor.stripTrailingZeros();
+        if (normalizado.scale() > CASAS_DECIMAIS) {
+            throw new ArithmeticException("Valor com mais de " + CASAS_DECIMAIS + " casas decimais: " + valor);
+        }
+        if (normalizado.precision() - normalizado.scale() > MAXIMO_DIGITOS_INTEIROS) {
+            throw new ArithmeticException("Valor grande demais: " + valor);
+        }
+        return normalizado.setScale(CASAS_DECIMAIS).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converte um valor inteiro, sem casas decimais, em centavos.
+     *
+     * @param valor O valor inteiro.
+     * @return O valor em centavos.
+     * @throws ArithmeticException Se o valor em centavos não couber em um
+     *                             {@code long}.
+     */
+    public static long deInteiro(long valor) {
+        return Math.multiplyExact(valor, CENTAVOS_POR_UNIDADE);
+    }
+
+    /**
+     * Converte um valor em ponto flutuante em centavos, arredondando para o
+     * centavo mais próximo. Usado somente para ler registros gravados antes
+     * de os valores serem guardados em centavos.
+     *
+     * @param valor O valor em ponto flutuante.
+     * @return O valor em centavos.
+     */
+    public static long deDouble(double valor) {
+        return deDecimal(BigDecimal.valueOf(valor).setScale(CASAS_DECIMAIS, RoundingMode.HALF_EVEN));
+    }
+
+    /**
+     * Formata um valor em centavos como um número decimal com duas casas, como
+     * {@code 1234.50}.
+     *
+     * @param centavos O valor em centavos.
+     * @return O valor formatado.
+     */
+    public static String formatar(long centavos) {
+        long inteiro = Math.abs(centavos / CENTAVOS_POR_UNIDADE);
+        int fracao = (int) Math.abs(centavos % CENTAVOS_POR_UNIDADE);
+
+        StringBuilder texto = new StringBuilder(24);
+        if (centavos < 0) {
+            texto.append('-');
+        }
+        texto.append(inteiro).append('.');
+        if (fracao < 10) {
+            texto.append('0');
+        }
+        return texto.append(fracao).toString();
+    }
+}
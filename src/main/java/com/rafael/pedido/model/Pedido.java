@@ -2,39 +2,61 @@ package com.rafael.pedido.model;
 
 /**
  * Representa um pedido no sistema.
- * Contém as informações do pedido, como o valor total, status e dados do
- * cliente.
- * A classe também valida a consistência dos dados antes de permitir que o
- * pedido seja criado.
+ * Contém as informações do pedido, como o valor total e os dados do cliente.
+ * <p>
+ * O pedido é imutável e guarda o valor total em centavos, em um {@code long},
+ * para que valores monetários não sofram arredondamentos de ponto flutuante.
+ * <p>
+ * A versão do pedido é um hash dos seus dados, calculado uma única vez na
+ * criação do objeto e guardado junto com ele. Pedidos com os mesmos dados têm
+ * a mesma versão, de forma que ela pode ser usada como ETag nas consultas.
+ * Os armazenamentos que guardam os pedidos fora do heap gravam a versão junto
+ * com os dados e a informam ao recriar o pedido, sem recalculá-la.
  */
-public class Pedido {
-    private String id;
-    private String cliente;
-    private double valorTotal;
+public final class Pedido {
+    private static final long FNV_BASE = 0xcbf29ce484222325L;
+    private static final long FNV_PRIMO = 0x100000001b3L;
 
-    public Pedido() {
-    }
+    private final String id;
+    private final String cliente;
+    private final long valorTotalCentavos;
+    private final long versao;
 
     /**
      * Construtor para inicializar um pedido com os dados fornecidos.
-     * 
-     * @param id         O identificador do pedido.
-     * @param cliente    O nome do cliente associado ao pedido.
-     * @param valorTotal O valor total do pedido.
+     *
+     * @param id                 O identificador do pedido.
+     * @param cliente            O nome do cliente associado ao pedido.
+     * @param valorTotalCentavos O valor total do pedido, em centavos.
+     */
+    public Pedido(String id, String cliente, long valorTotalCentavos) {
+        this(id, cliente, valorTotalCentavos, calcularVersao(id, cliente, valorTotalCentavos));
+    }
+
+    /**
+     * Construtor para recriar um pedido cuja versão já foi calculada, usado
+     * pelos armazenamentos que guardam a versão junto com os dados.
+     *
+     * @param id                 O identificador do pedido.
+     * @param cliente            O nome do cliente associado ao pedido.
+     * @param valorTotalCentavos O valor total do pedido, em centavos.
+     * @param versao             A versão dos mesmos dados, retornada por
+     *                           {@link #getVersao()}.
      */
-    public Pedido(String id, String cliente, double valorTotal) {
+    public Pedido(String id, String cliente, long valorTotalCentavos, long versao) {
         this.id = id;
         this.cliente = cliente;
-        this.valorTotal = valorTotal;
+        this.valorTotalCentavos = valorTotalCentavos;
+        this.versao = versao;
     }
 
     /**
      * Construtor para inicializar um pedido com apenas o ID.
-     * 
+     *
      * @param id O identificador do pedido.
      */
     public Pedido(String id) {
-        this.id = id;
+        this(id, null, 0);
     }
 
     public String getId() {
@@ -45,19 +67,42 @@ public class Pedido {
         return cliente;
     }
 
-    public double getValorTotal() {
-        return valorTotal;
+    public long getValorTotalCentavos() {
+        return valorTotalCentavos;
     }
 
-    public void setId(String id) {
-        this.id = id;
+    /**
+     * Retorna a versão dos dados do pedido.
+     *
+     * @return O hash do ID, do cliente e do valor total do pedido.
+     */
+    public long getVersao() {
+        return versao;
     }
 
-    public void setCliente(String cliente) {
-        this.cliente = cliente;
+    /**
+     * Calcula o hash FNV-1a de 64 bits dos dados do pedido. O cliente nulo e
+     * o vazio são diferenciados por um separador antes de cada texto.
+     */
+    private static long calcularVersao(String id, String cliente, long valorTotalCentavos) {
+        long hash = adicionar(FNV_BASE, id);
+        hash = adicionar(hash, cliente);
+        for (int deslocamento = 0; deslocamento < Long.SIZE; deslocamento += Byte.SIZE) {
+            hash = (hash ^ (valorTotalCentavos >>> deslocamento & 0xff)) * FNV_PRIMO;
+        }
+        return hash;
     }
 
-    public void setValorTotal(double valorTotal) {
-        this.valorTotal = valorTotal;
+    private static long adicionar(long hash, String texto) {
+        if (texto == null) {
+            return (hash ^ 0xff) * FNV_PRIMO;
+        }
+        hash = (hash ^ 0xfe) * FNV_PRIMO;
+        for (int i = 0; i < texto.length(); i++) {
+            char caractere = texto.charAt(i);
+            hash = (hash ^ (caractere >>> 8)) * FNV_PRIMO;
+            hash = (hash ^ (caractere & 0xff)) * FNV_PRIMO;
+        }
+        return hash;
     }
-}
\ No newline at end of file
+}
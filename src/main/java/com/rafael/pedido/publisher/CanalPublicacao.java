@@ -0,0 +1,23 @@
+package com.rafael.pedido.publisher;
+
+import java.util.List;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Define o canal utilizado pelo {@link PedidoPublisher} para entregar os
+ * pedidos a um sistema externo, como RabbitMQ ou Kafka.
+ * As implementações são chamadas pelas threads remetentes do publicador, nunca
+ * pelas threads das requisições.
+ */
+public interface CanalPublicacao {
+
+    /**
+     * Publica um lote de pedidos no sistema externo.
+     *
+     * @param pedidos Os pedidos a serem publicados, na ordem em que foram
+     *                enfileirados.
+     * @throws RuntimeException se o lote não puder ser publicado.
+     */
+    void publicar(List<Pedido> pedidos);
+}
@@ -0,0 +1,17 @@
+package com.rafael.pedido.publisher;
+
+import java.util.List;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Canal de publicação que simula o envio de pedidos para um sistema externo.
+ * Neste exemplo, o envio é simulado e não há implementação real.
+ */
+public class CanalPublicacaoSimulado implements CanalPublicacao {
+
+    @Override
+    public void publicar(List<Pedido> pedidos) {
+        // Lógica de envio do lote de pedidos para um sistema externo ( RabbitMQ, Kafka, etc.)
+    }
+}
@@ -0,0 +1,22 @@
+package com.rafael.pedido.publisher;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurações do relay do outbox de pedidos.
+ *
+ * @param intervalo    Intervalo entre as execuções do relay.
+ * @param tamanhoLote  Quantidade máxima de pedidos reservados por vez no
+ *                     outbox.
+ * @param tempoReenvio Tempo sem confirmação após o qual um pedido enfileirado
+ *                     volta a ser publicado.
+ */
+@ConfigurationProperties(prefix = "pedido.outbox")
+public record OutboxProperties(
+        @DefaultValue("1s") Duration intervalo,
+        @DefaultValue("500") int tamanhoLote,
+        @DefaultValue("30s") Duration tempoReenvio) {
+}
@@ -1,24 +1,392 @@
 package com.rafael.pedido.publisher;
 
-import org.springframework.stereotype.Component;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.rafael.pedido.model.Pedido;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Classe responsável por publicar pedidos em um sistema externo.
- * Esta classe simula o envio de pedidos para um sistema externo, como RabbitMQ
- * ou Kafka.
+ * A publicação é assíncrona: os pedidos são colocados em uma fila circular de
+ * capacidade limitada e as threads remetentes os retiram da fila e os
+ * publicam em lotes pelo {@link CanalPublicacao}, de forma que a latência do
+ * sistema externo não seja somada à latência das requisições.
+ * <p>
+ * Um lote é publicado quando atinge o tamanho máximo ou quando o seu primeiro
+ * pedido aguardou o intervalo máximo configurado. Quando a fila está cheia, a
+ * {@link PoliticaFilaCheia} configurada define se a requisição aguarda, se o
+ * pedido mais antigo é descartado ou se o novo pedido é rejeitado.
+ * <p>
+ * Os ouvintes registrados com {@link #aoConfirmarPublicacao(Consumer)} são
+ * avisados de cada lote publicado com sucesso, permitindo que o outbox de
+ * pedidos registre as entregas. Quem precisa aguardar a publicação de um
+ * pedido específico, sem ocupar uma thread, usa
+ * {@link #publicarPedido(Pedido)}, que retorna a confirmação da publicação.
  */
-@Component
-public class PedidoPublisher {
+public class PedidoPublisher implements Closeable {
+
+    /**
+     * Prefixo do nome das threads remetentes.
+     */
+    public static final String PREFIXO_THREADS = "pedido-publicador-";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PedidoPublisher.class);
+    private static final Duration TEMPO_MAXIMO_ENCERRAMENTO = Duration.ofSeconds(10);
+
+    private final CanalPublicacao canal;
+    private final BlockingQueue<Envio> fila;
+    private final int tamanhoLote;
+    private final long intervaloLoteNanos;
+    private final PoliticaFilaCheia politica;
+    private final long tempoMaximoBloqueioNanos;
+    private final List<Thread> remetentes;
+    private final List<Consumer<List<Pedido>>> ouvintes = new CopyOnWriteArrayList<>();
+
+    private final DistributionSummary tamanhoDosLotes;
+    private final Counter descartados;
+    private final Counter rejeitados;
+    private final Counter falhas;
+
+    private volatile boolean fechado;
+
+    /**
+     * Construtor do publicador de pedidos com threads remetentes de plataforma.
+     * As threads remetentes são iniciadas imediatamente.
+     *
+     * @param canalPublicacao o canal utilizado para publicar os pedidos.
+     * @param propriedades    as configurações da publicação.
+     * @param meterRegistry   o registro onde as métricas da fila e dos lotes
+     *                        são publicadas.
+     */
+    public PedidoPublisher(CanalPublicacao canalPublicacao, PublicacaoProperties propriedades,
+            MeterRegistry meterRegistry) {
+        this(canalPublicacao, propriedades, meterRegistry, threadsDePlataforma());
+    }
+
+    /**
+     * Construtor do publicador de pedidos.
+     * As threads remetentes são criadas pela fábrica informada, que pode criar
+     * threads virtuais, e iniciadas imediatamente.
+     *
+     * @param canalPublicacao o canal utilizado para publicar os pedidos.
+     * @param propriedades    as configurações da publicação.
+     * @param meterRegistry   o registro onde as métricas da fila e dos lotes
+     *                        são publicadas.
+     * @param fabricaThreads  a fábrica das threads remetentes.
+     */
+    public PedidoPublisher(CanalPublicacao canalPublicacao, PublicacaoProperties propriedades,
+            MeterRegistry meterRegistry, ThreadFactory fabricaThreads) {
+        this.canal = canalPublicacao;
+        this.fila = new ArrayBlockingQueue<>(propriedades.capacidade());
+        this.tamanhoLote = propriedades.tamanhoLote();
+        this.intervaloLoteNanos = propriedades.intervaloLote().toNanos();
+        this.politica = propriedades.politicaFilaCheia();
+        this.tempoMaximoBloqueioNanos = propriedades.tempoMaximoBloqueio().toNanos();
+
+        Gauge.builder("pedido.publicacao.fila", fila, Collection::size)
+                .description("Pedidos aguardando publicação")
+                .register(meterRegistry);
+        Gauge.builder("pedido.publicacao.fila.capacidade", fila, f -> f.size() + f.remainingCapacity())
+                .description("Capacidade da fila de publicação")
+                .register(meterRegistry);
+        this.tamanhoDosLotes = DistributionSummary.builder("pedido.publicacao.lote")
+                .description("Quantidade de pedidos por lote publicado")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.descartados = Counter.builder("pedido.publicacao.descartados")
+                .description("Pedidos descartados por falta de espaço na fila")
+                .register(meterRegistry);
+        this.rejeitados = Counter.builder("pedido.publicacao.rejeitados")
+                .description("Pedidos rejeitados por falta de espaço na fila")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("pedido.publicacao.falhas")
+                .description("Pedidos cuja publicação falhou")
+                .register(meterRegistry);
+
+        List<Thread> threads = new ArrayList<>(propriedades.remetentes());
+        for (int i = 0; i < propriedades.remetentes(); i++) {
+            Thread remetente = fabricaThreads.newThread(this::enviarContinuamente);
+            remetente.start();
+            threads.add(remetente);
+        }
+        this.remetentes = List.copyOf(threads);
+    }
 
     /**
      * Método responsável por enviar um pedido para um sistema externo.
-     * Neste exemplo, o envio é simulado e não há implementação real.
+     * O pedido é enfileirado e publicado de forma assíncrona.
      *
      * @param pedido O pedido a ser enviado.
+     * @throws PublicacaoRejeitadaException se a fila estiver cheia e a política
+     *                                      configurada não permitir aguardar
+     *                                      ou descartar, ou se o publicador
+     *                                      estiver encerrado.
      */
     public void enviarPedido(Pedido pedido) {
-        // Lógica de envio do pedido para um sistema externo ( RabbitMQ, Kafka, etc.)
+        verificarAberto();
+        enfileirar(new Envio(pedido, null));
+    }
+
+    /**
+     * Método responsável por enviar um pedido para um sistema externo sem
+     * bloquear a thread que o chama, mesmo com a política
+     * {@link PoliticaFilaCheia#BLOQUEAR}: se a fila estiver cheia, o pedido é
+     * rejeitado em vez de aguardar espaço.
+     * O pedido é publicado de forma assíncrona, como em
+     * {@link #enviarPedido(Pedido)}, e a confirmação retornada é concluída,
+     * na thread remetente, quando o lote do pedido for publicado.
+     *
+     * @param pedido O pedido a ser enviado.
+     * @return A confirmação da publicação, concluída com
+     *         {@link PublicacaoRejeitadaException} se o pedido não couber na
+     *         fila, for descartado ou se o publicador estiver encerrado, ou
+     *         com o erro do canal se a publicação do lote falhar.
+     */
+    public CompletableFuture<Void> publicarPedido(Pedido pedido) {
+        CompletableFuture<Void> confirmacao = new CompletableFuture<>();
+        if (fechado) {
+            confirmacao.completeExceptionally(
+                    new PublicacaoRejeitadaException("O publicador de pedidos está encerrado."));
+        } else if (politica == PoliticaFilaCheia.DESCARTAR_MAIS_ANTIGO) {
+            enfileirar(new Envio(pedido, confirmacao));
+        } else if (!fila.offer(new Envio(pedido, confirmacao))) {
+            rejeitados.increment();
+            confirmacao.completeExceptionally(new PublicacaoRejeitadaException("Fila de publicação de pedidos cheia."));
+        }
+        return confirmacao;
+    }
+
+    /**
+     * Método responsável por enviar um lote de pedidos para um sistema externo.
+     * Os pedidos são enfileirados e publicados de forma assíncrona, agrupados
+     * com os demais pedidos da fila.
+     *
+     * @param pedidos Os pedidos a serem enviados.
+     * @throws PublicacaoRejeitadaException se a fila não tiver espaço para os
+     *                                      pedidos e a política configurada não
+     *                                      permitir aguardar ou descartar, ou
+     *                                      se o publicador estiver encerrado.
+     */
+    public void enviarPedidos(List<Pedido> pedidos) {
+        verificarAberto();
+        if (politica == PoliticaFilaCheia.REJEITAR && fila.remainingCapacity() < pedidos.size()) {
+            rejeitados.increment(pedidos.size());
+            throw new PublicacaoRejeitadaException("Fila de publicação de pedidos cheia.");
+        }
+        for (Pedido pedido : pedidos) {
+            enfileirar(new Envio(pedido, null));
+        }
+    }
+
+    /**
+     * Registra um ouvinte avisado, na thread remetente, de cada lote publicado
+     * com sucesso.
+     *
+     * @param ouvinte O ouvinte que recebe os pedidos publicados.
+     */
+    public void aoConfirmarPublicacao(Consumer<List<Pedido>> ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Retorna quantos pedidos ainda cabem na fila de publicação.
+     *
+     * @return O espaço livre na fila.
+     */
+    public int espacoLivre() {
+        return fila.remainingCapacity();
+    }
+
+    /**
+     * Retorna a quantidade de pedidos aguardando publicação.
+     *
+     * @return A quantidade de pedidos na fila.
+     */
+    public int pendentes() {
+        return fila.size();
+    }
+
+    /**
+     * Encerra o publicador.
+     * Novos pedidos passam a ser rejeitados e as threads remetentes publicam os
+     * pedidos que ainda estão na fila antes de terminar.
+     */
+    @Override
+    public void close() {
+        fechado = true;
+        long prazo = System.nanoTime() + TEMPO_MAXIMO_ENCERRAMENTO.toNanos();
+        try {
+            for (Thread remetente : remetentes) {
+                TimeUnit.NANOSECONDS.timedJoin(remetente, Math.max(1, prazo - System.nanoTime()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cria a fábrica padrão das threads remetentes: threads de plataforma do
+     * tipo daemon, nomeadas na ordem de criação.
+     */
+    private static ThreadFactory threadsDePlataforma() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, PREFIXO_THREADS + contador.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void verificarAberto() {
+        if (fechado) {
+            throw new PublicacaoRejeitadaException("O publicador de pedidos está encerrado.");
+        }
+    }
+
+    private void enfileirar(Envio envio) {
+        switch (politica) {
+            case BLOQUEAR -> {
+                boolean aceito;
+                try {
+                    aceito = fila.offer(envio, tempoMaximoBloqueioNanos, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    aceito = false;
+                }
+                if (!aceito) {
+                    rejeitar();
+                }
+            }
+            case DESCARTAR_MAIS_ANTIGO -> {
+                while (!fila.offer(envio)) {
+                    Envio descartado = fila.poll();
+                    if (descartado != null) {
+                        descartados.increment();
+                        descartado.rejeitar(new PublicacaoRejeitadaException(
+                                "Pedido descartado da fila de publicação cheia."));
+                    }
+                }
+            }
+            case REJEITAR -> {
+                if (!fila.offer(envio)) {
+                    rejeitar();
+                }
+            }
+        }
+    }
+
+    private void rejeitar() {
+        rejeitados.increment();
+        throw new PublicacaoRejeitadaException("Fila de publicação de pedidos cheia.");
+    }
+
+    private void enviarContinuamente() {
+        while (!fechado || !fila.isEmpty()) {
+            List<Envio> lote;
+            try {
+                lote = montarLote();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!lote.isEmpty()) {
+                publicar(lote);
+            }
+        }
+    }
+
+    /**
+     * Aguarda o primeiro pedido e agrupa os seguintes até completar o tamanho
+     * máximo do lote ou até o intervalo máximo se esgotar.
+     */
+    private List<Envio> montarLote() throws InterruptedException {
+        Envio primeiro = fila.poll(intervaloLoteNanos, TimeUnit.NANOSECONDS);
+        if (primeiro == null) {
+            return List.of();
+        }
+
+        List<Envio> lote = new ArrayList<>(tamanhoLote);
+        lote.add(primeiro);
+        long prazo = System.nanoTime() + intervaloLoteNanos;
+        while (lote.size() < tamanhoLote) {
+            if (fila.drainTo(lote, tamanhoLote - lote.size()) > 0) {
+                continue;
+            }
+            long restante = prazo - System.nanoTime();
+            if (restante <= 0 || fechado) {
+                break;
+            }
+            Envio proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+            if (proximo == null) {
+                break;
+            }
+            lote.add(proximo);
+        }
+        return lote;
+    }
+
+    private void publicar(List<Envio> lote) {
+        tamanhoDosLotes.record(lote.size());
+        List<Pedido> pedidos = new ArrayList<>(lote.size());
+        for (Envio envio : lote) {
+            pedidos.add(envio.pedido());
+        }
+        List<Pedido> publicados = Collections.unmodifiableList(pedidos);
+        try {
+            canal.publicar(publicados);
+        } catch (RuntimeException e) {
+            falhas.increment(lote.size());
+            LOGGER.warn("Falha ao publicar um lote de {} pedidos.", lote.size(), e);
+            for (Envio envio : lote) {
+                envio.rejeitar(e);
+            }
+            return;
+        }
+
+        for (Consumer<List<Pedido>> ouvinte : ouvintes) {
+            try {
+                ouvinte.accept(publicados);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Falha ao confirmar a publicação de um lote de {} pedidos.", lote.size(), e);
+            }
+        }
+        for (Envio envio : lote) {
+            if (envio.confirmacao() != null) {
+                envio.confirmacao().complete(null);
+            }
+        }
+    }
+
+    /**
+     * Pedido na fila de publicação e a sua confirmação, ou nulo se ninguém
+     * aguarda a publicação do pedido.
+     */
+    private record Envio(Pedido pedido, CompletableFuture<Void> confirmacao) {
+
+        void rejeitar(Throwable erro) {
+            if (confirmacao != null) {
+                confirmacao.completeExceptionally(erro);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.rafael.pedido.publisher;
+
+/**
+ * Define o comportamento do {@link PedidoPublisher} quando a fila de pedidos
+ * aguardando publicação está cheia.
+ */
+public enum PoliticaFilaCheia {
+
+    /**
+     * A requisição aguarda espaço na fila até o tempo máximo de bloqueio e, se
+     * ele se esgotar, o pedido é rejeitado.
+     */
+    BLOQUEAR,
+
+    /**
+     * O pedido mais antigo da fila é descartado para dar lugar ao novo.
+     */
+    DESCARTAR_MAIS_ANTIGO,
+
+    /**
+     * O pedido é rejeitado imediatamente pela fila e fica no outbox, de onde
+     * é publicado depois pelo {@link RelayOutbox}. A criação do pedido não
+     * falha por isso.
+     */
+    REJEITAR
+}
@@ -0,0 +1,58 @@
+package com.rafael.pedido.publisher;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuração responsável por criar o publicador de pedidos e o canal
+ * utilizado por ele.
+ */
+@Configuration
+@EnableConfigurationProperties({ PublicacaoProperties.class, OutboxProperties.class })
+public class PublicacaoConfig {
+
+    /**
+     * Cria o canal simulado de publicação, utilizado quando nenhum outro canal
+     * for configurado.
+     *
+     * @return o canal simulado de publicação.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CanalPublicacao canalPublicacao() {
+        return new CanalPublicacaoSimulado();
+    }
+
+    /**
+     * Cria o publicador de pedidos e inicia as suas threads remetentes.
+     * Com {@code spring.threads.virtual.enabled=true} em Java 21 ou superior,
+     * as threads remetentes são virtuais, como as threads das requisições, e a
+     * espera pelo canal de publicação não ocupa uma thread de plataforma.
+     *
+     * @param canalPublicacao o canal utilizado para publicar os pedidos.
+     * @param propriedades    as configurações da publicação.
+     * @param meterRegistry   o registro das métricas da publicação.
+     * @param environment     o ambiente, consultado para saber se as threads
+     *                        virtuais estão habilitadas.
+     * @return o publicador de pedidos.
+     */
+    @Bean
+    public PedidoPublisher pedidoPublisher(CanalPublicacao canalPublicacao, PublicacaoProperties propriedades,
+            MeterRegistry meterRegistry, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            ThreadFactory threadsVirtuais = new VirtualThreadTaskExecutor(PedidoPublisher.PREFIXO_THREADS)
+                    .getVirtualThreadFactory();
+            return new PedidoPublisher(canalPublicacao, propriedades, meterRegistry, threadsVirtuais);
+        }
+        return new PedidoPublisher(canalPublicacao, propriedades, meterRegistry);
+    }
+}
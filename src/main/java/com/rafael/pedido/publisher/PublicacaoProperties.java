@@ -0,0 +1,33 @@
+package com.rafael.pedido.publisher;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurações da publicação assíncrona dos pedidos.
+ *
+ * @param capacidade          Quantidade máxima de pedidos aguardando
+ *                            publicação.
+ * @param tamanhoLote         Quantidade máxima de pedidos publicados em um
+ *                            único lote.
+ * @param intervaloLote       Tempo máximo que o primeiro pedido de um lote
+ *                            aguarda pelos demais antes de o lote ser
+ *                            publicado.
+ * @param remetentes          Quantidade de threads que publicam os lotes.
+ * @param politicaFilaCheia   O que fazer com um novo pedido quando a fila está
+ *                            cheia.
+ * @param tempoMaximoBloqueio Tempo máximo que uma requisição aguarda espaço na
+ *                            fila com a política
+ *                            {@link PoliticaFilaCheia#BLOQUEAR}.
+ */
+@ConfigurationProperties(prefix = "pedido.publicacao")
+public record PublicacaoProperties(
+        @DefaultValue("8192") int capacidade,
+        @DefaultValue("500") int tamanhoLote,
+        @DefaultValue("20ms") Duration intervaloLote,
+        @DefaultValue("1") int remetentes,
+        @DefaultValue("BLOQUEAR") PoliticaFilaCheia politicaFilaCheia,
+        @DefaultValue("1s") Duration tempoMaximoBloqueio) {
+}
@@ -0,0 +1,20 @@
+package com.rafael.pedido.publisher;
+
+/**
+ * Exceção lançada quando o {@link PedidoPublisher} não consegue aceitar um
+ * pedido para publicação, seja porque a fila está cheia ou porque o publicador
+ * foi encerrado.
+ */
+public class PublicacaoRejeitadaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Construtor da exceção.
+     *
+     * @param mensagem A mensagem de erro.
+     */
+    public PublicacaoRejeitadaException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,98 @@
+package com.rafael.pedido.publisher;
+
+import java.util.List;
+
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Relay do outbox de pedidos.
+ * Periodicamente reserva no repositório os pedidos cuja publicação ainda não
+ * foi confirmada e os enfileira no {@link PedidoPublisher} em lotes,
+ * respeitando o espaço livre da fila. Cada lote publicado com sucesso é
+ * confirmado no repositório, retirando os pedidos do outbox.
+ * <p>
+ * Junto com o outbox gravado no mesmo registro do pedido, garante que todo
+ * pedido salvo seja publicado pelo menos uma vez, mesmo que a aplicação caia
+ * entre salvar e publicar ou que a publicação falhe.
+ */
+@Component
+public class RelayOutbox implements SchedulingConfigurer {
+
+    private final PedidoRepository repositorio;
+    private final PedidoPublisher publicador;
+    private final OutboxProperties propriedades;
+    private final Counter reenviados;
+
+    /**
+     * Construtor do relay do outbox.
+     * Registra o relay como ouvinte das publicações confirmadas.
+     *
+     * @param pedidoRepository o repositório que guarda o outbox.
+     * @param pedidoPublisher  o publicador dos pedidos.
+     * @param propriedades     as configurações do relay.
+     * @param meterRegistry    o registro das métricas do outbox.
+     */
+    public RelayOutbox(PedidoRepository pedidoRepository, PedidoPublisher pedidoPublisher,
+            OutboxProperties propriedades, MeterRegistry meterRegistry) {
+        this.repositorio = pedidoRepository;
+        this.publicador = pedidoPublisher;
+        this.propriedades = propriedades;
+        this.reenviados = Counter.builder("pedido.outbox.reenviados")
+                .description("Pedidos enfileirados para publicação pelo relay do outbox")
+                .register(meterRegistry);
+        Gauge.builder("pedido.outbox.pendentes", pedidoRepository, PedidoRepository::enviosPendentes)
+                .description("Pedidos com publicação ainda não confirmada")
+                .register(meterRegistry);
+
+        publicador.aoConfirmarPublicacao(this::confirmar);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::publicarPendentes, propriedades.intervalo());
+    }
+
+    /**
+     * Enfileira para publicação os pedidos pendentes do outbox, em lotes, até
+     * que não haja mais pedidos prontos para reenvio ou espaço na fila.
+     *
+     * @return A quantidade de pedidos enfileirados.
+     */
+    public int publicarPendentes() {
+        int pendentes = repositorio.enviosPendentes();
+        int enfileirados = 0;
+
+        while (enfileirados < pendentes) {
+            int limite = Math.min(propriedades.tamanhoLote(), publicador.espacoLivre());
+            if (limite == 0) {
+                break;
+            }
+            List<Pedido> lote = repositorio.reservarEnviosPendentes(limite, propriedades.tempoReenvio());
+            if (lote.isEmpty()) {
+                break;
+            }
+            try {
+                publicador.enviarPedidos(lote);
+            } catch (PublicacaoRejeitadaException e) {
+                // Os pedidos continuam no outbox e serão reenviados depois do tempo de reenvio.
+                break;
+            }
+            enfileirados += lote.size();
+            reenviados.increment(lote.size());
+        }
+        return enfileirados;
+    }
+
+    private void confirmar(List<Pedido> pedidos) {
+        repositorio.confirmarEnvio(pedidos.stream().map(Pedido::getId).toList());
+    }
+}
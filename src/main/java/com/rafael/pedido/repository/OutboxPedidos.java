@@ -0,0 +1,82 @@
+package com.rafael.pedido.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Outbox em memória com os pedidos cuja publicação ainda não foi confirmada.
+ * Para cada pedido é guardado o instante da última tentativa de publicação,
+ * de forma que um pedido só seja reenviado depois do tempo de reenvio.
+ */
+final class OutboxPedidos {
+
+    /** Instante usado para pedidos que nunca tiveram a publicação tentada. */
+    static final long NUNCA = Long.MIN_VALUE;
+
+    private final Map<String, Long> tentativas = new ConcurrentHashMap<>();
+
+    /**
+     * Adiciona um pedido ao outbox.
+     *
+     * @param idPedido O ID do pedido.
+     * @param instante O instante da última tentativa de publicação, em
+     *                 {@link System#nanoTime()}, ou {@link #NUNCA}.
+     */
+    void adicionar(String idPedido, long instante) {
+        tentativas.put(idPedido, instante);
+    }
+
+    /**
+     * Remove um pedido do outbox.
+     *
+     * @param idPedido O ID do pedido.
+     */
+    void remover(String idPedido) {
+        tentativas.remove(idPedido);
+    }
+
+    /**
+     * Reserva para publicação os pedidos cuja última tentativa é mais antiga
+     * que o tempo de reenvio, registrando o instante atual como a nova
+     * tentativa.
+     *
+     * @param limite         A quantidade máxima de pedidos reservados.
+     * @param agora          O instante atual, em {@link System#nanoTime()}.
+     * @param reenvioNanos   O tempo mínimo entre duas tentativas.
+     * @return Os IDs dos pedidos reservados.
+     */
+    List<String> reservar(int limite, long agora, long reenvioNanos) {
+        List<String> reservados = new ArrayList<>(Math.min(limite, tentativas.size()));
+        for (Map.Entry<String, Long> entrada : tentativas.entrySet()) {
+            if (reservados.size() >= limite) {
+                break;
+            }
+            Long ultima = entrada.getValue();
+            if ((ultima == NUNCA || agora - ultima >= reenvioNanos)
+                    && tentativas.replace(entrada.getKey(), ultima, agora)) {
+                reservados.add(entrada.getKey());
+            }
+        }
+        return reservados;
+    }
+
+    /**
+     * Retorna os IDs dos pedidos no outbox, de forma fracamente consistente.
+     *
+     * @return Os IDs dos pedidos pendentes.
+     */
+    Iterable<String> ids() {
+        return tentativas.keySet();
+    }
+
+    /**
+     * Retorna a quantidade de pedidos no outbox.
+     *
+     * @return A quantidade de pedidos pendentes.
+     */
+    int tamanho() {
+        return tentativas.size();
+    }
+}
@@ -1,29 +1,274 @@
 package com.rafael.pedido.repository;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.StreamSupport;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
 import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.armazenamento.EntradaValor;
+import com.rafael.pedido.repository.armazenamento.HeapPedidoStore;
+import com.rafael.pedido.repository.armazenamento.PedidoStore;
+import com.rafael.pedido.repository.persistencia.PedidoLog;
+import com.rafael.pedido.repository.persistencia.RecuperacaoLog;
 
 /**
  * Classe responsável por gerenciar o armazenamento de pedidos.
- * Esta classe simula um banco de dados em memória para armazenar os pedidos.
+ * Esta classe simula um banco de dados em memória para armazenar os pedidos,
+ * mantidos no {@link PedidoStore} configurado (no heap ou fora dele).
+ * O armazenamento é seguro para acesso concorrente pelas threads do servidor.
+ * Quando a persistência está habilitada, cada pedido salvo também é registrado
+ * no {@link PedidoLog}, que é relido na inicialização para restaurar os
+ * pedidos. Um pedido novo só passa a ser retornado pelas consultas depois
+ * de registrado no log: até lá, o seu ID fica reservado e as outras
+ * gravações do mesmo ID aguardam para saber se ele foi mantido ou desfeito.
+ * Uma gravação recusada por já existir o ID não esconde o pedido existente.
+ * <p>
+ * Cada pedido salvo também entra no outbox de publicação, onde permanece até
+ * que a sua publicação seja confirmada com {@link #confirmarEnvio(Collection)}.
+ * Com a persistência habilitada, o outbox é gravado no mesmo registro do
+ * pedido e sobrevive a uma reinicialização.
+ * <p>
+ * As consultas por cliente, por faixa de valores, dos maiores valores e o
+ * percurso de todos os pedidos em ordem de ID usam os índices mantidos pelo
+ * próprio {@link PedidoStore}, no heap ou fora dele conforme o
+ * armazenamento, e conferem cada pedido encontrado no armazenamento.
  */
 @Repository
 public class PedidoRepository {
 
-    private final Map<String, Pedido> banco = new HashMap<>();
+    private final PedidoStore banco;
+    private final PedidoLog log;
+    private final OutboxPedidos outbox = new OutboxPedidos();
+    private final ReservasPedidos reservas = new ReservasPedidos();
+
+    /**
+     * Construtor de um repositório somente em memória, no heap e sem
+     * persistência.
+     */
+    public PedidoRepository() {
+        this(new HeapPedidoStore(), null);
+    }
+
+    /**
+     * Construtor do repositório de pedidos.
+     * Se houver um log de pedidos configurado, os pedidos registrados nele e o
+     * outbox de publicação são restaurados antes de o repositório ser
+     * utilizado. Os pedidos pendentes restaurados ficam disponíveis para
+     * publicação imediata.
+     *
+     * @param pedidoStore o armazenamento em memória dos pedidos.
+     * @param pedidoLog   o log de pedidos, disponível somente quando a
+     *                    persistência estiver habilitada.
+     */
+    @Autowired
+    public PedidoRepository(PedidoStore pedidoStore, @Nullable PedidoLog pedidoLog) {
+        this.banco = pedidoStore;
+        this.log = pedidoLog;
+        if (log != null) {
+            log.recuperar(new RecuperacaoLog() {
+
+                @Override
+                public void pedido(Pedido pedido) {
+                    banco.salvar(pedido);
+                }
+
+                @Override
+                public void envioPendente(String idPedido) {
+                    outbox.adicionar(idPedido, OutboxPedidos.NUNCA);
+                }
+
+                @Override
+                public void envioConfirmado(String idPedido) {
+                    outbox.remover(idPedido);
+                }
+            });
+        }
+    }
 
     /**
      * Método responsável por salvar um pedido no repositório.
+     * Caso já exista um pedido com o mesmo ID, ele é substituído.
      *
      * @param pedido O pedido a ser salvo.
      */
     public void salvar(Pedido pedido) {
-        banco.put(pedido.getId(), pedido);
+        outbox.adicionar(pedido.getId(), System.nanoTime());
+        if (log != null) {
+            log.registrar(pedido);
+        }
+        banco.salvar(pedido);
+    }
+
+    /**
+     * Método responsável por salvar um pedido somente se ainda não existir um
+     * pedido com o mesmo ID.
+     * A verificação e a inserção acontecem em uma única operação atômica,
+     * evitando pedidos duplicados quando várias requisições concorrem pelo
+     * mesmo ID.
+     * Com a persistência habilitada, o pedido só é confirmado e só passa a
+     * ser retornado pelas consultas depois de registrado no log; se o registro
+     * falhar, o pedido é removido. Uma gravação concorrente do mesmo ID
+     * aguarda o registro e só é recusada se o pedido for mantido.
+     * O pedido entra no outbox como se a sua publicação tivesse acabado de ser
+     * tentada, já que quem o salva deve enfileirá-lo para publicação em
+     * seguida.
+     *
+     * @param pedido O pedido a ser salvo.
+     * @return True se o pedido foi salvo, false se já existia um pedido com o
+     *         mesmo ID.
+     */
+    public boolean salvarSeAusente(Pedido pedido) {
+        if (log == null) {
+            return inserir(pedido, true, System.nanoTime());
+        }
+
+        CompletableFuture<Void> reserva = reservas.reservar(pedido.getId());
+        try {
+            if (!inserirPendente(pedido, true, System.nanoTime())) {
+                return false;
+            }
+            try {
+                log.registrar(pedido);
+            } catch (RuntimeException e) {
+                desfazer(pedido);
+                throw e;
+            }
+            return true;
+        } finally {
+            reservas.liberar(pedido.getId(), reserva);
+        }
+    }
+
+    /**
+     * Método responsável por salvar um lote de pedidos, mantendo somente os
+     * que ainda não existem.
+     * Cada pedido é inserido atomicamente, como em {@link #salvarSeAusente},
+     * e os pedidos novos são registrados no log com uma única escrita, antes
+     * da qual nenhum deles é retornado pelas consultas.
+     *
+     * @param pedidos Os pedidos a serem salvos.
+     * @return Um array indicando, para cada pedido na mesma ordem, se ele foi
+     *         salvo (true) ou se o ID já existia (false).
+     */
+    public boolean[] salvarTodosSeAusentes(List<Pedido> pedidos) {
+        return salvarTodosSeAusentes(pedidos, true);
+    }
+
+    /**
+     * Método responsável por importar um lote de pedidos de outro sistema,
+     * mantendo somente os que ainda não existem.
+     * Os pedidos são salvos como em {@link #salvarTodosSeAusentes(List)}, mas
+     * não entram no outbox: eles já foram publicados pelo sistema de origem e
+     * são registrados no log como entregues, para que não sejam publicados
+     * novamente nem depois de uma reinicialização.
+     *
+     * @param pedidos Os pedidos a serem importados.
+     * @return Um array indicando, para cada pedido na mesma ordem, se ele foi
+     *         salvo (true) ou se o ID já existia (false).
+     */
+    public boolean[] importarTodosSeAusentes(List<Pedido> pedidos) {
+        return salvarTodosSeAusentes(pedidos, false);
+    }
+
+    private boolean[] salvarTodosSeAusentes(List<Pedido> pedidos, boolean publicar) {
+        boolean[] salvos = new boolean[pedidos.size()];
+        List<Pedido> novos = new ArrayList<>(pedidos.size());
+
+        Map<String, CompletableFuture<Void>> reservadas = log == null ? Map.of() : reservas.reservarTodos(pedidos);
+        try {
+            long agora = System.nanoTime();
+            for (int i = 0; i < pedidos.size(); i++) {
+                salvos[i] = log == null
+                        ? inserir(pedidos.get(i), publicar, agora)
+                        : inserirPendente(pedidos.get(i), publicar, agora);
+                if (salvos[i]) {
+                    novos.add(pedidos.get(i));
+                }
+            }
+
+            if (log != null) {
+                liberarRecusadas(reservadas, novos);
+                try {
+                    if (publicar) {
+                        log.registrarTodos(novos);
+                    } else {
+                        log.registrarImportados(novos);
+                    }
+                } catch (RuntimeException e) {
+                    novos.forEach(this::desfazer);
+                    throw e;
+                }
+            }
+            return salvos;
+        } finally {
+            reservas.liberarTodas(reservadas);
+        }
+    }
+
+    /**
+     * Insere o pedido no armazenamento se o ID ainda não existir, antes do
+     * registro no log, de forma que uma compactação concorrente o inclua no
+     * snapshot, e atualiza o outbox.
+     */
+    private boolean inserir(Pedido pedido, boolean publicar, long agora) {
+        if (!banco.salvarSeAusente(pedido)) {
+            return false;
+        }
+        if (publicar) {
+            outbox.adicionar(pedido.getId(), agora);
+        }
+        return true;
+    }
+
+    /**
+     * Libera antes do registro no log as reservas dos IDs que o lote não
+     * inseriu, para que outras gravações desses IDs não aguardem o fsync.
+     */
+    private void liberarRecusadas(Map<String, CompletableFuture<Void>> reservadas, List<Pedido> novos) {
+        Set<String> inseridos = new HashSet<>(novos.size() * 2);
+        novos.forEach(pedido -> inseridos.add(pedido.getId()));
+        reservadas.entrySet().removeIf(reserva -> {
+            if (inseridos.contains(reserva.getKey())) {
+                return false;
+            }
+            reservas.liberar(reserva.getKey(), reserva.getValue());
+            return true;
+        });
+    }
+
+    /**
+     * Insere o pedido de um ID reservado por esta gravação, marcando-o como
+     * pendente somente se ele ainda não existir. Com a reserva, nenhuma outra
+     * gravação do ID está em andamento, então um pedido existente já está
+     * registrado no log e continua sendo retornado pelas consultas.
+     */
+    private boolean inserirPendente(Pedido pedido, boolean publicar, long agora) {
+        if (banco.existe(pedido.getId())) {
+            return false;
+        }
+        reservas.marcarPendente(pedido.getId());
+        return inserir(pedido, publicar, agora);
+    }
+
+    /**
+     * Desfaz a inserção de um pedido cujo registro no log falhou.
+     */
+    private void desfazer(Pedido pedido) {
+        outbox.remover(pedido.getId());
+        banco.remover(pedido.getId());
     }
 
     /**
@@ -34,7 +279,99 @@ public class PedidoRepository {
      *         contrário.
      */
     public Optional<Pedido> consultar(String idPedido) {
-        return Optional.ofNullable(banco.get(idPedido));
+        return buscar(idPedido);
+    }
+
+    /**
+     * Método responsável por consultar vários pedidos pelos IDs em uma única
+     * passagem pelo repositório.
+     *
+     * @param idsPedidos Os IDs dos pedidos a serem consultados.
+     * @return Os pedidos encontrados, indexados pelo ID e na ordem dos IDs
+     *         informados. IDs não encontrados ficam ausentes do mapa.
+     */
+    public Map<String, Pedido> consultarTodos(Collection<String> idsPedidos) {
+        Map<String, Pedido> encontrados = new LinkedHashMap<>();
+        for (String idPedido : idsPedidos) {
+            buscar(idPedido).ifPresent(pedido -> encontrados.put(idPedido, pedido));
+        }
+        return encontrados;
+    }
+
+    /**
+     * Método responsável por consultar os pedidos de um cliente, em ordem
+     * crescente de ID, a partir de um cursor.
+     * O custo da consulta é proporcional à quantidade de pedidos retornados, e
+     * não à quantidade de pedidos armazenados. Cada pedido do índice é
+     * conferido no armazenamento, de forma que pedidos substituídos por outro
+     * cliente não sejam retornados.
+     *
+     * @param cliente O cliente dos pedidos.
+     * @param aposId  O ID do último pedido já retornado, ou nulo para começar
+     *                pelo primeiro pedido do cliente.
+     * @param limite  A quantidade máxima de pedidos retornados.
+     * @return Os pedidos do cliente, em ordem crescente de ID.
+     */
+    public List<Pedido> consultarPorCliente(String cliente, @Nullable String aposId, int limite) {
+        List<Pedido> pedidos = new ArrayList<>(Math.min(limite, 1_024));
+        Iterator<String> ids = banco.idsDoCliente(cliente, aposId);
+        while (pedidos.size() < limite && ids.hasNext()) {
+            buscar(ids.next())
+                    .filter(pedido -> cliente.equals(pedido.getCliente()))
+                    .ifPresent(pedidos::add);
+        }
+        return pedidos;
+    }
+
+    /**
+     * Método responsável por consultar os pedidos com valor total dentro de
+     * uma faixa, em ordem crescente de valor e de ID, a partir de um cursor.
+     * O início da faixa é localizado em tempo logarítmico e o restante da
+     * consulta é proporcional à quantidade de pedidos retornados.
+     *
+     * @param minimo    O menor valor total, em centavos, incluído.
+     * @param maximo    O maior valor total, em centavos, incluído.
+     * @param aposValor O valor total do último pedido já retornado, em
+     *                  centavos. Ignorado quando {@code aposId} é nulo.
+     * @param aposId    O ID do último pedido já retornado, ou nulo para
+     *                  começar pelo início da faixa.
+     * @param limite    A quantidade máxima de pedidos retornados.
+     * @return Os pedidos da faixa, em ordem crescente de valor e de ID.
+     */
+    public List<Pedido> consultarPorValor(long minimo, long maximo, long aposValor, @Nullable String aposId,
+            int limite) {
+        EntradaValor apos = aposId == null ? null : new EntradaValor(aposValor, aposId);
+        return lerEntradas(banco.valoresNaFaixa(minimo, maximo, apos), limite);
+    }
+
+    /**
+     * Método responsável por consultar os pedidos de maior valor total, em
+     * ordem decrescente de valor.
+     * O custo da consulta é proporcional à quantidade de pedidos retornados.
+     *
+     * @param limite A quantidade de pedidos retornados.
+     * @return Os pedidos de maior valor total.
+     */
+    public List<Pedido> consultarMaiores(int limite) {
+        return lerEntradas(banco.maioresValores(), limite);
+    }
+
+    /**
+     * Método responsável por percorrer todos os pedidos em ordem crescente de
+     * ID, na ordem do armazenamento, a partir de um ID.
+     * Os pedidos são lidos do armazenamento sob demanda, conforme o iterador
+     * avança, e a iteração é fracamente consistente: pedidos salvos durante a
+     * iteração podem ou não ser percorridos, mas nenhum pedido presente do
+     * início ao fim da iteração é omitido.
+     *
+     * @param aposId O ID a partir do qual os pedidos são percorridos, sem
+     *               incluí-lo, ou nulo para começar pelo primeiro pedido. O ID
+     *               não precisa existir.
+     * @return Um iterador sobre os pedidos, em ordem crescente de ID.
+     */
+    public Iterator<Pedido> percorrer(@Nullable String aposId) {
+        Iterable<String> ids = () -> banco.ids(aposId);
+        return StreamSupport.stream(ids.spliterator(), false).map(this::buscar).flatMap(Optional::stream).iterator();
     }
 
     /**
@@ -44,6 +381,110 @@ public class PedidoRepository {
      * @return True se o pedido existir, false caso contrário.
      */
     public boolean existePorId(String idPedido) {
-        return banco.containsKey(idPedido);
+        return banco.existe(idPedido) && !reservas.pendente(idPedido);
+    }
+
+    /**
+     * Método responsável por reservar para publicação os pedidos do outbox
+     * que nunca foram enviados ou cuja última tentativa é mais antiga que o
+     * tempo de reenvio.
+     * Os pedidos reservados só voltam a ser retornados depois de um novo
+     * tempo de reenvio, caso a publicação não seja confirmada.
+     *
+     * @param limite       A quantidade máxima de pedidos retornados.
+     * @param tempoReenvio O tempo mínimo entre duas tentativas de publicação
+     *                     do mesmo pedido.
+     * @return Os pedidos reservados para publicação.
+     */
+    public List<Pedido> reservarEnviosPendentes(int limite, Duration tempoReenvio) {
+        List<Pedido> pedidos = new ArrayList<>();
+        for (String idPedido : outbox.reservar(limite, System.nanoTime(), tempoReenvio.toNanos())) {
+            if (!reservas.pendente(idPedido)) {
+                banco.consultar(idPedido).ifPresentOrElse(pedidos::add, () -> outbox.remover(idPedido));
+            }
+        }
+        return pedidos;
+    }
+
+    /**
+     * Método responsável por confirmar a publicação dos pedidos, retirando-os
+     * do outbox.
+     * Com a persistência habilitada, a confirmação é registrada no log antes
+     * de os pedidos saírem do outbox.
+     *
+     * @param idsPedidos Os IDs dos pedidos publicados.
+     */
+    public void confirmarEnvio(Collection<String> idsPedidos) {
+        if (log != null) {
+            log.registrarEntregas(idsPedidos);
+        }
+        idsPedidos.forEach(outbox::remover);
+    }
+
+    /**
+     * Método responsável por retornar a quantidade de pedidos cuja publicação
+     * ainda não foi confirmada.
+     *
+     * @return A quantidade de pedidos no outbox.
+     */
+    public int enviosPendentes() {
+        return outbox.tamanho();
+    }
+
+    /**
+     * Consulta o pedido no armazenamento, ignorando os pedidos ainda não
+     * registrados no log. A pendência é verificada depois da leitura, já que o
+     * pedido é inserido depois de o ID ser marcado como pendente.
+     */
+    private Optional<Pedido> buscar(String idPedido) {
+        Optional<Pedido> pedido = banco.consultar(idPedido);
+        return pedido.isPresent() && reservas.pendente(idPedido) ? Optional.empty() : pedido;
+    }
+
+    /**
+     * Percorre os pedidos do armazenamento para o snapshot. Um pedido ainda
+     * pendente só é incluído depois que a sua gravação termina e somente se
+     * ela não tiver sido desfeita. A espera é necessária porque o registro
+     * pode ter sido gravado no segmento descartado pela compactação.
+     */
+    private Iterable<Pedido> pedidosRegistrados() {
+        return () -> StreamSupport.stream(banco.pedidos().spliterator(), false)
+                .map(pedido -> {
+                    if (!reservas.pendente(pedido.getId())) {
+                        return Optional.of(pedido);
+                    }
+                    reservas.aguardar(pedido.getId());
+                    return banco.consultar(pedido.getId());
+                })
+                .flatMap(Optional::stream)
+                .iterator();
+    }
+
+    /**
+     * Lê do armazenamento os pedidos das entradas do índice de valores,
+     * descartando as entradas de pedidos cujo valor já foi alterado.
+     */
+    private List<Pedido> lerEntradas(Iterator<EntradaValor> entradas, int limite) {
+        List<Pedido> pedidos = new ArrayList<>(Math.min(limite, 1_024));
+        while (pedidos.size() < limite && entradas.hasNext()) {
+            EntradaValor entrada = entradas.next();
+            buscar(entrada.idPedido())
+                    .filter(pedido -> pedido.getValorTotalCentavos() == entrada.valor())
+                    .ifPresent(pedidos::add);
+        }
+        return pedidos;
+    }
+
+    /**
+     * Método responsável por compactar o log de pedidos, gravando um snapshot
+     * com os pedidos atuais e o outbox e descartando os registros anteriores
+     * a ele. Os pedidos cujo registro no log ainda está em andamento entram no
+     * snapshot somente se o registro for concluído.
+     * Não faz nada quando a persistência não está habilitada.
+     *
+     * @return True se o log foi compactado, false caso contrário.
+     */
+    public boolean compactar() {
+        return log != null && log.compactar(pedidosRegistrados(), outbox.ids());
     }
-}
\ No newline at end of file
+}
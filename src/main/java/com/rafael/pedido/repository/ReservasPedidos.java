@@ -0,0 +1,115 @@
+package com.rafael.pedido.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Reservas dos IDs dos pedidos que estão sendo gravados e ainda não foram
+ * registrados no log de pedidos.
+ * Enquanto o ID está reservado, as outras gravações do mesmo ID aguardam o
+ * término da reserva para saber se o pedido foi mantido ou desfeito. Somente
+ * os IDs marcados como pendentes, cujo pedido foi inserido pela própria
+ * gravação, deixam de ser retornados pelas consultas: a reserva de um ID que
+ * já existia não esconde o pedido existente.
+ * <p>
+ * Uma gravação de um único pedido mantém no máximo uma reserva, e uma
+ * gravação de um lote reserva os IDs em ordem crescente, de forma que duas
+ * gravações nunca aguardem uma pela outra.
+ */
+final class ReservasPedidos {
+
+    private final Map<String, CompletableFuture<Void>> reservas = new ConcurrentHashMap<>();
+    private final Set<String> pendentes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Reserva o ID de um pedido, aguardando o término da reserva de outra
+     * gravação do mesmo ID.
+     *
+     * @param idPedido O ID do pedido.
+     * @return A reserva, que deve ser liberada com {@link #liberar}.
+     */
+    CompletableFuture<Void> reservar(String idPedido) {
+        CompletableFuture<Void> reserva = new CompletableFuture<>();
+        CompletableFuture<Void> anterior;
+        while ((anterior = reservas.putIfAbsent(idPedido, reserva)) != null) {
+            anterior.join();
+        }
+        return reserva;
+    }
+
+    /**
+     * Reserva os IDs de um lote de pedidos, em ordem crescente e uma única
+     * vez por ID.
+     *
+     * @param pedidos Os pedidos do lote.
+     * @return As reservas, indexadas pelo ID.
+     */
+    Map<String, CompletableFuture<Void>> reservarTodos(List<Pedido> pedidos) {
+        Map<String, CompletableFuture<Void>> reservadas = new TreeMap<>();
+        pedidos.forEach(pedido -> reservadas.put(pedido.getId(), null));
+        reservadas.replaceAll((idPedido, reserva) -> reservar(idPedido));
+        return reservadas;
+    }
+
+    /**
+     * Marca um ID reservado como pendente, escondendo das consultas o pedido
+     * que será inserido em seguida. Deve ser chamado antes da inserção.
+     *
+     * @param idPedido O ID do pedido, reservado pela gravação que o insere.
+     */
+    void marcarPendente(String idPedido) {
+        pendentes.add(idPedido);
+    }
+
+    /**
+     * Libera a reserva de um ID, liberando as gravações que a aguardam.
+     *
+     * @param idPedido O ID do pedido.
+     * @param reserva  A reserva retornada por {@link #reservar}.
+     */
+    void liberar(String idPedido, CompletableFuture<Void> reserva) {
+        pendentes.remove(idPedido);
+        reservas.remove(idPedido, reserva);
+        reserva.complete(null);
+    }
+
+    /**
+     * Libera as reservas de um lote.
+     *
+     * @param reservadas As reservas retornadas por {@link #reservarTodos}.
+     */
+    void liberarTodas(Map<String, CompletableFuture<Void>> reservadas) {
+        reservadas.forEach(this::liberar);
+    }
+
+    /**
+     * Verifica se o pedido de um ID foi inserido por uma gravação que ainda
+     * não o registrou no log.
+     *
+     * @param idPedido O ID do pedido.
+     * @return True se o pedido ainda não foi registrado no log.
+     */
+    boolean pendente(String idPedido) {
+        return pendentes.contains(idPedido);
+    }
+
+    /**
+     * Aguarda o término da gravação que mantém o ID pendente, se houver.
+     *
+     * @param idPedido O ID do pedido.
+     */
+    void aguardar(String idPedido) {
+        while (pendentes.contains(idPedido)) {
+            CompletableFuture<Void> reserva = reservas.get(idPedido);
+            if (reserva != null) {
+                reserva.join();
+            }
+        }
+    }
+}
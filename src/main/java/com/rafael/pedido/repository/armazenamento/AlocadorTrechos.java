@@ -0,0 +1,65 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+/**
+ * Aloca as regiões de memória fora do heap onde os {@link TrechoOrdenado}
+ * de um {@link IndiceOrdenado} são gravados.
+ */
+@FunctionalInterface
+interface AlocadorTrechos {
+
+    /** Alocador de regiões de memória direta, liberadas pelo coletor de lixo. */
+    AlocadorTrechos MEMORIA_DIRETA = tamanho -> new Regiao(ByteBuffer.allocateDirect(tamanho), () -> {
+    });
+
+    /**
+     * Cria um alocador de regiões em arquivos mapeados em memória, de forma que
+     * os trechos ocupem o cache de páginas do sistema operacional, e não a
+     * memória da JVM. Cada região é um novo arquivo, apagado quando o trecho é
+     * descartado; o espaço do arquivo só é devolvido ao disco quando o coletor
+     * de lixo libera o mapeamento.
+     *
+     * @param arquivos Fornece o caminho de cada novo arquivo, que não pode
+     *                 existir.
+     * @return O alocador.
+     */
+    static AlocadorTrechos arquivosMapeados(Supplier<Path> arquivos) {
+        return tamanho -> {
+            Path arquivo = arquivos.get();
+            try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Regiao(canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho),
+                        () -> Files.deleteIfExists(arquivo));
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(arquivo);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Aloca uma região para gravação.
+     *
+     * @param tamanho O tamanho da região, em bytes.
+     * @return A região alocada.
+     * @throws IOException Se a região não puder ser alocada.
+     */
+    Regiao alocar(int tamanho) throws IOException;
+
+    /**
+     * Uma região alocada.
+     *
+     * @param buffer    O buffer da região, com posição zero.
+     * @param liberacao O que deve ser feito quando o trecho for descartado.
+     */
+    record Regiao(ByteBuffer buffer, Closeable liberacao) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuração responsável por criar o armazenamento de pedidos conforme o
+ * tipo configurado, com o cache de leitura na frente dele quando habilitado.
+ */
+@Configuration
+@EnableConfigurationProperties(ArmazenamentoProperties.class)
+public class ArmazenamentoConfig {
+
+    /**
+     * Cria o armazenamento de pedidos.
+     *
+     * @param propriedades  as configurações do armazenamento.
+     * @param meterRegistry o registro onde as métricas do cache são
+     *                      publicadas.
+     * @return o armazenamento do tipo configurado, com o cache na frente
+     *         quando habilitado.
+     */
+    @Bean
+    public PedidoStore pedidoStore(ArmazenamentoProperties propriedades, MeterRegistry meterRegistry) {
+        PedidoStore armazenamento = switch (propriedades.tipo()) {
+            case HEAP -> new HeapPedidoStore();
+            case OFF_HEAP -> new OffHeapPedidoStore();
+            case CAMADAS -> new CamadasPedidoStore(propriedades.camadas());
+        };
+        return propriedades.cache().habilitado()
+                ? new CachePedidoStore(armazenamento, propriedades.cache(), meterRegistry)
+                : armazenamento;
+    }
+}
@@ -0,0 +1,67 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configurações do armazenamento dos pedidos em memória.
+ *
+ * @param tipo    O tipo de armazenamento utilizado pelo repositório.
+ * @param cache   As configurações do cache de leitura na frente do
+ *                armazenamento.
+ * @param camadas As configurações do armazenamento em camadas, usadas
+ *                quando o tipo é {@link TipoArmazenamento#CAMADAS}.
+ */
+@ConfigurationProperties(prefix = "pedido.armazenamento")
+public record ArmazenamentoProperties(
+        @DefaultValue("HEAP") TipoArmazenamento tipo,
+        @DefaultValue Cache cache,
+        @DefaultValue Camadas camadas) {
+
+    /**
+     * Configurações do cache de leitura dos pedidos.
+     *
+     * @param habilitado    Se as consultas ao armazenamento passam pelo cache.
+     * @param maximoPedidos Quantidade máxima de pedidos no cache, usada quando
+     *                      {@code maximoMemoria} não é informado.
+     * @param maximoMemoria Memória máxima estimada ocupada pelo cache. Quando
+     *                      informada, limita o cache no lugar de
+     *                      {@code maximoPedidos}.
+     * @param tempoNegativo Tempo durante o qual uma consulta a um ID
+     *                      inexistente é respondida pelo cache.
+     */
+    public record Cache(
+            @DefaultValue("false") boolean habilitado,
+            @DefaultValue("100000") long maximoPedidos,
+            DataSize maximoMemoria,
+            @DefaultValue("1s") Duration tempoNegativo) {
+    }
+
+    /**
+     * Configurações do armazenamento em camadas quente (heap) e fria (disco).
+     *
+     * @param diretorio            O diretório dos segmentos em disco.
+     * @param idadeMaxima          Idade a partir da qual um pedido é movido
+     *                             para o disco.
+     * @param maximoPedidosQuentes Quantidade máxima de pedidos mantidos no
+     *                             heap; acima dela, os mais antigos são
+     *                             movidos para o disco mesmo que ainda não
+     *                             tenham a idade máxima.
+     * @param intervaloVerificacao Intervalo entre as verificações da idade e
+     *                             da quantidade de pedidos no heap.
+     * @param tamanhoBloco         Tamanho de cada bloco compactado dos
+     *                             segmentos, antes da compactação. Cada
+     *                             consulta ao disco descompacta um bloco.
+     */
+    public record Camadas(
+            @DefaultValue("dados/segmentos") Path diretorio,
+            @DefaultValue("1d") Duration idadeMaxima,
+            @DefaultValue("1000000") long maximoPedidosQuentes,
+            @DefaultValue("10s") Duration intervaloVerificacao,
+            @DefaultValue("16KB") DataSize tamanhoBloco) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.util.Iterator;
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.rafael.pedido.model.Pedido;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache de leitura limitado na frente de outro armazenamento de pedidos.
+ * <p>
+ * As consultas são respondidas pelo cache e, quando o pedido não está nele,
+ * pelo armazenamento de origem, guardando o resultado. As gravações vão
+ * primeiro para a origem e depois atualizam o cache, de forma que o cache
+ * nunca contenha um pedido mais antigo que o da origem. Os pedidos recém
+ * gravados, que concentram a maior parte das consultas, ficam no cache. Os
+ * índices são os da origem.
+ * <p>
+ * O cache usa o Caffeine, cuja política de remoção considera a frequência de
+ * acesso além do acesso recente: uma sequência de pedidos lidos uma única vez
+ * não remove do cache os pedidos consultados com frequência. O tamanho é
+ * limitado pela quantidade de pedidos ou por uma estimativa da memória
+ * ocupada.
+ * <p>
+ * Consultas a IDs inexistentes também são guardadas, por um tempo curto, para
+ * que consultas repetidas a um mesmo ID ausente não cheguem à origem. A
+ * gravação de um pedido substitui imediatamente a resposta negativa.
+ * <p>
+ * A taxa de acerto é publicada no medidor {@value #TAXA_ACERTO}, e os acertos,
+ * as faltas e as remoções nos medidores {@code cache.*} com a tag
+ * {@code cache=pedidos}.
+ */
+public class CachePedidoStore implements PedidoStore {
+
+    /** Nome do medidor com a taxa de acerto do cache. */
+    public static final String TAXA_ACERTO = "pedido.cache.taxa.acerto";
+
+    /**
+     * Memória estimada de uma entrada do cache sem o ID e o pedido: os nós do
+     * Caffeine e do mapa interno e o Optional.
+     */
+    private static final int BYTES_ENTRADA = 112;
+    /** Memória estimada de um Pedido sem o ID e o cliente. */
+    private static final int BYTES_PEDIDO = 32;
+    /** Memória de uma String sem os caracteres. */
+    private static final int BYTES_STRING = 40;
+
+    private final PedidoStore origem;
+    private final Cache<String, Optional<Pedido>> cache;
+
+    /**
+     * Construtor do cache de pedidos.
+     *
+     * @param origem        o armazenamento consultado quando o pedido não
+     *                      está no cache.
+     * @param configuracao  o tamanho do cache e o tempo das respostas
+     *                      negativas.
+     * @param meterRegistry o registro onde as métricas do cache são
+     *                      publicadas.
+     */
+    public CachePedidoStore(PedidoStore origem, ArmazenamentoProperties.Cache configuracao,
+            MeterRegistry meterRegistry) {
+        this(origem, configuracao, meterRegistry, Ticker.systemTicker());
+    }
+
+    /**
+     * Construtor do cache de pedidos com o relógio informado, usado nos
+     * testes da expiração das respostas negativas.
+     */
+    CachePedidoStore(PedidoStore origem, ArmazenamentoProperties.Cache configuracao, MeterRegistry meterRegistry,
+            Ticker relogio) {
+        this.origem = origem;
+
+        long tempoNegativo = configuracao.tempoNegativo().toNanos();
+        Caffeine<String, Optional<Pedido>> construtor = Caffeine.newBuilder()
+                .ticker(relogio)
+                .recordStats()
+                .expireAfter(new Expiry<String, Optional<Pedido>>() {
+
+                    @Override
+                    public long expireAfterCreate(String id, Optional<Pedido> pedido, long agora) {
+                        return pedido.isPresent() ? Long.MAX_VALUE : tempoNegativo;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Optional<Pedido> pedido, long agora, long restante) {
+                        return expireAfterCreate(id, pedido, agora);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Optional<Pedido> pedido, long agora, long restante) {
+                        return restante;
+                    }
+                });
+        if (configuracao.maximoMemoria() != null) {
+            construtor.maximumWeight(configuracao.maximoMemoria().toBytes())
+                    .weigher(CachePedidoStore::bytesEstimados);
+        } else {
+            construtor.maximumSize(configuracao.maximoPedidos());
+        }
+        this.cache = construtor.build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pedidos");
+        Gauge.builder(TAXA_ACERTO, this, CachePedidoStore::taxaAcerto)
+                .description("Fração das consultas respondidas pelo cache de pedidos")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void salvar(Pedido pedido) {
+        origem.salvar(pedido);
+        cache.put(pedido.getId(), Optional.of(pedido));
+    }
+
+    @Override
+    public boolean salvarSeAusente(Pedido pedido) {
+        if (origem.salvarSeAusente(pedido)) {
+            cache.put(pedido.getId(), Optional.of(pedido));
+            return true;
+        }
+        // O pedido existente pode ter sido gravado sem passar pelo cache.
+        cache.invalidate(pedido.getId());
+        return false;
+    }
+
+    @Override
+    public Optional<Pedido> consultar(String idPedido) {
+        return cache.get(idPedido, origem::consultar);
+    }
+
+    @Override
+    public boolean existe(String idPedido) {
+        return consultar(idPedido).isPresent();
+    }
+
+    @Override
+    public void remover(String idPedido) {
+        origem.remover(idPedido);
+        cache.invalidate(idPedido);
+    }
+
+    @Override
+    public long tamanho() {
+        return origem.tamanho();
+    }
+
+    @Override
+    public Iterable<Pedido> pedidos() {
+        return origem.pedidos();
+    }
+
+    @Override
+    public Iterator<String> ids(String aposId) {
+        return origem.ids(aposId);
+    }
+
+    @Override
+    public Iterator<String> idsDoCliente(String cliente, String aposId) {
+        return origem.idsDoCliente(cliente, aposId);
+    }
+
+    @Override
+    public Iterator<EntradaValor> valoresNaFaixa(long minimo, long maximo, EntradaValor apos) {
+        return origem.valoresNaFaixa(minimo, maximo, apos);
+    }
+
+    @Override
+    public Iterator<EntradaValor> maioresValores() {
+        return origem.maioresValores();
+    }
+
+    /**
+     * Retorna a fração das consultas respondidas pelo cache desde a sua
+     * criação.
+     *
+     * @return A taxa de acerto, entre 0 e 1.
+     */
+    public double taxaAcerto() {
+        return cache.stats().hitRate();
+    }
+
+    /**
+     * Retorna a quantidade de entradas no cache, incluindo as respostas
+     * negativas, depois de concluir as remoções pendentes.
+     */
+    long entradas() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static int bytesEstimados(String idPedido, Optional<Pedido> pedido) {
+        int bytes = BYTES_ENTRADA + BYTES_STRING + idPedido.length();
+        if (pedido.isPresent()) {
+            // O pedido guardado é o recebido na gravação ou o lido da origem, e
+            // não o canonizado por ela, então o cliente é contado por inteiro.
+            bytes += BYTES_PEDIDO;
+            String cliente = pedido.get().getCliente();
+            if (cliente != null) {
+                bytes += BYTES_STRING + cliente.length();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,551 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Armazenamento de pedidos em duas camadas: os pedidos recentes ficam em um
+ * mapa concorrente no heap (camada quente) e os antigos em segmentos
+ * compactados e imutáveis em disco (camada fria).
+ * <p>
+ * Uma thread de envelhecimento verifica periodicamente a camada quente.
+ * Quando o pedido mais antigo passa da idade máxima, todos os pedidos com
+ * mais da metade da idade máxima são movidos; quando a camada quente passa
+ * da quantidade máxima de pedidos, os mais antigos são movidos até que ela
+ * fique com a metade do máximo. Mover mais do que o necessário espaça as
+ * gravações e evita segmentos pequenos demais. Os pedidos movidos são
+ * gravados em um novo {@link SegmentoFrio}, e só depois de o segmento estar
+ * disponível para consultas são retirados do mapa.
+ * <p>
+ * As consultas procuram o pedido na camada quente e depois nos segmentos, do
+ * mais novo para o mais antigo. A remoção de um pedido que está em disco é
+ * guardada em memória e gravada no próximo segmento, já que os segmentos
+ * existentes não são alterados. A remoção, usada para desfazer gravações que
+ * não chegaram ao log, aguarda o envelhecimento em andamento.
+ * <p>
+ * Os índices por ID, por cliente e por valor total dos pedidos das duas
+ * camadas ficam em {@link IndicesOrdenados}: no heap ficam somente as
+ * entradas mais recentes, até um limite fixo, e as demais são gravadas pela
+ * thread de envelhecimento em trechos ordenados em arquivos mapeados em
+ * memória, no mesmo diretório dos segmentos. Assim, como o índice esparso e o
+ * filtro de Bloom de cada segmento também ficam no arquivo do segmento, o
+ * heap ocupado é limitado pela quantidade máxima de pedidos quentes, e não
+ * pelo histórico. As entradas de pedidos substituídos ou removidos não são
+ * retiradas dos índices.
+ * <p>
+ * Depois de cada envelhecimento, os segmentos mais novos são fundidos
+ * enquanto tiverem tamanhos próximos, para que as consultas e as gravações
+ * não verifiquem um segmento por envelhecimento. Os segmentos não substituem
+ * o log de persistência: os arquivos são apagados ao fechar o armazenamento
+ * e ao abrir um novo, e os pedidos são recuperados do log.
+ */
+public class CamadasPedidoStore implements PedidoStore, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CamadasPedidoStore.class);
+    private static final String PREFIXO_SEGMENTO = "segmento-";
+    private static final String SUFIXO_SEGMENTO = ".seg";
+    private static final String PREFIXO_INDICE = "indice-";
+    private static final String SUFIXO_INDICE = ".idx";
+    private static final int LIMITE_ENTRADAS_RECENTES = 32_768;
+
+    /**
+     * Os dois segmentos mais novos são fundidos enquanto o mais antigo deles
+     * não tiver mais que este múltiplo dos registros do mais novo.
+     */
+    private static final int FATOR_FUSAO = 2;
+    /**
+     * Tamanho máximo de um segmento fundido, abaixo do limite de 2 GB do
+     * mapeamento e das posições do segmento.
+     */
+    private static final long MAXIMO_BYTES_SEGMENTO = 1L << 30;
+
+    private final ConcurrentHashMap<String, Pedido> quentes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<EntradaQuente> ordemDeChegada = new ConcurrentLinkedDeque<>();
+    private final Set<String> remocoes = ConcurrentHashMap.newKeySet();
+    private final CopyOnWriteArrayList<SegmentoFrio> segmentos = new CopyOnWriteArrayList<>();
+    private final AtomicLong tamanho = new AtomicLong();
+    private final AtomicLong proximoIndice = new AtomicLong();
+    private final IndicesOrdenados indices;
+    private final ReentrantLock envelhecimento = new ReentrantLock();
+
+    private final Path diretorio;
+    private final long idadeMaximaNanos;
+    private final long maximoPedidosQuentes;
+    private final int tamanhoBloco;
+    private final long maximoBytesSegmento;
+    private final LongSupplier relogio;
+    private final ScheduledExecutorService agendador;
+    private long proximoSegmento;
+
+    /**
+     * Construtor do armazenamento em camadas.
+     * Os segmentos e os trechos de índices deixados por uma execução anterior
+     * são apagados e a thread de envelhecimento é iniciada.
+     *
+     * @param configuracao As configurações das camadas.
+     * @throws UncheckedIOException Se o diretório dos segmentos não puder ser
+     *                              preparado.
+     */
+    public CamadasPedidoStore(ArmazenamentoProperties.Camadas configuracao) {
+        this(configuracao, System::nanoTime);
+        long intervalo = configuracao.intervaloVerificacao().toNanos();
+        agendador.scheduleWithFixedDelay(this::envelhecerRegistrandoFalhas, intervalo, intervalo,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Construtor usado nos testes, com o relógio informado e sem envelhecimento
+     * automático; o envelhecimento só ocorre com chamadas a {@link #envelhecer()}.
+     */
+    CamadasPedidoStore(ArmazenamentoProperties.Camadas configuracao, LongSupplier relogio) {
+        this(configuracao, relogio, MAXIMO_BYTES_SEGMENTO);
+    }
+
+    /**
+     * Construtor usado nos testes, com o relógio e o tamanho máximo de um
+     * segmento fundido informados e sem envelhecimento automático.
+     */
+    CamadasPedidoStore(ArmazenamentoProperties.Camadas configuracao, LongSupplier relogio,
+            long maximoBytesSegmento) {
+        this.diretorio = configuracao.diretorio();
+        this.idadeMaximaNanos = configuracao.idadeMaxima().toNanos();
+        this.maximoPedidosQuentes = configuracao.maximoPedidosQuentes();
+        this.tamanhoBloco = Math.toIntExact(configuracao.tamanhoBloco().toBytes());
+        this.maximoBytesSegmento = maximoBytesSegmento;
+        this.relogio = relogio;
+        this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "pedido-camadas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.indices = new IndicesOrdenados(AlocadorTrechos.arquivosMapeados(this::proximoArquivoIndice),
+                agendador, LIMITE_ENTRADAS_RECENTES);
+        if (idadeMaximaNanos <= 0 || maximoPedidosQuentes < 2 || tamanhoBloco < 1) {
+            throw new IllegalArgumentException(
+                    "A idade máxima, o máximo de pedidos quentes e o tamanho do bloco devem ser positivos.");
+        }
+
+        try {
+            Files.createDirectories(diretorio);
+            try (Stream<Path> arquivos = Files.list(diretorio)) {
+                for (Path arquivo : arquivos.filter(CamadasPedidoStore::ehArquivoDoArmazenamento).toList()) {
+                    Files.delete(arquivo);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível preparar o diretório dos segmentos.", e);
+        }
+    }
+
+    @Override
+    public void salvar(Pedido pedido) {
+        String id = pedido.getId();
+        Pedido anterior = quentes.put(id, pedido);
+        ordemDeChegada.add(new EntradaQuente(pedido, relogio.getAsLong()));
+        boolean removido = remocoes.remove(id);
+        if (anterior == null && (removido || consultarFrio(id) == null)) {
+            tamanho.incrementAndGet();
+        }
+        indices.adicionar(pedido);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A verificação na camada fria é feita dentro da atualização atômica do
+     * mapa, para que não concorra com a retirada de um pedido recém-gravado
+     * em disco.
+     */
+    @Override
+    public boolean salvarSeAusente(Pedido pedido) {
+        String id = pedido.getId();
+        boolean[] salvo = new boolean[1];
+        quentes.compute(id, (chave, atual) -> {
+            if (atual != null || (!remocoes.contains(chave) && consultarFrio(chave) != null)) {
+                return atual;
+            }
+            salvo[0] = true;
+            return pedido;
+        });
+
+        if (salvo[0]) {
+            remocoes.remove(id);
+            ordemDeChegada.add(new EntradaQuente(pedido, relogio.getAsLong()));
+            tamanho.incrementAndGet();
+            indices.adicionar(pedido);
+        }
+        return salvo[0];
+    }
+
+    @Override
+    public Optional<Pedido> consultar(String idPedido) {
+        Pedido pedido = quentes.get(idPedido);
+        if (pedido != null) {
+            return Optional.of(pedido);
+        }
+        if (remocoes.contains(idPedido)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(consultarFrio(idPedido));
+    }
+
+    @Override
+    public boolean existe(String idPedido) {
+        return consultar(idPedido).isPresent();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A remoção aguarda o envelhecimento em andamento: um pedido retirado da
+     * camada quente enquanto é gravado em um segmento ainda não publicado não
+     * seria encontrado em disco, e voltaria a ser consultado quando o
+     * segmento fosse publicado.
+     */
+    @Override
+    public void remover(String idPedido) {
+        envelhecimento.lock();
+        try {
+            Pedido anterior = quentes.remove(idPedido);
+            Pedido frio = remocoes.contains(idPedido) ? null : consultarFrio(idPedido);
+            if (frio != null) {
+                remocoes.add(idPedido);
+            }
+            if (anterior != null || frio != null) {
+                tamanho.decrementAndGet();
+            }
+        } finally {
+            envelhecimento.unlock();
+        }
+    }
+
+    @Override
+    public long tamanho() {
+        return tamanho.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Os pedidos da camada quente são percorridos primeiro, seguidos dos
+     * pedidos de cada segmento, do mais novo para o mais antigo.
+     */
+    @Override
+    public Iterable<Pedido> pedidos() {
+        return () -> {
+            List<SegmentoFrio> atuais = List.copyOf(segmentos);
+            Stream<Pedido> frios = Stream.iterate(atuais.size() - 1, i -> i >= 0, i -> i - 1)
+                    .flatMap(i -> registrosAtuais(atuais, i));
+            return Stream.concat(quentes.values().stream(), frios).iterator();
+        };
+    }
+
+    @Override
+    public Iterator<String> ids(String aposId) {
+        return indices.ids(aposId);
+    }
+
+    @Override
+    public Iterator<String> idsDoCliente(String cliente, String aposId) {
+        return indices.idsDoCliente(cliente, aposId);
+    }
+
+    @Override
+    public Iterator<EntradaValor> valoresNaFaixa(long minimo, long maximo, EntradaValor apos) {
+        return indices.valoresNaFaixa(minimo, maximo, apos);
+    }
+
+    @Override
+    public Iterator<EntradaValor> maioresValores() {
+        return indices.maioresValores();
+    }
+
+    /**
+     * Move os pedidos antigos da camada quente para um novo segmento em disco,
+     * se a idade máxima ou a quantidade máxima de pedidos quentes tiver sido
+     * ultrapassada. Chamado periodicamente pela thread de envelhecimento.
+     *
+     * @return A quantidade de pedidos movidos para o disco.
+     * @throws UncheckedIOException Se o segmento não puder ser gravado; os
+     *                              pedidos permanecem na camada quente.
+     */
+    public int envelhecer() {
+        envelhecimento.lock();
+        try {
+            long agora = relogio.getAsLong();
+            EntradaQuente maisAntiga = ordemDeChegada.peekFirst();
+            long pedidosQuentes = quentes.size();
+            boolean porIdade = maisAntiga != null && agora - maisAntiga.instante() > idadeMaximaNanos;
+            boolean porQuantidade = pedidosQuentes > maximoPedidosQuentes;
+            if (!porIdade && !porQuantidade) {
+                return 0;
+            }
+
+            long excedente = porQuantidade ? pedidosQuentes - maximoPedidosQuentes / 2 : 0;
+            List<EntradaQuente> retiradas = new ArrayList<>();
+            Map<String, SegmentoFrio.Registro> registros = new TreeMap<>();
+
+            EntradaQuente entrada;
+            while ((entrada = ordemDeChegada.peekFirst()) != null
+                    && ((porIdade && agora - entrada.instante() > idadeMaximaNanos / 2)
+                            || registros.size() < excedente)) {
+                ordemDeChegada.pollFirst();
+                retiradas.add(entrada);
+                Pedido pedido = entrada.pedido();
+                // Entradas de pedidos já substituídos ou removidos são descartadas.
+                if (quentes.get(pedido.getId()) == pedido) {
+                    registros.put(pedido.getId(), new SegmentoFrio.Registro(pedido.getId(), pedido));
+                }
+            }
+
+            Set<String> remocoesGravadas = new HashSet<>(remocoes);
+            for (String id : remocoesGravadas) {
+                registros.putIfAbsent(id, new SegmentoFrio.Registro(id, null));
+            }
+            if (registros.isEmpty()) {
+                return 0;
+            }
+
+            SegmentoFrio segmento;
+            try {
+                segmento = SegmentoFrio.gravar(proximoArquivo(), registros.values(), tamanhoBloco);
+            } catch (IOException | RuntimeException e) {
+                for (int i = retiradas.size() - 1; i >= 0; i--) {
+                    ordemDeChegada.addFirst(retiradas.get(i));
+                }
+                if (e instanceof IOException falha) {
+                    throw new UncheckedIOException("Não foi possível gravar o segmento de pedidos.", falha);
+                }
+                throw (RuntimeException) e;
+            }
+
+            segmentos.add(segmento);
+            int movidos = 0;
+            for (SegmentoFrio.Registro registro : registros.values()) {
+                if (!registro.remocao() && quentes.remove(registro.id(), registro.pedido())) {
+                    movidos++;
+                }
+            }
+            remocoes.removeAll(remocoesGravadas);
+            fundirSegmentos();
+            return movidos;
+        } finally {
+            envelhecimento.unlock();
+        }
+    }
+
+    /**
+     * Funde os dois segmentos mais novos enquanto eles tiverem tamanhos
+     * próximos, de forma que a quantidade de segmentos cresça com o logaritmo
+     * da quantidade de pedidos em disco, e não com a quantidade de
+     * envelhecimentos. Ao fundir o segmento mais antigo, as remoções são
+     * descartadas, já que não há mais pedidos a remover.
+     * <p>
+     * O segmento fundido substitui o mais antigo antes de o mais novo ser
+     * retirado, de forma que as consultas concorrentes sempre encontram os
+     * registros. Se a fusão falhar, os segmentos são mantidos e a fusão é
+     * tentada de novo no próximo envelhecimento.
+     * <p>
+     * Dois segmentos que juntos passariam do tamanho máximo não são fundidos,
+     * já que o segmento fundido não poderia ser mapeado; os segmentos mais
+     * novos continuam sendo fundidos entre si.
+     */
+    private void fundirSegmentos() {
+        int quantidade;
+        while ((quantidade = segmentos.size()) >= 2) {
+            SegmentoFrio antigo = segmentos.get(quantidade - 2);
+            SegmentoFrio novo = segmentos.get(quantidade - 1);
+            if (antigo.quantidade() > (long) FATOR_FUSAO * novo.quantidade()
+                    || antigo.bytesEmDisco() + novo.bytesEmDisco() > maximoBytesSegmento) {
+                return;
+            }
+
+            SegmentoFrio fundido;
+            try {
+                fundido = SegmentoFrio.fundir(proximoArquivo(), antigo, novo, quantidade == 2, tamanhoBloco);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Não foi possível fundir os segmentos de pedidos.", e);
+                return;
+            }
+
+            if (fundido == null) {
+                segmentos.remove(novo);
+                segmentos.remove(antigo);
+            } else {
+                segmentos.set(quantidade - 2, fundido);
+                segmentos.remove(quantidade - 1);
+            }
+            for (SegmentoFrio segmento : List.of(antigo, novo)) {
+                try {
+                    segmento.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Não foi possível apagar um segmento de pedidos.", e);
+                }
+            }
+        }
+    }
+
+    private Path proximoArquivo() {
+        return diretorio.resolve(String.format("%s%010d%s", PREFIXO_SEGMENTO, proximoSegmento++, SUFIXO_SEGMENTO));
+    }
+
+    private Path proximoArquivoIndice() {
+        return diretorio.resolve(
+                String.format("%s%010d%s", PREFIXO_INDICE, proximoIndice.getAndIncrement(), SUFIXO_INDICE));
+    }
+
+    /**
+     * Retorna a quantidade de pedidos na camada quente.
+     *
+     * @return A quantidade de pedidos mantidos no heap.
+     */
+    public long pedidosQuentes() {
+        return quentes.size();
+    }
+
+    /**
+     * Retorna a quantidade de segmentos da camada fria.
+     *
+     * @return A quantidade de segmentos em disco.
+     */
+    public int quantidadeSegmentos() {
+        return segmentos.size();
+    }
+
+    /**
+     * Retorna o espaço ocupado em disco pelos segmentos e pelos trechos dos
+     * índices.
+     *
+     * @return A quantidade de bytes em disco.
+     */
+    public long bytesEmDisco() {
+        return segmentos.stream().mapToLong(SegmentoFrio::bytesEmDisco).sum() + indices.bytesForaDoHeap();
+    }
+
+    /**
+     * Grava em disco as entradas recentes dos índices. Usado pelos testes.
+     */
+    void descarregarIndices() {
+        indices.descarregar();
+    }
+
+    /**
+     * Interrompe o envelhecimento e apaga os segmentos e os índices em disco.
+     * O espaço dos arquivos apagados só é devolvido ao sistema de arquivos
+     * quando o coletor de lixo libera os seus mapeamentos, já que o Java não
+     * permite desfazer um mapeamento que consultas concorrentes ainda podem
+     * estar lendo.
+     */
+    @Override
+    public void close() {
+        agendador.shutdownNow();
+        indices.close();
+        envelhecimento.lock();
+        try {
+            for (SegmentoFrio segmento : segmentos) {
+                try {
+                    segmento.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Não foi possível apagar um segmento de pedidos.", e);
+                }
+            }
+        } finally {
+            envelhecimento.unlock();
+        }
+    }
+
+    private void envelhecerRegistrandoFalhas() {
+        try {
+            int movidos = envelhecer();
+            if (movidos > 0) {
+                LOGGER.debug("{} pedidos movidos para o segmento {}.", movidos, segmentos.size());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Falha ao mover pedidos para o disco; nova tentativa na próxima verificação.", e);
+        }
+    }
+
+    /**
+     * Consulta o ID nos segmentos, do mais novo para o mais antigo.
+     *
+     * @return O pedido, ou nulo se ele não estiver em disco ou tiver sido
+     *         removido.
+     */
+    private Pedido consultarFrio(String id) {
+        ListIterator<SegmentoFrio> iterador = segmentos.listIterator(segmentos.size());
+        while (iterador.hasPrevious()) {
+            SegmentoFrio.Registro registro = iterador.previous().buscar(id);
+            if (registro != null) {
+                return registro.pedido();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Percorre os pedidos do segmento que não foram substituídos ou removidos
+     * depois de gravados.
+     */
+    private Stream<Pedido> registrosAtuais(List<SegmentoFrio> atuais, int indice) {
+        Iterator<SegmentoFrio.Registro> registros = atuais.get(indice).registros();
+        return Stream.iterate(registros, Iterator::hasNext, iterador -> iterador)
+                .map(Iterator::next)
+                .filter(registro -> !registro.remocao()
+                        && !quentes.containsKey(registro.id())
+                        && !remocoes.contains(registro.id())
+                        && !gravadoDepois(atuais, indice, registro.id()))
+                .map(SegmentoFrio.Registro::pedido);
+    }
+
+    private static boolean gravadoDepois(List<SegmentoFrio> atuais, int indice, String id) {
+        for (int i = indice + 1; i < atuais.size(); i++) {
+            if (atuais.get(i).buscar(id) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean ehArquivoDoArmazenamento(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return (nome.startsWith(PREFIXO_SEGMENTO) && nome.endsWith(SUFIXO_SEGMENTO))
+                || (nome.startsWith(PREFIXO_INDICE) && nome.endsWith(SUFIXO_INDICE));
+    }
+
+    /**
+     * Pedido da camada quente e o instante em que foi salvo. Entradas de
+     * pedidos substituídos permanecem na fila até o envelhecimento, que as
+     * descarta.
+     *
+     * @param pedido   O pedido salvo.
+     * @param instante O instante da gravação, em nanossegundos do relógio.
+     */
+    private record EntradaQuente(Pedido pedido, long instante) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.rafael.pedido.repository.armazenamento;
+
+/**
+ * Entrada do índice de pedidos pelo valor total, ordenada pelo valor e depois
+ * pelo ID do pedido.
+ * O ID desempata pedidos de mesmo valor, o que dá a cada pedido uma posição
+ * única e permite continuar uma consulta a partir do último pedido
+ * retornado.
+ *
+ * @param valor    O valor total do pedido, em centavos.
+ * @param idPedido O ID do pedido.
+ */
+public record EntradaValor(long valor, String idPedido) implements Comparable<EntradaValor> {
+
+    @Override
+    public int compareTo(EntradaValor outra) {
+        int comparacao = Long.compare(valor, outra.valor);
+        return comparacao != 0 ? comparacao : idPedido.compareTo(outra.idPedido);
+    }
+}
@@ -0,0 +1,91 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Filtro de Bloom dos IDs de um segmento em disco.
+ * Responde se um ID certamente não está no segmento, evitando a leitura de
+ * um bloco do disco na maioria das consultas a IDs de outros segmentos. Com
+ * {@value #BITS_POR_ID} bits por ID, cerca de 0,1% das consultas a IDs
+ * ausentes chegam ao disco.
+ * <p>
+ * Os bits ficam no buffer informado, normalmente uma região do próprio
+ * arquivo do segmento mapeada em memória, e não no heap.
+ */
+final class FiltroBloom {
+
+    private static final int BITS_POR_ID = 14;
+    private static final int FUNCOES = 10;
+
+    private final ByteBuffer bits;
+    private final int quantidadeBits;
+
+    /**
+     * Cria um filtro sobre os bits do buffer informado, que deve estar zerado
+     * antes do primeiro ID adicionado.
+     *
+     * @param bits O buffer dos bits, com o tamanho retornado por
+     *             {@link #bytes(int)}.
+     */
+    FiltroBloom(ByteBuffer bits) {
+        this.bits = bits;
+        this.quantidadeBits = bits.capacity() * Byte.SIZE;
+    }
+
+    /**
+     * Retorna o tamanho dos bits de um filtro dimensionado para a quantidade
+     * de IDs informada.
+     *
+     * @param quantidade A quantidade de IDs que serão adicionados.
+     * @return O tamanho, em bytes.
+     */
+    static int bytes(int quantidade) {
+        long tamanho = Math.min(Integer.MAX_VALUE - 63L, Math.max(64L, (long) quantidade * BITS_POR_ID));
+        return (int) ((tamanho + 63) >>> 6) * Long.BYTES;
+    }
+
+    void adicionar(String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < FUNCOES; i++) {
+            int posicao = Math.floorMod(h1 + i * h2, quantidadeBits);
+            bits.put(posicao >>> 3, (byte) (bits.get(posicao >>> 3) | 1 << (posicao & 7)));
+        }
+    }
+
+    /**
+     * Verifica se o ID pode ter sido adicionado ao filtro.
+     *
+     * @return False se o ID certamente não foi adicionado.
+     */
+    boolean podeConter(String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < FUNCOES; i++) {
+            int posicao = Math.floorMod(h1 + i * h2, quantidadeBits);
+            if ((bits.get(posicao >>> 3) & 1 << (posicao & 7)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash FNV-1a de 64 bits dos bytes do ID, seguido de uma mistura final
+     * para espalhar os bits entre as duas metades.
+     */
+    private static long hash(String id) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,152 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Armazenamento de pedidos em um mapa concorrente no heap da JVM.
+ * <p>
+ * Os nomes dos clientes são canonizados na gravação, de forma que os pedidos
+ * armazenados de um mesmo cliente compartilhem a mesma instância do nome em
+ * memória. Os nomes canônicos ficam em um mapa limitado a uma quantidade
+ * máxima de clientes: depois de cheio, os nomes de clientes novos são
+ * guardados sem canonização, para que nomes arbitrários enviados pelos
+ * clientes não façam o mapa crescer sem limite.
+ * <p>
+ * Os índices ficam em skip lists no heap ({@link IndicesNoHeap}), atualizadas
+ * na mesma operação atômica do mapa que grava ou remove o pedido.
+ */
+public class HeapPedidoStore implements PedidoStore {
+
+    /** Quantidade máxima padrão de nomes de clientes canonizados. */
+    static final int MAXIMO_CLIENTES = 100_000;
+
+    private final Map<String, Pedido> banco = new ConcurrentHashMap<>();
+    private final Map<String, String> clientes = new ConcurrentHashMap<>();
+    private final IndicesNoHeap indices = new IndicesNoHeap();
+    private final int maximoClientes;
+
+    /**
+     * Construtor do armazenamento no heap, com a quantidade máxima padrão de
+     * nomes de clientes canonizados.
+     */
+    public HeapPedidoStore() {
+        this(MAXIMO_CLIENTES);
+    }
+
+    /**
+     * Construtor do armazenamento no heap.
+     *
+     * @param maximoClientes A quantidade máxima de nomes de clientes
+     *                       canonizados.
+     */
+    HeapPedidoStore(int maximoClientes) {
+        this.maximoClientes = maximoClientes;
+    }
+
+    @Override
+    public void salvar(Pedido pedido) {
+        Pedido canonico = canonizar(pedido);
+        banco.compute(canonico.getId(), (id, anterior) -> {
+            indices.substituir(anterior, canonico);
+            return canonico;
+        });
+    }
+
+    @Override
+    public boolean salvarSeAusente(Pedido pedido) {
+        Pedido canonico = canonizar(pedido);
+        boolean[] salvo = new boolean[1];
+        banco.computeIfAbsent(canonico.getId(), id -> {
+            indices.substituir(null, canonico);
+            salvo[0] = true;
+            return canonico;
+        });
+        return salvo[0];
+    }
+
+    @Override
+    public Optional<Pedido> consultar(String idPedido) {
+        return Optional.ofNullable(banco.get(idPedido));
+    }
+
+    @Override
+    public boolean existe(String idPedido) {
+        return banco.containsKey(idPedido);
+    }
+
+    @Override
+    public void remover(String idPedido) {
+        banco.computeIfPresent(idPedido, (id, anterior) -> {
+            indices.remover(anterior);
+            return null;
+        });
+    }
+
+    @Override
+    public long tamanho() {
+        return banco.size();
+    }
+
+    @Override
+    public Iterable<Pedido> pedidos() {
+        return banco.values();
+    }
+
+    @Override
+    public Iterator<String> ids(String aposId) {
+        return indices.ids(aposId);
+    }
+
+    @Override
+    public Iterator<String> idsDoCliente(String cliente, String aposId) {
+        return indices.idsDoCliente(cliente, aposId);
+    }
+
+    @Override
+    public Iterator<EntradaValor> valoresNaFaixa(long minimo, long maximo, EntradaValor apos) {
+        return indices.valoresNaFaixa(minimo, maximo, apos);
+    }
+
+    @Override
+    public Iterator<EntradaValor> maioresValores() {
+        return indices.maioresValores();
+    }
+
+    /**
+     * Retorna a quantidade de nomes de clientes canonizados.
+     *
+     * @return A quantidade de nomes no mapa de clientes.
+     */
+    int clientesCanonizados() {
+        return clientes.size();
+    }
+
+    /**
+     * Retorna o pedido com a instância canônica do nome do cliente, ou o
+     * próprio pedido se ele já a usar ou se o mapa de clientes estiver cheio.
+     */
+    private Pedido canonizar(Pedido pedido) {
+        String cliente = pedido.getCliente();
+        if (cliente == null) {
+            return pedido;
+        }
+
+        String canonico = clientes.get(cliente);
+        if (canonico == null) {
+            if (clientes.size() >= maximoClientes) {
+                return pedido;
+            }
+            canonico = clientes.putIfAbsent(cliente, cliente);
+            if (canonico == null) {
+                return pedido;
+            }
+        }
+        return canonico == cliente ? pedido : new Pedido(pedido.getId(), canonico, pedido.getValorTotalCentavos(),
+                pedido.getVersao());
+    }
+}
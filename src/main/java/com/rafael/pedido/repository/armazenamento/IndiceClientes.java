@@ -0,0 +1,105 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Índice secundário dos pedidos pelo cliente.
+ * <p>
+ * As entradas são pares {@code (cliente, id)} mantidos em ordem em uma skip
+ * list concorrente, de forma que os pedidos de um cliente fiquem contíguos e
+ * ordenados pelo ID. Localizar o início de uma página custa
+ * {@code O(log n)} e cada pedido da página custa {@code O(1)}, independente
+ * da quantidade de pedidos armazenados. Inserções e remoções concorrentes não
+ * bloqueiam as leituras.
+ * <p>
+ * O índice pode conter, por um breve momento, entradas de pedidos que ainda
+ * não foram confirmados ou que já foram substituídos; quem o consulta deve
+ * conferir cada pedido no armazenamento.
+ */
+final class IndiceClientes {
+
+    private final ConcurrentSkipListSet<Entrada> entradas = new ConcurrentSkipListSet<>();
+
+    /**
+     * Adiciona um pedido ao índice. Pedidos sem cliente não são indexados.
+     *
+     * @param pedido O pedido.
+     */
+    void adicionar(Pedido pedido) {
+        if (pedido.getCliente() != null) {
+            entradas.add(new Entrada(pedido.getCliente(), pedido.getId()));
+        }
+    }
+
+    /**
+     * Remove um pedido do índice.
+     *
+     * @param pedido O pedido.
+     */
+    void remover(Pedido pedido) {
+        if (pedido.getCliente() != null) {
+            entradas.remove(new Entrada(pedido.getCliente(), pedido.getId()));
+        }
+    }
+
+    /**
+     * Retorna os IDs dos pedidos de um cliente em ordem crescente, começando
+     * logo depois do ID informado.
+     *
+     * @param cliente O cliente.
+     * @param aposId  O ID a partir do qual os pedidos são retornados, sem
+     *                incluí-lo, ou nulo para começar pelo primeiro pedido.
+     * @return Um iterador sobre os IDs, percorrido sob demanda.
+     */
+    Iterator<String> ids(String cliente, String aposId) {
+        NavigableSet<Entrada> pedidos = aposId == null
+                ? entradas.tailSet(new Entrada(cliente, ""), true)
+                : entradas.tailSet(new Entrada(cliente, aposId), false);
+        Iterator<Entrada> iterador = pedidos.iterator();
+
+        return new Iterator<>() {
+
+            private Entrada proxima = avancar();
+
+            @Override
+            public boolean hasNext() {
+                return proxima != null;
+            }
+
+            @Override
+            public String next() {
+                if (proxima == null) {
+                    throw new NoSuchElementException();
+                }
+                String id = proxima.idPedido();
+                proxima = avancar();
+                return id;
+            }
+
+            private Entrada avancar() {
+                if (!iterador.hasNext()) {
+                    return null;
+                }
+                Entrada entrada = iterador.next();
+                return entrada.cliente().equals(cliente) ? entrada : null;
+            }
+        };
+    }
+
+    /**
+     * Entrada do índice, ordenada pelo cliente e depois pelo ID do pedido.
+     */
+    private record Entrada(String cliente, String idPedido) implements Comparable<Entrada> {
+
+        @Override
+        public int compareTo(Entrada outra) {
+            int comparacao = cliente.compareTo(outra.cliente);
+            return comparacao != 0 ? comparacao : idPedido.compareTo(outra.idPedido);
+        }
+    }
+}
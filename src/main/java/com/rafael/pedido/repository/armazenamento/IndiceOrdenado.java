@@ -0,0 +1,314 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Conjunto ordenado de chaves binárias cujo espaço no heap não cresce com a
+ * quantidade de chaves.
+ * <p>
+ * As chaves novas entram em uma skip list concorrente no heap. Quando ela
+ * chega ao limite de chaves recentes, uma tarefa de manutenção grava as
+ * chaves em um novo {@link TrechoOrdenado}, fora do heap, e descarta a skip
+ * list. Em seguida, os dois trechos mais novos são fundidos enquanto tiverem
+ * tamanhos próximos, de forma que a quantidade de trechos cresça com o
+ * logaritmo da quantidade de chaves. As consultas percorrem a skip list e os
+ * trechos ao mesmo tempo, fundindo-os em uma única sequência ordenada e sem
+ * repetições.
+ * <p>
+ * A skip list sendo descarregada continua sendo consultada até o trecho com
+ * as suas chaves ser publicado, e uma chave adicionada a ela depois do início
+ * da descarga também é adicionada à nova skip list, para que nenhuma chave
+ * deixe de ser encontrada. O índice só recebe chaves: as que deixam de valer
+ * permanecem, e quem consulta o índice deve descartá-las.
+ * <p>
+ * As chaves são ordenadas byte a byte, sem sinal.
+ */
+final class IndiceOrdenado {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndiceOrdenado.class);
+    private static final Comparator<byte[]> ORDEM = Arrays::compareUnsigned;
+
+    /**
+     * Os dois trechos mais novos são fundidos enquanto o mais antigo deles não
+     * tiver mais que este múltiplo das chaves do mais novo.
+     */
+    private static final int FATOR_FUSAO = 2;
+    /** Tamanho máximo de um trecho, limitado pelo endereçamento do buffer. */
+    private static final long MAXIMO_BYTES_TRECHO = 1L << 30;
+
+    private final AlocadorTrechos alocador;
+    private final Executor manutencao;
+    private final int limiteRecentes;
+    private final ReentrantLock travaManutencao = new ReentrantLock();
+    private final AtomicBoolean descargaAgendada = new AtomicBoolean();
+    private volatile Estado estado = new Estado(new Recentes(), List.of(), List.of());
+
+    /**
+     * Construtor do índice.
+     *
+     * @param alocador       Quem aloca as regiões dos trechos.
+     * @param manutencao     O executor das descargas e fusões.
+     * @param limiteRecentes A quantidade de chaves recentes que dispara uma
+     *                       descarga.
+     */
+    IndiceOrdenado(AlocadorTrechos alocador, Executor manutencao, int limiteRecentes) {
+        if (limiteRecentes < 1) {
+            throw new IllegalArgumentException("O limite de chaves recentes deve ser positivo.");
+        }
+        this.alocador = alocador;
+        this.manutencao = manutencao;
+        this.limiteRecentes = limiteRecentes;
+    }
+
+    /**
+     * Adiciona uma chave ao índice.
+     *
+     * @param chave A chave.
+     */
+    void adicionar(byte[] chave) {
+        Recentes recentes = estado.recentes();
+        if (!recentes.chaves().add(chave)) {
+            return;
+        }
+
+        Recentes atuais = estado.recentes();
+        if (atuais != recentes) {
+            // A descarga já começou e pode não ter visto a chave.
+            atuais.chaves().add(chave);
+        } else if (recentes.quantidade().incrementAndGet() == limiteRecentes) {
+            agendarDescarga();
+        }
+    }
+
+    /**
+     * Percorre as chaves em ordem crescente a partir da chave informada.
+     *
+     * @param inicio    A primeira chave procurada.
+     * @param inclusivo Se a própria chave de início é retornada, caso exista.
+     * @return Um iterador sobre as chaves, percorrido sob demanda.
+     */
+    Iterator<byte[]> crescente(byte[] inicio, boolean inclusivo) {
+        Estado atual = estado;
+        List<Iterator<byte[]>> fontes = new ArrayList<>();
+        fontes.add(atual.recentes().chaves().tailSet(inicio, inclusivo).iterator());
+        atual.descarregando().forEach(chaves -> fontes.add(chaves.tailSet(inicio, inclusivo).iterator()));
+        atual.trechos().forEach(trecho -> fontes.add(trecho.crescente(inicio, inclusivo)));
+        return new Fusao(fontes, ORDEM);
+    }
+
+    /**
+     * Percorre as chaves em ordem decrescente, a partir da maior.
+     *
+     * @return Um iterador sobre as chaves, percorrido sob demanda.
+     */
+    Iterator<byte[]> decrescente() {
+        Estado atual = estado;
+        List<Iterator<byte[]>> fontes = new ArrayList<>();
+        fontes.add(atual.recentes().chaves().descendingIterator());
+        atual.descarregando().forEach(chaves -> fontes.add(chaves.descendingIterator()));
+        atual.trechos().forEach(trecho -> fontes.add(trecho.decrescente()));
+        return new Fusao(fontes, ORDEM.reversed());
+    }
+
+    /**
+     * Retorna o espaço ocupado pelos trechos fora do heap.
+     */
+    long bytesForaDoHeap() {
+        return estado.trechos().stream().mapToLong(TrechoOrdenado::bytes).sum();
+    }
+
+    /**
+     * Grava as chaves recentes em um trecho, se houver, e funde os trechos.
+     * Chamado pela tarefa de manutenção e pelos testes.
+     */
+    void descarregar() {
+        travaManutencao.lock();
+        try {
+            descargaAgendada.set(false);
+            Estado anterior = estado;
+            if (anterior.recentes().chaves().isEmpty() && anterior.descarregando().isEmpty()) {
+                return;
+            }
+
+            List<ConcurrentSkipListSet<byte[]>> descarregando = new ArrayList<>(anterior.descarregando());
+            descarregando.add(anterior.recentes().chaves());
+            estado = new Estado(new Recentes(), List.copyOf(descarregando), anterior.trechos());
+
+            // As chaves adicionadas depois da troca também estão nas novas chaves
+            // recentes, então basta gravar as que existem agora.
+            List<byte[]> chaves = new ArrayList<>();
+            int bytes = 0;
+            Iterator<byte[]> fusao = new Fusao(
+                    descarregando.stream().map(ConcurrentSkipListSet::iterator).toList(), ORDEM);
+            while (fusao.hasNext()) {
+                byte[] chave = fusao.next();
+                bytes = Math.addExact(bytes, chave.length);
+                chaves.add(chave);
+            }
+            TrechoOrdenado trecho = TrechoOrdenado.gravar(alocador, chaves.iterator(), bytes, chaves.size());
+
+            List<TrechoOrdenado> trechos = new ArrayList<>(estado.trechos());
+            trechos.add(trecho);
+            estado = new Estado(estado.recentes(), List.of(), List.copyOf(trechos));
+            fundirTrechos();
+        } catch (IOException | RuntimeException e) {
+            // As chaves continuam sendo consultadas no heap até a próxima descarga.
+            LOGGER.warn("Não foi possível gravar as chaves recentes do índice fora do heap.", e);
+        } finally {
+            travaManutencao.unlock();
+        }
+    }
+
+    /**
+     * Libera os trechos do índice, que deixa de receber descargas. Usado
+     * quando o armazenamento é fechado.
+     */
+    void close() {
+        travaManutencao.lock();
+        try {
+            for (TrechoOrdenado trecho : estado.trechos()) {
+                try {
+                    trecho.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Não foi possível liberar um trecho do índice.", e);
+                }
+            }
+            estado = new Estado(estado.recentes(), estado.descarregando(), List.of());
+        } finally {
+            travaManutencao.unlock();
+        }
+    }
+
+    /**
+     * Funde os dois trechos mais novos enquanto eles tiverem tamanhos
+     * próximos. O trecho fundido é publicado antes de os anteriores serem
+     * liberados, e consultas já iniciadas continuam lendo os anteriores.
+     */
+    private void fundirTrechos() throws IOException {
+        List<TrechoOrdenado> trechos;
+        int quantidade;
+        while ((quantidade = (trechos = estado.trechos()).size()) >= 2) {
+            TrechoOrdenado antigo = trechos.get(quantidade - 2);
+            TrechoOrdenado novo = trechos.get(quantidade - 1);
+            if (antigo.quantidade() > (long) FATOR_FUSAO * novo.quantidade()
+                    || antigo.bytes() + novo.bytes() > MAXIMO_BYTES_TRECHO) {
+                return;
+            }
+
+            TrechoOrdenado fundido = TrechoOrdenado.gravar(alocador,
+                    new Fusao(List.of(antigo.crescente(new byte[0], true), novo.crescente(new byte[0], true)), ORDEM),
+                    antigo.bytesChaves() + novo.bytesChaves(), antigo.quantidade() + novo.quantidade());
+
+            List<TrechoOrdenado> atualizados = new ArrayList<>(trechos.subList(0, quantidade - 2));
+            atualizados.add(fundido);
+            estado = new Estado(estado.recentes(), estado.descarregando(), List.copyOf(atualizados));
+            antigo.close();
+            novo.close();
+        }
+    }
+
+    private void agendarDescarga() {
+        if (descargaAgendada.compareAndSet(false, true)) {
+            try {
+                manutencao.execute(this::descarregar);
+            } catch (RejectedExecutionException e) {
+                descargaAgendada.set(false);
+            }
+        }
+    }
+
+    /**
+     * Estado publicado do índice, trocado por inteiro a cada descarga ou fusão.
+     *
+     * @param recentes      As chaves recentes, que recebem as novas chaves.
+     * @param descarregando As chaves recentes anteriores, ainda não gravadas em
+     *                      um trecho.
+     * @param trechos       Os trechos fora do heap, do mais antigo para o
+     *                      mais novo.
+     */
+    private record Estado(Recentes recentes, List<ConcurrentSkipListSet<byte[]>> descarregando,
+            List<TrechoOrdenado> trechos) {
+    }
+
+    /**
+     * Chaves recentes e a sua quantidade, contada à parte porque o tamanho da
+     * skip list é calculado percorrendo-a.
+     */
+    private record Recentes(ConcurrentSkipListSet<byte[]> chaves, AtomicInteger quantidade) {
+
+        Recentes() {
+            this(new ConcurrentSkipListSet<>(ORDEM), new AtomicInteger());
+        }
+    }
+
+    /**
+     * Funde várias sequências ordenadas em uma só, na mesma ordem, retornando
+     * uma única vez as chaves presentes em mais de uma delas.
+     */
+    private static final class Fusao implements Iterator<byte[]> {
+
+        private final PriorityQueue<Cabeca> cabecas;
+        private final Comparator<byte[]> ordem;
+        private byte[] ultima;
+
+        Fusao(List<Iterator<byte[]>> fontes, Comparator<byte[]> ordem) {
+            this.ordem = ordem;
+            this.cabecas = new PriorityQueue<>(Math.max(1, fontes.size()),
+                    (a, b) -> ordem.compare(a.chave(), b.chave()));
+            for (Iterator<byte[]> fonte : fontes) {
+                if (fonte.hasNext()) {
+                    cabecas.add(new Cabeca(fonte.next(), fonte));
+                }
+            }
+            descartarRepetidas();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cabecas.isEmpty();
+        }
+
+        @Override
+        public byte[] next() {
+            if (cabecas.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Cabeca cabeca = cabecas.poll();
+            ultima = cabeca.chave();
+            avancar(cabeca.fonte());
+            descartarRepetidas();
+            return ultima;
+        }
+
+        private void descartarRepetidas() {
+            while (ultima != null && !cabecas.isEmpty() && ordem.compare(cabecas.peek().chave(), ultima) == 0) {
+                avancar(cabecas.poll().fonte());
+            }
+        }
+
+        private void avancar(Iterator<byte[]> fonte) {
+            if (fonte.hasNext()) {
+                cabecas.add(new Cabeca(fonte.next(), fonte));
+            }
+        }
+
+        private record Cabeca(byte[] chave, Iterator<byte[]> fonte) {
+        }
+    }
+}
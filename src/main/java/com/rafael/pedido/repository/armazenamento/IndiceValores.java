@@ -0,0 +1,67 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Índice secundário dos pedidos pelo valor total.
+ * <p>
+ * As entradas são pares {@code (valor em centavos, id)} mantidos em ordem em
+ * uma skip list concorrente. Localizar o início de uma faixa de valores, ou o
+ * maior valor, custa {@code O(log n)} e cada pedido seguinte custa
+ * {@code O(1)}, independente da quantidade de pedidos armazenados.
+ * <p>
+ * Assim como no {@link IndiceClientes}, quem consulta o índice deve conferir
+ * cada pedido no armazenamento.
+ */
+final class IndiceValores {
+
+    private final ConcurrentSkipListSet<EntradaValor> entradas = new ConcurrentSkipListSet<>();
+
+    /**
+     * Adiciona um pedido ao índice.
+     *
+     * @param pedido O pedido.
+     */
+    void adicionar(Pedido pedido) {
+        entradas.add(new EntradaValor(pedido.getValorTotalCentavos(), pedido.getId()));
+    }
+
+    /**
+     * Remove um pedido do índice.
+     *
+     * @param pedido O pedido.
+     */
+    void remover(Pedido pedido) {
+        entradas.remove(new EntradaValor(pedido.getValorTotalCentavos(), pedido.getId()));
+    }
+
+    /**
+     * Retorna as entradas dos pedidos com valor dentro da faixa informada, em
+     * ordem crescente de valor e de ID.
+     *
+     * @param minimo O menor valor da faixa, em centavos, incluído.
+     * @param maximo O maior valor da faixa, em centavos, incluído.
+     * @param apos   A entrada do último pedido já retornado, ou nulo para
+     *               começar pelo início da faixa.
+     * @return Um iterador sobre as entradas, percorrido sob demanda.
+     */
+    Iterator<EntradaValor> naFaixa(long minimo, long maximo, EntradaValor apos) {
+        NavigableSet<EntradaValor> faixa = apos == null || apos.valor() < minimo
+                ? entradas.tailSet(new EntradaValor(minimo, ""), true)
+                : entradas.tailSet(apos, false);
+        return faixa.stream().takeWhile(entrada -> entrada.valor() <= maximo).iterator();
+    }
+
+    /**
+     * Retorna as entradas dos pedidos em ordem decrescente de valor.
+     *
+     * @return Um iterador sobre as entradas, percorrido sob demanda.
+     */
+    Iterator<EntradaValor> maiores() {
+        return entradas.descendingIterator();
+    }
+}
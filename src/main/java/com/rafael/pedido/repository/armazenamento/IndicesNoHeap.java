@@ -0,0 +1,71 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Índices dos pedidos mantidos no heap: o conjunto ordenado dos IDs, o
+ * {@link IndiceClientes} e o {@link IndiceValores}.
+ * <p>
+ * Cada pedido ocupa uma entrada em cada um dos três índices, removida quando
+ * o pedido é removido ou quando a substituição altera o campo indexado.
+ */
+final class IndicesNoHeap {
+
+    private final ConcurrentSkipListSet<String> ids = new ConcurrentSkipListSet<>();
+    private final IndiceClientes clientes = new IndiceClientes();
+    private final IndiceValores valores = new IndiceValores();
+
+    /**
+     * Adiciona um pedido aos índices, retirando as entradas do pedido
+     * substituído que não valem mais para o novo.
+     *
+     * @param anterior O pedido substituído, ou nulo se o ID não existia.
+     * @param pedido   O pedido gravado.
+     */
+    void substituir(Pedido anterior, Pedido pedido) {
+        ids.add(pedido.getId());
+        clientes.adicionar(pedido);
+        valores.adicionar(pedido);
+        if (anterior != null) {
+            if (!Objects.equals(anterior.getCliente(), pedido.getCliente())) {
+                clientes.remover(anterior);
+            }
+            if (anterior.getValorTotalCentavos() != pedido.getValorTotalCentavos()) {
+                valores.remover(anterior);
+            }
+        }
+    }
+
+    /**
+     * Retira um pedido dos índices.
+     *
+     * @param pedido O pedido removido.
+     */
+    void remover(Pedido pedido) {
+        ids.remove(pedido.getId());
+        clientes.remover(pedido);
+        valores.remover(pedido);
+    }
+
+    Iterator<String> ids(String aposId) {
+        NavigableSet<String> faixa = aposId == null ? ids : ids.tailSet(aposId, false);
+        return faixa.iterator();
+    }
+
+    Iterator<String> idsDoCliente(String cliente, String aposId) {
+        return clientes.ids(cliente, aposId);
+    }
+
+    Iterator<EntradaValor> valoresNaFaixa(long minimo, long maximo, EntradaValor apos) {
+        return valores.naFaixa(minimo, maximo, apos);
+    }
+
+    Iterator<EntradaValor> maioresValores() {
+        return valores.maiores();
+    }
+}
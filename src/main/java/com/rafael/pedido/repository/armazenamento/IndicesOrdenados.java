@@ -0,0 +1,193 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Índices dos pedidos por ID, por cliente e por valor total guardados em
+ * {@link IndiceOrdenado}s, cujo espaço no heap não cresce com a quantidade
+ * de pedidos.
+ * <p>
+ * Cada entrada é codificada em bytes de forma que a ordem byte a byte seja a
+ * ordem da consulta:
+ * <ul>
+ * <li>ID: o ID em UTF-8;</li>
+ * <li>cliente: o tamanho do cliente em UTF-8, em 4 bytes, o cliente e o
+ * ID;</li>
+ * <li>valor: o valor total com o bit de sinal invertido, em 8 bytes, e o
+ * ID.</li>
+ * </ul>
+ * Como a ordem dos bytes UTF-8 é a ordem dos code points, os IDs são
+ * ordenados pelos code points, e não pelos caracteres UTF-16 de
+ * {@link String#compareTo(String)}.
+ * <p>
+ * Os índices só recebem entradas: as entradas de pedidos substituídos ou
+ * removidos permanecem, e quem os consulta deve conferir cada pedido no
+ * armazenamento.
+ */
+final class IndicesOrdenados {
+
+    private static final byte[] VAZIO = new byte[0];
+
+    private final IndiceOrdenado ids;
+    private final IndiceOrdenado clientes;
+    private final IndiceOrdenado valores;
+
+    /**
+     * Construtor dos índices.
+     *
+     * @param alocador       Quem aloca as regiões dos trechos.
+     * @param manutencao     O executor das descargas e fusões.
+     * @param limiteRecentes A quantidade de entradas recentes de cada índice
+     *                       mantidas no heap antes de uma descarga.
+     */
+    IndicesOrdenados(AlocadorTrechos alocador, Executor manutencao, int limiteRecentes) {
+        this.ids = new IndiceOrdenado(alocador, manutencao, limiteRecentes);
+        this.clientes = new IndiceOrdenado(alocador, manutencao, limiteRecentes);
+        this.valores = new IndiceOrdenado(alocador, manutencao, limiteRecentes);
+    }
+
+    /**
+     * Adiciona as entradas de um pedido aos índices.
+     *
+     * @param pedido O pedido gravado.
+     */
+    void adicionar(Pedido pedido) {
+        byte[] id = bytes(pedido.getId());
+        ids.adicionar(id);
+        if (pedido.getCliente() != null) {
+            clientes.adicionar(chaveCliente(bytes(pedido.getCliente()), id));
+        }
+        valores.adicionar(chaveValor(pedido.getValorTotalCentavos(), id));
+    }
+
+    Iterator<String> ids(String aposId) {
+        Iterator<byte[]> chaves = aposId == null ? ids.crescente(VAZIO, true) : ids.crescente(bytes(aposId), false);
+        return new Conversao<>(chaves, chave -> true, IndicesOrdenados::texto);
+    }
+
+    Iterator<String> idsDoCliente(String cliente, String aposId) {
+        byte[] prefixo = chaveCliente(bytes(cliente), VAZIO);
+        Iterator<byte[]> chaves = aposId == null
+                ? clientes.crescente(prefixo, true)
+                : clientes.crescente(chaveCliente(bytes(cliente), bytes(aposId)), false);
+        return new Conversao<>(chaves, chave -> comecaCom(chave, prefixo),
+                chave -> new String(chave, prefixo.length, chave.length - prefixo.length, StandardCharsets.UTF_8));
+    }
+
+    Iterator<EntradaValor> valoresNaFaixa(long minimo, long maximo, EntradaValor apos) {
+        Iterator<byte[]> chaves = apos == null
+                ? valores.crescente(chaveValor(minimo, VAZIO), true)
+                : valores.crescente(chaveValor(apos.valor(), bytes(apos.idPedido())), false);
+        return new Conversao<>(chaves, chave -> valor(chave) <= maximo, IndicesOrdenados::entradaValor);
+    }
+
+    Iterator<EntradaValor> maioresValores() {
+        return new Conversao<>(valores.decrescente(), chave -> true, IndicesOrdenados::entradaValor);
+    }
+
+    /**
+     * Grava as entradas recentes fora do heap. Usado pelos testes.
+     */
+    void descarregar() {
+        ids.descarregar();
+        clientes.descarregar();
+        valores.descarregar();
+    }
+
+    /**
+     * Retorna o espaço ocupado pelos índices fora do heap.
+     */
+    long bytesForaDoHeap() {
+        return ids.bytesForaDoHeap() + clientes.bytesForaDoHeap() + valores.bytesForaDoHeap();
+    }
+
+    /**
+     * Libera os trechos dos índices.
+     */
+    void close() {
+        ids.close();
+        clientes.close();
+        valores.close();
+    }
+
+    private static byte[] chaveCliente(byte[] cliente, byte[] id) {
+        return ByteBuffer.allocate(Integer.BYTES + cliente.length + id.length)
+                .putInt(cliente.length).put(cliente).put(id).array();
+    }
+
+    private static byte[] chaveValor(long valor, byte[] id) {
+        return ByteBuffer.allocate(Long.BYTES + id.length).putLong(valor ^ Long.MIN_VALUE).put(id).array();
+    }
+
+    private static long valor(byte[] chave) {
+        return ByteBuffer.wrap(chave).getLong() ^ Long.MIN_VALUE;
+    }
+
+    private static EntradaValor entradaValor(byte[] chave) {
+        return new EntradaValor(valor(chave),
+                new String(chave, Long.BYTES, chave.length - Long.BYTES, StandardCharsets.UTF_8));
+    }
+
+    private static boolean comecaCom(byte[] chave, byte[] prefixo) {
+        return chave.length >= prefixo.length
+                && Arrays.equals(chave, 0, prefixo.length, prefixo, 0, prefixo.length);
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String texto(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converte as chaves de um índice enquanto elas atenderem ao critério de
+     * continuação, encerrando a iteração na primeira que não o atender.
+     */
+    private static final class Conversao<T> implements Iterator<T> {
+
+        private final Iterator<byte[]> chaves;
+        private final Predicate<byte[]> continuar;
+        private final Function<byte[], T> conversor;
+        private byte[] proxima;
+        private boolean encerrada;
+
+        Conversao(Iterator<byte[]> chaves, Predicate<byte[]> continuar, Function<byte[], T> conversor) {
+            this.chaves = chaves;
+            this.continuar = continuar;
+            this.conversor = conversor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (proxima == null && !encerrada) {
+                if (chaves.hasNext() && continuar.test(proxima = chaves.next())) {
+                    return true;
+                }
+                proxima = null;
+                encerrada = true;
+            }
+            return proxima != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T elemento = conversor.apply(proxima);
+            proxima = null;
+            return elemento;
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Armazenamento de pedidos em memória fora do heap da JVM.
+ * <p>
+ * Os dados de cada pedido (id, cliente, valor total e versão) são gravados
+ * em blocos de memória direta, e a localização de cada pedido é mantida em um
+ * índice próprio de endereçamento aberto, também fora do heap. Assim, milhões
+ * de pedidos não geram objetos para o coletor de lixo percorrer: os objetos
+ * {@link Pedido} só são criados quando um pedido é lido, com a versão gravada,
+ * sem recalculá-la.
+ * <p>
+ * O armazenamento é dividido em segmentos, cada um com a sua própria trava de
+ * leitura e escrita, para que inserções em segmentos diferentes não concorram
+ * entre si. O espaço de pedidos substituídos ou removidos não é reaproveitado.
+ * <p>
+ * Os índices por ID, por cliente e por valor total também ficam fora do heap,
+ * em {@link IndicesOrdenados}: no heap ficam somente as entradas mais
+ * recentes, até um limite fixo, gravadas fora do heap por uma thread de
+ * manutenção compartilhada. Como os dados, as entradas de pedidos
+ * substituídos ou removidos não são reaproveitadas. Os IDs são percorridos na
+ * ordem dos seus bytes em UTF-8.
+ */
+public class OffHeapPedidoStore implements PedidoStore {
+
+    private static final int SEGMENTOS = 16;
+    private static final int TAMANHO_BLOCO = 1024 * 1024;
+    private static final int CAPACIDADE_INICIAL = 1024;
+    private static final long MAXIMO_BLOCOS = (0xFFFFFFFFL - 1) / TAMANHO_BLOCO;
+    private static final long VAZIO = 0L;
+    private static final long REMOVIDO = -1L;
+    private static final int LIMITE_ENTRADAS_RECENTES = 32_768;
+    private static final ExecutorService MANUTENCAO_INDICES = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "pedido-indices");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Segmento[] segmentos = new Segmento[SEGMENTOS];
+    private final IndicesOrdenados indices;
+
+    /**
+     * Construtor do armazenamento fora do heap.
+     */
+    public OffHeapPedidoStore() {
+        this(MANUTENCAO_INDICES, LIMITE_ENTRADAS_RECENTES);
+    }
+
+    /**
+     * Construtor usado nos testes, com o executor da manutenção dos índices e
+     * o limite de entradas recentes informados.
+     */
+    OffHeapPedidoStore(Executor manutencaoIndices, int limiteEntradasRecentes) {
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento();
+        }
+        this.indices = new IndicesOrdenados(AlocadorTrechos.MEMORIA_DIRETA, manutencaoIndices,
+                limiteEntradasRecentes);
+    }
+
+    @Override
+    public void salvar(Pedido pedido) {
+        int hash = hash(pedido.getId());
+        segmento(hash).inserir(hash, bytes(pedido.getId()), pedido, true);
+        indices.adicionar(pedido);
+    }
+
+    @Override
+    public boolean salvarSeAusente(Pedido pedido) {
+        int hash = hash(pedido.getId());
+        if (!segmento(hash).inserir(hash, bytes(pedido.getId()), pedido, false)) {
+            return false;
+        }
+        indices.adicionar(pedido);
+        return true;
+    }
+
+    @Override
+    public Optional<Pedido> consultar(String idPedido) {
+        int hash = hash(idPedido);
+        return Optional.ofNullable(segmento(hash).consultar(hash, bytes(idPedido)));
+    }
+
+    @Override
+    public boolean existe(String idPedido) {
+        int hash = hash(idPedido);
+        return segmento(hash).existe(hash, bytes(idPedido));
+    }
+
+    @Override
+    public void remover(String idPedido) {
+        int hash = hash(idPedido);
+        segmento(hash).remover(hash, bytes(idPedido));
+    }
+
+    @Override
+    public long tamanho() {
+        long tamanho = 0;
+        for (Segmento segmento : segmentos) {
+            tamanho += segmento.tamanho();
+        }
+        return tamanho;
+    }
+
+    @Override
+    public Iterable<Pedido> pedidos() {
+        return IteradorPedidos::new;
+    }
+
+    @Override
+    public Iterator<String> ids(String aposId) {
+        return indices.ids(aposId);
+    }
+
+    @Override
+    public Iterator<String> idsDoCliente(String cliente, String aposId) {
+        return indices.idsDoCliente(cliente, aposId);
+    }
+
+    @Override
+    public Iterator<EntradaValor> valoresNaFaixa(long minimo, long maximo, EntradaValor apos) {
+        return indices.valoresNaFaixa(minimo, maximo, apos);
+    }
+
+    @Override
+    public Iterator<EntradaValor> maioresValores() {
+        return indices.maioresValores();
+    }
+
+    /**
+     * Retorna a quantidade de memória fora do heap reservada pelos blocos de
+     * dados e pelos índices.
+     *
+     * @return A quantidade de bytes reservados.
+     */
+    public long bytesForaDoHeap() {
+        long bytes = indices.bytesForaDoHeap();
+        for (Segmento segmento : segmentos) {
+            bytes += segmento.bytesReservados();
+        }
+        return bytes;
+    }
+
+    /**
+     * Grava fora do heap as entradas recentes dos índices. Usado pelos testes.
+     */
+    void descarregarIndices() {
+        indices.descarregar();
+    }
+
+    private Segmento segmento(int hash) {
+        return segmentos[hash >>> 28];
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Um segmento do armazenamento, com seus blocos de dados e o seu índice.
+     * Cada posição do índice guarda, em um único {@code long}, o hash do ID nos
+     * 32 bits mais altos e o endereço do pedido, somado de um, nos 32 bits mais
+     * baixos.
+     */
+    private static final class Segmento {
+
+        private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+        private final List<ByteBuffer> blocos = new ArrayList<>();
+        private ByteBuffer indice = ByteBuffer.allocateDirect(CAPACIDADE_INICIAL * Long.BYTES);
+        private int capacidade = CAPACIDADE_INICIAL;
+        private int ocupados;
+        private int tamanho;
+
+        boolean inserir(int hash, byte[] id, Pedido pedido, boolean substituir) {
+            trava.writeLock().lock();
+            try {
+                int posicao = localizar(hash, id);
+                if (posicao >= 0) {
+                    if (substituir) {
+                        indice.putLong(posicao * Long.BYTES, entrada(hash, gravar(id, pedido)));
+                    }
+                    return substituir;
+                }
+
+                if ((ocupados + 1) * 2 > capacidade) {
+                    redimensionar();
+                    posicao = localizar(hash, id);
+                }
+
+                int livre = -posicao - 1;
+                if (indice.getLong(livre * Long.BYTES) == VAZIO) {
+                    ocupados++;
+                }
+                indice.putLong(livre * Long.BYTES, entrada(hash, gravar(id, pedido)));
+                tamanho++;
+                return true;
+            } finally {
+                trava.writeLock().unlock();
+            }
+        }
+
+        Pedido consultar(int hash, byte[] id) {
+            trava.readLock().lock();
+            try {
+                int posicao = localizar(hash, id);
+                return posicao >= 0 ? ler(endereco(indice.getLong(posicao * Long.BYTES))) : null;
+            } finally {
+                trava.readLock().unlock();
+            }
+        }
+
+        boolean existe(int hash, byte[] id) {
+            trava.readLock().lock();
+            try {
+                return localizar(hash, id) >= 0;
+            } finally {
+                trava.readLock().unlock();
+            }
+        }
+
+        void remover(int hash, byte[] id) {
+            trava.writeLock().lock();
+            try {
+                int posicao = localizar(hash, id);
+                if (posicao >= 0) {
+                    indice.putLong(posicao * Long.BYTES, REMOVIDO);
+                    tamanho--;
+                }
+            } finally {
+                trava.writeLock().unlock();
+            }
+        }
+
+        int tamanho() {
+            trava.readLock().lock();
+            try {
+                return tamanho;
+            } finally {
+                trava.readLock().unlock();
+            }
+        }
+
+        long bytesReservados() {
+            trava.readLock().lock();
+            try {
+                return (long) blocos.size() * TAMANHO_BLOCO + (long) capacidade * Long.BYTES;
+            } finally {
+                trava.readLock().unlock();
+            }
+        }
+
+        /**
+         * Retorna o endereço do fim dos dados gravados até o momento.
+         */
+        long limite() {
+            trava.readLock().lock();
+            try {
+                if (blocos.isEmpty()) {
+                    return 0;
+                }
+                return (long) (blocos.size() - 1) * TAMANHO_BLOCO + blocos.get(blocos.size() - 1).position();
+            } finally {
+                trava.readLock().unlock();
+            }
+        }
+
+        /**
+         * Lê o pedido gravado no endereço informado, descartando-o se ele já
+         * tiver sido substituído ou removido do índice.
+         */
+        Leitura lerSeAtual(long endereco) {
+            trava.readLock().lock();
+            try {
+                Pedido pedido = ler(endereco);
+                int posicao = localizar(hash(pedido.getId()), bytes(pedido.getId()));
+                boolean atual = posicao >= 0 && endereco(indice.getLong(posicao * Long.BYTES)) == endereco;
+                return new Leitura(atual ? pedido : null, proximo(endereco));
+            } finally {
+                trava.readLock().unlock();
+            }
+        }
+
+        /**
+         * Procura o ID no índice por sondagem linear.
+         *
+         * @return A posição do ID no índice, se encontrado, ou
+         *         {@code -(posição livre) - 1} caso contrário.
+         */
+        private int localizar(int hash, byte[] id) {
+            int mascara = capacidade - 1;
+            int livre = -1;
+
+            for (int posicao = hash & mascara;; posicao = (posicao + 1) & mascara) {
+                long entrada = indice.getLong(posicao * Long.BYTES);
+                if (entrada == VAZIO) {
+                    return -(livre >= 0 ? livre : posicao) - 1;
+                }
+                if (entrada == REMOVIDO) {
+                    if (livre < 0) {
+                        livre = posicao;
+                    }
+                } else if ((int) (entrada >>> 32) == hash && idIgual(endereco(entrada), id)) {
+                    return posicao;
+                }
+            }
+        }
+
+        private void redimensionar() {
+            int novaCapacidade = capacidade * 2;
+            ByteBuffer novoIndice = ByteBuffer.allocateDirect(novaCapacidade * Long.BYTES);
+            int mascara = novaCapacidade - 1;
+
+            for (int i = 0; i < capacidade; i++) {
+                long entrada = indice.getLong(i * Long.BYTES);
+                if (entrada == VAZIO || entrada == REMOVIDO) {
+                    continue;
+                }
+
+                int posicao = (int) (entrada >>> 32) & mascara;
+                while (novoIndice.getLong(posicao * Long.BYTES) != VAZIO) {
+                    posicao = (posicao + 1) & mascara;
+                }
+                novoIndice.putLong(posicao * Long.BYTES, entrada);
+            }
+
+            indice = novoIndice;
+            capacidade = novaCapacidade;
+            ocupados = tamanho;
+        }
+
+        private long gravar(byte[] id, Pedido pedido) {
+            byte[] cliente = pedido.getCliente() == null ? null : bytes(pedido.getCliente());
+            int tamanhoRegistro = Integer.BYTES * 2 + id.length + (cliente == null ? 0 : cliente.length)
+                    + Long.BYTES * 2;
+            if (tamanhoRegistro > TAMANHO_BLOCO) {
+                throw new IllegalArgumentException("Pedido grande demais para o armazenamento fora do heap.");
+            }
+
+            ByteBuffer bloco = blocos.isEmpty() ? null : blocos.get(blocos.size() - 1);
+            if (bloco == null || bloco.remaining() < tamanhoRegistro) {
+                if (blocos.size() == MAXIMO_BLOCOS) {
+                    throw new IllegalStateException("Capacidade do armazenamento fora do heap esgotada.");
+                }
+                bloco = ByteBuffer.allocateDirect(TAMANHO_BLOCO);
+                blocos.add(bloco);
+            }
+
+            long endereco = (long) (blocos.size() - 1) * TAMANHO_BLOCO + bloco.position();
+            bloco.putInt(id.length).put(id);
+            if (cliente == null) {
+                bloco.putInt(-1);
+            } else {
+                bloco.putInt(cliente.length).put(cliente);
+            }
+            bloco.putLong(pedido.getValorTotalCentavos()).putLong(pedido.getVersao());
+            return endereco;
+        }
+
+        private Pedido ler(long endereco) {
+            ByteBuffer bloco = blocos.get((int) (endereco / TAMANHO_BLOCO));
+            int posicao = (int) (endereco % TAMANHO_BLOCO);
+
+            byte[] id = new byte[bloco.getInt(posicao)];
+            bloco.get(posicao + Integer.BYTES, id);
+            posicao += Integer.BYTES + id.length;
+
+            int tamanhoCliente = bloco.getInt(posicao);
+            String cliente = null;
+            posicao += Integer.BYTES;
+            if (tamanhoCliente >= 0) {
+                byte[] bytesCliente = new byte[tamanhoCliente];
+                bloco.get(posicao, bytesCliente);
+                cliente = new String(bytesCliente, StandardCharsets.UTF_8);
+                posicao += tamanhoCliente;
+            }
+
+            return new Pedido(new String(id, StandardCharsets.UTF_8), cliente, bloco.getLong(posicao),
+                    bloco.getLong(posicao + Long.BYTES));
+        }
+
+        private long proximo(long endereco) {
+            int indiceBloco = (int) (endereco / TAMANHO_BLOCO);
+            ByteBuffer bloco = blocos.get(indiceBloco);
+            int posicao = (int) (endereco % TAMANHO_BLOCO);
+
+            posicao += Integer.BYTES + bloco.getInt(posicao);
+            posicao += Integer.BYTES + Math.max(0, bloco.getInt(posicao));
+            posicao += Long.BYTES * 2;
+
+            if (posicao >= bloco.position() && indiceBloco < blocos.size() - 1) {
+                return (long) (indiceBloco + 1) * TAMANHO_BLOCO;
+            }
+            return (long) indiceBloco * TAMANHO_BLOCO + posicao;
+        }
+
+        private boolean idIgual(long endereco, byte[] id) {
+            ByteBuffer bloco = blocos.get((int) (endereco / TAMANHO_BLOCO));
+            int posicao = (int) (endereco % TAMANHO_BLOCO);
+            if (bloco.getInt(posicao) != id.length) {
+                return false;
+            }
+
+            posicao += Integer.BYTES;
+            for (int i = 0; i < id.length; i++) {
+                if (bloco.get(posicao + i) != id[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long entrada(int hash, long endereco) {
+            return ((long) hash << 32) | (endereco + 1);
+        }
+
+        private static long endereco(long entrada) {
+            return (entrada & 0xFFFFFFFFL) - 1;
+        }
+    }
+
+    /**
+     * Resultado da leitura de um registro durante a iteração.
+     *
+     * @param pedido          O pedido lido, ou nulo se o registro não for atual.
+     * @param proximoEndereco O endereço do registro seguinte.
+     */
+    private record Leitura(Pedido pedido, long proximoEndereco) {
+    }
+
+    /**
+     * Percorre os pedidos de cada segmento na ordem em que foram gravados,
+     * ignorando os registros que já foram substituídos ou removidos.
+     */
+    private final class IteradorPedidos implements Iterator<Pedido> {
+
+        private int segmentoAtual = -1;
+        private long endereco;
+        private long limite;
+        private Pedido proximo;
+
+        @Override
+        public boolean hasNext() {
+            while (proximo == null) {
+                if (endereco >= limite) {
+                    if (++segmentoAtual >= SEGMENTOS) {
+                        return false;
+                    }
+                    endereco = 0;
+                    limite = segmentos[segmentoAtual].limite();
+                    continue;
+                }
+
+                Leitura leitura = segmentos[segmentoAtual].lerSeAtual(endereco);
+                proximo = leitura.pedido();
+                endereco = leitura.proximoEndereco();
+            }
+            return true;
+        }
+
+        @Override
+        public Pedido next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Pedido pedido = proximo;
+            proximo = null;
+            return pedido;
+        }
+    }
+}
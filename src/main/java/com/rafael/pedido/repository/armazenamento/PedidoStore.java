@@ -0,0 +1,118 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.util.Iterator;
+import java.util.Optional;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Define o mecanismo de armazenamento utilizado pelo repositório de pedidos.
+ * As implementações devem ser seguras para acesso concorrente.
+ * <p>
+ * Cada armazenamento mantém também os índices dos seus pedidos por ID, por
+ * cliente e por valor total, guardados junto com os pedidos (no heap ou fora
+ * dele). Os índices são fracamente consistentes e podem conter, além dos
+ * pedidos atuais, entradas de pedidos ainda em gravação, substituídos ou
+ * removidos: quem os consulta deve conferir cada pedido com
+ * {@link #consultar(String)}. Um pedido presente do início ao fim de uma
+ * consulta nunca é omitido.
+ */
+public interface PedidoStore {
+
+    /**
+     * Salva um pedido, substituindo um pedido existente com o mesmo ID.
+     *
+     * @param pedido O pedido a ser salvo.
+     */
+    void salvar(Pedido pedido);
+
+    /**
+     * Salva um pedido somente se ainda não existir um pedido com o mesmo ID,
+     * em uma única operação atômica.
+     *
+     * @param pedido O pedido a ser salvo.
+     * @return True se o pedido foi salvo, false se o ID já existia.
+     */
+    boolean salvarSeAusente(Pedido pedido);
+
+    /**
+     * Consulta um pedido pelo ID.
+     *
+     * @param idPedido O ID do pedido.
+     * @return Um Optional contendo o pedido, se encontrado.
+     */
+    Optional<Pedido> consultar(String idPedido);
+
+    /**
+     * Verifica se existe um pedido com o ID informado.
+     *
+     * @param idPedido O ID do pedido.
+     * @return True se o pedido existir, false caso contrário.
+     */
+    boolean existe(String idPedido);
+
+    /**
+     * Remove o pedido com o ID informado.
+     *
+     * @param idPedido O ID do pedido.
+     */
+    void remover(String idPedido);
+
+    /**
+     * Retorna a quantidade de pedidos armazenados.
+     *
+     * @return A quantidade de pedidos.
+     */
+    long tamanho();
+
+    /**
+     * Retorna todos os pedidos armazenados.
+     * A iteração é fracamente consistente: pedidos salvos ou removidos durante
+     * a iteração podem ou não ser percorridos, mas nenhum pedido presente do
+     * início ao fim da iteração é omitido.
+     *
+     * @return Os pedidos armazenados.
+     */
+    Iterable<Pedido> pedidos();
+
+    /**
+     * Retorna os IDs dos pedidos em ordem crescente, começando logo depois do
+     * ID informado.
+     *
+     * @param aposId O ID a partir do qual os IDs são retornados, sem
+     *               incluí-lo, ou nulo para começar pelo primeiro. O ID não
+     *               precisa existir.
+     * @return Um iterador sobre os IDs, percorrido sob demanda.
+     */
+    Iterator<String> ids(String aposId);
+
+    /**
+     * Retorna os IDs dos pedidos de um cliente em ordem crescente, começando
+     * logo depois do ID informado.
+     *
+     * @param cliente O cliente.
+     * @param aposId  O ID a partir do qual os pedidos são retornados, sem
+     *                incluí-lo, ou nulo para começar pelo primeiro pedido.
+     * @return Um iterador sobre os IDs, percorrido sob demanda.
+     */
+    Iterator<String> idsDoCliente(String cliente, String aposId);
+
+    /**
+     * Retorna as entradas dos pedidos com valor total dentro da faixa
+     * informada, em ordem crescente de valor e de ID.
+     *
+     * @param minimo O menor valor da faixa, em centavos, incluído.
+     * @param maximo O maior valor da faixa, em centavos, incluído.
+     * @param apos   A entrada do último pedido já retornado, ou nulo para
+     *               começar pelo início da faixa.
+     * @return Um iterador sobre as entradas, percorrido sob demanda.
+     */
+    Iterator<EntradaValor> valoresNaFaixa(long minimo, long maximo, EntradaValor apos);
+
+    /**
+     * Retorna as entradas dos pedidos em ordem decrescente de valor total.
+     *
+     * @return Um iterador sobre as entradas, percorrido sob demanda.
+     */
+    Iterator<EntradaValor> maioresValores();
+}
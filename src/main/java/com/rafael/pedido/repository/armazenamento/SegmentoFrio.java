@@ -0,0 +1,444 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Segmento imutável de pedidos em disco, usado pela camada fria do
+ * {@link CamadasPedidoStore}.
+ * <p>
+ * Os registros são gravados em ordem de ID e agrupados em blocos de tamanho
+ * aproximado ao configurado, cada bloco compactado separadamente. Um índice
+ * esparso guarda somente o primeiro ID e a posição de cada bloco, de forma
+ * que uma consulta descompacta um único bloco. Um {@link FiltroBloom}
+ * descarta, na maioria das vezes sem ler um bloco, as consultas a IDs que não
+ * estão no segmento.
+ * <p>
+ * O arquivo começa pelos bits do filtro, seguidos dos blocos, da tabela do
+ * índice esparso, com a posição, o tamanho original e o início do primeiro ID
+ * de cada bloco, e dos primeiros IDs em UTF-8. O filtro e o índice esparso
+ * são lidos do arquivo mapeado em memória, e no heap fica somente este
+ * objeto, de tamanho constante, independente da quantidade de pedidos.
+ * <p>
+ * Cada registro é um pedido, com a sua versão, ou a remoção de um pedido de
+ * um segmento mais antigo. Dois segmentos podem ser fundidos em um novo, com
+ * os registros do mais novo prevalecendo sobre os do mais antigo. O arquivo é
+ * mapeado em memória somente para leitura depois de gravado, e é apagado
+ * quando o segmento é fechado.
+ */
+final class SegmentoFrio implements Closeable {
+
+    private static final byte PEDIDO = 0;
+    private static final byte REMOCAO = 1;
+    /** Posição, tamanho original e início do primeiro ID de cada bloco. */
+    private static final int BYTES_ENTRADA_TABELA = Integer.BYTES * 3;
+
+    private final Path arquivo;
+    private final MappedByteBuffer mapa;
+    private final FiltroBloom filtro;
+    private final int inicioTabela;
+    private final int inicioIds;
+    private final int blocos;
+    private final String primeiroId;
+    private final String ultimoId;
+    private final int quantidade;
+
+    private SegmentoFrio(Path arquivo, MappedByteBuffer mapa, int bytesFiltro, int inicioTabela, int blocos,
+            String primeiroId, String ultimoId, int quantidade) {
+        this.arquivo = arquivo;
+        this.mapa = mapa;
+        this.filtro = new FiltroBloom(mapa.slice(0, bytesFiltro));
+        this.inicioTabela = inicioTabela;
+        this.inicioIds = inicioTabela + (blocos + 1) * BYTES_ENTRADA_TABELA;
+        this.blocos = blocos;
+        this.primeiroId = primeiroId;
+        this.ultimoId = ultimoId;
+        this.quantidade = quantidade;
+    }
+
+    /**
+     * Grava um novo segmento com os registros informados.
+     *
+     * @param arquivo      O arquivo do segmento, que não pode existir.
+     * @param registros    Os registros, em ordem crescente de ID e sem IDs
+     *                     repetidos.
+     * @param tamanhoBloco O tamanho aproximado de cada bloco antes da
+     *                     compactação, em bytes.
+     * @return O segmento gravado, pronto para consultas.
+     * @throws IOException Se o arquivo não puder ser gravado.
+     */
+    static SegmentoFrio gravar(Path arquivo, Collection<Registro> registros, int tamanhoBloco) throws IOException {
+        if (registros.isEmpty()) {
+            throw new IllegalArgumentException("Um segmento precisa de ao menos um registro.");
+        }
+        return gravar(arquivo, registros.iterator(), registros.size(), tamanhoBloco);
+    }
+
+    /**
+     * Grava um novo segmento com os registros de dois segmentos, mantendo o
+     * registro do segmento mais novo quando os dois tiverem o mesmo ID.
+     * Os registros são lidos e gravados um bloco de cada vez, sem carregar os
+     * segmentos no heap.
+     *
+     * @param arquivo           O arquivo do segmento, que não pode existir.
+     * @param antigo            O segmento mais antigo.
+     * @param novo              O segmento mais novo.
+     * @param descartarRemocoes Se as remoções devem ser descartadas, o que só
+     *                          é possível quando não há segmento mais antigo
+     *                          que os dois com pedidos a remover.
+     * @param tamanhoBloco      O tamanho aproximado de cada bloco antes da
+     *                          compactação, em bytes.
+     * @return O segmento gravado, ou nulo se não restar nenhum registro.
+     * @throws IOException Se o arquivo não puder ser gravado.
+     */
+    static SegmentoFrio fundir(Path arquivo, SegmentoFrio antigo, SegmentoFrio novo, boolean descartarRemocoes,
+            int tamanhoBloco) throws IOException {
+        Iterator<Registro> registros = new Iterator<>() {
+
+            private final Iterator<Registro> antigos = antigo.registros();
+            private final Iterator<Registro> novos = novo.registros();
+            private Registro proximoAntigo = proximo(antigos);
+            private Registro proximoNovo = proximo(novos);
+            private Registro proximo = avancar();
+
+            @Override
+            public boolean hasNext() {
+                return proximo != null;
+            }
+
+            @Override
+            public Registro next() {
+                if (proximo == null) {
+                    throw new NoSuchElementException();
+                }
+                Registro atual = proximo;
+                proximo = avancar();
+                return atual;
+            }
+
+            private Registro avancar() {
+                while (proximoAntigo != null || proximoNovo != null) {
+                    Registro registro;
+                    int comparacao = proximoAntigo == null ? 1
+                            : proximoNovo == null ? -1 : proximoAntigo.id().compareTo(proximoNovo.id());
+                    if (comparacao < 0) {
+                        registro = proximoAntigo;
+                        proximoAntigo = proximo(antigos);
+                    } else {
+                        registro = proximoNovo;
+                        proximoNovo = proximo(novos);
+                        if (comparacao == 0) {
+                            proximoAntigo = proximo(antigos);
+                        }
+                    }
+                    if (!descartarRemocoes || !registro.remocao()) {
+                        return registro;
+                    }
+                }
+                return null;
+            }
+        };
+
+        if (!registros.hasNext()) {
+            return null;
+        }
+        return gravar(arquivo, registros, antigo.quantidade() + novo.quantidade(), tamanhoBloco);
+    }
+
+    /**
+     * Grava os registros de um iterador com ao menos um registro, com o
+     * filtro de Bloom dimensionado para a quantidade máxima informada. O
+     * filtro é preenchido diretamente no arquivo; somente o índice esparso,
+     * com uma entrada por bloco, é montado no heap durante a gravação.
+     */
+    private static SegmentoFrio gravar(Path arquivo, Iterator<Registro> registros, int quantidadeMaxima,
+            int tamanhoBloco) throws IOException {
+        ByteArrayOutputStream tabela = new ByteArrayOutputStream();
+        ByteArrayOutputStream primeirosIds = new ByteArrayOutputStream();
+        ByteArrayOutputStream bloco = new ByteArrayOutputStream(tamanhoBloco + 256);
+        Deflater compactador = new Deflater(Deflater.BEST_SPEED);
+        byte[] compactado = new byte[tamanhoBloco + 1024];
+        int bytesFiltro = FiltroBloom.bytes(quantidadeMaxima);
+        String primeiroId = null;
+        String ultimoId = null;
+        int quantidade = 0;
+        int blocos = 0;
+        long posicao = bytesFiltro;
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FiltroBloom filtro = new FiltroBloom(canal.map(FileChannel.MapMode.READ_WRITE, 0, bytesFiltro));
+            int inicioId = 0;
+            while (registros.hasNext()) {
+                Registro registro = registros.next();
+                if (bloco.size() == 0) {
+                    byte[] id = registro.id().getBytes(StandardCharsets.UTF_8);
+                    inicioId = primeirosIds.size();
+                    primeirosIds.write(id, 0, id.length);
+                }
+                escrever(bloco, registro);
+                filtro.adicionar(registro.id());
+                if (primeiroId == null) {
+                    primeiroId = registro.id();
+                }
+                ultimoId = registro.id();
+                quantidade++;
+
+                if (bloco.size() >= tamanhoBloco) {
+                    escreverTabela(tabela, Math.toIntExact(posicao), bloco.size(), inicioId);
+                    posicao += gravarBloco(canal, posicao, bloco, compactador, compactado);
+                    blocos++;
+                }
+            }
+            if (bloco.size() > 0) {
+                escreverTabela(tabela, Math.toIntExact(posicao), bloco.size(), inicioId);
+                posicao += gravarBloco(canal, posicao, bloco, compactador, compactado);
+                blocos++;
+            }
+            escreverTabela(tabela, Math.toIntExact(posicao), 0, primeirosIds.size());
+
+            int inicioTabela = Math.toIntExact(posicao);
+            for (ByteArrayOutputStream parte : List.of(tabela, primeirosIds)) {
+                ByteBuffer buffer = ByteBuffer.wrap(parte.toByteArray());
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer, posicao + buffer.position());
+                }
+                posicao += parte.size();
+            }
+
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, posicao);
+            return new SegmentoFrio(arquivo, mapa, bytesFiltro, inicioTabela, blocos, primeiroId, ultimoId,
+                    quantidade);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(arquivo);
+            throw e;
+        } finally {
+            compactador.end();
+        }
+    }
+
+    /**
+     * Procura o registro mais recente do ID neste segmento.
+     *
+     * @param id O ID procurado.
+     * @return O registro do ID, ou nulo se o segmento não tiver registro dele.
+     */
+    Registro buscar(String id) {
+        if (id.compareTo(primeiroId) < 0 || id.compareTo(ultimoId) > 0 || !filtro.podeConter(id)) {
+            return null;
+        }
+
+        // Último bloco cujo primeiro ID não é maior que o procurado.
+        int inicio = 0;
+        int fim = blocos - 1;
+        while (inicio < fim) {
+            int meio = (inicio + fim + 1) >>> 1;
+            if (primeiroId(meio).compareTo(id) <= 0) {
+                inicio = meio;
+            } else {
+                fim = meio - 1;
+            }
+        }
+        ByteBuffer dados = lerBloco(inicio);
+        while (dados.hasRemaining()) {
+            Registro registro = ler(dados);
+            int comparacao = registro.id().compareTo(id);
+            if (comparacao >= 0) {
+                return comparacao == 0 ? registro : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Percorre os registros do segmento em ordem de ID, descompactando um
+     * bloco de cada vez.
+     *
+     * @return Os registros do segmento.
+     */
+    Iterator<Registro> registros() {
+        return new Iterator<>() {
+
+            private int proximoBloco;
+            private ByteBuffer dados = ByteBuffer.allocate(0);
+
+            @Override
+            public boolean hasNext() {
+                while (!dados.hasRemaining() && proximoBloco < blocos) {
+                    dados = lerBloco(proximoBloco++);
+                }
+                return dados.hasRemaining();
+            }
+
+            @Override
+            public Registro next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return ler(dados);
+            }
+        };
+    }
+
+    int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna o espaço ocupado pelo segmento em disco.
+     *
+     * @return O tamanho do arquivo, em bytes.
+     */
+    long bytesEmDisco() {
+        return mapa.capacity();
+    }
+
+    /**
+     * Apaga o arquivo do segmento. Leituras já iniciadas continuam válidas,
+     * pois o mapeamento em memória só é liberado pelo coletor de lixo; até
+     * lá, o espaço do arquivo continua ocupado no disco, embora ele não
+     * apareça mais no diretório.
+     */
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(arquivo);
+    }
+
+    private String primeiroId(int bloco) {
+        int inicio = inicioIds + mapa.getInt(entradaTabela(bloco) + Integer.BYTES * 2);
+        int fim = inicioIds + mapa.getInt(entradaTabela(bloco + 1) + Integer.BYTES * 2);
+        byte[] id = new byte[fim - inicio];
+        mapa.get(inicio, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    private int entradaTabela(int bloco) {
+        return inicioTabela + bloco * BYTES_ENTRADA_TABELA;
+    }
+
+    private ByteBuffer lerBloco(int bloco) {
+        int posicao = mapa.getInt(entradaTabela(bloco));
+        byte[] compactado = new byte[mapa.getInt(entradaTabela(bloco + 1)) - posicao];
+        mapa.get(posicao, compactado);
+
+        byte[] dados = new byte[mapa.getInt(entradaTabela(bloco) + Integer.BYTES)];
+        Inflater descompactador = new Inflater();
+        try {
+            descompactador.setInput(compactado);
+            int lidos = 0;
+            while (lidos < dados.length) {
+                int n = descompactador.inflate(dados, lidos, dados.length - lidos);
+                if (n == 0 && (descompactador.finished() || descompactador.needsInput())) {
+                    throw new IllegalStateException("Bloco " + bloco + " do segmento " + arquivo + " incompleto.");
+                }
+                lidos += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Bloco " + bloco + " do segmento " + arquivo + " corrompido.", e);
+        } finally {
+            descompactador.end();
+        }
+        return ByteBuffer.wrap(dados);
+    }
+
+    private static int gravarBloco(FileChannel canal, long posicao, ByteArrayOutputStream bloco,
+            Deflater compactador, byte[] compactado) throws IOException {
+        compactador.reset();
+        compactador.setInput(bloco.toByteArray());
+        compactador.finish();
+        int tamanho = 0;
+        while (!compactador.finished()) {
+            if (tamanho == compactado.length) {
+                compactado = Arrays.copyOf(compactado, compactado.length * 2);
+            }
+            tamanho += compactador.deflate(compactado, tamanho, compactado.length - tamanho);
+        }
+        bloco.reset();
+
+        ByteBuffer buffer = ByteBuffer.wrap(compactado, 0, tamanho);
+        while (buffer.hasRemaining()) {
+            canal.write(buffer, posicao + buffer.position());
+        }
+        return tamanho;
+    }
+
+    private static void escreverTabela(ByteArrayOutputStream tabela, int posicao, int tamanhoOriginal,
+            int inicioId) {
+        byte[] entrada = ByteBuffer.allocate(BYTES_ENTRADA_TABELA)
+                .putInt(posicao).putInt(tamanhoOriginal).putInt(inicioId).array();
+        tabela.write(entrada, 0, entrada.length);
+    }
+
+    private static Registro proximo(Iterator<Registro> registros) {
+        return registros.hasNext() ? registros.next() : null;
+    }
+
+    private static void escrever(ByteArrayOutputStream saida, Registro registro) {
+        byte[] id = registro.id().getBytes(StandardCharsets.UTF_8);
+        Pedido pedido = registro.pedido();
+        byte[] cliente = pedido == null || pedido.getCliente() == null
+                ? null
+                : pedido.getCliente().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES * 2 + id.length
+                + (cliente == null ? 0 : cliente.length) + Long.BYTES * 2);
+        buffer.put(pedido == null ? REMOCAO : PEDIDO).putInt(id.length).put(id);
+        if (pedido != null) {
+            if (cliente == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(cliente.length).put(cliente);
+            }
+            buffer.putLong(pedido.getValorTotalCentavos()).putLong(pedido.getVersao());
+        }
+        saida.write(buffer.array(), 0, buffer.position());
+    }
+
+    private static Registro ler(ByteBuffer dados) {
+        byte tipo = dados.get();
+        String id = lerTexto(dados, dados.getInt());
+        if (tipo == REMOCAO) {
+            return new Registro(id, null);
+        }
+        int tamanhoCliente = dados.getInt();
+        String cliente = tamanhoCliente < 0 ? null : lerTexto(dados, tamanhoCliente);
+        return new Registro(id, new Pedido(id, cliente, dados.getLong(), dados.getLong()));
+    }
+
+    private static String lerTexto(ByteBuffer dados, int tamanho) {
+        String texto = new String(dados.array(), dados.position(), tamanho, StandardCharsets.UTF_8);
+        dados.position(dados.position() + tamanho);
+        return texto;
+    }
+
+    /**
+     * Um registro do segmento.
+     *
+     * @param id     O ID do pedido.
+     * @param pedido O pedido, ou nulo se o registro for a remoção do pedido.
+     */
+    record Registro(String id, Pedido pedido) {
+
+        boolean remocao() {
+            return pedido == null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.rafael.pedido.repository.armazenamento;
+
+/**
+ * Tipos de armazenamento disponíveis para os pedidos.
+ */
+public enum TipoArmazenamento {
+
+    /** Pedidos mantidos como objetos no heap da JVM. */
+    HEAP,
+
+    /**
+     * Pedidos mantidos em memória fora do heap, fora do alcance do coletor de
+     * lixo. Indicado para dezenas de milhões de pedidos.
+     */
+    OFF_HEAP,
+
+    /**
+     * Pedidos recentes mantidos no heap e pedidos antigos movidos para
+     * segmentos compactados em disco. Indicado quando o volume de pedidos
+     * cresce sem limite, mas as consultas se concentram nos mais recentes.
+     * Os índices também vão para o disco, e o heap é limitado pela quantidade
+     * máxima de pedidos quentes.
+     */
+    CAMADAS
+}
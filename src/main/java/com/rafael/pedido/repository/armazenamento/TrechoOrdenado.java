@@ -0,0 +1,190 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Sequência imutável e ordenada de chaves de um {@link IndiceOrdenado},
+ * gravada em uma região de memória fora do heap.
+ * <p>
+ * As chaves são gravadas uma após a outra no início da região e, depois
+ * delas, uma tabela com a posição de início de cada chave e o fim da última.
+ * A busca de uma chave é binária sobre a tabela e compara os bytes na
+ * própria região, sem copiá-los para o heap; somente as chaves percorridas
+ * são copiadas. No heap fica apenas este objeto, de tamanho constante.
+ */
+final class TrechoOrdenado implements Closeable {
+
+    private final ByteBuffer dados;
+    private final int quantidade;
+    private final int inicioTabela;
+    private final Closeable liberacao;
+
+    private TrechoOrdenado(ByteBuffer dados, int quantidade, int inicioTabela, Closeable liberacao) {
+        this.dados = dados;
+        this.quantidade = quantidade;
+        this.inicioTabela = inicioTabela;
+        this.liberacao = liberacao;
+    }
+
+    /**
+     * Grava um novo trecho com as chaves informadas.
+     *
+     * @param alocador         Quem aloca a região do trecho.
+     * @param chaves           As chaves, em ordem crescente e sem repetição.
+     * @param bytesMaximos     A soma máxima dos tamanhos das chaves.
+     * @param quantidadeMaxima A quantidade máxima de chaves.
+     * @return O trecho gravado.
+     * @throws IOException Se a região não puder ser alocada.
+     */
+    static TrechoOrdenado gravar(AlocadorTrechos alocador, Iterator<byte[]> chaves, int bytesMaximos,
+            int quantidadeMaxima) throws IOException {
+        int tamanho = Math.addExact(bytesMaximos, Math.multiplyExact(quantidadeMaxima + 1, Integer.BYTES));
+        AlocadorTrechos.Regiao regiao = alocador.alocar(tamanho);
+        ByteBuffer dados = regiao.buffer();
+
+        int posicao = 0;
+        int quantidade = 0;
+        while (chaves.hasNext()) {
+            byte[] chave = chaves.next();
+            dados.putInt(bytesMaximos + quantidade * Integer.BYTES, posicao);
+            dados.put(posicao, chave);
+            posicao += chave.length;
+            quantidade++;
+        }
+        dados.putInt(bytesMaximos + quantidade * Integer.BYTES, posicao);
+        return new TrechoOrdenado(dados, quantidade, bytesMaximos, regiao.liberacao());
+    }
+
+    /**
+     * Retorna a quantidade de chaves do trecho.
+     */
+    int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna a soma dos tamanhos das chaves do trecho.
+     */
+    int bytesChaves() {
+        return posicao(quantidade);
+    }
+
+    /**
+     * Retorna o espaço ocupado pelo trecho, incluindo a tabela de posições.
+     */
+    long bytes() {
+        return (long) bytesChaves() + (long) (quantidade + 1) * Integer.BYTES;
+    }
+
+    /**
+     * Percorre as chaves em ordem crescente a partir da chave informada.
+     *
+     * @param inicio    A primeira chave procurada.
+     * @param inclusivo Se a própria chave de início é retornada, caso exista.
+     * @return Um iterador sobre as chaves, percorrido sob demanda.
+     */
+    Iterator<byte[]> crescente(byte[] inicio, boolean inclusivo) {
+        int primeira = primeiraMaiorOuIgual(inicio);
+        if (!inclusivo && primeira < quantidade && comparar(primeira, inicio) == 0) {
+            primeira++;
+        }
+        int desde = primeira;
+        return new Iterator<>() {
+
+            private int proxima = desde;
+
+            @Override
+            public boolean hasNext() {
+                return proxima < quantidade;
+            }
+
+            @Override
+            public byte[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chave(proxima++);
+            }
+        };
+    }
+
+    /**
+     * Percorre as chaves em ordem decrescente, a partir da maior.
+     *
+     * @return Um iterador sobre as chaves, percorrido sob demanda.
+     */
+    Iterator<byte[]> decrescente() {
+        return new Iterator<>() {
+
+            private int proxima = quantidade - 1;
+
+            @Override
+            public boolean hasNext() {
+                return proxima >= 0;
+            }
+
+            @Override
+            public byte[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chave(proxima--);
+            }
+        };
+    }
+
+    /**
+     * Libera a região do trecho. Iterações já iniciadas continuam válidas,
+     * pois a região só é devolvida quando deixa de ser referenciada.
+     */
+    @Override
+    public void close() throws IOException {
+        liberacao.close();
+    }
+
+    private int primeiraMaiorOuIgual(byte[] chave) {
+        int inicio = 0;
+        int fim = quantidade;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (comparar(meio, chave) < 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+
+    /**
+     * Compara a chave da posição informada com outra chave, byte a byte e sem
+     * sinal, sem copiar a chave do trecho.
+     */
+    private int comparar(int indice, byte[] chave) {
+        int inicio = posicao(indice);
+        int tamanho = posicao(indice + 1) - inicio;
+        int comum = Math.min(tamanho, chave.length);
+        for (int i = 0; i < comum; i++) {
+            int comparacao = Byte.compareUnsigned(dados.get(inicio + i), chave[i]);
+            if (comparacao != 0) {
+                return comparacao;
+            }
+        }
+        return Integer.compare(tamanho, chave.length);
+    }
+
+    private byte[] chave(int indice) {
+        int inicio = posicao(indice);
+        byte[] chave = new byte[posicao(indice + 1) - inicio];
+        dados.get(inicio, chave);
+        return chave;
+    }
+
+    private int posicao(int indice) {
+        return dados.getInt(inicioTabela + indice * Integer.BYTES);
+    }
+}
@@ -0,0 +1,198 @@
+package com.rafael.pedido.repository.persistencia;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.rafael.pedido.model.Centavos;
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Codifica e decodifica pedidos no formato binário utilizado pelos arquivos de
+ * persistência.
+ * Cada registro é gravado como {@code [tamanho][crc][conteúdo]}, em que o CRC
+ * permite identificar registros incompletos ou corrompidos na recuperação.
+ */
+final class CodificadorPedido {
+
+    /** Tamanho do cabeçalho de cada registro: tamanho e CRC do conteúdo. */
+    static final int CABECALHO_REGISTRO = Integer.BYTES * 2;
+
+    /**
+     * Tipo de registro que contém um pedido completo com o valor total em
+     * {@code double}, gravado antes de os valores serem guardados em centavos.
+     * Só é lido, para recuperar arquivos antigos.
+     */
+    static final byte TIPO_PEDIDO = 1;
+
+    /** Tipo de registro com os IDs de pedidos cuja publicação foi confirmada. */
+    static final byte TIPO_ENTREGA = 2;
+
+    /** Tipo de registro com os IDs de pedidos ainda pendentes de publicação. */
+    static final byte TIPO_PENDENTE = 3;
+
+    /** Tipo de registro que contém um pedido completo com o valor em centavos. */
+    static final byte TIPO_PEDIDO_CENTAVOS = 4;
+
+    private CodificadorPedido() {
+    }
+
+    /**
+     * Codifica um pedido como um registro completo, com cabeçalho e CRC.
+     *
+     * @param pedido O pedido a ser codificado.
+     * @return Um buffer pronto para ser gravado, posicionado no início.
+     */
+    static ByteBuffer codificarRegistro(Pedido pedido) {
+        byte[] id = bytes(pedido.getId());
+        byte[] cliente = bytes(pedido.getCliente());
+        int tamanho = 1 + tamanhoTexto(id) + tamanhoTexto(cliente) + Long.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(CABECALHO_REGISTRO + tamanho);
+        buffer.putInt(tamanho);
+        buffer.putInt(0);
+        buffer.put(TIPO_PEDIDO_CENTAVOS);
+        escreverTexto(buffer, id);
+        escreverTexto(buffer, cliente);
+        buffer.putLong(pedido.getValorTotalCentavos());
+
+        buffer.putInt(Integer.BYTES, crc(buffer, CABECALHO_REGISTRO, tamanho));
+        return buffer.flip();
+    }
+
+    /**
+     * Codifica uma lista de IDs de pedidos como um registro completo, com
+     * cabeçalho e CRC.
+     *
+     * @param tipo O tipo do registro: {@link #TIPO_ENTREGA} ou
+     *             {@link #TIPO_PENDENTE}.
+     * @param ids  Os IDs dos pedidos.
+     * @return Um buffer pronto para ser gravado, posicionado no início.
+     */
+    static ByteBuffer codificarIds(byte tipo, Collection<String> ids) {
+        byte[][] textos = new byte[ids.size()][];
+        int tamanho = 1 + Integer.BYTES;
+        int i = 0;
+        for (String id : ids) {
+            textos[i] = bytes(id);
+            tamanho += tamanhoTexto(textos[i++]);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(CABECALHO_REGISTRO + tamanho);
+        buffer.putInt(tamanho);
+        buffer.putInt(0);
+        buffer.put(tipo);
+        buffer.putInt(textos.length);
+        for (byte[] texto : textos) {
+            escreverTexto(buffer, texto);
+        }
+
+        buffer.putInt(Integer.BYTES, crc(buffer, CABECALHO_REGISTRO, tamanho));
+        return buffer.flip();
+    }
+
+    /**
+     * Retorna o tipo de um registro sem alterar a posição do conteúdo.
+     *
+     * @param conteudo O conteúdo do registro, sem o cabeçalho.
+     * @return O tipo do registro.
+     */
+    static byte tipo(ByteBuffer conteudo) {
+        return conteudo.get(conteudo.position());
+    }
+
+    /**
+     * Indica se um registro contém um pedido, em qualquer um dos formatos.
+     *
+     * @param conteudo O conteúdo do registro, sem o cabeçalho.
+     * @return Verdadeiro se o registro contiver um pedido.
+     */
+    static boolean contemPedido(ByteBuffer conteudo) {
+        byte tipo = tipo(conteudo);
+        return tipo == TIPO_PEDIDO_CENTAVOS || tipo == TIPO_PEDIDO;
+    }
+
+    /**
+     * Decodifica o conteúdo de um registro de IDs, entregando cada ID ao
+     * consumidor informado.
+     *
+     * @param conteudo   O conteúdo do registro, sem o cabeçalho.
+     * @param consumidor O consumidor que recebe os IDs.
+     */
+    static void decodificarIds(ByteBuffer conteudo, Consumer<String> consumidor) {
+        byte tipo = conteudo.get();
+        if (tipo != TIPO_ENTREGA && tipo != TIPO_PENDENTE) {
+            throw new IllegalStateException("Tipo de registro desconhecido: " + tipo);
+        }
+
+        int quantidade = conteudo.getInt();
+        for (int i = 0; i < quantidade; i++) {
+            consumidor.accept(lerTexto(conteudo));
+        }
+    }
+
+    /**
+     * Decodifica o conteúdo de um registro de pedido.
+     *
+     * @param conteudo O conteúdo do registro, sem o cabeçalho.
+     * @return O pedido decodificado.
+     */
+    static Pedido decodificarPedido(ByteBuffer conteudo) {
+        byte tipo = conteudo.get();
+        if (tipo != TIPO_PEDIDO_CENTAVOS && tipo != TIPO_PEDIDO) {
+            throw new IllegalStateException("Tipo de registro desconhecido: " + tipo);
+        }
+
+        String id = lerTexto(conteudo);
+        String cliente = lerTexto(conteudo);
+        long valorTotalCentavos = tipo == TIPO_PEDIDO_CENTAVOS
+                ? conteudo.getLong()
+                : Centavos.deDouble(conteudo.getDouble());
+        return new Pedido(id, cliente, valorTotalCentavos);
+    }
+
+    /**
+     * Calcula o CRC de um trecho do buffer sem alterar a sua posição.
+     *
+     * @param buffer  O buffer com os dados.
+     * @param posicao A posição inicial do trecho.
+     * @param tamanho O tamanho do trecho.
+     * @return O CRC32 do trecho.
+     */
+    static int crc(ByteBuffer buffer, int posicao, int tamanho) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(posicao).limit(posicao + tamanho));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto == null ? null : texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int tamanhoTexto(byte[] texto) {
+        return Integer.BYTES + (texto == null ? 0 : texto.length);
+    }
+
+    private static void escreverTexto(ByteBuffer buffer, byte[] texto) {
+        if (texto == null) {
+            buffer.putInt(-1);
+            return;
+        }
+
+        buffer.putInt(texto.length);
+        buffer.put(texto);
+    }
+
+    private static String lerTexto(ByteBuffer buffer) {
+        int tamanho = buffer.getInt();
+        if (tamanho < 0) {
+            return null;
+        }
+
+        byte[] texto = new byte[tamanho];
+        buffer.get(texto);
+        return new String(texto, StandardCharsets.UTF_8);
+    }
+}
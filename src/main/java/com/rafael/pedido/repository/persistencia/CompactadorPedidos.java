@@ -0,0 +1,41 @@
+package com.rafael.pedido.repository.persistencia;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import com.rafael.pedido.repository.PedidoRepository;
+
+/**
+ * Classe responsável por compactar periodicamente o log de pedidos em
+ * segundo plano, mantendo constante o tempo de recuperação na inicialização.
+ */
+@Component
+@ConditionalOnProperty(prefix = "pedido.persistencia", name = "habilitada", havingValue = "true")
+public class CompactadorPedidos implements SchedulingConfigurer {
+
+    private final PedidoRepository repositorio;
+    private final PersistenciaProperties propriedades;
+
+    /**
+     * Construtor do compactador de pedidos.
+     *
+     * @param pedidoRepository o repositório cujo log será compactado.
+     * @param propriedades     as configurações da persistência.
+     */
+    public CompactadorPedidos(PedidoRepository pedidoRepository, PersistenciaProperties propriedades) {
+        this.repositorio = pedidoRepository;
+        this.propriedades = propriedades;
+    }
+
+    /**
+     * Agenda a compactação no intervalo configurado.
+     *
+     * @param registrar o registro de tarefas agendadas.
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(repositorio::compactar, propriedades.intervaloCompactacao());
+    }
+}
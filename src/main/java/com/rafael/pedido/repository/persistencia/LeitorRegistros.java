@@ -0,0 +1,94 @@
+package com.rafael.pedido.repository.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Lê os registros de um arquivo de persistência utilizando I/O mapeado em
+ * memória.
+ * O arquivo é mapeado em janelas, de forma que arquivos maiores que o limite
+ * de um único mapeamento também possam ser lidos.
+ */
+final class LeitorRegistros {
+
+    private static final long JANELA = 256L * 1024 * 1024;
+
+    private LeitorRegistros() {
+    }
+
+    /**
+     * Lê todos os registros do arquivo a partir da posição informada.
+     *
+     * @param arquivo           O arquivo a ser lido.
+     * @param inicio            A posição do primeiro registro, após o
+     *                          cabeçalho do arquivo.
+     * @param tolerarIncompleto Se um registro incompleto no final do arquivo
+     *                          deve ser ignorado em vez de gerar erro.
+     * @param consumidor        O consumidor que recebe o conteúdo de cada
+     *                          registro.
+     * @return A quantidade de registros lidos.
+     * @throws IOException           se o arquivo não puder ser lido.
+     * @throws IllegalStateException se o arquivo estiver corrompido.
+     */
+    static long ler(Path arquivo, long inicio, boolean tolerarIncompleto, Consumer<ByteBuffer> consumidor)
+            throws IOException {
+        long lidos = 0;
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanhoArquivo = canal.size();
+            long posicao = inicio;
+
+            while (posicao < tamanhoArquivo) {
+                long restante = tamanhoArquivo - posicao;
+                boolean ultimaJanela = restante <= JANELA;
+                MappedByteBuffer janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao,
+                        Math.min(restante, JANELA));
+
+                while (janela.remaining() >= CodificadorPedido.CABECALHO_REGISTRO) {
+                    int inicioRegistro = janela.position();
+                    int tamanho = janela.getInt(inicioRegistro);
+                    int crc = janela.getInt(inicioRegistro + Integer.BYTES);
+                    int conteudo = inicioRegistro + CodificadorPedido.CABECALHO_REGISTRO;
+
+                    if (tamanho <= 0 && !ultimaJanela) {
+                        throw corrompido(arquivo, posicao + inicioRegistro);
+                    }
+                    if (tamanho <= 0 || tamanho > janela.limit() - conteudo) {
+                        break;
+                    }
+                    if (CodificadorPedido.crc(janela, conteudo, tamanho) != crc) {
+                        if (ultimaJanela && conteudo + tamanho == janela.limit()) {
+                            break;
+                        }
+                        throw corrompido(arquivo, posicao + inicioRegistro);
+                    }
+
+                    consumidor.accept(janela.slice(conteudo, tamanho));
+                    janela.position(conteudo + tamanho);
+                    lidos++;
+                }
+
+                if (ultimaJanela) {
+                    if (janela.hasRemaining() && !tolerarIncompleto) {
+                        throw new IllegalStateException("Arquivo incompleto: " + arquivo);
+                    }
+                    return lidos;
+                }
+                if (janela.position() == 0) {
+                    throw corrompido(arquivo, posicao);
+                }
+                posicao += janela.position();
+            }
+        }
+        return lidos;
+    }
+
+    private static IllegalStateException corrompido(Path arquivo, long posicao) {
+        return new IllegalStateException("Registro corrompido em " + arquivo + " na posição " + posicao);
+    }
+}
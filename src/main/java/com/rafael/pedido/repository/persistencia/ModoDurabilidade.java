@@ -0,0 +1,28 @@
+package com.rafael.pedido.repository.persistencia;
+
+/**
+ * Define quando um pedido registrado no log é considerado durável.
+ * Permite escolher, por implantação, o equilíbrio entre latência e segurança.
+ */
+public enum ModoDurabilidade {
+
+    /**
+     * Cada registro é gravado e sincronizado com o disco (fsync) antes de
+     * retornar. É o modo mais seguro e o mais lento.
+     */
+    SINCRONO,
+
+    /**
+     * Registros de várias requisições concorrentes são agrupados em um único
+     * fsync. Cada requisição só retorna depois que o seu registro estiver no
+     * disco, mas o custo do fsync é dividido pelo grupo.
+     */
+    GRUPO,
+
+    /**
+     * O registro é gravado no cache do sistema operacional e a requisição
+     * retorna em seguida. O fsync acontece em segundo plano, podendo perder os
+     * registros mais recentes em caso de queda da máquina.
+     */
+    ASSINCRONO
+}
@@ -0,0 +1,545 @@
+package com.rafael.pedido.repository.persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Log de escrita antecipada (write-ahead log) dos pedidos.
+ * Cada pedido salvo é acrescentado ao final de um arquivo de segmento, de
+ * forma que o repositório possa ser reconstruído após uma reinicialização.
+ * <p>
+ * No modo {@link ModoDurabilidade#GRUPO}, uma thread sincronizadora agrupa os
+ * registros de todas as requisições concorrentes em um único fsync, evitando
+ * que a vazão fique limitada a um fsync por requisição.
+ * <p>
+ * Para que a recuperação não fique mais lenta à medida que o histórico cresce,
+ * o log pode ser compactado: um snapshot com todos os pedidos é gravado e os
+ * segmentos anteriores a ele são descartados. A recuperação carrega o último
+ * snapshot e relê somente os segmentos posteriores.
+ * <p>
+ * O log também guarda o outbox de publicação: todo pedido registrado é
+ * considerado pendente de publicação até que a sua entrega seja registrada
+ * com {@link #registrarEntregas(Collection)}. Como o pedido e a pendência são
+ * gravados no mesmo registro, não é possível salvar um pedido sem que a sua
+ * publicação fique pendente. A exceção são os pedidos importados com
+ * {@link #registrarImportados(List)}, gravados junto com a sua entrega.
+ */
+public class PedidoLog implements Closeable {
+
+    private static final int MAGICO = 0x504C4F47;
+    private static final byte VERSAO = 2;
+    private static final byte VERSAO_SEM_ENTREGAS = 1;
+    private static final int CABECALHO_SEGMENTO = Integer.BYTES + 1;
+    private static final String PREFIXO_SEGMENTO = "pedidos-";
+    private static final String SUFIXO_SEGMENTO = ".wal";
+    private static final String PREFIXO_SNAPSHOT = "snapshot-";
+    private static final String SUFIXO_SNAPSHOT = ".snap";
+
+    private final Path diretorio;
+    private final ModoDurabilidade modo;
+    private final long atrasoMaximoNanos;
+    private final long primeiroSegmento;
+    private final Thread sincronizador;
+    private final Object compactacao = new Object();
+
+    private final ReentrantLock trava = new ReentrantLock();
+    private final Condition registrosPendentes = trava.newCondition();
+    private final Condition registrosSincronizados = trava.newCondition();
+    private long segmentoAtual;
+    private FileChannel canal;
+    private long escritos;
+    private long sincronizados;
+    private long escritosNaCompactacao = -1;
+    private boolean sincronizando;
+    private IOException falha;
+    private boolean fechado;
+
+    /**
+     * Abre o log no diretório informado.
+     * Os segmentos já existentes são preservados para a recuperação e um novo
+     * segmento é criado para receber os próximos registros.
+     *
+     * @param diretorio     O diretório dos arquivos do log.
+     * @param modo          O modo de durabilidade dos registros.
+     * @param atrasoMaximo  O tempo máximo de espera para agrupar registros antes
+     *                      do fsync.
+     * @throws IOException se o diretório ou o segmento não puderem ser criados.
+     */
+    public PedidoLog(Path diretorio, ModoDurabilidade modo, Duration atrasoMaximo) throws IOException {
+        this.diretorio = Files.createDirectories(diretorio);
+        this.modo = modo;
+        this.atrasoMaximoNanos = atrasoMaximo.toNanos();
+
+        removerTemporarios();
+        List<Long> segmentos = listar(PREFIXO_SEGMENTO, SUFIXO_SEGMENTO);
+        long ultimo = segmentos.isEmpty() ? 0 : segmentos.get(segmentos.size() - 1);
+        this.primeiroSegmento = Math.max(ultimo, ultimoSnapshot().orElse(0L)) + 1;
+        this.segmentoAtual = primeiroSegmento;
+        this.canal = criarSegmento(segmentoAtual);
+
+        if (modo == ModoDurabilidade.SINCRONO) {
+            this.sincronizador = null;
+        } else {
+            this.sincronizador = new Thread(this::sincronizarContinuamente, "pedido-log-sincronizador");
+            this.sincronizador.setDaemon(true);
+            this.sincronizador.start();
+        }
+    }
+
+    /**
+     * Recupera os pedidos gravados antes da abertura deste log, entregando
+     * cada pedido, na ordem em que foi registrado, ao consumidor informado.
+     *
+     * @param consumidor O consumidor que recebe os pedidos recuperados.
+     * @throws IllegalStateException se um snapshot ou segmento estiver
+     *                               corrompido.
+     * @see #recuperar(RecuperacaoLog)
+     */
+    public void recuperar(Consumer<Pedido> consumidor) {
+        recuperar(new RecuperacaoLog() {
+
+            @Override
+            public void pedido(Pedido pedido) {
+                consumidor.accept(pedido);
+            }
+
+            @Override
+            public void envioPendente(String idPedido) {
+                // Somente os pedidos são recuperados.
+            }
+
+            @Override
+            public void envioConfirmado(String idPedido) {
+                // Somente os pedidos são recuperados.
+            }
+        });
+    }
+
+    /**
+     * Recupera os pedidos e o estado do outbox de publicação gravados antes da
+     * abertura deste log, na ordem em que foram registrados.
+     * O último snapshot é carregado primeiro e, em seguida, são relidos apenas
+     * os segmentos posteriores a ele. Cada pedido relido de um segmento também
+     * é informado como pendente de publicação, até que um registro de entrega
+     * posterior o confirme.
+     * Um registro incompleto no final de um segmento é ignorado, pois
+     * corresponde a uma escrita interrompida por uma queda.
+     *
+     * @param recuperacao Quem recebe os pedidos e as pendências recuperadas.
+     * @throws IllegalStateException se um snapshot ou segmento estiver
+     *                               corrompido.
+     */
+    public void recuperar(RecuperacaoLog recuperacao) {
+        try {
+            Optional<Long> snapshot = ultimoSnapshot();
+            if (snapshot.isPresent()) {
+                PedidoSnapshot.carregar(caminho(PREFIXO_SNAPSHOT, snapshot.get(), SUFIXO_SNAPSHOT), recuperacao);
+            }
+
+            long inicio = snapshot.orElse(0L);
+            for (long segmento : listar(PREFIXO_SEGMENTO, SUFIXO_SEGMENTO)) {
+                if (segmento >= inicio && segmento < primeiroSegmento) {
+                    lerSegmento(caminho(PREFIXO_SEGMENTO, segmento, SUFIXO_SEGMENTO), recuperacao);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível recuperar o log de pedidos.", e);
+        }
+    }
+
+    /**
+     * Registra um pedido no log.
+     * O retorno respeita o modo de durabilidade: nos modos síncrono e em grupo
+     * o pedido já está no disco, enquanto no modo assíncrono ele será
+     * sincronizado em segundo plano.
+     *
+     * @param pedido O pedido a ser registrado.
+     * @throws UncheckedIOException se o registro não puder ser gravado.
+     */
+    public void registrar(Pedido pedido) {
+        registrarTodos(List.of(pedido));
+    }
+
+    /**
+     * Registra vários pedidos no log com uma única escrita, aguardando a
+     * durabilidade uma única vez para todo o lote.
+     *
+     * @param pedidos Os pedidos a serem registrados.
+     * @throws UncheckedIOException se os registros não puderem ser gravados.
+     */
+    public void registrarTodos(List<Pedido> pedidos) {
+        if (pedidos.isEmpty()) {
+            return;
+        }
+
+        gravar(codificar(pedidos), true);
+    }
+
+    /**
+     * Registra pedidos importados de outro sistema, que já foram publicados
+     * por ele.
+     * Os pedidos e a confirmação da sua entrega são gravados em uma única
+     * escrita, de forma que os pedidos nunca sejam recuperados como pendentes
+     * de publicação.
+     *
+     * @param pedidos Os pedidos a serem registrados.
+     * @throws UncheckedIOException se os registros não puderem ser gravados.
+     */
+    public void registrarImportados(List<Pedido> pedidos) {
+        if (pedidos.isEmpty()) {
+            return;
+        }
+
+        ByteBuffer registros = codificar(pedidos);
+        ByteBuffer entregas = CodificadorPedido.codificarIds(CodificadorPedido.TIPO_ENTREGA,
+                pedidos.stream().map(Pedido::getId).toList());
+        ByteBuffer lote = ByteBuffer.allocate(registros.remaining() + entregas.remaining());
+        gravar(lote.put(registros).put(entregas).flip(), true);
+    }
+
+    /**
+     * Registra a confirmação da publicação dos pedidos informados, retirando-os
+     * do outbox na próxima recuperação.
+     * O registro não aguarda o fsync em nenhum modo: se ele for perdido em uma
+     * queda, os pedidos voltam a ficar pendentes e são publicados novamente,
+     * o que é aceitável em uma entrega pelo menos uma vez.
+     *
+     * @param idsPedidos Os IDs dos pedidos cuja publicação foi confirmada.
+     * @throws UncheckedIOException se o registro não puder ser gravado.
+     */
+    public void registrarEntregas(Collection<String> idsPedidos) {
+        if (idsPedidos.isEmpty()) {
+            return;
+        }
+
+        gravar(CodificadorPedido.codificarIds(CodificadorPedido.TIPO_ENTREGA, idsPedidos), false);
+    }
+
+    private void gravar(ByteBuffer registros, boolean aguardarDurabilidade) {
+        long alvo;
+
+        trava.lock();
+        try {
+            verificarDisponivel();
+            escrever(registros);
+            alvo = ++escritos;
+
+            if (!aguardarDurabilidade) {
+                if (modo != ModoDurabilidade.SINCRONO) {
+                    registrosPendentes.signal();
+                }
+                return;
+            }
+            if (modo == ModoDurabilidade.SINCRONO) {
+                canal.force(false);
+                sincronizados = alvo;
+                return;
+            }
+            registrosPendentes.signal();
+
+            if (modo == ModoDurabilidade.GRUPO) {
+                while (sincronizados < alvo && falha == null) {
+                    registrosSincronizados.awaitUninterruptibly();
+                }
+                verificarDisponivel();
+            }
+        } catch (IOException e) {
+            falha = e;
+            throw new UncheckedIOException("Não foi possível gravar no log de pedidos.", e);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Compacta o log a partir do estado atual dos pedidos, considerando todos
+     * eles já publicados.
+     *
+     * @param pedidos Os pedidos atualmente armazenados.
+     * @return True se o log foi compactado, false se não havia o que compactar.
+     * @throws UncheckedIOException se o snapshot não puder ser gravado.
+     * @see #compactar(Iterable, Iterable)
+     */
+    public boolean compactar(Iterable<Pedido> pedidos) {
+        return compactar(pedidos, List.of());
+    }
+
+    /**
+     * Compacta o log a partir do estado atual dos pedidos e do outbox.
+     * Os próximos registros passam a ser gravados em um novo segmento, um
+     * snapshot com os pedidos e as pendências informados é gravado e os
+     * segmentos e snapshots anteriores são descartados. A compactação é
+     * ignorada se nada foi registrado desde a anterior.
+     * <p>
+     * Os pedidos e as pendências podem ser percorridos de forma fracamente
+     * consistente: um pedido salvo ou uma entrega registrada durante a
+     * compactação também está no novo segmento e é relido na recuperação.
+     * Para isso, um pedido deve ser incluído nas pendências antes de ser
+     * registrado no log.
+     *
+     * @param pedidos   Os pedidos atualmente armazenados.
+     * @param pendentes Os IDs dos pedidos com publicação pendente.
+     * @return True se o log foi compactado, false se não havia o que compactar.
+     * @throws UncheckedIOException se o snapshot não puder ser gravado.
+     */
+    public boolean compactar(Iterable<Pedido> pedidos, Iterable<String> pendentes) {
+        synchronized (compactacao) {
+            long inicioSnapshot;
+
+            trava.lock();
+            try {
+                verificarDisponivel();
+                if (escritos == escritosNaCompactacao) {
+                    return false;
+                }
+                while (sincronizando) {
+                    registrosSincronizados.awaitUninterruptibly();
+                }
+
+                FileChannel anterior = canal;
+                anterior.force(false);
+                sincronizados = escritos;
+                registrosSincronizados.signalAll();
+
+                canal = criarSegmento(segmentoAtual + 1);
+                segmentoAtual++;
+                inicioSnapshot = segmentoAtual;
+                escritosNaCompactacao = escritos;
+                anterior.close();
+            } catch (IOException e) {
+                falha = e;
+                throw new UncheckedIOException("Não foi possível iniciar um novo segmento do log.", e);
+            } finally {
+                trava.unlock();
+            }
+
+            try {
+                PedidoSnapshot.gravar(caminho(PREFIXO_SNAPSHOT, inicioSnapshot, SUFIXO_SNAPSHOT), pedidos,
+                        pendentes);
+                sincronizarDiretorio();
+                removerAnteriores(PREFIXO_SNAPSHOT, SUFIXO_SNAPSHOT, inicioSnapshot);
+                removerAnteriores(PREFIXO_SEGMENTO, SUFIXO_SEGMENTO, inicioSnapshot);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Não foi possível gravar o snapshot dos pedidos.", e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sincroniza os registros pendentes e fecha o log.
+     *
+     * @throws IOException se a última sincronização falhar.
+     */
+    @Override
+    public void close() throws IOException {
+        trava.lock();
+        try {
+            fechado = true;
+            registrosPendentes.signal();
+        } finally {
+            trava.unlock();
+        }
+
+        if (sincronizador != null) {
+            try {
+                sincronizador.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        trava.lock();
+        try (FileChannel ultimo = canal) {
+            ultimo.force(false);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Laço da thread sincronizadora: aguarda registros pendentes, espera o
+     * atraso máximo para acumular outros registros e executa um único fsync
+     * para todo o grupo.
+     */
+    private void sincronizarContinuamente() {
+        while (true) {
+            long alvo;
+            FileChannel canalAlvo;
+            trava.lock();
+            try {
+                while (escritos == sincronizados && !fechado) {
+                    registrosPendentes.awaitUninterruptibly();
+                }
+                if (escritos == sincronizados || falha != null) {
+                    return;
+                }
+            } finally {
+                trava.unlock();
+            }
+
+            if (atrasoMaximoNanos > 0) {
+                LockSupport.parkNanos(atrasoMaximoNanos);
+            }
+
+            trava.lock();
+            try {
+                alvo = escritos;
+                canalAlvo = canal;
+                sincronizando = true;
+            } finally {
+                trava.unlock();
+            }
+
+            IOException erro = null;
+            try {
+                canalAlvo.force(false);
+            } catch (IOException e) {
+                erro = e;
+            }
+
+            trava.lock();
+            try {
+                sincronizando = false;
+                if (erro != null) {
+                    falha = erro;
+                } else {
+                    sincronizados = Math.max(sincronizados, alvo);
+                }
+                registrosSincronizados.signalAll();
+            } finally {
+                trava.unlock();
+            }
+        }
+    }
+
+    private void verificarDisponivel() {
+        if (falha != null) {
+            throw new UncheckedIOException("O log de pedidos está indisponível após uma falha de gravação.", falha);
+        }
+        if (fechado) {
+            throw new IllegalStateException("O log de pedidos está fechado.");
+        }
+    }
+
+    private static ByteBuffer codificar(List<Pedido> pedidos) {
+        if (pedidos.size() == 1) {
+            return CodificadorPedido.codificarRegistro(pedidos.get(0));
+        }
+
+        List<ByteBuffer> registros = pedidos.stream().map(CodificadorPedido::codificarRegistro).toList();
+        ByteBuffer lote = ByteBuffer.allocate(registros.stream().mapToInt(ByteBuffer::remaining).sum());
+        registros.forEach(lote::put);
+        return lote.flip();
+    }
+
+    private void escrever(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    private FileChannel criarSegmento(long segmento) throws IOException {
+        FileChannel novo = FileChannel.open(caminho(PREFIXO_SEGMENTO, segmento, SUFIXO_SEGMENTO), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO_SEGMENTO).putInt(MAGICO).put(VERSAO).flip();
+        while (cabecalho.hasRemaining()) {
+            novo.write(cabecalho);
+        }
+        novo.force(true);
+        sincronizarDiretorio();
+        return novo;
+    }
+
+    private void lerSegmento(Path arquivo, RecuperacaoLog recuperacao) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO_SEGMENTO);
+        try (FileChannel leitura = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            while (cabecalho.hasRemaining() && leitura.read(cabecalho) >= 0) {
+                // Lê o cabeçalho completo.
+            }
+        }
+        cabecalho.flip();
+        if (cabecalho.remaining() < CABECALHO_SEGMENTO) {
+            return;
+        }
+        int magico = cabecalho.getInt();
+        byte versao = cabecalho.get();
+        if (magico != MAGICO || versao != VERSAO && versao != VERSAO_SEM_ENTREGAS) {
+            throw new IllegalStateException("Segmento de log inválido: " + arquivo);
+        }
+
+        LeitorRegistros.ler(arquivo, CABECALHO_SEGMENTO, true, conteudo -> {
+            byte tipo = CodificadorPedido.tipo(conteudo);
+            if (CodificadorPedido.contemPedido(conteudo)) {
+                Pedido pedido = CodificadorPedido.decodificarPedido(conteudo);
+                recuperacao.pedido(pedido);
+                recuperacao.envioPendente(pedido.getId());
+            } else if (tipo == CodificadorPedido.TIPO_ENTREGA) {
+                CodificadorPedido.decodificarIds(conteudo, recuperacao::envioConfirmado);
+            } else {
+                throw new IllegalStateException("Tipo de registro desconhecido em " + arquivo + ": " + tipo);
+            }
+        });
+    }
+
+    private Optional<Long> ultimoSnapshot() throws IOException {
+        List<Long> snapshots = listar(PREFIXO_SNAPSHOT, SUFIXO_SNAPSHOT);
+        return snapshots.isEmpty() ? Optional.empty() : Optional.of(snapshots.get(snapshots.size() - 1));
+    }
+
+    private List<Long> listar(String prefixo, String sufixo) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .map(arquivo -> arquivo.getFileName().toString())
+                    .filter(nome -> nome.startsWith(prefixo) && nome.endsWith(sufixo))
+                    .map(nome -> Long.parseLong(nome.substring(prefixo.length(), nome.length() - sufixo.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void removerAnteriores(String prefixo, String sufixo, long limite) throws IOException {
+        for (long sequencia : listar(prefixo, sufixo)) {
+            if (sequencia < limite) {
+                Files.deleteIfExists(caminho(prefixo, sequencia, sufixo));
+            }
+        }
+    }
+
+    private void removerTemporarios() throws IOException {
+        for (long sequencia : listar(PREFIXO_SNAPSHOT, SUFIXO_SNAPSHOT + ".tmp")) {
+            Files.deleteIfExists(
+                    PedidoSnapshot.caminhoTemporario(caminho(PREFIXO_SNAPSHOT, sequencia, SUFIXO_SNAPSHOT)));
+        }
+    }
+
+    private Path caminho(String prefixo, long sequencia, String sufixo) {
+        return diretorio.resolve(String.format("%s%020d%s", prefixo, sequencia, sufixo));
+    }
+
+    private void sincronizarDiretorio() {
+        try (FileChannel canalDiretorio = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canalDiretorio.force(true);
+        } catch (IOException e) {
+            // Nem todos os sistemas operacionais permitem sincronizar diretórios.
+        }
+    }
+}
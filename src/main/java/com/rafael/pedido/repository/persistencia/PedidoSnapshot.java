@@ -0,0 +1,173 @@
+package com.rafael.pedido.repository.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Grava e carrega snapshots dos pedidos.
+ * Um snapshot contém todos os pedidos do repositório em um formato binário
+ * compacto, com os mesmos registros utilizados pelo log, seguidos dos IDs dos
+ * pedidos cuja publicação ainda não foi confirmada, e permite descartar os
+ * segmentos do log anteriores a ele.
+ * <p>
+ * Snapshots da versão 1, gravados antes do outbox de publicação, não possuem
+ * IDs pendentes e são carregados com todos os pedidos já publicados.
+ */
+final class PedidoSnapshot {
+
+    private static final int MAGICO = 0x50534E50;
+    private static final byte VERSAO = 2;
+    private static final byte VERSAO_SEM_PENDENTES = 1;
+    private static final int CABECALHO = Integer.BYTES + 1 + Long.BYTES * 2;
+    private static final int CABECALHO_SEM_PENDENTES = Integer.BYTES + 1 + Long.BYTES;
+    private static final int TAMANHO_BUFFER = 1024 * 1024;
+    private static final int IDS_POR_REGISTRO = 1024;
+
+    private PedidoSnapshot() {
+    }
+
+    /**
+     * Grava um snapshot com os pedidos informados.
+     * O arquivo é escrito em um temporário e renomeado atomicamente ao final,
+     * de forma que um snapshot incompleto nunca substitua um válido.
+     *
+     * @param destino   O arquivo do snapshot.
+     * @param pedidos   Os pedidos a serem gravados.
+     * @param pendentes Os IDs dos pedidos com publicação pendente.
+     * @return A quantidade de pedidos gravados.
+     * @throws IOException se o snapshot não puder ser gravado.
+     */
+    static long gravar(Path destino, Iterable<Pedido> pedidos, Iterable<String> pendentes) throws IOException {
+        Path temporario = caminhoTemporario(destino);
+        long quantidade = 0;
+        long quantidadePendentes = 0;
+
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+            buffer.position(CABECALHO);
+
+            for (Pedido pedido : pedidos) {
+                adicionar(canal, buffer, CodificadorPedido.codificarRegistro(pedido));
+                quantidade++;
+            }
+
+            List<String> ids = new ArrayList<>(IDS_POR_REGISTRO);
+            for (String id : pendentes) {
+                ids.add(id);
+                if (ids.size() == IDS_POR_REGISTRO) {
+                    adicionar(canal, buffer, CodificadorPedido.codificarIds(CodificadorPedido.TIPO_PENDENTE, ids));
+                    quantidadePendentes += ids.size();
+                    ids.clear();
+                }
+            }
+            if (!ids.isEmpty()) {
+                adicionar(canal, buffer, CodificadorPedido.codificarIds(CodificadorPedido.TIPO_PENDENTE, ids));
+                quantidadePendentes += ids.size();
+            }
+            escrever(canal, buffer.flip());
+
+            ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO).putInt(MAGICO).put(VERSAO).putLong(quantidade)
+                    .putLong(quantidadePendentes).flip();
+            while (cabecalho.hasRemaining()) {
+                canal.write(cabecalho, cabecalho.position());
+            }
+            canal.force(true);
+        }
+
+        Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return quantidade;
+    }
+
+    /**
+     * Carrega os pedidos de um snapshot, mapeando o arquivo em memória.
+     * Os pedidos são entregues primeiro e, em seguida, os IDs dos pedidos com
+     * publicação pendente.
+     *
+     * @param arquivo    O arquivo do snapshot.
+     * @param recuperacao Quem recebe os pedidos e os IDs pendentes carregados.
+     * @return A quantidade de pedidos carregados.
+     * @throws IOException           se o snapshot não puder ser lido.
+     * @throws IllegalStateException se o snapshot estiver corrompido ou
+     *                               incompleto.
+     */
+    static long carregar(Path arquivo, RecuperacaoLog recuperacao) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO);
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            while (cabecalho.hasRemaining() && canal.read(cabecalho) >= 0) {
+                // Lê o cabeçalho completo.
+            }
+        }
+        cabecalho.flip();
+        if (cabecalho.remaining() < CABECALHO_SEM_PENDENTES || cabecalho.getInt() != MAGICO) {
+            throw new IllegalStateException("Snapshot inválido: " + arquivo);
+        }
+
+        byte versao = cabecalho.get();
+        int inicio;
+        if (versao == VERSAO && cabecalho.remaining() >= Long.BYTES * 2) {
+            inicio = CABECALHO;
+        } else if (versao == VERSAO_SEM_PENDENTES) {
+            inicio = CABECALHO_SEM_PENDENTES;
+        } else {
+            throw new IllegalStateException("Snapshot inválido: " + arquivo);
+        }
+
+        long esperados = cabecalho.getLong();
+        long pendentesEsperados = versao == VERSAO ? cabecalho.getLong() : 0;
+        long[] lidos = new long[2];
+        LeitorRegistros.ler(arquivo, inicio, false, conteudo -> {
+            if (CodificadorPedido.contemPedido(conteudo)) {
+                recuperacao.pedido(CodificadorPedido.decodificarPedido(conteudo));
+                lidos[0]++;
+            } else {
+                CodificadorPedido.decodificarIds(conteudo, id -> {
+                    recuperacao.envioPendente(id);
+                    lidos[1]++;
+                });
+            }
+        });
+        if (lidos[0] != esperados || lidos[1] != pendentesEsperados) {
+            throw new IllegalStateException("Snapshot incompleto: " + arquivo);
+        }
+        return lidos[0];
+    }
+
+    /**
+     * Retorna o caminho do arquivo temporário usado durante a gravação do
+     * snapshot.
+     *
+     * @param destino O arquivo do snapshot.
+     * @return O caminho do arquivo temporário.
+     */
+    static Path caminhoTemporario(Path destino) {
+        return destino.resolveSibling(destino.getFileName() + ".tmp");
+    }
+
+    private static void adicionar(FileChannel canal, ByteBuffer buffer, ByteBuffer registro) throws IOException {
+        if (registro.remaining() > buffer.remaining()) {
+            escrever(canal, buffer.flip());
+            buffer.clear();
+        }
+        if (registro.remaining() > buffer.remaining()) {
+            escrever(canal, registro);
+        } else {
+            buffer.put(registro);
+        }
+    }
+
+    private static void escrever(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.rafael.pedido.repository.persistencia;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuração responsável por criar o log de pedidos quando a persistência
+ * estiver habilitada.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(PersistenciaProperties.class)
+public class PersistenciaConfig {
+
+    /**
+     * Cria o log de pedidos no diretório configurado.
+     *
+     * @param propriedades as configurações da persistência.
+     * @return o log de pedidos aberto para escrita.
+     * @throws IOException se o diretório ou o arquivo do log não puderem ser
+     *                     criados.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "pedido.persistencia", name = "habilitada", havingValue = "true")
+    public PedidoLog pedidoLog(PersistenciaProperties propriedades) throws IOException {
+        return new PedidoLog(propriedades.diretorio(), propriedades.modoDurabilidade(),
+                propriedades.atrasoMaximo());
+    }
+}
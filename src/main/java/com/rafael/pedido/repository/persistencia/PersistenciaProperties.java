@@ -0,0 +1,28 @@
+package com.rafael.pedido.repository.persistencia;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurações da persistência dos pedidos em disco.
+ *
+ * @param habilitada        Se o log de pedidos deve ser utilizado.
+ * @param diretorio         Diretório onde os arquivos do log são gravados.
+ * @param modoDurabilidade  Quando um registro é considerado durável.
+ * @param atrasoMaximo      Tempo máximo que um registro aguarda para ser
+ *                          agrupado com outros antes do fsync.
+ * @param intervaloCompactacao Intervalo entre as compactações do log, que
+ *                          gravam um snapshot e descartam os segmentos
+ *                          anteriores a ele.
+ */
+@ConfigurationProperties(prefix = "pedido.persistencia")
+public record PersistenciaProperties(
+        @DefaultValue("false") boolean habilitada,
+        @DefaultValue("dados") Path diretorio,
+        @DefaultValue("GRUPO") ModoDurabilidade modoDurabilidade,
+        @DefaultValue("2ms") Duration atrasoMaximo,
+        @DefaultValue("5m") Duration intervaloCompactacao) {
+}
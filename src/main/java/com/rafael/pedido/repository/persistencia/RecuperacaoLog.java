@@ -0,0 +1,31 @@
+package com.rafael.pedido.repository.persistencia;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Recebe os registros relidos durante a recuperação do {@link PedidoLog}, na
+ * ordem em que foram gravados.
+ */
+public interface RecuperacaoLog {
+
+    /**
+     * Recebe um pedido recuperado.
+     *
+     * @param pedido O pedido recuperado.
+     */
+    void pedido(Pedido pedido);
+
+    /**
+     * Informa que a publicação do pedido ainda não foi confirmada.
+     *
+     * @param idPedido O ID do pedido.
+     */
+    void envioPendente(String idPedido);
+
+    /**
+     * Informa que a publicação do pedido foi confirmada.
+     *
+     * @param idPedido O ID do pedido.
+     */
+    void envioConfirmado(String idPedido);
+}
@@ -0,0 +1,74 @@
+package com.rafael.pedido.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+
+/**
+ * Classe responsável por exportar todos os pedidos em JSON delimitado por
+ * linhas (NDJSON), um pedido por linha, em ordem crescente de ID.
+ * <p>
+ * Os pedidos são lidos do repositório e escritos na saída um a um, sem
+ * montar a lista de pedidos em memória; o uso de memória é o mesmo
+ * independente da quantidade de pedidos exportados. Uma exportação
+ * interrompida pode ser retomada a partir do ID da última linha recebida.
+ */
+@Service
+public class ExportadorPedidos {
+
+    private static final char FIM_DE_LINHA = '\n';
+
+    private final PedidoRepository repositorio;
+    private final ObjectMapper mapeador;
+    private final ObjectWriter escritor;
+
+    /**
+     * Construtor do exportador de pedidos.
+     *
+     * @param pedidoRepository o repositório dos pedidos exportados.
+     * @param objectMapper     o mapeador usado para escrever os pedidos em JSON.
+     */
+    public ExportadorPedidos(PedidoRepository pedidoRepository, ObjectMapper objectMapper) {
+        this.repositorio = pedidoRepository;
+        this.mapeador = objectMapper;
+        this.escritor = objectMapper.writerFor(PedidoDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Método responsável por escrever os pedidos na saída, uma linha JSON por
+     * pedido.
+     * A saída não é fechada; os dados pendentes são enviados a ela ao final.
+     *
+     * @param aposId O ID da última linha já exportada, sem incluí-lo, ou nulo
+     *               para exportar todos os pedidos.
+     * @param saida  A saída onde os pedidos são escritos.
+     * @return A quantidade de pedidos exportados.
+     * @throws IOException Se a escrita na saída falhar.
+     */
+    public long exportar(@Nullable String aposId, OutputStream saida) throws IOException {
+        long exportados = 0;
+        try (JsonGenerator gerador = mapeador.getFactory().createGenerator(saida)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null)) {
+            Iterator<Pedido> pedidos = repositorio.percorrer(aposId);
+            while (pedidos.hasNext()) {
+                escritor.writeValue(gerador, new PedidoDTO(pedidos.next()));
+                gerador.writeRaw(FIM_DE_LINHA);
+                exportados++;
+            }
+        }
+        return exportados;
+    }
+}
@@ -1,24 +1,77 @@
 package com.rafael.pedido.service;
 
-import java.util.NoSuchElementException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.rafael.pedido.dto.ItemLoteDTO;
+import com.rafael.pedido.dto.PaginaPedidosDTO;
 import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.dto.ResultadoBuscaDTO;
+import com.rafael.pedido.dto.ResultadoLoteDTO;
+import com.rafael.pedido.dto.StatusItemLote;
+import com.rafael.pedido.metricas.PedidoMetricas;
+import com.rafael.pedido.model.Centavos;
 import com.rafael.pedido.model.Pedido;
 import com.rafael.pedido.publisher.PedidoPublisher;
+import com.rafael.pedido.publisher.PublicacaoRejeitadaException;
+import com.rafael.pedido.publisher.RelayOutbox;
 import com.rafael.pedido.repository.PedidoRepository;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
 /**
  * Classe responsável por gerenciar a lógica de negócios relacionada aos
  * pedidos.
  * Esta classe contém métodos para criar e consultar pedidos.
+ * A duração das etapas da criação e da consulta e a quantidade de pedidos
+ * criados, duplicados, inválidos e não encontrados são registradas nas
+ * {@link PedidoMetricas}.
  */
 @Service
 public class PedidoService {
 
+    /**
+     * Quantidade máxima de pedidos aceitos em um único lote, tanto na criação
+     * quanto na consulta.
+     */
+    public static final int MAXIMO_PEDIDOS_LOTE = 10_000;
+
+    /**
+     * Quantidade máxima de pedidos em uma página das consultas por cliente e
+     * por valor.
+     */
+    public static final int MAXIMO_PEDIDOS_PAGINA = 1_000;
+
+    private static final char SEPARADOR_CURSOR = ':';
+
     private final PedidoRepository repositorio;
     private final PedidoPublisher publicador;
+    private final Validator validador;
+    private final PedidoMetricas metricas;
+
+    /**
+     * Construtor do serviço de pedidos sem métricas.
+     *
+     * @param pedidoRepository o repositório responsável por persistir os pedidos.
+     * @param pedidoPublisher  o publicador responsável por enviar os pedidos para
+     *                         sistemas externos.
+     * @param validator        o validador usado nos pedidos recebidos em lote.
+     */
+    public PedidoService(PedidoRepository pedidoRepository, PedidoPublisher pedidoPublisher, Validator validator) {
+        this(pedidoRepository, pedidoPublisher, validator, PedidoMetricas.desabilitadas());
+    }
 
     /**
      * Construtor do serviço de pedidos.
@@ -26,48 +79,320 @@ public class PedidoService {
      * @param pedidoRepository o repositório responsável por persistir os pedidos.
      * @param pedidoPublisher  o publicador responsável por enviar os pedidos para
      *                         sistemas externos.
+     * @param validator        o validador usado nos pedidos recebidos em lote.
+     * @param pedidoMetricas   as métricas dos pedidos criados e consultados.
      */
-    public PedidoService(PedidoRepository pedidoRepository, PedidoPublisher pedidoPublisher) {
+    @Autowired
+    public PedidoService(PedidoRepository pedidoRepository, PedidoPublisher pedidoPublisher, Validator validator,
+            PedidoMetricas pedidoMetricas) {
         this.repositorio = pedidoRepository;
         this.publicador = pedidoPublisher;
+        this.validador = validator;
+        this.metricas = pedidoMetricas;
     }
 
     /**
      * Método responsável por criar um novo pedido.
+     * O pedido é salvo junto com a sua entrada no outbox e enfileirado para
+     * publicação assíncrona. Se a fila de publicação não aceitar o pedido, ele
+     * é publicado depois pelo {@link RelayOutbox}.
      *
      * @param pedidoDTO o pedido a ser criado.
-     * @return Um PedidoDTO do pedido criado.
+     * @return O pedido criado, ou o resultado de duplicado se já existir um
+     *         pedido com o mesmo ID.
      */
-    public PedidoDTO criarPedido(PedidoDTO pedidoDTO) {
+    public ResultadoCriacao criarPedido(PedidoDTO pedidoDTO) {
         Pedido pedido = pedidoDTO.toEntity();
-        verificarPedidoJaExistente(pedido.getId());
-        repositorio.salvar(pedido);
-        publicador.enviarPedido(pedido);
+        long inicio = System.nanoTime();
+        boolean salvo = repositorio.salvarSeAusente(pedido);
+        long gravado = System.nanoTime();
+        metricas.registrarGravacao(gravado - inicio);
+        if (!salvo) {
+            metricas.contarDuplicados(1);
+            return new ResultadoCriacao.Duplicado(pedido.getId());
+        }
 
-        return new PedidoDTO(pedido);
+        try {
+            publicador.enviarPedido(pedido);
+        } catch (PublicacaoRejeitadaException e) {
+            // O pedido já está no outbox e será publicado pelo relay.
+        }
+        metricas.registrarPublicacao(System.nanoTime() - gravado);
+        metricas.contarCriados(1);
+
+        return new ResultadoCriacao.Criado(new PedidoDTO(pedido));
+    }
+
+    /**
+     * Método responsável por criar um novo pedido sem bloquear a thread que o
+     * chama à espera da publicação.
+     * O pedido é salvo como em {@link #criarPedido(PedidoDTO)} e o resultado é
+     * concluído quando o pedido for publicado. Se a fila de publicação não
+     * aceitar o pedido ou a publicação falhar, o resultado é concluído da
+     * mesma forma, já que o pedido está no outbox e será publicado depois pelo
+     * {@link RelayOutbox}.
+     *
+     * @param pedidoDTO o pedido a ser criado.
+     * @return O pedido criado, concluído depois da publicação, ou o resultado
+     *         de duplicado, já concluído, se já existir um pedido com o mesmo
+     *         ID.
+     */
+    public CompletableFuture<ResultadoCriacao> criarPedidoAssincrono(PedidoDTO pedidoDTO) {
+        Pedido pedido = pedidoDTO.toEntity();
+        long inicio = System.nanoTime();
+        boolean salvo = repositorio.salvarSeAusente(pedido);
+        long gravado = System.nanoTime();
+        metricas.registrarGravacao(gravado - inicio);
+        if (!salvo) {
+            metricas.contarDuplicados(1);
+            return CompletableFuture.completedFuture(new ResultadoCriacao.Duplicado(pedido.getId()));
+        }
+
+        CompletableFuture<Void> publicacao = publicador.publicarPedido(pedido);
+        metricas.registrarPublicacao(System.nanoTime() - gravado);
+        metricas.contarCriados(1);
+
+        ResultadoCriacao criado = new ResultadoCriacao.Criado(new PedidoDTO(pedido));
+        // Com erro, o pedido já está no outbox e será publicado pelo relay.
+        return publicacao.handle((publicado, erro) -> criado);
+    }
+
+    /**
+     * Método responsável por criar um lote de pedidos.
+     * Cada pedido é validado individualmente: pedidos inválidos ou com ID já
+     * existente são ignorados sem impedir a criação dos demais. Os pedidos
+     * válidos são salvos em uma única operação do repositório e os criados são
+     * publicados em um único envio.
+     *
+     * @param pedidosDTO os pedidos a serem criados.
+     * @return O resultado de cada pedido, na mesma ordem do lote recebido.
+     */
+    public ResultadoLoteDTO criarPedidos(List<PedidoDTO> pedidosDTO) {
+        if (pedidosDTO == null || pedidosDTO.isEmpty()) {
+            throw new IllegalArgumentException("O lote deve conter ao menos um pedido.");
+        }
+        if (pedidosDTO.size() > MAXIMO_PEDIDOS_LOTE) {
+            throw new IllegalArgumentException(
+                    "O lote deve conter no máximo " + MAXIMO_PEDIDOS_LOTE + " pedidos.");
+        }
+
+        ItemLoteDTO[] itens = new ItemLoteDTO[pedidosDTO.size()];
+        List<Pedido> validos = new ArrayList<>(pedidosDTO.size());
+        List<Integer> indicesValidos = new ArrayList<>(pedidosDTO.size());
+
+        for (int i = 0; i < pedidosDTO.size(); i++) {
+            PedidoDTO pedidoDTO = pedidosDTO.get(i);
+            String erros = validar(pedidoDTO);
+            if (erros != null) {
+                itens[i] = new ItemLoteDTO(i, pedidoDTO == null ? null : pedidoDTO.id(), StatusItemLote.INVALIDO,
+                        erros);
+            } else {
+                validos.add(pedidoDTO.toEntity());
+                indicesValidos.add(i);
+            }
+        }
+
+        boolean[] salvos = repositorio.salvarTodosSeAusentes(validos);
+        List<Pedido> criados = new ArrayList<>(validos.size());
+        for (int i = 0; i < validos.size(); i++) {
+            Pedido pedido = validos.get(i);
+            int indice = indicesValidos.get(i);
+            if (salvos[i]) {
+                criados.add(pedido);
+                itens[indice] = new ItemLoteDTO(indice, pedido.getId(), StatusItemLote.CRIADO, null);
+            } else {
+                itens[indice] = new ItemLoteDTO(indice, pedido.getId(), StatusItemLote.DUPLICADO,
+                        "Pedido já existe com o ID informado.");
+            }
+        }
+
+        if (!criados.isEmpty()) {
+            try {
+                publicador.enviarPedidos(criados);
+            } catch (PublicacaoRejeitadaException e) {
+                // Os pedidos já estão no outbox e serão publicados pelo relay.
+            }
+        }
+        ResultadoLoteDTO resultado = new ResultadoLoteDTO(List.of(itens));
+        metricas.contarCriados(resultado.criados());
+        metricas.contarDuplicados(resultado.duplicados());
+        metricas.contarInvalidos(resultado.invalidos());
+        return resultado;
     }
 
     /**
      * Método responsável por consultar um pedido existente pelo seu ID.
      *
      * @param idPedido o identificador do pedido a ser consultado.
-     * @return Um PedidoDTO do pedido contendo os dados encontrados.
+     * @return O pedido encontrado, ou o resultado de não encontrado se não
+     *         existir pedido com o ID.
      */
-    public PedidoDTO consultar(String idPedido) {
-        Pedido pedido = repositorio.consultar(idPedido)
-                .orElseThrow(() -> new NoSuchElementException("Pedido não encontrado com o ID informado."));
+    public ResultadoConsulta consultar(String idPedido) {
+        long inicio = System.nanoTime();
+        Optional<Pedido> pedido = repositorio.consultar(idPedido);
+        metricas.registrarConsulta(System.nanoTime() - inicio);
+        if (pedido.isEmpty()) {
+            metricas.contarNaoEncontrados(1);
+            return new ResultadoConsulta.NaoEncontrado(idPedido);
+        }
+
+        return new ResultadoConsulta.Encontrado(new PedidoDTO(pedido.get()), pedido.get().getVersao());
+    }
+
+    /**
+     * Método responsável por consultar vários pedidos pelos seus IDs.
+     * Diferente da consulta individual, IDs não encontrados não geram erro: são
+     * devolvidos na lista de ausentes. IDs repetidos são considerados uma
+     * única vez.
+     *
+     * @param idsPedidos os identificadores dos pedidos a serem consultados.
+     * @return Os pedidos encontrados e os IDs ausentes, na ordem recebida.
+     */
+    public ResultadoBuscaDTO consultarPedidos(List<String> idsPedidos) {
+        if (idsPedidos == null || idsPedidos.isEmpty()) {
+            throw new IllegalArgumentException("A consulta deve conter ao menos um ID.");
+        }
+        if (idsPedidos.size() > MAXIMO_PEDIDOS_LOTE) {
+            throw new IllegalArgumentException(
+                    "A consulta deve conter no máximo " + MAXIMO_PEDIDOS_LOTE + " IDs.");
+        }
+        if (idsPedidos.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Os IDs consultados não podem ser nulos.");
+        }
+
+        Set<String> ids = new LinkedHashSet<>(idsPedidos);
+        Map<String, Pedido> pedidos = repositorio.consultarTodos(ids);
 
-        return new PedidoDTO(pedido);
+        List<PedidoDTO> encontrados = new ArrayList<>(pedidos.size());
+        pedidos.values().forEach(pedido -> encontrados.add(new PedidoDTO(pedido)));
+        List<String> ausentes = new ArrayList<>(ids.size() - pedidos.size());
+        for (String id : ids) {
+            if (!pedidos.containsKey(id)) {
+                ausentes.add(id);
+            }
+        }
+        return new ResultadoBuscaDTO(encontrados, ausentes);
     }
 
     /**
-     * Método responsável por verificar se um pedido já existe no banco pelo ID.
+     * Método responsável por consultar os pedidos de um cliente em páginas,
+     * em ordem crescente de ID.
+     * O cursor é o ID do último pedido da página anterior e é devolvido em
+     * cada página enquanto houver mais pedidos, de forma que pedidos criados
+     * durante a paginação não desloquem as páginas seguintes.
      *
-     * @param idPedido O ID do pedido a ser verificado.
+     * @param cliente o cliente dos pedidos.
+     * @param cursor  o cursor devolvido na página anterior, ou null para a
+     *                primeira página.
+     * @param limite  a quantidade máxima de pedidos da página.
+     * @return Os pedidos da página e o cursor da próxima página.
      */
-    private void verificarPedidoJaExistente(String idPedido) {
-        if (repositorio.existePorId(idPedido)) {
-            throw new IllegalArgumentException("Pedido já existe com o ID informado.");
+    public PaginaPedidosDTO consultarPorCliente(String cliente, String cursor, int limite) {
+        if (cliente == null || cliente.isBlank()) {
+            throw new IllegalArgumentException("Cliente não pode ser nulo ou vazio.");
+        }
+        validarLimite(limite);
+
+        List<Pedido> pedidos = repositorio.consultarPorCliente(cliente, cursor, limite + 1);
+        List<PedidoDTO> pagina = paraDTOs(pedidos, limite);
+        return new PaginaPedidosDTO(pagina, pedidos.size() > limite ? pagina.get(limite - 1).id() : null);
+    }
+
+    /**
+     * Método responsável por consultar os pedidos com valor total dentro de
+     * uma faixa, em páginas, em ordem crescente de valor e de ID.
+     * O cursor identifica o último pedido da página anterior pelo seu valor e
+     * pelo seu ID.
+     *
+     * @param valorMinimo o menor valor total, incluído.
+     * @param valorMaximo o maior valor total, incluído.
+     * @param cursor      o cursor devolvido na página anterior, ou null para a
+     *                    primeira página.
+     * @param limite      a quantidade máxima de pedidos da página.
+     * @return Os pedidos da página e o cursor da próxima página.
+     */
+    public PaginaPedidosDTO consultarPorValor(BigDecimal valorMinimo, BigDecimal valorMaximo, String cursor,
+            int limite) {
+        long minimo = centavos(valorMinimo, "Valor mínimo");
+        long maximo = centavos(valorMaximo, "Valor máximo");
+        if (minimo > maximo) {
+            throw new IllegalArgumentException("O valor mínimo não pode ser maior que o valor máximo.");
+        }
+        validarLimite(limite);
+
+        long aposValor = 0;
+        String aposId = null;
+        if (cursor != null) {
+            int separador = cursor.indexOf(SEPARADOR_CURSOR);
+            try {
+                aposValor = Long.parseLong(cursor.substring(0, Math.max(separador, 0)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+            aposId = cursor.substring(separador + 1);
+        }
+
+        List<Pedido> pedidos = repositorio.consultarPorValor(minimo, maximo, aposValor, aposId, limite + 1);
+        String proximoCursor = null;
+        if (pedidos.size() > limite) {
+            Pedido ultimo = pedidos.get(limite - 1);
+            proximoCursor = ultimo.getValorTotalCentavos() + String.valueOf(SEPARADOR_CURSOR) + ultimo.getId();
+        }
+        return new PaginaPedidosDTO(paraDTOs(pedidos, limite), proximoCursor);
+    }
+
+    /**
+     * Método responsável por consultar os pedidos de maior valor total, em
+     * ordem decrescente de valor.
+     *
+     * @param quantidade a quantidade de pedidos retornados.
+     * @return Os pedidos de maior valor total.
+     */
+    public List<PedidoDTO> consultarMaiores(int quantidade) {
+        validarLimite(quantidade);
+        return paraDTOs(repositorio.consultarMaiores(quantidade), quantidade);
+    }
+
+    private static void validarLimite(int limite) {
+        if (limite < 1 || limite > MAXIMO_PEDIDOS_PAGINA) {
+            throw new IllegalArgumentException(
+                    "O limite deve estar entre 1 e " + MAXIMO_PEDIDOS_PAGINA + " pedidos.");
+        }
+    }
+
+    private static long centavos(BigDecimal valor, String nome) {
+        if (valor == null) {
+            throw new IllegalArgumentException(nome + " não pode ser nulo.");
+        }
+        try {
+            return Centavos.deDecimal(valor);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(nome + " deve ter no máximo duas casas decimais.");
+        }
+    }
+
+    private static List<PedidoDTO> paraDTOs(List<Pedido> pedidos, int limite) {
+        List<PedidoDTO> dtos = new ArrayList<>(Math.min(pedidos.size(), limite));
+        for (int i = 0; i < pedidos.size() && i < limite; i++) {
+            dtos.add(new PedidoDTO(pedidos.get(i)));
+        }
+        return dtos;
+    }
+
+    private String validar(PedidoDTO pedidoDTO) {
+        if (pedidoDTO == null) {
+            return "Pedido não pode ser nulo.";
+        }
+
+        long inicio = System.nanoTime();
+        Set<ConstraintViolation<PedidoDTO>> violacoes = validador.validate(pedidoDTO);
+        metricas.registrarValidacao(System.nanoTime() - inicio);
+        if (violacoes.isEmpty()) {
+            return null;
         }
+        return violacoes.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(" "));
     }
-}
\ No newline at end of file
+}
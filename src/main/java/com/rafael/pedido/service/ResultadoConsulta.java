@@ -0,0 +1,29 @@
+package com.rafael.pedido.service;
+
+import com.rafael.pedido.dto.PedidoDTO;
+
+/**
+ * Resultado da consulta de um pedido pelo ID no {@link PedidoService}.
+ * Um ID sem pedido é um resultado esperado da consulta, e não uma exceção;
+ * as exceções ficam reservadas para as falhas.
+ */
+public sealed interface ResultadoConsulta permits ResultadoConsulta.Encontrado, ResultadoConsulta.NaoEncontrado {
+
+    /**
+     * O pedido foi encontrado.
+     *
+     * @param pedido O pedido encontrado.
+     * @param versao A versão dos dados do pedido, calculada quando ele foi
+     *               gravado.
+     */
+    record Encontrado(PedidoDTO pedido, long versao) implements ResultadoConsulta {
+    }
+
+    /**
+     * Não existe pedido com o ID consultado.
+     *
+     * @param idPedido O ID consultado.
+     */
+    record NaoEncontrado(String idPedido) implements ResultadoConsulta {
+    }
+}
@@ -0,0 +1,27 @@
+package com.rafael.pedido.service;
+
+import com.rafael.pedido.dto.PedidoDTO;
+
+/**
+ * Resultado da criação de um pedido pelo {@link PedidoService}.
+ * Um pedido com ID já existente é um resultado esperado da criação, e não uma
+ * exceção; as exceções ficam reservadas para as falhas.
+ */
+public sealed interface ResultadoCriacao permits ResultadoCriacao.Criado, ResultadoCriacao.Duplicado {
+
+    /**
+     * O pedido foi criado.
+     *
+     * @param pedido O pedido criado.
+     */
+    record Criado(PedidoDTO pedido) implements ResultadoCriacao {
+    }
+
+    /**
+     * O pedido não foi criado porque já existe um pedido com o mesmo ID.
+     *
+     * @param idPedido O ID do pedido existente.
+     */
+    record Duplicado(String idPedido) implements ResultadoCriacao {
+    }
+}
@@ -0,0 +1,151 @@
+package com.rafael.pedido.admissao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.rafael.pedido.admissao.ControleAdmissao.Permissao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Classe de teste para o ControleAdmissao.
+ * Verifica a recusa acima do limite, o ajuste do limite pela latência e a
+ * prioridade entre as classes de requisição.
+ */
+class ControleAdmissaoTest {
+
+    private static final Duration LATENCIA_MAXIMA = Duration.ofMillis(50);
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+
+    /**
+     * Testa a admissão até o limite.
+     * Verifica se as requisições acima do limite são recusadas com o
+     * Retry-After configurado e se a liberação abre espaço para uma nova.
+     */
+    @Test
+    void deveRecusarRequisicao_quandoLimiteAtingido() {
+        ControleAdmissao controle = controle(4, 4, 8);
+        List<Permissao> permissoes = admitir(controle, ClasseRequisicao.CRIACAO, 4);
+
+        SobrecargaException erro = assertThrows(SobrecargaException.class,
+                () -> controle.admitir(ClasseRequisicao.CRIACAO));
+        assertEquals(Duration.ofSeconds(2), erro.getRetryAfter());
+
+        permissoes.get(0).liberar();
+        controle.admitir(ClasseRequisicao.CRIACAO);
+        assertEquals(1.0, registro.get("pedido.admissao.recusadas").tag("classe", "criacao").counter().count());
+        assertEquals(4.0, registro.get("pedido.admissao.concorrencia").tag("classe", "criacao").gauge().value());
+    }
+
+    /**
+     * Testa a redução do limite.
+     * Verifica se a latência acima da máxima reduz o limite uma única vez por
+     * intervalo e nunca abaixo do limite mínimo.
+     */
+    @Test
+    void deveReduzirLimite_quandoLatenciaAcimaDaMaxima() {
+        ControleAdmissao controle = controle(100, 10, 1_000);
+
+        List<Permissao> lentas = admitir(controle, ClasseRequisicao.CRIACAO, 10);
+        relogio.addAndGet(LATENCIA_MAXIMA.toNanos() + 1);
+        lentas.forEach(Permissao::liberar);
+        assertEquals(90.0, limite("criacao"));
+
+        for (int i = 0; i < 30; i++) {
+            Permissao lenta = controle.admitir(ClasseRequisicao.CRIACAO);
+            relogio.addAndGet(LATENCIA_MAXIMA.toNanos() + 1);
+            lenta.liberar();
+        }
+        assertEquals(10.0, limite("criacao"));
+    }
+
+    /**
+     * Testa o aumento do limite.
+     * Verifica se as requisições rápidas com a concorrência acima da metade
+     * do limite o aumentam aos poucos, e se as requisições com a concorrência
+     * baixa não o aumentam.
+     */
+    @Test
+    void deveAumentarLimite_quandoLatenciaDentroDaMaximaEConcorrenciaAlta() {
+        ControleAdmissao controle = controle(10, 10, 1_000);
+
+        admitir(controle, ClasseRequisicao.LEITURA, 1).forEach(Permissao::liberar);
+        assertEquals(10.0, limite("leitura"));
+
+        for (int i = 0; i < 10; i++) {
+            admitir(controle, ClasseRequisicao.LEITURA, 10).forEach(Permissao::liberar);
+        }
+        assertEquals(13.0, limite("leitura"));
+    }
+
+    /**
+     * Testa a prioridade da criação sobre as consultas.
+     * Verifica se as consultas são recusadas enquanto a criação estiver no
+     * seu limite, mesmo abaixo do limite delas.
+     */
+    @Test
+    void deveRecusarConsulta_quandoCriacaoNoLimite() {
+        ControleAdmissao controle = controle(2, 2, 2);
+        List<Permissao> criacoes = admitir(controle, ClasseRequisicao.CRIACAO, 2);
+
+        assertThrows(SobrecargaException.class, () -> controle.admitir(ClasseRequisicao.LEITURA));
+
+        criacoes.get(0).liberar();
+        admitir(controle, ClasseRequisicao.LEITURA, 2);
+        controle.admitir(ClasseRequisicao.CRIACAO);
+        assertEquals(1.0, registro.get("pedido.admissao.recusadas").tag("classe", "leitura").counter().count());
+    }
+
+    /**
+     * Testa o limite total das requisições admitidas.
+     * Verifica se as requisições são recusadas quando a soma das classes
+     * atinge o limite total, mesmo abaixo do limite de cada classe, e se os
+     * limites das classes são reduzidos à concorrência máxima.
+     */
+    @Test
+    void deveRecusarRequisicao_quandoLimiteTotalAtingido() {
+        AdmissaoProperties.Limite limite = new AdmissaoProperties.Limite(100, 10, 1_000, LATENCIA_MAXIMA, 0.9);
+        AdmissaoProperties propriedades = new AdmissaoProperties(true, ClasseRequisicao.CRIACAO,
+                Duration.ofSeconds(2), limite, limite).limitadaA(4);
+        ControleAdmissao controle = new ControleAdmissao(propriedades, 6, registro, relogio::get);
+
+        assertEquals(4, propriedades.criacao().limiteMaximo());
+        assertEquals(4, propriedades.leitura().limiteMinimo());
+        List<Permissao> criacoes = admitir(controle, ClasseRequisicao.CRIACAO, 3);
+        admitir(controle, ClasseRequisicao.LEITURA, 3);
+
+        assertThrows(SobrecargaException.class, () -> controle.admitir(ClasseRequisicao.CRIACAO));
+        criacoes.get(0).liberar();
+        controle.admitir(ClasseRequisicao.CRIACAO);
+        assertEquals(3.0, registro.get("pedido.admissao.concorrencia").tag("classe", "criacao").gauge().value());
+    }
+
+    private ControleAdmissao controle(int limiteInicial, int limiteMinimo, int limiteMaximo) {
+        AdmissaoProperties.Limite limite = new AdmissaoProperties.Limite(limiteInicial, limiteMinimo, limiteMaximo,
+                LATENCIA_MAXIMA, 0.9);
+        AdmissaoProperties propriedades = new AdmissaoProperties(true, ClasseRequisicao.CRIACAO,
+                Duration.ofSeconds(2), limite, limite);
+        return new ControleAdmissao(propriedades, Integer.MAX_VALUE, registro, relogio::get);
+    }
+
+    private static List<Permissao> admitir(ControleAdmissao controle, ClasseRequisicao classe, int quantidade) {
+        List<Permissao> permissoes = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            permissoes.add(controle.admitir(classe));
+        }
+        return permissoes;
+    }
+
+    private double limite(String classe) {
+        return registro.get("pedido.admissao.limite").tag("classe", classe).gauge().value();
+    }
+}
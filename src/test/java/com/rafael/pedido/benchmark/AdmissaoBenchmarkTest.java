@@ -0,0 +1,259 @@
+package com.rafael.pedido.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.rafael.pedido.PedidoApp;
+
+/**
+ * Mede a criação de pedidos com 5 vezes mais requisições por segundo do que a
+ * aplicação consegue atender, sem e com o controle de admissão. A capacidade
+ * é medida antes, em laço fechado, com o controle desabilitado. O log de
+ * pedidos fica habilitado no modo GRUPO e o Tomcat com 50 threads, de forma
+ * que a capacidade seja limitada pelo disco e pelas threads, e não pelo
+ * gerador de carga.
+ * <p>
+ * Sem o controle, as requisições se acumulam nas filas do Tomcat e a latência
+ * de todas cresce até o tempo limite; com ele, as excedentes recebem 503 na
+ * hora e a latência p99 das admitidas permanece limitada.
+ * <p>
+ * A latência é medida pelo cliente, incluindo a espera nas filas do Tomcat
+ * antes do controle de admissão. No laço aberto, ela é contada a partir do
+ * instante em que a requisição deveria ter sido enviada pela taxa, e não de
+ * quando o gerador conseguiu enviá-la, para que um atraso do gerador não
+ * esconda a espera. São informados o p99 dos pedidos criados e o p99 de todas
+ * as respostas, incluindo as recusadas.
+ * Executado somente quando a propriedade {@code benchmark} estiver habilitada.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AdmissaoBenchmarkTest {
+
+    private static final int CONEXOES_CAPACIDADE = 200;
+    private static final int SOBRECARGA = 5;
+    private static final int MAXIMO_PENDENTES = 20_000;
+    private static final Duration TEMPO_LIMITE = Duration.ofSeconds(10);
+    private static final Duration AQUECIMENTO = Duration.ofSeconds(10);
+    private static final Duration MEDICAO = Duration.ofSeconds(30);
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Mede a capacidade da aplicação e a sobrecarga sem e com o controle de
+     * admissão, com a mesma taxa de chegada.
+     */
+    @Test
+    void medirLatenciaDasAdmitidas_quandoSobrecarga() throws InterruptedException {
+        double capacidade;
+        try (ConfigurableApplicationContext contexto = iniciar(false, "capacidade")) {
+            Carga carga = new Carga(uri(contexto));
+            carga.executarFechada(CONEXOES_CAPACIDADE, AQUECIMENTO);
+            Resultado resultado = carga.executarFechada(CONEXOES_CAPACIDADE, MEDICAO);
+            capacidade = resultado.criados() / (resultado.nanos() / 1e9);
+            System.out.printf("Capacidade com %d conexões: %,.0f pedidos/s, p99 de %.1f ms%n",
+                    CONEXOES_CAPACIDADE, capacidade, resultado.p99Micros() / 1_000.0);
+        }
+
+        double taxa = SOBRECARGA * capacidade;
+        for (boolean admissao : new boolean[] { false, true }) {
+            try (ConfigurableApplicationContext contexto = iniciar(admissao, admissao ? "com" : "sem")) {
+                Carga carga = new Carga(uri(contexto));
+                carga.executarAberta(taxa, AQUECIMENTO);
+                Resultado resultado = carga.executarAberta(taxa, MEDICAO);
+
+                System.out.printf("%s controle de admissão a %,.0f requisições/s: %,.0f pedidos/s, "
+                        + "p99 dos admitidos de %.1f ms, p99 de todas as respostas de %.1f ms, "
+                        + "%,d recusados (503), %,d falhas, %,d não enviados%n",
+                        admissao ? "Com" : "Sem", taxa, resultado.criados() / (resultado.nanos() / 1e9),
+                        resultado.p99Micros() / 1_000.0, resultado.p99TodasMicros() / 1_000.0,
+                        resultado.recusados(), resultado.falhas(), resultado.naoEnviados());
+                assertTrue(resultado.criados() > 0);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext iniciar(boolean admissao, String nome) {
+        return new SpringApplicationBuilder(PedidoApp.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=50",
+                        "server.tomcat.max-connections=" + 2 * MAXIMO_PENDENTES,
+                        "server.tomcat.accept-count=" + MAXIMO_PENDENTES,
+                        "server.tomcat.max-keep-alive-requests=-1",
+                        "pedido.admissao.habilitada=" + admissao,
+                        "pedido.persistencia.habilitada=true",
+                        "pedido.persistencia.diretorio=" + diretorio.resolve(nome),
+                        "pedido.persistencia.modo-durabilidade=GRUPO",
+                        "pedido.persistencia.atraso-maximo=5ms")
+                .run();
+    }
+
+    private static URI uri(ConfigurableApplicationContext contexto) {
+        int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        return URI.create("http://localhost:" + porta + "/pedidos");
+    }
+
+    /**
+     * Resultado de uma execução da carga.
+     *
+     * @param criados     a quantidade de pedidos criados (status 201).
+     * @param recusados   a quantidade de requisições recusadas com status 503.
+     * @param falhas      a quantidade de requisições com erro, tempo limite
+     *                    esgotado ou outro status.
+     * @param naoEnviados a quantidade de requisições não enviadas porque o
+     *                    gerador já tinha o máximo de requisições pendentes.
+     * @param p99Micros   a latência p99 dos pedidos criados, em
+     *                    microssegundos.
+     * @param p99TodasMicros a latência p99 de todas as respostas, incluindo
+     *                    as recusadas e as falhas, em microssegundos.
+     * @param nanos       a duração da execução, até a última resposta.
+     */
+    private record Resultado(long criados, long recusados, long falhas, long naoEnviados, long p99Micros,
+            long p99TodasMicros, long nanos) {
+    }
+
+    /**
+     * Carga em laço fechado, em que cada conexão envia uma nova requisição
+     * assim que recebe a resposta da anterior, ou em laço aberto, com as
+     * requisições enviadas a uma taxa fixa independente das respostas. As
+     * latências dos pedidos criados e as de todas as respostas são acumuladas
+     * em histogramas com faixas de 100 microssegundos.
+     */
+    private static final class Carga {
+
+        private static final int LARGURA_FAIXA_MICROS = 100;
+        private static final int FAIXAS = 200_000;
+
+        private final HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TEMPO_LIMITE)
+                .build();
+        private final URI uri;
+        private final AtomicLong proximoId = new AtomicLong();
+        private final Semaphore pendentes = new Semaphore(MAXIMO_PENDENTES);
+
+        private AtomicLongArray histograma;
+        private AtomicLongArray histogramaTodas;
+        private LongAdder criados;
+        private LongAdder recusados;
+        private LongAdder falhas;
+        private long naoEnviados;
+
+        Carga(URI uri) {
+            this.uri = uri;
+        }
+
+        Resultado executarFechada(int conexoes, Duration duracao) throws InterruptedException {
+            iniciarContagem();
+            long inicio = System.nanoTime();
+            long fim = inicio + duracao.toNanos();
+            for (int i = 0; i < conexoes; i++) {
+                pendentes.acquire();
+                enviarEmLaco(fim);
+            }
+            pendentes.acquire(MAXIMO_PENDENTES);
+            pendentes.release(MAXIMO_PENDENTES);
+            return resultado(System.nanoTime() - inicio);
+        }
+
+        Resultado executarAberta(double taxa, Duration duracao) throws InterruptedException {
+            iniciarContagem();
+            long inicio = System.nanoTime();
+            long fim = inicio + duracao.toNanos();
+            long enviadas = 0;
+            for (long agora = inicio; agora < fim; agora = System.nanoTime()) {
+                long devidas = (long) ((agora - inicio) * taxa / 1e9);
+                for (; enviadas < devidas; enviadas++) {
+                    if (pendentes.tryAcquire()) {
+                        enviar(inicio + (long) (enviadas * 1e9 / taxa), pendentes::release);
+                    } else {
+                        naoEnviados++;
+                    }
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+            pendentes.acquire(MAXIMO_PENDENTES);
+            pendentes.release(MAXIMO_PENDENTES);
+            return resultado(System.nanoTime() - inicio);
+        }
+
+        private void iniciarContagem() {
+            histograma = new AtomicLongArray(FAIXAS + 1);
+            histogramaTodas = new AtomicLongArray(FAIXAS + 1);
+            criados = new LongAdder();
+            recusados = new LongAdder();
+            falhas = new LongAdder();
+            naoEnviados = 0;
+        }
+
+        private void enviarEmLaco(long fim) {
+            enviar(System.nanoTime(), () -> {
+                if (System.nanoTime() < fim) {
+                    enviarEmLaco(fim);
+                } else {
+                    pendentes.release();
+                }
+            });
+        }
+
+        private void enviar(long agendado, Runnable aoResponder) {
+            long id = proximoId.getAndIncrement();
+            HttpRequest requisicao = HttpRequest.newBuilder(uri)
+                    .timeout(TEMPO_LIMITE)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"id\":\"" + id + "\",\"cliente\":\"Cliente " + id % 10_000 + "\",\"valorTotal\":10.0}"))
+                    .build();
+            cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding()).whenComplete((resposta, erro) -> {
+                int faixa = (int) Math.min((System.nanoTime() - agendado) / 1_000 / LARGURA_FAIXA_MICROS, FAIXAS);
+                histogramaTodas.incrementAndGet(faixa);
+                if (erro == null && resposta.statusCode() == 201) {
+                    histograma.incrementAndGet(faixa);
+                    criados.increment();
+                } else if (erro == null && resposta.statusCode() == 503) {
+                    recusados.increment();
+                } else {
+                    falhas.increment();
+                }
+                aoResponder.run();
+            });
+        }
+
+        private Resultado resultado(long nanos) {
+            long respondidas = criados.sum() + recusados.sum() + falhas.sum();
+            return new Resultado(criados.sum(), recusados.sum(), falhas.sum(), naoEnviados,
+                    percentil(histograma, criados.sum(), 0.99), percentil(histogramaTodas, respondidas, 0.99), nanos);
+        }
+
+        private static long percentil(AtomicLongArray histograma, long total, double percentil) {
+            long alvo = (long) Math.ceil(total * percentil);
+            long acumulado = 0;
+            for (int faixa = 0; faixa <= FAIXAS; faixa++) {
+                acumulado += histograma.get(faixa);
+                if (acumulado >= alvo) {
+                    return (faixa + 1L) * LARGURA_FAIXA_MICROS;
+                }
+            }
+            return (FAIXAS + 1L) * LARGURA_FAIXA_MICROS;
+        }
+    }
+}
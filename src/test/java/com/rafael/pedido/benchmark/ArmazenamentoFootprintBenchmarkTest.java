@@ -0,0 +1,72 @@
+package com.rafael.pedido.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+import com.rafael.pedido.repository.armazenamento.HeapPedidoStore;
+import com.rafael.pedido.repository.armazenamento.OffHeapPedidoStore;
+import com.rafael.pedido.repository.armazenamento.PedidoStore;
+import com.rafael.pedido.repository.armazenamento.TipoArmazenamento;
+
+/**
+ * Compara o consumo de memória dos armazenamentos de pedidos no heap e fora
+ * dele, medido pelo {@link PedidoRepository}, de forma que os índices por
+ * ID, por cliente e por valor total sejam incluídos. A publicação de cada
+ * lote é confirmada em seguida, como faz o relay do outbox, para que o
+ * outbox não cresça com os pedidos. Executado somente quando a propriedade
+ * {@code benchmark} estiver habilitada.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ArmazenamentoFootprintBenchmarkTest {
+
+    private static final int QUANTIDADE = Integer.getInteger("benchmark.pedidos", 5_000_000);
+    private static final int TAMANHO_LOTE = 1_000;
+
+    /**
+     * Preenche o repositório e imprime a memória ocupada no heap e fora dele.
+     *
+     * @param tipo o tipo de armazenamento medido.
+     */
+    @ParameterizedTest
+    @EnumSource(value = TipoArmazenamento.class, names = { "HEAP", "OFF_HEAP" })
+    void medirConsumoDeMemoria(TipoArmazenamento tipo) {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        long heapInicial = heapUtilizado(memoria);
+
+        PedidoStore store = tipo == TipoArmazenamento.HEAP ? new HeapPedidoStore() : new OffHeapPedidoStore();
+        PedidoRepository repository = new PedidoRepository(store, null);
+        List<Pedido> lote = new ArrayList<>(TAMANHO_LOTE);
+        List<String> ids = new ArrayList<>(TAMANHO_LOTE);
+        for (int i = 0; i < QUANTIDADE; i++) {
+            String id = "pedido-" + i;
+            lote.add(new Pedido(id, "Cliente " + (i % 10_000), 1_000 + i % 100_000));
+            ids.add(id);
+            if (lote.size() == TAMANHO_LOTE || i == QUANTIDADE - 1) {
+                repository.salvarTodosSeAusentes(lote);
+                repository.confirmarEnvio(ids);
+                lote.clear();
+                ids.clear();
+            }
+        }
+
+        long heap = heapUtilizado(memoria) - heapInicial;
+        long foraDoHeap = store instanceof OffHeapPedidoStore offHeap ? offHeap.bytesForaDoHeap() : 0;
+        System.out.printf("%s: %,d pedidos | heap %,d MB (%d bytes/pedido) | fora do heap %,d MB (%d bytes/pedido)%n",
+                tipo, store.tamanho(), heap >> 20, heap / QUANTIDADE, foraDoHeap >> 20, foraDoHeap / QUANTIDADE);
+    }
+
+    private static long heapUtilizado(MemoryMXBean memoria) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+}
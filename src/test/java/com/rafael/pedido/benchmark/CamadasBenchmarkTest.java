@@ -0,0 +1,128 @@
+package com.rafael.pedido.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+import com.rafael.pedido.repository.armazenamento.ArmazenamentoProperties;
+import com.rafael.pedido.repository.armazenamento.CamadasPedidoStore;
+
+/**
+ * Mede o armazenamento em camadas sob gravação contínua pelo
+ * {@link PedidoRepository}, como na aplicação: a vazão de gravação, o heap
+ * ocupado, incluindo os índices, e a quantidade de segmentos a cada rodada de
+ * pedidos gravados, e a latência das consultas a pedidos que já estão em
+ * disco. A publicação de cada lote é confirmada em seguida, como faz o relay
+ * do outbox. Falha se o heap crescer com o histórico de pedidos ou se o p99
+ * das consultas em disco passar do orçamento. Executado somente quando a
+ * propriedade {@code benchmark} estiver habilitada.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CamadasBenchmarkTest {
+
+    private static final int RODADAS = 10;
+    private static final int PEDIDOS_POR_RODADA = Integer.getInteger("benchmark.pedidos", 1_000_000);
+    private static final int MAXIMO_QUENTES = PEDIDOS_POR_RODADA / 2;
+    private static final int CONSULTAS = 100_000;
+    private static final long ORCAMENTO_P99_NANOS = Duration.ofMillis(1).toNanos();
+    private static final int TAMANHO_LOTE = 1_000;
+    /**
+     * A partir da terceira rodada a camada quente está cheia; depois dela, o
+     * heap não pode crescer mais que esta margem, que cobre as entradas
+     * recentes dos índices e a variação do coletor de lixo.
+     */
+    private static final long MARGEM_HEAP = 64L << 20;
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Grava as rodadas de pedidos pelo repositório, movendo os excedentes
+     * para o disco ao fim de cada uma, e imprime a vazão e o heap ocupado,
+     * verificando que ele não cresce depois que a camada quente enche; em
+     * seguida consulta pedidos aleatórios das rodadas já em disco e imprime os
+     * percentis da latência.
+     */
+    @Test
+    void medirHeapELatenciaFria() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        long heapInicial = heapUtilizado(memoria);
+
+        try (CamadasPedidoStore store = new CamadasPedidoStore(new ArmazenamentoProperties.Camadas(diretorio,
+                Duration.ofDays(1), MAXIMO_QUENTES, Duration.ofDays(1), DataSize.ofKilobytes(16)))) {
+            PedidoRepository repositorio = new PedidoRepository(store, null);
+            int id = 0;
+            long heapReferencia = 0;
+            List<String> ids = new ArrayList<>(TAMANHO_LOTE);
+            for (int rodada = 1; rodada <= RODADAS; rodada++) {
+                long inicio = System.nanoTime();
+                for (int i = 0; i < PEDIDOS_POR_RODADA; i++, id++) {
+                    repositorio.salvarSeAusente(
+                            new Pedido("pedido-" + id, "Cliente " + (id % 10_000), 1_000 + id % 100_000));
+                    ids.add("pedido-" + id);
+                    if (ids.size() == TAMANHO_LOTE) {
+                        repositorio.confirmarEnvio(ids);
+                        ids.clear();
+                    }
+                }
+                repositorio.confirmarEnvio(ids);
+                ids.clear();
+                double vazao = PEDIDOS_POR_RODADA / ((System.nanoTime() - inicio) / 1e9);
+                store.envelhecer();
+                long heap = heapUtilizado(memoria) - heapInicial;
+                System.out.printf("Rodada %d: %,d pedidos | %,.0f pedidos/s | %,d no heap | heap %,d MB "
+                        + "(%,d bytes/pedido) | disco %,d MB em %d segmentos%n",
+                        rodada, store.tamanho(), vazao, store.pedidosQuentes(), heap >> 20, heap / store.tamanho(),
+                        store.bytesEmDisco() >> 20, store.quantidadeSegmentos());
+
+                if (rodada == 3) {
+                    heapReferencia = heap;
+                } else if (rodada > 3) {
+                    assertTrue(heap <= heapReferencia + MARGEM_HEAP, "heap da rodada " + rodada + " cresceu de "
+                            + (heapReferencia >> 20) + " MB para " + (heap >> 20) + " MB");
+                }
+            }
+
+            int frios = id - MAXIMO_QUENTES;
+            long[] latencias = new long[CONSULTAS];
+            for (int i = 0; i < CONSULTAS; i++) {
+                String idFrio = "pedido-" + ThreadLocalRandom.current().nextInt(frios);
+                long inicio = System.nanoTime();
+                boolean encontrado = repositorio.consultar(idFrio).isPresent();
+                latencias[i] = System.nanoTime() - inicio;
+                assertTrue(encontrado);
+            }
+            Arrays.sort(latencias);
+            System.out.printf("Consultas em disco: p50 %,d µs | p99 %,d µs | p99,9 %,d µs | máximo %,d µs%n",
+                    percentil(latencias, 0.5) / 1_000, percentil(latencias, 0.99) / 1_000,
+                    percentil(latencias, 0.999) / 1_000, latencias[latencias.length - 1] / 1_000);
+            assertTrue(percentil(latencias, 0.99) < ORCAMENTO_P99_NANOS,
+                    "p99 das consultas em disco acima de " + Duration.ofNanos(ORCAMENTO_P99_NANOS).toMillis() + " ms");
+        }
+    }
+
+    private static long percentil(long[] ordenados, double percentil) {
+        return ordenados[(int) Math.min(ordenados.length - 1, Math.ceil(percentil * ordenados.length) - 1)];
+    }
+
+    private static long heapUtilizado(MemoryMXBean memoria) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,196 @@
+package com.rafael.pedido.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.rafael.pedido.PedidoApp;
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.publisher.CanalPublicacao;
+
+/**
+ * Compara a vazão, a latência p99 e a quantidade de threads da criação de
+ * pedidos na API servlet, com o Tomcat, e na variante reativa, com o Netty e o
+ * perfil {@code reativo}, mantendo 5.000 conexões simultâneas. O canal de
+ * publicação simula um broker que leva 5 ms para confirmar cada lote.
+ * <p>
+ * As respostas não são equivalentes: a API servlet responde depois de
+ * enfileirar o pedido, sem aguardar o broker, enquanto a reativa responde
+ * depois da confirmação do broker, sem ocupar uma thread durante a espera.
+ * Executado somente quando a propriedade {@code benchmark} estiver habilitada.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReativoBenchmarkTest {
+
+    private static final int CONEXOES = 5_000;
+    private static final Duration LATENCIA_BROKER = Duration.ofMillis(5);
+    private static final Duration AQUECIMENTO = Duration.ofSeconds(10);
+    private static final Duration MEDICAO = Duration.ofSeconds(30);
+
+    /**
+     * Inicia a aplicação na variante informada, aquece e mede a criação de
+     * pedidos com todas as conexões ativas durante o tempo de medição.
+     *
+     * @param reativo se a aplicação usa a variante reativa.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void medirVazaoLatenciaEThreads(boolean reativo) throws InterruptedException {
+        try (ConfigurableApplicationContext contexto = iniciar(reativo)) {
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            Carga carga = new Carga(URI.create("http://localhost:" + porta + "/pedidos"));
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+            carga.executar(AQUECIMENTO);
+            threads.resetPeakThreadCount();
+            Resultado resultado = carga.executar(MEDICAO);
+
+            System.out.printf("API %s com %,d conexões: %,.0f pedidos/s, p99 de %.1f ms, %,d falhas, "
+                    + "pico de %,d threads%n",
+                    reativo ? "reativa" : "servlet", CONEXOES,
+                    resultado.concluidos() / (resultado.nanos() / 1e9), resultado.p99Micros() / 1_000.0,
+                    resultado.falhas(), threads.getPeakThreadCount());
+            assertTrue(resultado.concluidos() > 0);
+        }
+    }
+
+    private ConfigurableApplicationContext iniciar(boolean reativo) {
+        SpringApplicationBuilder aplicacao = new SpringApplicationBuilder(PedidoApp.class);
+        if (reativo) {
+            aplicacao.profiles("reativo");
+        }
+        return aplicacao
+                .initializers(contexto -> contexto.getBeanFactory()
+                        .registerSingleton("canalPublicacao", new BrokerLento()))
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + 2 * CONEXOES,
+                        "server.tomcat.accept-count=" + CONEXOES,
+                        "server.tomcat.max-keep-alive-requests=-1",
+                        "pedido.admissao.habilitada=false")
+                .run();
+    }
+
+    /**
+     * Canal de publicação que aguarda a latência do broker a cada lote.
+     */
+    private static final class BrokerLento implements CanalPublicacao {
+
+        @Override
+        public void publicar(List<Pedido> pedidos) {
+            try {
+                Thread.sleep(LATENCIA_BROKER.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Resultado de uma execução da carga.
+     *
+     * @param concluidos a quantidade de pedidos criados.
+     * @param falhas     a quantidade de requisições com erro ou status
+     *                   diferente de 201.
+     * @param p99Micros  a latência p99, em microssegundos.
+     * @param nanos      a duração da execução, até a última resposta.
+     */
+    private record Resultado(long concluidos, long falhas, long p99Micros, long nanos) {
+    }
+
+    /**
+     * Carga em laço fechado: cada conexão envia uma nova requisição assim que
+     * recebe a resposta da anterior. As latências são acumuladas em um
+     * histograma com faixas de 100 microssegundos.
+     */
+    private static final class Carga {
+
+        private static final int LARGURA_FAIXA_MICROS = 100;
+        private static final int FAIXAS = 100_000;
+
+        private final HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        private final URI uri;
+        private final AtomicLong proximoId = new AtomicLong();
+
+        private AtomicLongArray histograma;
+        private LongAdder concluidos;
+        private LongAdder falhas;
+
+        Carga(URI uri) {
+            this.uri = uri;
+        }
+
+        Resultado executar(Duration duracao) throws InterruptedException {
+            histograma = new AtomicLongArray(FAIXAS + 1);
+            concluidos = new LongAdder();
+            falhas = new LongAdder();
+
+            long inicio = System.nanoTime();
+            long fim = inicio + duracao.toNanos();
+            CountDownLatch conexoesEncerradas = new CountDownLatch(CONEXOES);
+            for (int i = 0; i < CONEXOES; i++) {
+                enviar(fim, conexoesEncerradas);
+            }
+            conexoesEncerradas.await();
+            return new Resultado(concluidos.sum(), falhas.sum(), percentil(0.99), System.nanoTime() - inicio);
+        }
+
+        private void enviar(long fim, CountDownLatch conexoesEncerradas) {
+            if (System.nanoTime() >= fim) {
+                conexoesEncerradas.countDown();
+                return;
+            }
+
+            long id = proximoId.getAndIncrement();
+            HttpRequest requisicao = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"id\":\"" + id + "\",\"cliente\":\"Cliente " + id % 10_000 + "\",\"valorTotal\":10.0}"))
+                    .build();
+            long inicio = System.nanoTime();
+            cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding()).whenComplete((resposta, erro) -> {
+                if (erro == null && resposta.statusCode() == 201) {
+                    long micros = (System.nanoTime() - inicio) / 1_000;
+                    histograma.incrementAndGet((int) Math.min(micros / LARGURA_FAIXA_MICROS, FAIXAS));
+                    concluidos.increment();
+                } else {
+                    falhas.increment();
+                }
+                enviar(fim, conexoesEncerradas);
+            });
+        }
+
+        private long percentil(double percentil) {
+            long alvo = (long) Math.ceil(concluidos.sum() * percentil);
+            long acumulado = 0;
+            for (int faixa = 0; faixa <= FAIXAS; faixa++) {
+                acumulado += histograma.get(faixa);
+                if (acumulado >= alvo) {
+                    return (faixa + 1L) * LARGURA_FAIXA_MICROS;
+                }
+            }
+            return (FAIXAS + 1L) * LARGURA_FAIXA_MICROS;
+        }
+    }
+}
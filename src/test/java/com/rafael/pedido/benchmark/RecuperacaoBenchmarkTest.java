@@ -0,0 +1,83 @@
+package com.rafael.pedido.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.persistencia.ModoDurabilidade;
+import com.rafael.pedido.repository.persistencia.PedidoLog;
+
+/**
+ * Mede o tempo de recuperação dos pedidos na inicialização, comparando a
+ * releitura do log completo com a carga do snapshot seguida do final do log.
+ * Executado somente quando a propriedade {@code benchmark} estiver habilitada.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecuperacaoBenchmarkTest {
+
+    private static final int TAMANHO_FINAL_DO_LOG = 10_000;
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Grava a quantidade informada de pedidos, mede a recuperação pelo log
+     * completo, compacta o log e mede a recuperação pelo snapshot.
+     *
+     * @param quantidade a quantidade de pedidos gravados.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = { 1_000_000, 10_000_000 })
+    void medirTempoDeRecuperacao(int quantidade) throws IOException {
+        try (PedidoLog log = novoLog()) {
+            for (int i = 0; i < quantidade; i++) {
+                log.registrar(novoPedido(i));
+            }
+        }
+
+        Map<String, Pedido> pedidos = new HashMap<>(quantidade * 2);
+        long inicio = System.nanoTime();
+        try (PedidoLog log = novoLog()) {
+            log.recuperar(pedido -> pedidos.put(pedido.getId(), pedido));
+            long tempoLogCompleto = System.nanoTime() - inicio;
+
+            log.compactar(pedidos.values());
+            for (int i = quantidade; i < quantidade + TAMANHO_FINAL_DO_LOG; i++) {
+                log.registrar(novoPedido(i));
+            }
+            imprimir(quantidade, "log completo", tempoLogCompleto);
+        }
+        pedidos.clear();
+
+        inicio = System.nanoTime();
+        try (PedidoLog log = novoLog()) {
+            log.recuperar(pedido -> pedidos.put(pedido.getId(), pedido));
+        }
+        imprimir(quantidade, "snapshot + final do log", System.nanoTime() - inicio);
+
+        assertEquals(quantidade + TAMANHO_FINAL_DO_LOG, pedidos.size());
+    }
+
+    private PedidoLog novoLog() throws IOException {
+        return new PedidoLog(diretorio, ModoDurabilidade.ASSINCRONO, Duration.ofMillis(10));
+    }
+
+    private static Pedido novoPedido(int indice) {
+        return new Pedido("pedido-" + indice, "Cliente " + (indice % 10_000), 1_000 + indice % 100_000);
+    }
+
+    private static void imprimir(int quantidade, String origem, long nanos) {
+        System.out.printf("Recuperação de %,d pedidos (%s): %,d ms%n", quantidade, origem,
+                Duration.ofNanos(nanos).toMillis());
+    }
+}
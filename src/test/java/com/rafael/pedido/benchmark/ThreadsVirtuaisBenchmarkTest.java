@@ -0,0 +1,178 @@
+package com.rafael.pedido.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.rafael.pedido.PedidoApp;
+
+/**
+ * Compara a vazão e a latência p99 da criação de pedidos com as threads de
+ * plataforma do Tomcat e com threads virtuais, mantendo 10.000 conexões
+ * simultâneas. O log de pedidos fica habilitado no modo GRUPO, de forma que
+ * cada requisição aguarde o disco, como aguardaria um broker ou um banco.
+ * Executado somente quando a propriedade {@code benchmark} estiver habilitada,
+ * em Java 21 ou superior e com um limite de arquivos abertos acima de 20.000.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class ThreadsVirtuaisBenchmarkTest {
+
+    private static final int CONEXOES = 10_000;
+    private static final Duration AQUECIMENTO = Duration.ofSeconds(10);
+    private static final Duration MEDICAO = Duration.ofSeconds(30);
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Inicia a aplicação no modo informado, aquece e mede a criação de
+     * pedidos com todas as conexões ativas durante o tempo de medição.
+     *
+     * @param threadsVirtuais se as requisições e o publicador usam threads
+     *                        virtuais.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void medirVazaoELatencia(boolean threadsVirtuais) throws InterruptedException {
+        try (ConfigurableApplicationContext contexto = iniciar(threadsVirtuais)) {
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            Carga carga = new Carga(URI.create("http://localhost:" + porta + "/pedidos"));
+
+            carga.executar(AQUECIMENTO);
+            Resultado resultado = carga.executar(MEDICAO);
+
+            System.out.printf("Threads %s com %,d conexões: %,.0f pedidos/s, p99 de %.1f ms, %,d falhas%n",
+                    threadsVirtuais ? "virtuais" : "de plataforma", CONEXOES,
+                    resultado.concluidos() / (resultado.nanos() / 1e9), resultado.p99Micros() / 1_000.0,
+                    resultado.falhas());
+            assertTrue(resultado.concluidos() > 0);
+        }
+    }
+
+    private ConfigurableApplicationContext iniciar(boolean threadsVirtuais) {
+        Path diretorioLog = diretorio.resolve(threadsVirtuais ? "virtuais" : "plataforma");
+        return new SpringApplicationBuilder(PedidoApp.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + threadsVirtuais,
+                        "server.tomcat.max-connections=" + 2 * CONEXOES,
+                        "server.tomcat.accept-count=" + CONEXOES,
+                        "server.tomcat.max-keep-alive-requests=-1",
+                        "pedido.admissao.habilitada=false",
+                        "pedido.persistencia.habilitada=true",
+                        "pedido.persistencia.diretorio=" + diretorioLog,
+                        "pedido.persistencia.modo-durabilidade=GRUPO",
+                        "pedido.persistencia.atraso-maximo=5ms")
+                .run();
+    }
+
+    /**
+     * Resultado de uma execução da carga.
+     *
+     * @param concluidos a quantidade de pedidos criados.
+     * @param falhas     a quantidade de requisições com erro ou status
+     *                   diferente de 201.
+     * @param p99Micros  a latência p99, em microssegundos.
+     * @param nanos      a duração da execução, até a última resposta.
+     */
+    private record Resultado(long concluidos, long falhas, long p99Micros, long nanos) {
+    }
+
+    /**
+     * Carga em laço fechado: cada conexão envia uma nova requisição assim que
+     * recebe a resposta da anterior. As latências são acumuladas em um
+     * histograma com faixas de 100 microssegundos.
+     */
+    private static final class Carga {
+
+        private static final int LARGURA_FAIXA_MICROS = 100;
+        private static final int FAIXAS = 100_000;
+
+        private final HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        private final URI uri;
+        private final AtomicLong proximoId = new AtomicLong();
+
+        private AtomicLongArray histograma;
+        private LongAdder concluidos;
+        private LongAdder falhas;
+
+        Carga(URI uri) {
+            this.uri = uri;
+        }
+
+        Resultado executar(Duration duracao) throws InterruptedException {
+            histograma = new AtomicLongArray(FAIXAS + 1);
+            concluidos = new LongAdder();
+            falhas = new LongAdder();
+
+            long inicio = System.nanoTime();
+            long fim = inicio + duracao.toNanos();
+            CountDownLatch conexoesEncerradas = new CountDownLatch(CONEXOES);
+            for (int i = 0; i < CONEXOES; i++) {
+                enviar(fim, conexoesEncerradas);
+            }
+            conexoesEncerradas.await();
+            return new Resultado(concluidos.sum(), falhas.sum(), percentil(0.99), System.nanoTime() - inicio);
+        }
+
+        private void enviar(long fim, CountDownLatch conexoesEncerradas) {
+            if (System.nanoTime() >= fim) {
+                conexoesEncerradas.countDown();
+                return;
+            }
+
+            long id = proximoId.getAndIncrement();
+            HttpRequest requisicao = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"id\":\"" + id + "\",\"cliente\":\"Cliente " + id % 10_000 + "\",\"valorTotal\":10.0}"))
+                    .build();
+            long inicio = System.nanoTime();
+            cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding()).whenComplete((resposta, erro) -> {
+                if (erro == null && resposta.statusCode() == 201) {
+                    long micros = (System.nanoTime() - inicio) / 1_000;
+                    histograma.incrementAndGet((int) Math.min(micros / LARGURA_FAIXA_MICROS, FAIXAS));
+                    concluidos.increment();
+                } else {
+                    falhas.increment();
+                }
+                enviar(fim, conexoesEncerradas);
+            });
+        }
+
+        private long percentil(double percentil) {
+            long alvo = (long) Math.ceil(concluidos.sum() * percentil);
+            long acumulado = 0;
+            for (int faixa = 0; faixa <= FAIXAS; faixa++) {
+                acumulado += histograma.get(faixa);
+                if (acumulado >= alvo) {
+                    return (faixa + 1L) * LARGURA_FAIXA_MICROS;
+                }
+            }
+            return (FAIXAS + 1L) * LARGURA_FAIXA_MICROS;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.rafael.pedido.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.exception.ErrorResponse;
+
+/**
+ * Classe de teste para o PedidoBinarioCodec.
+ * Verifica se os pedidos são lidos como foram escritos, se o formato é menor
+ * que o JSON e se conteúdos truncados ou malformados são recusados.
+ */
+class PedidoBinarioCodecTest {
+
+    /**
+     * Testa a escrita e a leitura de pedidos com textos acentuados, emojis,
+     * campos nulos e valores extremos.
+     * Verifica se o pedido lido é igual ao escrito.
+     */
+    @Test
+    void deveLerPedidoEscrito_quandoEscreverPedido() {
+        List<PedidoDTO> pedidos = List.of(
+                new PedidoDTO("1", "Cliente", 1_000),
+                new PedidoDTO("pedido-ç", "João \"Zé\" da Silva\n", 19_999),
+                new PedidoDTO("emoji-😀", "日本語", 5),
+                new PedidoDTO(null, null, 0),
+                new PedidoDTO("", "", -1_050),
+                new PedidoDTO("maximo", "Cliente", Long.MAX_VALUE),
+                new PedidoDTO("minimo", "Cliente", Long.MIN_VALUE),
+                new PedidoDTO("x".repeat(300), "Cliente", 63));
+
+        for (PedidoDTO pedido : pedidos) {
+            byte[] conteudo = PedidoBinarioCodec.escrever(pedido);
+
+            assertEquals(pedido, PedidoBinarioCodec.lerPedido(conteudo, 0, conteudo.length));
+        }
+    }
+
+    /**
+     * Testa o tamanho de um pedido típico nos dois formatos.
+     * Verifica se o formato binário ocupa pouco mais que o ID e o cliente e
+     * menos que o JSON.
+     */
+    @Test
+    void deveSerMenorQueJson_quandoEscreverPedidoTipico() {
+        PedidoDTO pedido = new PedidoDTO("3f2b8c1e-pedido-123456", "Cliente de Exemplo", 123_456);
+
+        byte[] binario = PedidoBinarioCodec.escrever(pedido);
+
+        assertEquals(1 + 22 + 1 + 18 + 3, binario.length);
+        assertTrue(binario.length * 3 < PedidoJsonCodec.escrever(pedido).length * 2);
+    }
+
+    /**
+     * Testa a escrita de uma resposta de erro.
+     * Verifica os bytes do horário, da mensagem e do status.
+     */
+    @Test
+    void deveEscreverHorarioMensagemEStatus_quandoEscreverErro() {
+        ErrorResponse erro = new ErrorResponse("Não", 404) {
+            @Override
+            public LocalDateTime getHorario() {
+                return LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+            }
+        };
+
+        byte[] esperado = { 20, '2', '0', '2', '5', '-', '0', '1', '-', '0', '2', 'T', '0', '3', ':', '0', '4', ':',
+                '0', '5', 5, 'N', (byte) 0xc3, (byte) 0xa3, 'o', (byte) 0x94, 0x03 };
+
+        assertArrayEquals(esperado, PedidoBinarioCodec.escrever(erro));
+    }
+
+    /**
+     * Testa a leitura de conteúdos truncados, com tamanhos inválidos ou com
+     * bytes depois do pedido.
+     * Verifica se todos são recusados.
+     */
+    @Test
+    void deveRecusarConteudo_quandoConteudoInvalido() {
+        byte[] valido = PedidoBinarioCodec.escrever(new PedidoDTO("1", "Cliente", 1_000));
+        List<byte[]> conteudos = List.of(
+                new byte[0],
+                new byte[] { 2, '1' },
+                Arrays.copyOf(valido, valido.length - 1),
+                Arrays.copyOf(valido, valido.length + 1),
+                new byte[] { 100, '1' },
+                new byte[] { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+                        (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x01 },
+                new byte[] { 1, 1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80,
+                        (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01 });
+
+        for (byte[] conteudo : conteudos) {
+            assertThrows(BinarioInvalidoException.class,
+                    () -> PedidoBinarioCodec.lerPedido(conteudo, 0, conteudo.length));
+        }
+    }
+}
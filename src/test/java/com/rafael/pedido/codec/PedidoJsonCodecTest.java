@@ -0,0 +1,145 @@
+package com.rafael.pedido.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.exception.ErrorResponse;
+
+/**
+ * Classe de teste para o PedidoJsonCodec.
+ * Verifica se o JSON escrito é idêntico ao do ObjectMapper do Spring Boot e se
+ * a leitura aceita e recusa os mesmos documentos.
+ */
+class PedidoJsonCodecTest {
+
+    private final ObjectMapper mapeador = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    /**
+     * Testa a escrita de pedidos com textos acentuados, escapes, emojis,
+     * campos nulos e valores negativos.
+     * Verifica se os bytes são idênticos aos do ObjectMapper.
+     */
+    @Test
+    void deveEscreverMesmosBytesDoJackson_quandoEscreverPedido() throws IOException {
+        List<PedidoDTO> pedidos = List.of(
+                new PedidoDTO("1", "Cliente", 1_000),
+                new PedidoDTO("pedido-ç", "João \"Zé\" da Silva\\ \n\t\r\b\f\u0001\u001f\u007f", 19_999),
+                new PedidoDTO("emoji-\uD83D\uDE00", "日本語 / <tag> &", 5),
+                new PedidoDTO("metade-\uD800", "\uDC00-isolada", 7),
+                new PedidoDTO(null, null, 0),
+                new PedidoDTO("negativo", "", -1_050),
+                new PedidoDTO("maximo", "Cliente", Long.MAX_VALUE));
+
+        for (PedidoDTO pedido : pedidos) {
+            ByteArrayOutputStream saida = new ByteArrayOutputStream();
+            PedidoJsonCodec.escrever(pedido, saida);
+
+            assertArrayEquals(mapeador.writeValueAsBytes(pedido), saida.toByteArray(), pedido.toString());
+            assertArrayEquals(mapeador.writeValueAsBytes(pedido), PedidoJsonCodec.escrever(pedido));
+        }
+    }
+
+    /**
+     * Testa a escrita de respostas de erro com horários com e sem fração de
+     * segundo.
+     * Verifica se os bytes são idênticos aos do ObjectMapper.
+     */
+    @Test
+    void deveEscreverMesmosBytesDoJackson_quandoEscreverErro() throws IOException {
+        List<LocalDateTime> horarios = List.of(
+                LocalDateTime.of(2025, 1, 2, 3, 4),
+                LocalDateTime.of(2025, 12, 31, 23, 59, 59, 100_000_000),
+                LocalDateTime.of(2025, 6, 15, 10, 0, 0, 123_456_789),
+                LocalDateTime.of(2025, 6, 15, 10, 0, 0, 1_000));
+
+        for (LocalDateTime horario : horarios) {
+            ErrorResponse erro = new ErrorResponse("Pedido não encontrado: \"1\"", 404) {
+                @Override
+                public LocalDateTime getHorario() {
+                    return horario;
+                }
+            };
+            ByteArrayOutputStream saida = new ByteArrayOutputStream();
+            PedidoJsonCodec.escrever(erro, saida);
+
+            assertEquals(mapeador.writeValueAsString(erro), saida.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Testa a leitura de pedidos nos formatos aceitos pelo ObjectMapper.
+     * Verifica se os pedidos lidos são iguais aos do ObjectMapper.
+     */
+    @Test
+    void deveLerMesmoPedidoDoJackson_quandoDocumentoValido() throws IOException {
+        List<String> documentos = List.of(
+                "{\"id\":\"1\",\"cliente\":\"Cliente\",\"valorTotal\":10.5}",
+                " {\n \"valorTotal\" : 1234 , \"cliente\" : \"Jo\\u00e3o \\\"Z\\u00e9\\\" \\/ \\n\" , \"id\" : \"a\" } ",
+                "{\"id\":123,\"cliente\":true,\"valorTotal\":0.01}",
+                "{\"id\":\"1\",\"extra\":{\"a\":[1,2.5e3,\"x\",null,false,{}]},\"valorTotal\":1.2e2}",
+                "{\"id\":\"emoji-\\ud83d\\ude00\",\"cliente\":\"日本語\",\"valorTotal\":10.500}",
+                "{\"id\":\"1\",\"valorTotal\":null}",
+                "{\"id\":\"1\",\"valorTotal\":-0.5}",
+                "{\"id\":\"1\",\"valorTotal\":9999999999999999.99}",
+                "{\"id\":\"1\",\"valorTotal\":92233720368547758}",
+                "{}");
+
+        for (String documento : documentos) {
+            byte[] json = documento.getBytes(StandardCharsets.UTF_8);
+
+            assertEquals(mapeador.readValue(json, PedidoDTO.class), PedidoJsonCodec.lerPedido(json, 0, json.length),
+                    documento);
+        }
+        assertNull(PedidoJsonCodec.lerPedido("null".getBytes(StandardCharsets.UTF_8), 0, 4));
+    }
+
+    /**
+     * Testa a leitura de documentos malformados ou com valores inválidos.
+     * Verifica se todos são recusados, como no ObjectMapper.
+     */
+    @Test
+    void deveRecusarDocumento_quandoDocumentoInvalido() {
+        List<String> documentos = List.of(
+                "",
+                "[]",
+                "{\"id\":\"1\"",
+                "{\"id\":\"1\",}",
+                "{\"id\":\"1\" \"cliente\":\"C\"}",
+                "{\"id\":\"sem fim}",
+                "{\"id\":\"\\x\"}",
+                "{\"id\":[\"1\"]}",
+                "{\"id\":\"1\",\"valorTotal\":10.005}",
+                "{\"id\":\"1\",\"valorTotal\":\"10.00\"}",
+                "{\"id\":\"1\",\"valorTotal\":01}",
+                "{\"id\":\"1\",\"valorTotal\":1.}",
+                "{\"id\":\"1\",\"valorTotal\":99999999999999999.99}",
+                "{\"id\":\"1\",\"valorTotal\":999999999999999999999}",
+                "{\"id\":\"1\",\"valorTotal\":1e999999999}",
+                "{\"id\":\"1\",\"extra\":tru}",
+                "{\"id\":\"quebra\nde linha\"}");
+
+        for (String documento : documentos) {
+            byte[] json = documento.getBytes(StandardCharsets.UTF_8);
+
+            assertThrows(IOException.class, () -> mapeador.readValue(json, PedidoDTO.class), documento);
+            assertThrows(JsonInvalidoException.class, () -> PedidoJsonCodec.lerPedido(json, 0, json.length),
+                    documento);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.rafael.pedido.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.service.PedidoService;
+import com.rafael.pedido.service.ResultadoConsulta;
+import com.rafael.pedido.service.ResultadoCriacao;
+
+/**
+ * Classe de teste para o controlador reativo de pedidos.
+ * Verifica se os endpoints respondem como no PedidoController com a aplicação
+ * no Spring WebFlux.
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+class PedidoControllerReativoTest {
+
+    @Autowired
+    private WebTestClient cliente;
+    @MockitoBean
+    private PedidoService service;
+
+    /**
+     * Testa a criação de um pedido com dados válidos.
+     * Verifica se a resposta aguarda a publicação e se o status é 201 Created.
+     */
+    @Test
+    void deveCriarPedido_quandoPedidoPublicado() {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 1_000);
+        when(service.criarPedidoAssincrono(pedidoDTO))
+                .thenReturn(CompletableFuture.completedFuture(new ResultadoCriacao.Criado(pedidoDTO)));
+
+        cliente.post().uri("/pedidos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        { "id": "1", "cliente": "Cliente", "valorTotal": 10.00 }
+                        """)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.valorTotal").isEqualTo(10.0);
+    }
+
+    /**
+     * Testa a criação de pedidos inválidos e duplicados.
+     * Verifica se o status da resposta é 422 Unprocessable Entity para o
+     * pedido inválido, 400 Bad Request para o JSON malformado e 409 Conflict
+     * para o duplicado.
+     */
+    @Test
+    void deveRetornarErro_quandoPedidoInvalidoOuDuplicado() {
+        when(service.criarPedidoAssincrono(any()))
+                .thenReturn(CompletableFuture.completedFuture(new ResultadoCriacao.Duplicado("1")));
+
+        cliente.post().uri("/pedidos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        { "id": "1", "cliente": "", "valorTotal": 10.00 }
+                        """)
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody().jsonPath("$.status").isEqualTo(422);
+
+        cliente.post().uri("/pedidos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{ \"id\": ")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.status").isEqualTo(400);
+
+        cliente.post().uri("/pedidos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new PedidoDTO("1", "Cliente", 1_000))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    /**
+     * Testa o reenvio de uma criação com a mesma chave de idempotência.
+     * Verifica se o pedido é criado uma única vez e se o reenvio recebe a
+     * resposta original.
+     */
+    @Test
+    void deveRepetirResposta_quandoCriacaoReenviadaComMesmaChave() {
+        PedidoDTO pedidoDTO = new PedidoDTO("idempotente-reativo", "Cliente", 1_000);
+        when(service.criarPedidoAssincrono(pedidoDTO))
+                .thenReturn(CompletableFuture.completedFuture(new ResultadoCriacao.Criado(pedidoDTO)));
+
+        for (int i = 0; i < 2; i++) {
+            WebTestClient.ResponseSpec resposta = cliente.post().uri("/pedidos")
+                    .header(PedidoController.IDEMPOTENCY_KEY, "chave-reativa")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(pedidoDTO)
+                    .exchange()
+                    .expectStatus().isCreated();
+            if (i == 0) {
+                resposta.expectHeader().doesNotExist(PedidoController.IDEMPOTENT_REPLAYED);
+            } else {
+                resposta.expectHeader().valueEquals(PedidoController.IDEMPOTENT_REPLAYED, "true");
+            }
+        }
+
+        verify(service, times(1)).criarPedidoAssincrono(pedidoDTO);
+    }
+
+    /**
+     * Testa a consulta de um pedido existente e a consulta condicional.
+     * Verifica se o pedido é retornado com o ETag da versão e se o mesmo ETag
+     * recebe 304 Not Modified.
+     */
+    @Test
+    void deveRetornar304_quandoEtagCorresponderAVersaoDoPedido() {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 50_000);
+        when(service.consultar("1")).thenReturn(new ResultadoConsulta.Encontrado(pedidoDTO, 0xabcL));
+
+        cliente.get().uri("/pedidos/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"abc\"")
+                .expectBody().jsonPath("$.valorTotal").isEqualTo(500.0);
+
+        cliente.get().uri("/pedidos/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"abc\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    /**
+     * Testa a consulta de um pedido inexistente.
+     * Verifica se o status da resposta é 404 Not Found.
+     */
+    @Test
+    void deveRetornar404_quandoPedidoNaoEncontrado() {
+        when(service.consultar("2")).thenReturn(new ResultadoConsulta.NaoEncontrado("2"));
+
+        cliente.get().uri("/pedidos/2")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.status").isEqualTo(404);
+    }
+}
@@ -1,24 +1,49 @@
 package com.rafael.pedido.controller;
 
+import com.rafael.pedido.codec.PedidoBinarioCodec;
+import com.rafael.pedido.codec.PedidoBinarioHttpMessageConverter;
+import com.rafael.pedido.dto.ItemLoteDTO;
+import com.rafael.pedido.dto.PaginaPedidosDTO;
 import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.dto.ResultadoBuscaDTO;
+import com.rafael.pedido.dto.ResultadoLoteDTO;
+import com.rafael.pedido.dto.StatusItemLote;
+import com.rafael.pedido.service.ExportadorPedidos;
 import com.rafael.pedido.service.PedidoService;
+import com.rafael.pedido.service.ResultadoConsulta;
+import com.rafael.pedido.service.ResultadoCriacao;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-import java.util.NoSuchElementException;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Classe de teste para o controlador de pedidos.
@@ -32,6 +57,10 @@ public class PedidoControllerTest {
     private MockMvc mockMvc;
     @MockitoBean
     private PedidoService service;
+    @MockitoBean
+    private ExportadorPedidos exportador;
+    @Autowired
+    private MeterRegistry meterRegistry;
     private ObjectMapper objectMapper;
 
     @BeforeEach
@@ -46,9 +75,9 @@ public class PedidoControllerTest {
      */
     @Test
     public void deveCriarPedido_quandoDadosValidos() throws Exception {
-        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 10.0);
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 1_000);
 
-        when(service.criarPedido(any())).thenReturn(pedidoDTO);
+        when(service.criarPedido(any())).thenReturn(new ResultadoCriacao.Criado(pedidoDTO));
 
         mockMvc.perform(post("/pedidos")
                 .content(objectMapper.writeValueAsString(pedidoDTO))
@@ -56,7 +85,273 @@ public class PedidoControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value("1"))
                 .andExpect(jsonPath("$.cliente").value("Cliente"))
-                .andExpect(jsonPath("$.valorTotal").value("10.0"));
+                .andExpect(jsonPath("$.valorTotal").value(10.0));
+    }
+
+    /**
+     * Testa a conversão do valor total decimal recebido no JSON para centavos.
+     * Verifica se o valor chega ao serviço em centavos, sem arredondamento, e
+     * se é devolvido com duas casas decimais.
+     */
+    @Test
+    public void deveConverterValorTotalParaCentavos_quandoValorDecimal() throws Exception {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 1_999);
+
+        when(service.criarPedido(pedidoDTO)).thenReturn(new ResultadoCriacao.Criado(pedidoDTO));
+
+        mockMvc.perform(post("/pedidos")
+                .content("""
+                        { "id": "1", "cliente": "Cliente", "valorTotal": 19.99 }
+                        """)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(content().string(containsString("\"valorTotal\":19.99")));
+    }
+
+    /**
+     * Testa a criação de um pedido com mais de duas casas decimais no valor
+     * total.
+     * Verifica se o status da resposta é 400 Bad Request.
+     */
+    @Test
+    public void deveRetornar400_quandoValorTotalTiverMaisDeDuasCasasDecimais() throws Exception {
+        mockMvc.perform(post("/pedidos")
+                .content("""
+                        { "id": "1", "cliente": "Cliente", "valorTotal": 10.005 }
+                        """)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    /**
+     * Testa o reenvio de uma criação com a mesma chave de idempotência.
+     * Verifica se o pedido é criado uma única vez e se o reenvio recebe a
+     * resposta original com o status 201 Created.
+     */
+    @Test
+    public void deveRepetirResposta_quandoCriacaoReenviadaComMesmaChave() throws Exception {
+        PedidoDTO pedidoDTO = new PedidoDTO("idempotente", "Cliente", 1_000);
+        when(service.criarPedido(pedidoDTO)).thenReturn(new ResultadoCriacao.Criado(pedidoDTO));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/pedidos")
+                    .header(PedidoController.IDEMPOTENCY_KEY, "chave-reenvio")
+                    .content(objectMapper.writeValueAsString(pedidoDTO))
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated())
+                    .andExpect(i == 0
+                            ? header().doesNotExist(PedidoController.IDEMPOTENT_REPLAYED)
+                            : header().string(PedidoController.IDEMPOTENT_REPLAYED, "true"))
+                    .andExpect(jsonPath("$.id").value("idempotente"));
+        }
+
+        verify(service, times(1)).criarPedido(pedidoDTO);
+    }
+
+    /**
+     * Testa o reenvio de uma chave de idempotência com outro pedido.
+     * Verifica se o status da resposta é 422 Unprocessable Entity.
+     */
+    @Test
+    public void deveRetornar422_quandoChaveReutilizadaComOutroPedido() throws Exception {
+        PedidoDTO pedidoDTO = new PedidoDTO("idempotente-2", "Cliente", 1_000);
+        when(service.criarPedido(any())).thenReturn(new ResultadoCriacao.Criado(pedidoDTO));
+
+        mockMvc.perform(post("/pedidos")
+                .header(PedidoController.IDEMPOTENCY_KEY, "chave-reutilizada")
+                .content(objectMapper.writeValueAsString(pedidoDTO))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/pedidos")
+                .header(PedidoController.IDEMPOTENCY_KEY, "chave-reutilizada")
+                .content(objectMapper.writeValueAsString(new PedidoDTO("idempotente-2", "Cliente", 2_000)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status").value(422));
+    }
+
+    /**
+     * Testa a criação de um lote de pedidos.
+     * Verifica se o status da resposta é 200 OK e se o resultado de cada pedido
+     * é retornado, mesmo quando há pedidos inválidos no lote.
+     */
+    @Test
+    public void deveRetornarResultadoDoLote_quandoLoteEnviado() throws Exception {
+        List<PedidoDTO> lote = List.of(new PedidoDTO("1", "Cliente", 1_000), new PedidoDTO("2", "", 2_000));
+        ResultadoLoteDTO resultado = new ResultadoLoteDTO(List.of(
+                new ItemLoteDTO(0, "1", StatusItemLote.CRIADO, null),
+                new ItemLoteDTO(1, "2", StatusItemLote.INVALIDO, "Cliente não pode ser nulo ou vazio.")));
+
+        when(service.criarPedidos(any())).thenReturn(resultado);
+
+        mockMvc.perform(post("/pedidos/lote")
+                .content(objectMapper.writeValueAsString(lote))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.criados").value(1))
+                .andExpect(jsonPath("$.invalidos").value(1))
+                .andExpect(jsonPath("$.itens[1].status").value("INVALIDO"))
+                .andExpect(jsonPath("$.itens[1].indice").value(1));
+    }
+
+    /**
+     * Testa a criação de um lote de pedidos vazio.
+     * Verifica se o status da resposta é 400 Bad Request.
+     */
+    @Test
+    public void deveRetornar400_quandoLoteVazio() throws Exception {
+        when(service.criarPedidos(any()))
+                .thenThrow(new IllegalArgumentException("O lote deve conter ao menos um pedido."));
+
+        mockMvc.perform(post("/pedidos/lote")
+                .content("[]")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    /**
+     * Testa a consulta de vários pedidos pelos IDs.
+     * Verifica se o status da resposta é 200 OK e se os pedidos encontrados e os
+     * IDs ausentes são retornados.
+     */
+    @Test
+    public void deveRetornarEncontradosEAusentes_quandoConsultarVariosPedidos() throws Exception {
+        ResultadoBuscaDTO resultado = new ResultadoBuscaDTO(List.of(new PedidoDTO("1", "Cliente", 50_000)),
+                List.of("999"));
+
+        when(service.consultarPedidos(List.of("1", "999"))).thenReturn(resultado);
+
+        mockMvc.perform(post("/pedidos/busca")
+                .content(objectMapper.writeValueAsString(List.of("1", "999")))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.encontrados[0].id").value("1"))
+                .andExpect(jsonPath("$.encontrados[0].valorTotal").value(500.0))
+                .andExpect(jsonPath("$.ausentes[0]").value("999"));
+    }
+
+    /**
+     * Testa a listagem dos pedidos de um cliente.
+     * Verifica se o status da resposta é 200 OK e se a página e o cursor da
+     * próxima página são retornados.
+     */
+    @Test
+    public void deveRetornarPaginaDePedidos_quandoConsultarPorCliente() throws Exception {
+        PaginaPedidosDTO pagina = new PaginaPedidosDTO(List.of(new PedidoDTO("2", "Cliente", 1_000)), "2");
+
+        when(service.consultarPorCliente("Cliente", "1", 1)).thenReturn(pagina);
+
+        mockMvc.perform(get("/pedidos")
+                .param("cliente", "Cliente")
+                .param("cursor", "1")
+                .param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pedidos[0].id").value("2"))
+                .andExpect(jsonPath("$.proximoCursor").value("2"));
+    }
+
+    /**
+     * Testa a listagem dos pedidos de uma faixa de valores.
+     * Verifica se o status da resposta é 200 OK e se a página e o cursor da
+     * próxima página são retornados.
+     */
+    @Test
+    public void deveRetornarPaginaDePedidos_quandoConsultarPorValor() throws Exception {
+        PaginaPedidosDTO pagina = new PaginaPedidosDTO(List.of(new PedidoDTO("1", "Cliente", 1_500)), "1500:1");
+
+        when(service.consultarPorValor(new BigDecimal("10.00"), new BigDecimal("50"), null, 1)).thenReturn(pagina);
+
+        mockMvc.perform(get("/pedidos")
+                .param("valorMinimo", "10.00")
+                .param("valorMaximo", "50")
+                .param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pedidos[0].valorTotal").value(15.0))
+                .andExpect(jsonPath("$.proximoCursor").value("1500:1"));
+    }
+
+    /**
+     * Testa a listagem dos pedidos de maior valor.
+     * Verifica se o status da resposta é 200 OK e se os pedidos são retornados.
+     */
+    @Test
+    public void deveRetornarMaioresPedidos_quandoConsultarMaiores() throws Exception {
+        when(service.consultarMaiores(2)).thenReturn(
+                List.of(new PedidoDTO("2", "Cliente", 3_000), new PedidoDTO("1", "Cliente", 2_000)));
+
+        mockMvc.perform(get("/pedidos").param("maiores", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("2"))
+                .andExpect(jsonPath("$[1].id").value("1"));
+    }
+
+    /**
+     * Testa a listagem de pedidos sem nenhum parâmetro de consulta.
+     * Verifica se o status da resposta é 400 Bad Request.
+     */
+    @Test
+    public void deveRetornar400_quandoListarPedidosSemParametros() throws Exception {
+        mockMvc.perform(get("/pedidos"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    /**
+     * Testa a exportação dos pedidos.
+     * Verifica se a exportação é retomada a partir do ID informado e se a
+     * resposta é NDJSON sem compactação quando o cliente não aceita gzip.
+     */
+    @Test
+    public void deveExportarPedidos_quandoRetomarExportacao() throws Exception {
+        String linha = "{\"id\":\"3\",\"cliente\":\"Cliente\",\"valorTotal\":10.00}\n";
+        when(exportador.exportar(eq("2"), any())).thenAnswer(invocacao -> {
+            invocacao.getArgument(1, OutputStream.class).write(linha.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        mockMvc.perform(get("/pedidos/exportacao").param("aposId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(linha));
+    }
+
+    /**
+     * Testa a exportação dos pedidos com compactação.
+     * Verifica se a resposta é compactada com gzip quando o cliente o aceita.
+     */
+    @Test
+    public void deveCompactarExportacao_quandoClienteAceitaGzip() throws Exception {
+        String linha = "{\"id\":\"1\",\"cliente\":\"Cliente\",\"valorTotal\":10.00}\n";
+        when(exportador.exportar(eq(null), any())).thenAnswer(invocacao -> {
+            invocacao.getArgument(1, OutputStream.class).write(linha.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        byte[] corpo = mockMvc.perform(get("/pedidos/exportacao").header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(corpo))) {
+            assertEquals(linha, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Testa a listagem dos pedidos de um cliente com limite inválido.
+     * Verifica se o status da resposta é 400 Bad Request.
+     */
+    @Test
+    public void deveRetornar400_quandoLimiteNaoNumerico() throws Exception {
+        mockMvc.perform(get("/pedidos")
+                .param("cliente", "Cliente")
+                .param("limite", "muitos"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
     }
 
     /**
@@ -66,16 +361,128 @@ public class PedidoControllerTest {
      */
     @Test
     public void deveRetornarPedido_quandoPedidoExistente() throws Exception {
-        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 500.0);
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 50_000);
 
-        when(service.consultar("1")).thenReturn(pedidoDTO);
+        when(service.consultar("1")).thenReturn(new ResultadoConsulta.Encontrado(pedidoDTO, 0xabcL));
 
         mockMvc.perform(get("/pedidos/1")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"))
                 .andExpect(jsonPath("$.id").value("1"))
                 .andExpect(jsonPath("$.cliente").value("Cliente"))
-                .andExpect(jsonPath("$.valorTotal").value("500.0"));
+                .andExpect(jsonPath("$.valorTotal").value(500.0));
+    }
+
+    /**
+     * Testa a consulta condicional de um pedido com o ETag da versão atual.
+     * Verifica se o status da resposta é 304 Not Modified, sem corpo, e se
+     * um ETag diferente recebe o pedido novamente.
+     */
+    @Test
+    public void deveRetornar304_quandoEtagCorresponderAVersaoDoPedido() throws Exception {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 50_000);
+        when(service.consultar("1")).thenReturn(new ResultadoConsulta.Encontrado(pedidoDTO, 0xabcL));
+
+        mockMvc.perform(get("/pedidos/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"123\", W/\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/pedidos/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"123\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("1"));
+    }
+
+    /**
+     * Testa a consulta do mesmo pedido em JSON e no formato binário.
+     * Verifica se cada formato recebe o seu próprio ETag, se as respostas 200
+     * e 304 trazem Vary: Accept e se o ETag de um formato não valida o outro.
+     */
+    @Test
+    void deveVariarEtagPeloFormato_quandoPedidoConsultadoEmJsonEBinario() throws Exception {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 50_000);
+        when(service.consultar("1")).thenReturn(new ResultadoConsulta.Encontrado(pedidoDTO, 0xabcL));
+        String etagBinario = "\"abc-x-pedido\"";
+
+        mockMvc.perform(get("/pedidos/1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+
+        mockMvc.perform(get("/pedidos/1")
+                .accept(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO))
+                .andExpect(content().bytes(PedidoBinarioCodec.escrever(pedidoDTO)))
+                .andExpect(header().string(HttpHeaders.ETAG, etagBinario))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+
+        mockMvc.perform(get("/pedidos/1")
+                .accept(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO));
+
+        mockMvc.perform(get("/pedidos/1")
+                .accept(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO)
+                .header(HttpHeaders.IF_NONE_MATCH, etagBinario))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etagBinario))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+
+        mockMvc.perform(get("/pedidos/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, etagBinario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("1"));
+    }
+
+    /**
+     * Testa a criação de um pedido no formato binário.
+     * Verifica se o status da resposta é 201 Created e se o pedido criado é
+     * respondido no mesmo formato.
+     */
+    @Test
+    void deveCriarPedido_quandoCorpoBinario() throws Exception {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 1_000);
+
+        when(service.criarPedido(pedidoDTO)).thenReturn(new ResultadoCriacao.Criado(pedidoDTO));
+
+        mockMvc.perform(post("/pedidos")
+                .content(PedidoBinarioCodec.escrever(pedidoDTO))
+                .contentType(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO)
+                .accept(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO))
+                .andExpect(content().bytes(PedidoBinarioCodec.escrever(pedidoDTO)));
+    }
+
+    /**
+     * Testa a criação de um pedido inválido no formato binário.
+     * Verifica se o pedido passa pela mesma validação do JSON, com status 422
+     * Unprocessable Entity, e se o conteúdo truncado recebe 400 Bad Request.
+     */
+    @Test
+    void deveValidarPedido_quandoCorpoBinario() throws Exception {
+        mockMvc.perform(post("/pedidos")
+                .content(PedidoBinarioCodec.escrever(new PedidoDTO("1", "", 15_000)))
+                .contentType(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO)
+                .accept(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(content().contentType(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO));
+
+        mockMvc.perform(post("/pedidos")
+                .content(new byte[] { 2, '1' })
+                .contentType(PedidoBinarioHttpMessageConverter.PEDIDO_BINARIO))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
     }
 
     /**
@@ -84,7 +491,7 @@ public class PedidoControllerTest {
      */
     @Test
     public void deveRetornar422_quandoIdForNulo() throws Exception {
-        PedidoDTO pedidoDTO = new PedidoDTO(null, "Cliente", 1000.0);
+        PedidoDTO pedidoDTO = new PedidoDTO(null, "Cliente", 100_000);
 
         when(service.criarPedido(any())).thenThrow(new IllegalArgumentException());
 
@@ -101,7 +508,7 @@ public class PedidoControllerTest {
      */
     @Test
     void deveRetornar422_quandoClienteForVazio() throws Exception {
-        PedidoDTO pedidoDTO = new PedidoDTO("1", "", 150.0);
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "", 15_000);
 
         mockMvc.perform(post("/pedidos")
                 .content(objectMapper.writeValueAsString(pedidoDTO))
@@ -110,13 +517,33 @@ public class PedidoControllerTest {
                 .andExpect(jsonPath("$.status").value(422));
     }
 
+    /**
+     * Testa as métricas da validação de um pedido.
+     * Verifica se o pedido inválido é contado e se a validação é medida.
+     */
+    @Test
+    void deveContarPedidoInvalido_quandoValidacaoFalhar() throws Exception {
+        Counter invalidos = meterRegistry.get("pedido.invalidos").counter();
+        Timer validacao = meterRegistry.get("pedido.etapa").tags("etapa", "validacao", "operacao", "criar").timer();
+        double invalidosAntes = invalidos.count();
+        long validacoesAntes = validacao.count();
+
+        mockMvc.perform(post("/pedidos")
+                .content(objectMapper.writeValueAsString(new PedidoDTO("1", "", 15_000)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertEquals(invalidosAntes + 1, invalidos.count());
+        assertEquals(validacoesAntes + 1, validacao.count());
+    }
+
     /**
      * Testa a criação de um pedido com valor total inválido.
      * Verifica se o status da resposta é 422 Unprocessable Entity.
      */
     @Test
     void deveRetornar422_quandoValorTotalForNegativo() throws Exception {
-        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", -120.0);
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", -12_000);
 
         mockMvc.perform(post("/pedidos")
                 .content(objectMapper.writeValueAsString(pedidoDTO))
@@ -131,7 +558,7 @@ public class PedidoControllerTest {
      */
     @Test
     void deveRetornar422_quandoIdEClienteForemInvalidos() throws Exception {
-        PedidoDTO pedidoDTO = new PedidoDTO("", "", 200.0);
+        PedidoDTO pedidoDTO = new PedidoDTO("", "", 20_000);
 
         mockMvc.perform(post("/pedidos")
                 .content(objectMapper.writeValueAsString(pedidoDTO))
@@ -145,7 +572,7 @@ public class PedidoControllerTest {
      */
     @Test
     void deveRetornar422_quandoClienteEValorTotalForemInvalidos() throws Exception {
-        PedidoDTO pedidoDTO = new PedidoDTO("1", "", 0.0);
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "", 0);
 
         mockMvc.perform(post("/pedidos")
                 .content(objectMapper.writeValueAsString(pedidoDTO))
@@ -160,7 +587,7 @@ public class PedidoControllerTest {
      */
     @Test
     void deveRetornar422_quandoTodosOsCamposForemInvalidos() throws Exception {
-        PedidoDTO pedidoDTO = new PedidoDTO("", null, -0.0);
+        PedidoDTO pedidoDTO = new PedidoDTO("", null, 0);
 
         mockMvc.perform(post("/pedidos")
                 .content(objectMapper.writeValueAsString(pedidoDTO))
@@ -175,8 +602,7 @@ public class PedidoControllerTest {
      */
     @Test
     public void deveRetornar422_quandoIdForVazio() throws Exception {
-        when(service.consultar(" "))
-                .thenThrow(new NoSuchElementException("Pedido não encontrado com o ID informado"));
+        when(service.consultar(" ")).thenReturn(new ResultadoConsulta.NaoEncontrado(" "));
 
         mockMvc.perform(get("/pedidos/ ")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -190,13 +616,31 @@ public class PedidoControllerTest {
      */
     @Test
     public void deveRetornar404_quandoIdNaoExistir() throws Exception {
-        when(service.consultar("999"))
-                .thenThrow(new NoSuchElementException("Pedido não encontrado com o ID informado"));
+        when(service.consultar("999")).thenReturn(new ResultadoConsulta.NaoEncontrado("999"));
 
         mockMvc.perform(get("/pedidos/999")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.mensagem").value("Pedido não encontrado com o ID informado."))
                 .andExpect(jsonPath("$.status").value(404));
     }
 
+    /**
+     * Testa a criação de um pedido com ID já existente.
+     * Verifica se o status da resposta é 409 Conflict e se a mensagem de erro
+     * está correta.
+     */
+    @Test
+    public void deveRetornar409_quandoPedidoDuplicado() throws Exception {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente", 1_000);
+        when(service.criarPedido(pedidoDTO)).thenReturn(new ResultadoCriacao.Duplicado("1"));
+
+        mockMvc.perform(post("/pedidos")
+                .content(objectMapper.writeValueAsString(pedidoDTO))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.mensagem").value("Pedido já existe com o ID informado."))
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
 }
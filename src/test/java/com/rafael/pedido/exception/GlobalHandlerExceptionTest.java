@@ -1,5 +1,6 @@
 package com.rafael.pedido.exception;
 
+import com.rafael.pedido.admissao.SobrecargaException;
 import com.rafael.pedido.service.PedidoService;
 
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.util.NoSuchElementException;
 
 import static org.mockito.Mockito.when;
@@ -106,6 +108,24 @@ public class GlobalHandlerExceptionTest {
                 .andExpect(jsonPath("$.status").value(404));
     }
 
+    /**
+     * Testa o tratamento de exceções de sobrecarga.
+     * Verifica se o status da resposta é 503 Service Unavailable e se o
+     * cabeçalho Retry-After informa o tempo arredondado para cima, em
+     * segundos.
+     */
+    @Test
+    void deveRetornar503_paraExcecaoDeSobrecarga() throws Exception {
+        when(pedidoService.consultar("1")).thenThrow(new SobrecargaException(
+                "Servidor sobrecarregado, tente novamente mais tarde.", Duration.ofMillis(1_500)));
+
+        mockMvc.perform(get("/pedidos/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.mensagem").value("Servidor sobrecarregado, tente novamente mais tarde."))
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
     /**
      * Testa o tratamento de exceções genéricas.
      * Verifica se o status da resposta é 500 Internal Server Error e se a mensagem
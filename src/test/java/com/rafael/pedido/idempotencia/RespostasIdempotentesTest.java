@@ -0,0 +1,257 @@
+package com.rafael.pedido.idempotencia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.idempotencia.RespostasIdempotentes.RespostaIdempotente;
+import com.rafael.pedido.service.ResultadoCriacao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Classe de teste para o RespostasIdempotentes.
+ * Verifica se cada chave cria o pedido uma única vez e se as respostas
+ * guardadas são limitadas pela validade e pela quantidade máxima de chaves.
+ */
+class RespostasIdempotentesTest {
+
+    private static final PedidoDTO PEDIDO = new PedidoDTO("1", "Cliente", 1_000);
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private final AtomicInteger criacoes = new AtomicInteger();
+    private final Supplier<ResultadoCriacao> criacao = () -> {
+        criacoes.incrementAndGet();
+        return new ResultadoCriacao.Criado(PEDIDO);
+    };
+
+    /**
+     * Testa o reenvio de uma criação com a mesma chave e o mesmo pedido.
+     * Verifica se o pedido é criado uma única vez e se a resposta é repetida.
+     */
+    @Test
+    void deveRepetirResposta_quandoMesmaChaveEMesmoPedido() {
+        RespostasIdempotentes respostas = respostas();
+
+        RespostaIdempotente primeira = respostas.executar("chave", PEDIDO, criacao);
+        RespostaIdempotente segunda = respostas.executar("chave", new PedidoDTO("1", "Cliente", 1_000), criacao);
+
+        assertFalse(primeira.repetida());
+        assertTrue(segunda.repetida());
+        assertEquals(new ResultadoCriacao.Criado(PEDIDO), segunda.resultado());
+        assertEquals(1, criacoes.get());
+    }
+
+    /**
+     * Testa o reenvio de uma chave com um pedido diferente do original.
+     * Verifica se a requisição é recusada sem criar o pedido.
+     */
+    @Test
+    void deveRecusarRequisicao_quandoChaveReutilizadaComOutroPedido() {
+        RespostasIdempotentes respostas = respostas();
+        respostas.executar("chave", PEDIDO, criacao);
+
+        assertThrows(ChaveIdempotenciaReutilizadaException.class,
+                () -> respostas.executar("chave", new PedidoDTO("1", "Cliente", 2_000), criacao));
+        assertThrows(IllegalArgumentException.class, () -> respostas.executar(" ", PEDIDO, criacao));
+        assertThrows(IllegalArgumentException.class,
+                () -> respostas.executar("c".repeat(RespostasIdempotentes.TAMANHO_MAXIMO_CHAVE + 1), PEDIDO, criacao));
+        assertEquals(1, criacoes.get());
+    }
+
+    /**
+     * Testa uma criação que falha.
+     * Verifica se a falha não é guardada e se o reenvio cria o pedido.
+     */
+    @Test
+    void deveCriarNovamente_quandoCriacaoAnteriorFalhou() {
+        RespostasIdempotentes respostas = respostas();
+
+        assertThrows(IllegalStateException.class, () -> respostas.executar("chave", PEDIDO, () -> {
+            throw new IllegalStateException("falha");
+        }));
+        RespostaIdempotente resposta = respostas.executar("chave", PEDIDO, criacao);
+
+        assertFalse(resposta.repetida());
+        assertEquals(1, criacoes.get());
+    }
+
+    /**
+     * Testa uma criação que encontra um pedido já existente.
+     * Verifica se o resultado não é guardado nem repetido.
+     */
+    @Test
+    void deveCriarNovamente_quandoCriacaoAnteriorEncontrouDuplicado() {
+        RespostasIdempotentes respostas = respostas();
+
+        RespostaIdempotente duplicada = respostas.executar("chave", PEDIDO, () -> new ResultadoCriacao.Duplicado("1"));
+        RespostaIdempotente resposta = respostas.executar("chave", PEDIDO, criacao);
+
+        assertEquals(new ResultadoCriacao.Duplicado("1"), duplicada.resultado());
+        assertFalse(duplicada.repetida());
+        assertFalse(resposta.repetida());
+        assertEquals(1, criacoes.get());
+    }
+
+    /**
+     * Testa o reenvio depois da validade da resposta.
+     * Verifica se a resposta deixa de ser repetida.
+     */
+    @Test
+    void deveDescartarResposta_quandoValidadeExpira() {
+        RespostasIdempotentes respostas = respostas();
+        respostas.executar("chave", PEDIDO, criacao);
+
+        relogio.addAndGet(Duration.ofHours(2).toNanos());
+
+        assertFalse(respostas.executar("chave", PEDIDO, criacao).repetida());
+        assertEquals(2, criacoes.get());
+    }
+
+    /**
+     * Testa requisições simultâneas com a mesma chave.
+     * Verifica se o pedido é criado uma única vez e se as demais requisições
+     * recebem a resposta repetida.
+     */
+    @Test
+    void deveCriarUmaVez_quandoRequisicoesSimultaneas() throws Exception {
+        RespostasIdempotentes respostas = respostas();
+        CountDownLatch largada = new CountDownLatch(1);
+        Supplier<ResultadoCriacao> criacaoLenta = () -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return criacao.get();
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<RespostaIdempotente>> resultados = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return respostas.executar("chave", PEDIDO, criacaoLenta);
+                }));
+            }
+            largada.countDown();
+
+            int repetidas = 0;
+            for (Future<RespostaIdempotente> resultado : resultados) {
+                assertEquals(new ResultadoCriacao.Criado(PEDIDO), resultado.get().resultado());
+                repetidas += resultado.get().repetida() ? 1 : 0;
+            }
+            assertEquals(7, repetidas);
+            assertEquals(1, criacoes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Testa a criação assíncrona com requisições simultâneas e com um pedido
+     * diferente para a mesma chave.
+     * Verifica se as requisições são concluídas somente quando a criação
+     * termina, se o pedido é criado uma única vez e se o pedido diferente é
+     * recusado.
+     */
+    @Test
+    void deveRepetirResposta_quandoCriacaoAssincrona() throws Exception {
+        RespostasIdempotentes respostas = respostas();
+        CompletableFuture<ResultadoCriacao> publicacao = new CompletableFuture<>();
+        Supplier<CompletableFuture<ResultadoCriacao>> criacaoAssincrona = () -> {
+            criacoes.incrementAndGet();
+            return publicacao;
+        };
+
+        CompletableFuture<RespostaIdempotente> primeira = respostas.executarAssincrono("chave", PEDIDO,
+                criacaoAssincrona);
+        CompletableFuture<RespostaIdempotente> segunda = respostas.executarAssincrono("chave", PEDIDO,
+                criacaoAssincrona);
+        CompletableFuture<RespostaIdempotente> diferente = respostas.executarAssincrono("chave",
+                new PedidoDTO("1", "Cliente", 2_000), criacaoAssincrona);
+
+        assertFalse(primeira.isDone());
+        assertFalse(segunda.isDone());
+        publicacao.complete(new ResultadoCriacao.Criado(PEDIDO));
+
+        assertFalse(primeira.get().repetida());
+        assertTrue(segunda.get().repetida());
+        assertEquals(new ResultadoCriacao.Criado(PEDIDO), segunda.get().resultado());
+        ExecutionException erro = assertThrows(ExecutionException.class, diferente::get);
+        assertInstanceOf(ChaveIdempotenciaReutilizadaException.class, erro.getCause());
+        assertEquals(1, criacoes.get());
+    }
+
+    /**
+     * Testa uma criação assíncrona que falha.
+     * Verifica se a falha não é guardada e se o reenvio cria o pedido.
+     */
+    @Test
+    void deveCriarNovamente_quandoCriacaoAssincronaFalhou() throws Exception {
+        RespostasIdempotentes respostas = respostas();
+
+        CompletableFuture<RespostaIdempotente> falha = respostas.executarAssincrono("chave", PEDIDO,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("falha")));
+        RespostaIdempotente resposta = respostas.executarAssincrono("chave", PEDIDO,
+                () -> CompletableFuture.completedFuture(criacao.get())).get();
+
+        assertTrue(falha.isCompletedExceptionally());
+        assertFalse(resposta.repetida());
+        assertEquals(1, criacoes.get());
+    }
+
+    /**
+     * Testa o limite de chaves guardadas, calculado pela taxa máxima e pela
+     * validade.
+     * Verifica se as chaves excedentes são descartadas da mais antiga para a
+     * mais nova, mesmo que a mais antiga seja a mais usada, e se os descartes
+     * são contados.
+     */
+    @Test
+    void deveDescartarChavesMaisAntigas_quandoLimiteAtingido() {
+        RespostasIdempotentes respostas = new RespostasIdempotentes(
+                new IdempotenciaProperties(Duration.ofSeconds(100), 1), registro, relogio::get);
+
+        for (int i = 0; i < 150; i++) {
+            respostas.executar("chave-" + i, PEDIDO, criacao);
+            relogio.addAndGet(Duration.ofMillis(10).toNanos());
+            for (int j = 0; j < 3 && i < 50; j++) {
+                respostas.executar("chave-0", PEDIDO, criacao);
+            }
+        }
+
+        assertEquals(100, respostas.entradas());
+        assertEquals(50.0, registro.get(RespostasIdempotentes.METRICA_DESCARTADAS).counter().count());
+        assertTrue(respostas.executar("chave-149", PEDIDO, criacao).repetida());
+        assertTrue(respostas.executar("chave-50", PEDIDO, criacao).repetida());
+        assertEquals(150, criacoes.get());
+
+        assertFalse(respostas.executar("chave-0", PEDIDO, criacao).repetida());
+    }
+
+    private RespostasIdempotentes respostas() {
+        return new RespostasIdempotentes(new IdempotenciaProperties(Duration.ofHours(1), 1_000),
+                registro, relogio::get);
+    }
+}
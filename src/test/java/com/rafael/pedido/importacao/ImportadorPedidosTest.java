@@ -0,0 +1,193 @@
+package com.rafael.pedido.importacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+import com.rafael.pedido.repository.armazenamento.HeapPedidoStore;
+import com.rafael.pedido.repository.persistencia.ModoDurabilidade;
+import com.rafael.pedido.repository.persistencia.PedidoLog;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+/**
+ * Classe de teste para o ImportadorPedidos.
+ * Verifica a importação de arquivos NDJSON e CSV, a validação das linhas e a
+ * retomada de uma importação interrompida.
+ */
+class ImportadorPedidosTest {
+
+    private static final Validator VALIDADOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @TempDir
+    Path diretorio;
+
+    private final PedidoRepository repositorio = new PedidoRepository();
+
+    /**
+     * Testa a importação de um arquivo NDJSON dividido em vários blocos.
+     * Verifica se os pedidos válidos são salvos e se os duplicados e as linhas
+     * inválidas são contados e ignorados.
+     */
+    @Test
+    void deveImportarPedidosValidos_quandoArquivoNdjson() throws IOException {
+        repositorio.salvar(new Pedido("existente", "Cliente", 100));
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            conteudo.append("{\"id\":\"").append(i).append("\",\"cliente\":\"Cliente ").append(i)
+                    .append("\",\"valorTotal\":").append(i + 1).append(".50}\n");
+        }
+        conteudo.append("{\"id\":\"existente\",\"cliente\":\"Cliente\",\"valorTotal\":1}\n")
+                .append("{\"id\":\"negativo\",\"cliente\":\"Cliente\",\"valorTotal\":-1}\n")
+                .append("{\"id\":\"sem-cliente\",\"cliente\":\" \",\"valorTotal\":1}\r\n")
+                .append("\n")
+                .append("não é json\n")
+                .append("{\"id\":\"ultimo\",\"cliente\":\"Cliente\",\"valorTotal\":0.01}");
+        Path arquivo = Files.writeString(diretorio.resolve("pedidos.ndjson"), conteudo);
+
+        ResultadoImportacao resultado = importador(4, 1_024).importar(arquivo);
+
+        assertEquals(1_001, resultado.importados());
+        assertEquals(1, resultado.duplicados());
+        assertEquals(3, resultado.invalidos());
+        assertEquals(1_005, resultado.lidos());
+        assertEquals(15_150, repositorio.consultar("150").orElseThrow().getValorTotalCentavos());
+        assertEquals(1, repositorio.consultar("ultimo").orElseThrow().getValorTotalCentavos());
+        assertFalse(Files.exists(diretorio.resolve("pedidos.ndjson" + ImportadorPedidos.SUFIXO_PROGRESSO)));
+    }
+
+    /**
+     * Testa a importação de um arquivo CSV com cabeçalho.
+     * Verifica se os campos entre aspas e os valores decimais são lidos.
+     */
+    @Test
+    void deveImportarPedidos_quandoArquivoCsv() throws IOException {
+        Path arquivo = Files.writeString(diretorio.resolve("pedidos.csv"), """
+                id,cliente,valorTotal
+                1,Cliente A,10.00
+                2,"Silva, \"\"Filho\"\"",20.5
+                3,Cliente C,0.001
+                4,Cliente D
+                """);
+
+        ResultadoImportacao resultado = importador(2, 1_024).importar(arquivo);
+
+        assertEquals(2, resultado.importados());
+        assertEquals(2, resultado.invalidos());
+        assertEquals("Silva, \"Filho\"", repositorio.consultar("2").orElseThrow().getCliente());
+        assertEquals(2_050, repositorio.consultar("2").orElseThrow().getValorTotalCentavos());
+    }
+
+    /**
+     * Testa a retomada de uma importação interrompida.
+     * Verifica se a importação continua a partir da posição gravada no arquivo
+     * de progresso.
+     */
+    @Test
+    void deveRetomarImportacao_quandoArquivoDeProgressoExiste() throws IOException {
+        String primeiraLinha = "1,Cliente,10.00\n";
+        Path arquivo = Files.writeString(diretorio.resolve("pedidos.csv"), primeiraLinha + "2,Cliente,20.00\n");
+        Files.writeString(diretorio.resolve("pedidos.csv" + ImportadorPedidos.SUFIXO_PROGRESSO),
+                String.valueOf(primeiraLinha.length()));
+
+        ResultadoImportacao resultado = importador(1, 1_024).importar(arquivo);
+
+        assertEquals(primeiraLinha.length(), resultado.retomadoEm());
+        assertEquals(1, resultado.importados());
+        assertFalse(repositorio.existePorId("1"));
+        assertTrue(repositorio.existePorId("2"));
+    }
+
+    /**
+     * Testa a importação de um arquivo com uma linha maior que o bloco.
+     * Verifica se a importação falha e se o progresso dos blocos já carregados
+     * é mantido para a retomada.
+     */
+    @Test
+    void deveManterProgresso_quandoImportacaoFalha() throws IOException {
+        String primeiraLinha = "1,Cliente,10.00\n";
+        Path arquivo = Files.writeString(diretorio.resolve("pedidos.csv"),
+                primeiraLinha + "2," + "C".repeat(100) + ",20.00\n3,Cliente,30.00\n");
+
+        assertThrows(IOException.class, () -> importador(1, 64).importar(arquivo));
+
+        assertTrue(repositorio.existePorId("1"));
+        assertEquals(String.valueOf(primeiraLinha.length()),
+                Files.readString(diretorio.resolve("pedidos.csv" + ImportadorPedidos.SUFIXO_PROGRESSO)));
+    }
+
+    /**
+     * Testa a importação de um arquivo cuja primeira linha é maior que o
+     * bloco.
+     * Verifica se a importação falha com IOException sem importar nenhum
+     * pedido nem gravar progresso.
+     */
+    @Test
+    void deveFalharSemImportar_quandoPrimeiraLinhaMaiorQueBloco() throws IOException {
+        Path arquivo = Files.writeString(diretorio.resolve("pedidos.csv"),
+                "1," + "C".repeat(100) + ",10.00\n2,Cliente,20.00\n");
+
+        assertThrows(IOException.class, () -> importador(1, 64).importar(arquivo));
+
+        assertFalse(repositorio.existePorId("1"));
+        assertFalse(repositorio.existePorId("2"));
+        assertFalse(Files.exists(diretorio.resolve("pedidos.csv" + ImportadorPedidos.SUFIXO_PROGRESSO)));
+    }
+
+    /**
+     * Testa a importação com a persistência habilitada.
+     * Verifica se os pedidos importados não ficam pendentes de publicação, nem
+     * depois de o repositório ser restaurado a partir do log.
+     */
+    @Test
+    void naoDevePublicarPedidos_quandoImportados() throws IOException {
+        Path arquivo = Files.writeString(diretorio.resolve("pedidos.csv"), "1,Cliente,10.00\n2,Cliente,20.00\n");
+        Path diretorioLog = diretorio.resolve("log");
+
+        try (PedidoLog log = new PedidoLog(diretorioLog, ModoDurabilidade.SINCRONO, Duration.ZERO)) {
+            PedidoRepository persistente = new PedidoRepository(new HeapPedidoStore(), log);
+            ResultadoImportacao resultado = new ImportadorPedidos(persistente, new ObjectMapper(), VALIDADOR, 1,
+                    1_024).importar(arquivo);
+
+            assertEquals(2, resultado.importados());
+            assertEquals(0, persistente.enviosPendentes());
+        }
+        try (PedidoLog log = new PedidoLog(diretorioLog, ModoDurabilidade.SINCRONO, Duration.ZERO)) {
+            PedidoRepository restaurado = new PedidoRepository(new HeapPedidoStore(), log);
+
+            assertTrue(restaurado.existePorId("2"));
+            assertEquals(0, restaurado.enviosPendentes());
+        }
+    }
+
+    /**
+     * Testa a leitura de linhas CSV malformadas.
+     * Verifica se as linhas são recusadas.
+     */
+    @Test
+    void deveRecusarLinha_quandoCsvMalformado() {
+        assertEquals(new PedidoDTO("1", "Cliente", 1_000), ImportadorPedidos.lerCsv("1,Cliente, 10"));
+        assertNull(ImportadorPedidos.lerCsv("1,\"Cliente,10"));
+        assertNull(ImportadorPedidos.lerCsv("1,Cliente,dez"));
+        assertNull(ImportadorPedidos.lerCsv("1,Cliente,10,extra"));
+    }
+
+    private ImportadorPedidos importador(int threads, int tamanhoBloco) {
+        return new ImportadorPedidos(repositorio, new ObjectMapper(), VALIDADOR, threads, tamanhoBloco);
+    }
+}
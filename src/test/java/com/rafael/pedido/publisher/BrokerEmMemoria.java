@@ -0,0 +1,82 @@
+package com.rafael.pedido.publisher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Canal de publicação em memória usado nos testes no lugar de um broker real.
+ * Guarda os lotes recebidos e permite bloquear as publicações para simular um
+ * broker lento ou indisponível.
+ */
+class BrokerEmMemoria implements CanalPublicacao {
+
+    private final List<List<Pedido>> lotes = new CopyOnWriteArrayList<>();
+    private final Semaphore publicacoesIniciadas = new Semaphore(0);
+    private volatile CountDownLatch liberacao = new CountDownLatch(0);
+
+    @Override
+    public void publicar(List<Pedido> pedidos) {
+        publicacoesIniciadas.release();
+        try {
+            liberacao.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lotes.add(List.copyOf(pedidos));
+    }
+
+    /**
+     * Faz as próximas publicações aguardarem até {@link #liberar()}.
+     */
+    void bloquear() {
+        liberacao = new CountDownLatch(1);
+    }
+
+    /**
+     * Libera as publicações bloqueadas.
+     */
+    void liberar() {
+        liberacao.countDown();
+    }
+
+    /**
+     * Aguarda uma publicação ser iniciada, mesmo que ainda esteja bloqueada.
+     *
+     * @return True se uma publicação foi iniciada dentro do tempo limite.
+     */
+    boolean aguardarPublicacaoIniciada() throws InterruptedException {
+        return publicacoesIniciadas.tryAcquire(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Aguarda até que a quantidade informada de pedidos tenha sido recebida.
+     *
+     * @param quantidade A quantidade de pedidos esperada.
+     * @param limite     O tempo máximo de espera.
+     * @return True se os pedidos foram recebidos dentro do tempo limite.
+     */
+    boolean aguardarPedidos(int quantidade, Duration limite) throws InterruptedException {
+        long prazo = System.nanoTime() + limite.toNanos();
+        while (pedidos().size() < quantidade) {
+            if (System.nanoTime() > prazo) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    List<List<Pedido>> lotes() {
+        return lotes;
+    }
+
+    List<Pedido> pedidos() {
+        return lotes.stream().flatMap(List::stream).toList();
+    }
+}
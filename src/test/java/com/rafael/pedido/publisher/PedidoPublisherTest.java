@@ -0,0 +1,252 @@
+package com.rafael.pedido.publisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.rafael.pedido.model.Pedido;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Classe de teste para o PedidoPublisher.
+ * Verifica o agrupamento dos pedidos em lotes e as políticas de fila cheia,
+ * publicando em um broker em memória.
+ */
+class PedidoPublisherTest {
+
+    private final BrokerEmMemoria broker = new BrokerEmMemoria();
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private PedidoPublisher publicador;
+
+    @AfterEach
+    void encerrar() {
+        broker.liberar();
+        if (publicador != null) {
+            publicador.close();
+        }
+    }
+
+    /**
+     * Testa o agrupamento por tamanho.
+     * Verifica se todos os pedidos são publicados em ordem, em lotes que não
+     * ultrapassam o tamanho máximo.
+     */
+    @Test
+    void devePublicarEmLotesLimitados_quandoMuitosPedidosEnfileirados() throws InterruptedException {
+        publicador = criarPublicador(10_000, 100, Duration.ofSeconds(1), PoliticaFilaCheia.BLOQUEAR);
+
+        List<Pedido> pedidos = pedidos(0, 1_000);
+        pedidos.forEach(publicador::enviarPedido);
+
+        assertTrue(broker.aguardarPedidos(1_000, Duration.ofSeconds(10)));
+        assertEquals(ids(pedidos), ids(broker.pedidos()));
+        assertTrue(broker.lotes().stream().allMatch(lote -> lote.size() <= 100));
+        assertTrue(broker.lotes().size() < 1_000);
+        assertEquals(broker.lotes().size(), registro.get("pedido.publicacao.lote").summary().count());
+    }
+
+    /**
+     * Testa o agrupamento por tempo.
+     * Verifica se um lote incompleto é publicado quando o intervalo máximo se
+     * esgota.
+     */
+    @Test
+    void devePublicarLoteIncompleto_quandoIntervaloEsgotado() throws InterruptedException {
+        publicador = criarPublicador(100, 100, Duration.ofMillis(20), PoliticaFilaCheia.BLOQUEAR);
+
+        publicador.enviarPedidos(pedidos(0, 3));
+
+        assertTrue(broker.aguardarPedidos(3, Duration.ofSeconds(5)));
+        assertEquals(List.of("0", "1", "2"), ids(broker.pedidos()));
+    }
+
+    /**
+     * Testa a política de rejeição.
+     * Verifica se os pedidos que não cabem na fila são rejeitados e se os
+     * aceitos são publicados quando o broker volta a responder.
+     */
+    @Test
+    void deveRejeitarPedido_quandoFilaCheiaEPoliticaRejeitar() throws InterruptedException {
+        publicador = criarPublicador(2, 1, Duration.ofMillis(1), PoliticaFilaCheia.REJEITAR);
+        ocuparRemetente();
+
+        publicador.enviarPedidos(pedidos(1, 3));
+        assertEquals(2.0, registro.get("pedido.publicacao.fila").gauge().value());
+        assertThrows(PublicacaoRejeitadaException.class, () -> publicador.enviarPedido(new Pedido("3", "C", 100)));
+        assertThrows(PublicacaoRejeitadaException.class, () -> publicador.enviarPedidos(pedidos(4, 6)));
+
+        broker.liberar();
+        assertTrue(broker.aguardarPedidos(3, Duration.ofSeconds(5)));
+        assertEquals(List.of("0", "1", "2"), ids(broker.pedidos()));
+        assertEquals(3.0, registro.get("pedido.publicacao.rejeitados").counter().count());
+    }
+
+    /**
+     * Testa a política de descarte.
+     * Verifica se o pedido mais antigo da fila é descartado para dar lugar ao
+     * novo.
+     */
+    @Test
+    void deveDescartarMaisAntigo_quandoFilaCheiaEPoliticaDescartar() throws InterruptedException {
+        publicador = criarPublicador(2, 1, Duration.ofMillis(1), PoliticaFilaCheia.DESCARTAR_MAIS_ANTIGO);
+        ocuparRemetente();
+
+        publicador.enviarPedidos(pedidos(1, 4));
+
+        broker.liberar();
+        assertTrue(broker.aguardarPedidos(3, Duration.ofSeconds(5)));
+        assertEquals(List.of("0", "2", "3"), ids(broker.pedidos()));
+        assertEquals(1.0, registro.get("pedido.publicacao.descartados").counter().count());
+    }
+
+    /**
+     * Testa a política de bloqueio.
+     * Verifica se a requisição aguarda espaço na fila e se o pedido é rejeitado
+     * quando o tempo máximo de bloqueio se esgota.
+     */
+    @Test
+    void deveAguardarEspaco_quandoFilaCheiaEPoliticaBloquear() throws Exception {
+        publicador = criarPublicador(1, 1, Duration.ofMillis(1), PoliticaFilaCheia.BLOQUEAR);
+        ocuparRemetente();
+        publicador.enviarPedido(new Pedido("1", "C", 100));
+
+        long inicio = System.nanoTime();
+        assertThrows(PublicacaoRejeitadaException.class, () -> publicador.enviarPedido(new Pedido("x", "C", 100)));
+        assertTrue(System.nanoTime() - inicio >= Duration.ofMillis(100).toNanos());
+
+        CompletableFuture<Void> envio = CompletableFuture.runAsync(
+                () -> publicador.enviarPedido(new Pedido("2", "C", 100)));
+        Thread.sleep(20);
+        broker.liberar();
+        envio.get();
+
+        assertTrue(broker.aguardarPedidos(3, Duration.ofSeconds(5)));
+        assertEquals(List.of("0", "1", "2"), ids(broker.pedidos()));
+    }
+
+    /**
+     * Testa o encerramento do publicador.
+     * Verifica se os pedidos ainda na fila são publicados e se novos pedidos são
+     * rejeitados.
+     */
+    @Test
+    void devePublicarPendentes_quandoEncerrado() {
+        publicador = criarPublicador(1_000, 1_000, Duration.ofMillis(200), PoliticaFilaCheia.BLOQUEAR);
+
+        publicador.enviarPedidos(pedidos(0, 50));
+        publicador.close();
+
+        assertEquals(50, broker.pedidos().size());
+        assertEquals(0, publicador.pendentes());
+        assertThrows(PublicacaoRejeitadaException.class, () -> publicador.enviarPedido(new Pedido("x", "C", 100)));
+    }
+
+    /**
+     * Testa a fábrica de threads informada.
+     * Verifica se as threads remetentes são criadas por ela, como acontece com
+     * as threads virtuais.
+     */
+    @Test
+    void deveCriarRemetentesPelaFabrica_quandoFabricaInformada() throws InterruptedException {
+        List<Thread> criadas = new CopyOnWriteArrayList<>();
+        PublicacaoProperties propriedades = new PublicacaoProperties(100, 10, Duration.ofMillis(1), 2,
+                PoliticaFilaCheia.BLOQUEAR, Duration.ofMillis(100));
+        publicador = new PedidoPublisher(broker, propriedades, registro, tarefa -> {
+            Thread thread = new Thread(tarefa, "remetente-" + criadas.size());
+            thread.setDaemon(true);
+            criadas.add(thread);
+            return thread;
+        });
+
+        publicador.enviarPedidos(pedidos(0, 3));
+
+        assertTrue(broker.aguardarPedidos(3, Duration.ofSeconds(5)));
+        assertEquals(List.of("remetente-0", "remetente-1"), criadas.stream().map(Thread::getName).toList());
+    }
+
+    /**
+     * Testa a publicação com confirmação.
+     * Verifica se a confirmação é concluída somente depois da publicação e se,
+     * com a fila cheia, o pedido é rejeitado sem aguardar espaço, mesmo com a
+     * política de bloqueio.
+     */
+    @Test
+    void deveConcluirConfirmacao_quandoPedidoPublicado() throws Exception {
+        publicador = criarPublicador(1, 1, Duration.ofMillis(1), PoliticaFilaCheia.BLOQUEAR);
+        ocuparRemetente();
+
+        CompletableFuture<Void> confirmacao = publicador.publicarPedido(new Pedido("1", "C", 100));
+        long inicio = System.nanoTime();
+        CompletableFuture<Void> rejeitada = publicador.publicarPedido(new Pedido("x", "C", 100));
+
+        assertTrue(System.nanoTime() - inicio < Duration.ofMillis(100).toNanos());
+        ExecutionException erro = assertThrows(ExecutionException.class, rejeitada::get);
+        assertInstanceOf(PublicacaoRejeitadaException.class, erro.getCause());
+        assertFalse(confirmacao.isDone());
+
+        broker.liberar();
+        confirmacao.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("0", "1"), ids(broker.pedidos()));
+    }
+
+    /**
+     * Testa a publicação com confirmação em um canal indisponível.
+     * Verifica se a confirmação é concluída com o erro do canal.
+     */
+    @Test
+    void deveConcluirConfirmacaoComErro_quandoPublicacaoFalhar() {
+        PublicacaoProperties propriedades = new PublicacaoProperties(100, 10, Duration.ofMillis(1), 1,
+                PoliticaFilaCheia.BLOQUEAR, Duration.ofMillis(100));
+        publicador = new PedidoPublisher(pedidos -> {
+            throw new IllegalStateException("Broker indisponível");
+        }, propriedades, registro);
+
+        CompletableFuture<Void> confirmacao = publicador.publicarPedido(new Pedido("1", "C", 100));
+
+        ExecutionException erro = assertThrows(ExecutionException.class,
+                () -> confirmacao.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, erro.getCause());
+        assertEquals(1.0, registro.get("pedido.publicacao.falhas").counter().count());
+    }
+
+    private PedidoPublisher criarPublicador(int capacidade, int tamanhoLote, Duration intervaloLote,
+            PoliticaFilaCheia politica) {
+        PublicacaoProperties propriedades = new PublicacaoProperties(capacidade, tamanhoLote, intervaloLote, 1,
+                politica, Duration.ofMillis(100));
+        return new PedidoPublisher(broker, propriedades, registro);
+    }
+
+    /**
+     * Bloqueia o broker e aguarda o remetente ficar preso publicando o pedido
+     * "0", de forma que os próximos pedidos permaneçam na fila.
+     */
+    private void ocuparRemetente() throws InterruptedException {
+        broker.bloquear();
+        publicador.enviarPedido(new Pedido("0", "C", 100));
+        assertTrue(broker.aguardarPublicacaoIniciada());
+    }
+
+    private static List<Pedido> pedidos(int inicio, int fim) {
+        return IntStream.range(inicio, fim)
+                .mapToObj(i -> new Pedido(String.valueOf(i), "Cliente " + i, (i + 1) * 100))
+                .toList();
+    }
+
+    private static List<String> ids(List<Pedido> pedidos) {
+        return pedidos.stream().map(Pedido::getId).toList();
+    }
+}
@@ -0,0 +1,178 @@
+package com.rafael.pedido.publisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+import com.rafael.pedido.repository.armazenamento.HeapPedidoStore;
+import com.rafael.pedido.repository.persistencia.ModoDurabilidade;
+import com.rafael.pedido.repository.persistencia.PedidoLog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Classe de teste para o RelayOutbox.
+ * Verifica se os pedidos pendentes no outbox são publicados após uma queda da
+ * aplicação entre salvar e publicar, inclusive com vários lotes pendentes.
+ * A medição da vazão do relay é executada somente quando a propriedade
+ * {@code benchmark} estiver habilitada.
+ */
+class RelayOutboxTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private final List<Closeable> abertos = new ArrayList<>();
+
+    @AfterEach
+    void encerrar() throws IOException {
+        for (int i = abertos.size() - 1; i >= 0; i--) {
+            abertos.get(i).close();
+        }
+    }
+
+    /**
+     * Testa a recuperação após uma queda.
+     * Pedidos salvos e publicados antes da queda não devem ser publicados
+     * novamente, e pedidos salvos mas não publicados devem ser publicados pelo
+     * relay após a reinicialização.
+     */
+    @Test
+    void devePublicarSomenteNaoConfirmados_quandoAplicacaoReiniciadaAposQueda() throws Exception {
+        BrokerEmMemoria brokerAntesDaQueda = new BrokerEmMemoria();
+        PedidoRepository repositorio = new PedidoRepository(new HeapPedidoStore(), abrirLog());
+        PedidoPublisher publicador = criarPublicador(brokerAntesDaQueda);
+        new RelayOutbox(repositorio, publicador, propriedades(), registro);
+
+        List<Pedido> pedidos = pedidos(1_000);
+        for (int i = 0; i < pedidos.size(); i++) {
+            assertTrue(repositorio.salvarSeAusente(pedidos.get(i)));
+            if (i < 600) {
+                publicador.enviarPedido(pedidos.get(i));
+            }
+        }
+        assertTrue(brokerAntesDaQueda.aguardarPedidos(600, Duration.ofSeconds(10)));
+        aguardar(() -> repositorio.enviosPendentes() == 400);
+
+        // Queda: o repositório e o publicador são abandonados sem encerramento.
+        BrokerEmMemoria brokerAposQueda = new BrokerEmMemoria();
+        PedidoRepository recuperado = new PedidoRepository(new HeapPedidoStore(), abrirLog());
+        RelayOutbox relay = new RelayOutbox(recuperado, criarPublicador(brokerAposQueda), propriedades(),
+                new SimpleMeterRegistry());
+        assertEquals(400, recuperado.enviosPendentes());
+
+        assertEquals(400, relay.publicarPendentes());
+        assertTrue(brokerAposQueda.aguardarPedidos(400, Duration.ofSeconds(10)));
+        aguardar(() -> recuperado.enviosPendentes() == 0);
+
+        Set<String> publicados = new HashSet<>(ids(brokerAntesDaQueda.pedidos()));
+        publicados.addAll(ids(brokerAposQueda.pedidos()));
+        assertEquals(1_000, publicados.size());
+        assertEquals(ids(pedidos.subList(600, 1_000)), ids(brokerAposQueda.pedidos()).stream().sorted().toList());
+
+        assertEquals(0, new PedidoRepository(new HeapPedidoStore(), abrirLog()).enviosPendentes());
+    }
+
+    /**
+     * Testa a publicação de um outbox com vários lotes.
+     * Após uma queda com 5.000 pedidos pendentes, verifica se o relay publica
+     * todos eles e se as confirmações esvaziam o outbox.
+     */
+    @Test
+    void devePublicarTodosOsPendentes_quandoOutboxGrande() throws Exception {
+        BrokerEmMemoria broker = new BrokerEmMemoria();
+        publicarAposQueda(5_000, broker);
+
+        assertEquals(5_000, new HashSet<>(ids(broker.pedidos())).size());
+    }
+
+    /**
+     * Mede a vazão do relay após uma queda com 100.000 pedidos pendentes.
+     * Executado somente quando a propriedade {@code benchmark} estiver
+     * habilitada.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void medirVazao_quandoOutboxGrande() throws Exception {
+        int quantidade = 100_000;
+        BrokerEmMemoria broker = new BrokerEmMemoria();
+        long nanos = publicarAposQueda(quantidade, broker);
+
+        System.out.printf("Relay do outbox: %d pedidos em %d ms (%.0f pedidos/s)%n", quantidade,
+                nanos / 1_000_000, quantidade / (nanos / 1e9));
+        assertEquals(quantidade, new HashSet<>(ids(broker.pedidos())).size());
+    }
+
+    /**
+     * Salva os pedidos sem publicá-los, reabre o log como após uma queda e
+     * aguarda o relay esvaziar o outbox, retornando o tempo gasto.
+     */
+    private long publicarAposQueda(int quantidade, BrokerEmMemoria broker) throws Exception {
+        PedidoRepository repositorio = new PedidoRepository(new HeapPedidoStore(), abrirLog());
+        repositorio.salvarTodosSeAusentes(pedidos(quantidade));
+
+        PedidoRepository recuperado = new PedidoRepository(new HeapPedidoStore(), abrirLog());
+        RelayOutbox relay = new RelayOutbox(recuperado, criarPublicador(broker), propriedades(),
+                new SimpleMeterRegistry());
+
+        long inicio = System.nanoTime();
+        aguardar(() -> {
+            relay.publicarPendentes();
+            return recuperado.enviosPendentes() == 0;
+        });
+        return System.nanoTime() - inicio;
+    }
+
+    private PedidoLog abrirLog() throws IOException {
+        PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ofMillis(1));
+        abertos.add(log);
+        return log;
+    }
+
+    private PedidoPublisher criarPublicador(BrokerEmMemoria broker) {
+        PedidoPublisher publicador = new PedidoPublisher(broker, new PublicacaoProperties(10_000, 500,
+                Duration.ofMillis(5), 1, PoliticaFilaCheia.REJEITAR, Duration.ZERO), new SimpleMeterRegistry());
+        abertos.add(publicador);
+        return publicador;
+    }
+
+    private static OutboxProperties propriedades() {
+        return new OutboxProperties(Duration.ofSeconds(1), 1_000, Duration.ofMinutes(1));
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long prazo = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.nanoTime() < prazo, "Condição não atendida dentro do tempo limite.");
+            Thread.sleep(1);
+        }
+    }
+
+    private static List<Pedido> pedidos(int quantidade) {
+        return IntStream.range(0, quantidade)
+                .mapToObj(i -> new Pedido(String.format("%06d", i), "Cliente " + i % 100, (i + 1) * 100))
+                .toList();
+    }
+
+    private static List<String> ids(List<Pedido> pedidos) {
+        return pedidos.stream().map(Pedido::getId).toList();
+    }
+}
@@ -1,14 +1,37 @@
 package com.rafael.pedido.repository;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.armazenamento.HeapPedidoStore;
+import com.rafael.pedido.repository.persistencia.ModoDurabilidade;
+import com.rafael.pedido.repository.persistencia.PedidoLog;
 
 /**
  * Classe de teste para o PedidoRepository.
@@ -18,20 +41,23 @@ import com.rafael.pedido.model.Pedido;
 public class PedidoRepositoryTest {
     private PedidoRepository repository = new PedidoRepository();
 
+    @TempDir
+    Path diretorio;
+
     /**
      * Testa o método salvar do PedidoRepository.
      * Verifica se o pedido é salvo corretamente no repositório.
      */
     @Test
     void deveSalvar_quandoPedidoValido() {
-        Pedido pedido = new Pedido("123", "Cliente X", 10000.0);
+        Pedido pedido = new Pedido("123", "Cliente X", 1_000_000);
         repository.salvar(pedido);
         Optional<Pedido> pedidoSalvo = repository.consultar("123");
 
         assertTrue(pedidoSalvo.isPresent());
         assertEquals("123", pedidoSalvo.get().getId());
         assertEquals("Cliente X", pedidoSalvo.get().getCliente());
-        assertEquals(10000.0, pedidoSalvo.get().getValorTotal());
+        assertEquals(1_000_000, pedidoSalvo.get().getValorTotalCentavos());
     }
 
     /**
@@ -41,7 +67,7 @@ public class PedidoRepositoryTest {
      */
     @Test
     void deveRetornarPedido_quandoPedidoExistente() {
-        Pedido pedido = new Pedido("1", "Cliente Y", 200.0);
+        Pedido pedido = new Pedido("1", "Cliente Y", 20_000);
         repository.salvar(pedido);
 
         Optional<Pedido> resultado = repository.consultar("1");
@@ -60,13 +86,29 @@ public class PedidoRepositoryTest {
         assertFalse(resultado.isPresent());
     }
 
+    /**
+     * Testa o método consultarTodos do PedidoRepository.
+     * Verifica se somente os pedidos existentes são retornados, na ordem dos
+     * IDs informados.
+     */
+    @Test
+    void deveRetornarSomenteExistentes_quandoConsultarVariosPedidos() {
+        repository.salvar(new Pedido("1", "Cliente A", 1_000));
+        repository.salvar(new Pedido("2", "Cliente B", 2_000));
+
+        Map<String, Pedido> resultado = repository.consultarTodos(List.of("2", "999", "1"));
+
+        assertEquals(List.of("2", "1"), List.copyOf(resultado.keySet()));
+        assertEquals("Cliente B", resultado.get("2").getCliente());
+    }
+
     /**
      * Testa o método existePorId do PedidoRepository.
      * Verifica se retorna true quando o pedido existe e false quando não existe.
      */
     @Test
     void deveRetornarTrue_quandoPedidoExistePorId() {
-        Pedido pedido = new Pedido("456", "Cliente Z", 350.0232);
+        Pedido pedido = new Pedido("456", "Cliente Z", 35_002);
         repository.salvar(pedido);
 
         assertTrue(repository.existePorId("456"));
@@ -80,4 +122,424 @@ public class PedidoRepositoryTest {
     void deveRetornarFalse_quandoPedidoNaoExistePorId() {
         assertFalse(repository.existePorId("000"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Testa o método salvarSeAusente do PedidoRepository.
+     * Verifica se o segundo pedido com o mesmo ID é recusado e se o pedido
+     * original é mantido.
+     */
+    @Test
+    void deveRecusarSegundoPedido_quandoIdJaExistente() {
+        assertTrue(repository.salvarSeAusente(new Pedido("789", "Cliente A", 1_000)));
+        assertFalse(repository.salvarSeAusente(new Pedido("789", "Cliente B", 2_000)));
+
+        assertEquals("Cliente A", repository.consultar("789").get().getCliente());
+    }
+
+    /**
+     * Testa a visibilidade de um pedido durante o seu registro no log.
+     * Verifica se o pedido não é retornado pelas consultas antes de o registro
+     * terminar e se uma gravação concorrente do mesmo ID aguarda o registro e
+     * é recusada quando ele termina com sucesso.
+     */
+    @Test
+    void naoDeveExibirPedido_quandoRegistroNoLogEmAndamento() throws Exception {
+        LogBloqueado log = new LogBloqueado(diretorio, false);
+        PedidoRepository repositorio = new PedidoRepository(new HeapPedidoStore(), log);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Boolean> primeiro = executor.submit(() -> repositorio.salvarSeAusente(new Pedido("1", "A", 100)));
+            assertTrue(log.iniciado.await(10, TimeUnit.SECONDS));
+            Future<Boolean> segundo = executor.submit(() -> repositorio.salvarSeAusente(new Pedido("1", "B", 200)));
+
+            assertTrue(repositorio.consultar("1").isEmpty());
+            assertFalse(repositorio.existePorId("1"));
+            assertTrue(repositorio.consultarPorCliente("A", null, 10).isEmpty());
+            assertThrows(TimeoutException.class, () -> segundo.get(100, TimeUnit.MILLISECONDS));
+
+            log.liberado.countDown();
+            assertTrue(primeiro.get(10, TimeUnit.SECONDS));
+            assertFalse(segundo.get(10, TimeUnit.SECONDS));
+            assertEquals("A", repositorio.consultar("1").get().getCliente());
+        } finally {
+            executor.shutdownNow();
+            log.close();
+        }
+    }
+
+    /**
+     * Testa uma gravação concorrente com um registro no log que falha.
+     * Verifica se a gravação concorrente do mesmo ID aguarda o registro e, com
+     * o pedido desfeito, salva o seu próprio pedido em vez de ser recusada.
+     */
+    @Test
+    void deveSalvarPedidoConcorrente_quandoRegistroAnteriorFalhar() throws Exception {
+        LogBloqueado log = new LogBloqueado(diretorio, true);
+        PedidoRepository repositorio = new PedidoRepository(new HeapPedidoStore(), log);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Boolean> primeiro = executor.submit(() -> repositorio.salvarSeAusente(new Pedido("1", "A", 100)));
+            assertTrue(log.iniciado.await(10, TimeUnit.SECONDS));
+            Future<Boolean> segundo = executor.submit(() -> repositorio.salvarTodosSeAusentes(
+                    List.of(new Pedido("2", "B", 200), new Pedido("1", "B", 200)))[1]);
+            assertThrows(TimeoutException.class, () -> segundo.get(100, TimeUnit.MILLISECONDS));
+
+            log.liberado.countDown();
+            ExecutionException erro = assertThrows(ExecutionException.class,
+                    () -> primeiro.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(UncheckedIOException.class, erro.getCause());
+            assertTrue(segundo.get(10, TimeUnit.SECONDS));
+            assertEquals("B", repositorio.consultar("1").get().getCliente());
+        } finally {
+            executor.shutdownNow();
+            log.close();
+        }
+    }
+
+    /**
+     * Testa a visibilidade de um pedido existente durante a gravação de um
+     * pedido duplicado.
+     * Verifica se, enquanto um lote com o ID de um pedido já registrado
+     * aguarda o log, o pedido existente continua sendo retornado pelas
+     * consultas e uma gravação duplicada isolada é recusada sem aguardar.
+     */
+    @Test
+    void deveExibirPedidoExistente_quandoGravacaoDuplicadaAguardaLog() throws Exception {
+        try (PedidoLog anterior = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ofMillis(1))) {
+            anterior.registrar(new Pedido("1", "A", 100));
+        }
+        LogBloqueado log = new LogBloqueado(diretorio, false);
+        PedidoRepository repositorio = new PedidoRepository(new HeapPedidoStore(), log);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<boolean[]> lote = executor.submit(() -> repositorio.salvarTodosSeAusentes(
+                    List.of(new Pedido("1", "B", 200), new Pedido("2", "B", 300))));
+            assertTrue(log.iniciado.await(10, TimeUnit.SECONDS));
+
+            assertEquals("A", repositorio.consultar("1").get().getCliente());
+            assertTrue(repositorio.existePorId("1"));
+            assertEquals(List.of("1"), List.copyOf(repositorio.consultarTodos(List.of("1", "2")).keySet()));
+            assertEquals(1, repositorio.consultarPorCliente("A", null, 10).size());
+            assertEquals(List.of("1"), ids(repositorio.consultarMaiores(10)));
+            assertEquals("1", repositorio.percorrer(null).next().getId());
+            assertTrue(repositorio.consultar("2").isEmpty());
+            assertFalse(repositorio.salvarSeAusente(new Pedido("1", "C", 400)));
+
+            log.liberado.countDown();
+            assertArrayEquals(new boolean[] { false, true }, lote.get(10, TimeUnit.SECONDS));
+            assertEquals("A", repositorio.consultar("1").get().getCliente());
+            assertEquals("B", repositorio.consultar("2").get().getCliente());
+        } finally {
+            executor.shutdownNow();
+            log.close();
+        }
+    }
+
+    /**
+     * Testa a compactação do log durante o registro de um pedido que falha.
+     * Verifica se a compactação aguarda o registro em andamento e não inclui
+     * no snapshot o pedido desfeito.
+     */
+    @Test
+    void naoDeveIncluirPedidoDesfeitoNoSnapshot_quandoCompactarDuranteRegistro() throws Exception {
+        LogBloqueado log = new LogBloqueado(diretorio, true);
+        PedidoRepository repositorio = new PedidoRepository(new HeapPedidoStore(), log);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Boolean> gravacao = executor.submit(() -> repositorio.salvarSeAusente(new Pedido("1", "A", 100)));
+            assertTrue(log.iniciado.await(10, TimeUnit.SECONDS));
+            Future<Boolean> compactacao = executor.submit(repositorio::compactar);
+            assertThrows(TimeoutException.class, () -> compactacao.get(100, TimeUnit.MILLISECONDS));
+
+            log.liberado.countDown();
+            assertThrows(ExecutionException.class, () -> gravacao.get(10, TimeUnit.SECONDS));
+            assertTrue(compactacao.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            log.close();
+        }
+
+        try (PedidoLog reaberto = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ofMillis(1))) {
+            assertTrue(new PedidoRepository(new HeapPedidoStore(), reaberto).consultar("1").isEmpty());
+        }
+    }
+
+    /**
+     * Testa o método salvarTodosSeAusentes do PedidoRepository.
+     * Verifica se os pedidos com IDs já existentes, inclusive repetidos dentro
+     * do próprio lote, são recusados e se os demais são salvos.
+     */
+    @Test
+    void deveSalvarSomentePedidosNovos_quandoLoteComDuplicados() {
+        repository.salvar(new Pedido("1", "Cliente A", 1_000));
+
+        boolean[] salvos = repository.salvarTodosSeAusentes(List.of(
+                new Pedido("1", "Cliente B", 2_000),
+                new Pedido("2", "Cliente C", 3_000),
+                new Pedido("2", "Cliente D", 4_000)));
+
+        assertArrayEquals(new boolean[] { false, true, false }, salvos);
+        assertEquals("Cliente A", repository.consultar("1").get().getCliente());
+        assertEquals("Cliente C", repository.consultar("2").get().getCliente());
+    }
+
+    /**
+     * Testa o outbox de publicação.
+     * Verifica se um pedido reservado só volta a ser reservado após o tempo de
+     * reenvio e se sai do outbox quando a publicação é confirmada.
+     */
+    @Test
+    void deveReservarNovamenteSomenteNaoConfirmados_quandoTempoDeReenvioEsgotado() {
+        repository.salvarTodosSeAusentes(List.of(new Pedido("1", "Cliente A", 1_000),
+                new Pedido("2", "Cliente B", 2_000)));
+        assertEquals(2, repository.enviosPendentes());
+        assertTrue(repository.reservarEnviosPendentes(10, Duration.ofMinutes(1)).isEmpty());
+
+        repository.confirmarEnvio(List.of("1"));
+        List<Pedido> reservados = repository.reservarEnviosPendentes(10, Duration.ZERO);
+
+        assertEquals(1, repository.enviosPendentes());
+        assertEquals(List.of("2"), reservados.stream().map(Pedido::getId).toList());
+    }
+
+    /**
+     * Testa o método consultarPorCliente do PedidoRepository.
+     * Verifica se somente os pedidos do cliente são retornados, em ordem de ID,
+     * a partir do cursor e até o limite.
+     */
+    @Test
+    void deveRetornarPedidosDoCliente_quandoConsultarPorCliente() {
+        repository.salvar(new Pedido("3", "Cliente A", 100));
+        repository.salvar(new Pedido("1", "Cliente A", 100));
+        repository.salvar(new Pedido("2", "Cliente B", 100));
+        repository.salvarSeAusente(new Pedido("4", "Cliente A", 100));
+        repository.salvarTodosSeAusentes(List.of(new Pedido("5", "Cliente A", 100)));
+
+        assertEquals(List.of("1", "3", "4", "5"), ids(repository.consultarPorCliente("Cliente A", null, 10)));
+        assertEquals(List.of("3", "4"), ids(repository.consultarPorCliente("Cliente A", "1", 2)));
+        assertEquals(List.of(), ids(repository.consultarPorCliente("Cliente A", "5", 10)));
+        assertEquals(List.of(), ids(repository.consultarPorCliente("Cliente C", null, 10)));
+    }
+
+    /**
+     * Testa o método consultarPorCliente do PedidoRepository após a
+     * substituição de um pedido.
+     * Verifica se o pedido passa a ser retornado somente para o novo cliente.
+     */
+    @Test
+    void deveMoverPedidoDeCliente_quandoPedidoSubstituido() {
+        repository.salvar(new Pedido("1", "Cliente A", 100));
+        repository.salvar(new Pedido("1", "Cliente B", 200));
+
+        assertEquals(List.of(), ids(repository.consultarPorCliente("Cliente A", null, 10)));
+        assertEquals(List.of("1"), ids(repository.consultarPorCliente("Cliente B", null, 10)));
+    }
+
+    /**
+     * Testa o método consultarPorValor do PedidoRepository.
+     * Verifica se somente os pedidos da faixa são retornados, em ordem de valor
+     * e de ID, e se a consulta continua a partir do cursor.
+     */
+    @Test
+    void deveRetornarPedidosDaFaixa_quandoConsultarPorValor() {
+        repository.salvar(new Pedido("1", "Cliente", 500));
+        repository.salvar(new Pedido("2", "Cliente", 1_000));
+        repository.salvar(new Pedido("3", "Cliente", 1_000));
+        repository.salvar(new Pedido("4", "Cliente", 2_000));
+        repository.salvar(new Pedido("5", "Cliente", 3_000));
+
+        assertEquals(List.of("2", "3", "4"), ids(repository.consultarPorValor(1_000, 2_000, 0, null, 10)));
+        assertEquals(List.of("3", "4"), ids(repository.consultarPorValor(1_000, 2_000, 1_000, "2", 10)));
+        assertEquals(List.of("2"), ids(repository.consultarPorValor(1_000, 2_000, 0, null, 1)));
+        assertEquals(List.of(), ids(repository.consultarPorValor(3_001, 5_000, 0, null, 10)));
+    }
+
+    /**
+     * Testa o método consultarMaiores do PedidoRepository.
+     * Verifica se os pedidos são retornados em ordem decrescente de valor e se
+     * um pedido substituído aparece somente com o novo valor.
+     */
+    @Test
+    void deveRetornarMaioresPedidos_quandoConsultarMaiores() {
+        repository.salvar(new Pedido("1", "Cliente", 500));
+        repository.salvar(new Pedido("2", "Cliente", 3_000));
+        repository.salvar(new Pedido("3", "Cliente", 2_000));
+        repository.salvar(new Pedido("2", "Cliente", 100));
+
+        assertEquals(List.of("3", "1"), ids(repository.consultarMaiores(2)));
+        assertEquals(List.of("3", "1", "2"), ids(repository.consultarMaiores(10)));
+    }
+
+    /**
+     * Testa o método percorrer do PedidoRepository.
+     * Verifica se todos os pedidos são percorridos em ordem crescente de ID e
+     * se o percurso continua a partir de um ID, mesmo que ele não exista.
+     */
+    @Test
+    void devePercorrerPedidosEmOrdemDeId_quandoPercorrer() {
+        repository.salvar(new Pedido("3", "Cliente", 300));
+        repository.salvar(new Pedido("1", "Cliente", 100));
+        repository.salvar(new Pedido("5", "Cliente", 500));
+        repository.salvar(new Pedido("3", "Outro Cliente", 301));
+
+        List<Pedido> todos = new ArrayList<>();
+        repository.percorrer(null).forEachRemaining(todos::add);
+        List<Pedido> aposTres = new ArrayList<>();
+        repository.percorrer("3").forEachRemaining(aposTres::add);
+        List<Pedido> aposQuatro = new ArrayList<>();
+        repository.percorrer("4").forEachRemaining(aposQuatro::add);
+
+        assertEquals(List.of("1", "3", "5"), ids(todos));
+        assertEquals(301, todos.get(1).getValorTotalCentavos());
+        assertEquals(List.of("5"), ids(aposTres));
+        assertEquals(List.of("5"), ids(aposQuatro));
+    }
+
+    /**
+     * Testa o método salvarSeAusente do PedidoRepository sob concorrência.
+     * Várias threads disputam os mesmos IDs ao mesmo tempo em que consultam o
+     * repositório. Verifica se cada ID é aceito exatamente uma vez e se nenhum
+     * pedido é perdido.
+     */
+    @Test
+    void deveSalvarCadaIdUmaUnicaVez_quandoThreadsConcorrem() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int pedidos = 10_000;
+        AtomicInteger aceitos = new AtomicInteger();
+        AtomicInteger consultasComFalha = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int deslocamento = t;
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < pedidos; i++) {
+                        String id = String.valueOf((i + deslocamento) % pedidos);
+                        if (repository.salvarSeAusente(new Pedido(id, "Cliente " + deslocamento, 100))) {
+                            aceitos.incrementAndGet();
+                        }
+                        if (repository.consultar(id).isEmpty()) {
+                            consultasComFalha.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(pedidos, aceitos.get());
+        assertEquals(0, consultasComFalha.get());
+        for (int i = 0; i < pedidos; i++) {
+            assertTrue(repository.existePorId(String.valueOf(i)));
+        }
+    }
+
+    /**
+     * Testa o índice por cliente sob concorrência.
+     * Várias threads inserem pedidos de um mesmo cliente enquanto outra pagina
+     * os pedidos dele. Verifica se cada página vem em ordem e se, ao final,
+     * todos os pedidos inseridos são encontrados pela paginação.
+     */
+    @Test
+    void deveManterIndicePorClienteConsistente_quandoThreadsConcorrem() throws Exception {
+        int threads = 4;
+        int pedidosPorThread = 5_000;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < pedidosPorThread; i++) {
+                        repository.salvarSeAusente(new Pedido(String.format("%d-%05d", thread, i), "Cliente", 100));
+                    }
+                    return null;
+                }));
+            }
+            Future<?> leitura = executor.submit(() -> {
+                largada.await();
+                for (int rodada = 0; rodada < 20; rodada++) {
+                    List<String> ids = paginar("Cliente", 100);
+                    assertEquals(ids.stream().sorted().toList(), ids);
+                }
+                return null;
+            });
+
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+            leitura.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * pedidosPorThread, paginar("Cliente", 1_000).size());
+    }
+
+    private List<String> paginar(String cliente, int limite) {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        List<Pedido> pagina;
+        do {
+            pagina = repository.consultarPorCliente(cliente, cursor, limite);
+            pagina.forEach(pedido -> ids.add(pedido.getId()));
+            cursor = pagina.isEmpty() ? null : pagina.get(pagina.size() - 1).getId();
+        } while (pagina.size() == limite);
+        return ids;
+    }
+
+    private static List<String> ids(List<Pedido> pedidos) {
+        return pedidos.stream().map(Pedido::getId).toList();
+    }
+
+    /**
+     * Log de pedidos em que o primeiro registro aguarda ser liberado pelo
+     * teste e, se configurado, falha em seguida.
+     */
+    private static final class LogBloqueado extends PedidoLog {
+
+        private final CountDownLatch iniciado = new CountDownLatch(1);
+        private final CountDownLatch liberado = new CountDownLatch(1);
+        private final AtomicBoolean primeiro = new AtomicBoolean(true);
+        private final boolean falhar;
+
+        LogBloqueado(Path diretorio, boolean falhar) throws IOException {
+            super(diretorio, ModoDurabilidade.GRUPO, Duration.ofMillis(1));
+            this.falhar = falhar;
+        }
+
+        @Override
+        public void registrarTodos(List<Pedido> pedidos) {
+            if (primeiro.getAndSet(false)) {
+                iniciado.countDown();
+                try {
+                    liberado.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (falhar) {
+                    throw new UncheckedIOException(new IOException("Falha simulada no log."));
+                }
+            }
+            super.registrarTodos(pedidos);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.rafael.pedido.model.Pedido;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Classe de teste para o CachePedidoStore.
+ * Verifica se as consultas são respondidas pelo cache, se as gravações o
+ * mantêm atualizado e se o tamanho e as respostas negativas são limitados.
+ */
+class CachePedidoStoreTest {
+
+    private final OrigemContada origem = new OrigemContada();
+    private final AtomicLong relogio = new AtomicLong();
+
+    /**
+     * Testa consultas repetidas a um pedido existente.
+     * Verifica se somente a primeira chega à origem e se a taxa de acerto é
+     * calculada.
+     */
+    @Test
+    void deveConsultarOrigemUmaVez_quandoPedidoConsultadoRepetidamente() {
+        origem.salvar(new Pedido("1", "Cliente", 1_000));
+        CachePedidoStore store = cache(new ArmazenamentoProperties.Cache(true, 100, null, Duration.ofSeconds(1)));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(1_000, store.consultar("1").orElseThrow().getValorTotalCentavos());
+        }
+
+        assertEquals(1, origem.consultas.get());
+        assertEquals(0.75, store.taxaAcerto());
+    }
+
+    /**
+     * Testa as consultas a um ID inexistente.
+     * Verifica se a resposta negativa é guardada somente pelo tempo
+     * configurado e se a gravação do pedido a substitui.
+     */
+    @Test
+    void deveGuardarRespostaNegativa_quandoPedidoNaoExiste() {
+        CachePedidoStore store = cache(new ArmazenamentoProperties.Cache(true, 100, null, Duration.ofSeconds(1)));
+
+        assertFalse(store.consultar("1").isPresent());
+        assertFalse(store.existe("1"));
+        assertEquals(1, origem.consultas.get());
+
+        relogio.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertFalse(store.consultar("1").isPresent());
+        assertEquals(2, origem.consultas.get());
+
+        store.salvar(new Pedido("1", "Cliente", 1_000));
+        assertTrue(store.consultar("1").isPresent());
+        assertEquals(2, origem.consultas.get());
+    }
+
+    /**
+     * Testa a gravação e a remoção de pedidos.
+     * Verifica se o cache nunca responde com um pedido diferente do da origem.
+     */
+    @Test
+    void deveManterCacheAtualizado_quandoPedidoSubstituidoOuRemovido() {
+        CachePedidoStore store = cache(new ArmazenamentoProperties.Cache(true, 100, null, Duration.ofSeconds(1)));
+        assertTrue(store.salvarSeAusente(new Pedido("1", "Cliente A", 1_000)));
+        assertFalse(store.salvarSeAusente(new Pedido("1", "Cliente B", 2_000)));
+        assertEquals("Cliente A", store.consultar("1").orElseThrow().getCliente());
+
+        store.salvar(new Pedido("1", "Cliente C", 3_000));
+        assertEquals("Cliente C", store.consultar("1").orElseThrow().getCliente());
+
+        store.remover("1");
+        assertFalse(store.consultar("1").isPresent());
+        assertEquals(0, store.tamanho());
+    }
+
+    /**
+     * Testa a origem gravada sem passar pelo cache.
+     * Verifica se salvarSeAusente descarta uma resposta negativa desatualizada.
+     */
+    @Test
+    void deveDescartarRespostaNegativa_quandoPedidoJaExisteNaOrigem() {
+        CachePedidoStore store = cache(new ArmazenamentoProperties.Cache(true, 100, null, Duration.ofMinutes(1)));
+        assertFalse(store.consultar("1").isPresent());
+        origem.salvar(new Pedido("1", "Cliente A", 1_000));
+
+        assertFalse(store.salvarSeAusente(new Pedido("1", "Cliente B", 2_000)));
+
+        assertEquals("Cliente A", store.consultar("1").orElseThrow().getCliente());
+    }
+
+    /**
+     * Testa o limite de tamanho do cache, pela quantidade de pedidos e pela
+     * memória estimada.
+     * Verifica se o cache não ultrapassa o limite.
+     */
+    @Test
+    void deveLimitarTamanho_quandoMaisPedidosQueOLimite() {
+        CachePedidoStore porQuantidade = cache(new ArmazenamentoProperties.Cache(true, 100, null, Duration.ofSeconds(1)));
+        CachePedidoStore porMemoria = cache(
+                new ArmazenamentoProperties.Cache(true, 100, DataSize.ofBytes(10_000), Duration.ofSeconds(1)));
+
+        for (int i = 0; i < 1_000; i++) {
+            porQuantidade.salvar(new Pedido(String.valueOf(i), "Cliente", 1_000));
+            porMemoria.salvar(new Pedido(String.valueOf(i), "Cliente", 1_000));
+        }
+
+        assertTrue(porQuantidade.entradas() <= 100);
+        assertTrue(porMemoria.entradas() <= 10_000 / 150);
+        assertEquals(1_000, porQuantidade.tamanho());
+    }
+
+    /**
+     * Testa o limite de memória do cache com nomes de clientes longos.
+     * Verifica se o texto do cliente de cada pedido guardado é contado na
+     * memória estimada.
+     */
+    @Test
+    void deveContarCliente_quandoLimitadoPorMemoria() {
+        CachePedidoStore porMemoria = cache(
+                new ArmazenamentoProperties.Cache(true, 100, DataSize.ofBytes(10_000), Duration.ofSeconds(1)));
+        String cliente = "C".repeat(1_000);
+
+        for (int i = 0; i < 100; i++) {
+            porMemoria.salvar(new Pedido(String.valueOf(i), cliente, 1_000));
+        }
+
+        assertTrue(porMemoria.entradas() <= 10_000 / 1_000);
+    }
+
+    private CachePedidoStore cache(ArmazenamentoProperties.Cache configuracao) {
+        return new CachePedidoStore(origem, configuracao, new SimpleMeterRegistry(), relogio::get);
+    }
+
+    /**
+     * Armazenamento no heap que conta as consultas recebidas.
+     */
+    private static class OrigemContada extends HeapPedidoStore {
+
+        private final AtomicInteger consultas = new AtomicInteger();
+
+        @Override
+        public Optional<Pedido> consultar(String idPedido) {
+            consultas.incrementAndGet();
+            return super.consultar(idPedido);
+        }
+    }
+}
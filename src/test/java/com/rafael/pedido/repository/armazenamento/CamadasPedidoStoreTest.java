@@ -0,0 +1,352 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Classe de teste para o CamadasPedidoStore.
+ * Verifica se os pedidos antigos são movidos para o disco e se as consultas,
+ * substituições e remoções continuam corretas nas duas camadas.
+ */
+class CamadasPedidoStoreTest {
+
+    private static final Duration IDADE_MAXIMA = Duration.ofHours(1);
+
+    @TempDir
+    Path diretorio;
+
+    private final AtomicLong relogio = new AtomicLong();
+
+    /**
+     * Testa o envelhecimento de pedidos que passaram da idade máxima.
+     * Verifica se os pedidos com mais da metade da idade máxima são movidos e
+     * se continuam sendo consultados a partir do disco, com a versão gravada.
+     */
+    @Test
+    void deveConsultarPedidoEmDisco_quandoIdadeMaximaUltrapassada() {
+        CamadasPedidoStore store = store(1_000);
+        for (int i = 0; i < 500; i++) {
+            store.salvar(new Pedido("antigo-" + i, "Cliente " + i, 1_000 + i));
+        }
+        store.salvar(new Pedido("antigo-versao", null, 2, 42));
+        relogio.addAndGet(IDADE_MAXIMA.toNanos() / 4 * 3);
+        store.salvar(new Pedido("recente", null, 1));
+        relogio.addAndGet(IDADE_MAXIMA.toNanos() / 2);
+
+        assertEquals(501, store.envelhecer());
+
+        assertEquals(1, store.pedidosQuentes());
+        assertEquals(1, store.quantidadeSegmentos());
+        assertTrue(store.bytesEmDisco() > 0);
+        assertEquals(502, store.tamanho());
+        Pedido pedido = store.consultar("antigo-123").orElseThrow();
+        assertEquals("Cliente 123", pedido.getCliente());
+        assertEquals(1_123, pedido.getValorTotalCentavos());
+        assertEquals(new Pedido("antigo-123", "Cliente 123", 1_123).getVersao(), pedido.getVersao());
+        assertEquals(42, store.consultar("antigo-versao").orElseThrow().getVersao());
+        assertTrue(store.existe("antigo-499"));
+        assertFalse(store.consultar("antigo-500").isPresent());
+        assertEquals(0, store.envelhecer());
+    }
+
+    /**
+     * Testa o envelhecimento quando a camada quente passa da quantidade máxima
+     * de pedidos.
+     * Verifica se os mais antigos são movidos até a metade do máximo.
+     */
+    @Test
+    void deveMoverMaisAntigos_quandoMaximoDePedidosQuentesUltrapassado() {
+        CamadasPedidoStore store = store(100);
+        for (int i = 0; i < 250; i++) {
+            store.salvarSeAusente(new Pedido(String.valueOf(i), "Cliente", i));
+        }
+
+        assertEquals(200, store.envelhecer());
+
+        assertEquals(50, store.pedidosQuentes());
+        assertEquals(250, store.tamanho());
+        for (int i = 0; i < 250; i++) {
+            assertEquals(i, store.consultar(String.valueOf(i)).orElseThrow().getValorTotalCentavos());
+        }
+    }
+
+    /**
+     * Testa a substituição e a remoção de pedidos que já estão em disco.
+     * Verifica se as consultas, o tamanho e a iteração refletem as alterações,
+     * inclusive depois de as remoções serem gravadas em um novo segmento e
+     * fundidas com o anterior.
+     */
+    @Test
+    void deveRespeitarAlteracoes_quandoPedidoEstaEmDisco() {
+        CamadasPedidoStore store = store(1_000);
+        store.salvar(new Pedido("1", "Cliente A", 100));
+        store.salvar(new Pedido("2", "Cliente B", 200));
+        store.salvar(new Pedido("3", "Cliente C", 300));
+        relogio.addAndGet(IDADE_MAXIMA.toNanos() * 2);
+        store.envelhecer();
+        assertEquals(0, store.pedidosQuentes());
+
+        assertFalse(store.salvarSeAusente(new Pedido("1", "Outro", 1)));
+        store.salvar(new Pedido("2", "Cliente B", 250));
+        store.remover("3");
+        assertEquals(2, store.tamanho());
+        assertFalse(store.existe("3"));
+        assertEquals(250, store.consultar("2").orElseThrow().getValorTotalCentavos());
+        assertEquals(Map.of("1", 100L, "2", 250L), valores(store));
+
+        store.salvar(new Pedido("4", "Cliente D", 400));
+        store.salvar(new Pedido("5", "Cliente E", 500));
+        relogio.addAndGet(IDADE_MAXIMA.toNanos() * 2);
+        store.envelhecer();
+
+        assertEquals(0, store.pedidosQuentes());
+
+        assertEquals(1, store.quantidadeSegmentos());
+        assertFalse(store.existe("3"));
+        assertEquals(250, store.consultar("2").orElseThrow().getValorTotalCentavos());
+        assertEquals(Map.of("1", 100L, "2", 250L, "4", 400L, "5", 500L), valores(store));
+
+        assertTrue(store.salvarSeAusente(new Pedido("3", "Cliente C", 350)));
+        assertEquals(350, store.consultar("3").orElseThrow().getValorTotalCentavos());
+        assertEquals(5, store.tamanho());
+    }
+
+    /**
+     * Testa a fusão dos segmentos ao longo de vários envelhecimentos.
+     * Verifica se a quantidade de segmentos cresce com o logaritmo da
+     * quantidade de pedidos em disco e se as substituições e remoções
+     * continuam valendo depois das fusões.
+     */
+    @Test
+    void deveFundirSegmentos_quandoEnvelhecidosVariasVezes() throws IOException {
+        CamadasPedidoStore store = store(1_000);
+        Map<String, Long> esperados = new HashMap<>();
+        for (int rodada = 0; rodada < 64; rodada++) {
+            for (int i = 0; i < 10; i++) {
+                String id = rodada + "-" + i;
+                store.salvar(new Pedido(id, "Cliente", rodada * 10 + i));
+                esperados.put(id, rodada * 10L + i);
+            }
+            if (rodada == 20) {
+                store.remover("3-3");
+                store.salvar(new Pedido("4-4", "Cliente", 1));
+                esperados.remove("3-3");
+                esperados.put("4-4", 1L);
+            }
+            relogio.addAndGet(IDADE_MAXIMA.toNanos() * 2);
+            store.envelhecer();
+            assertTrue(store.quantidadeSegmentos() <= 8, "segmentos: " + store.quantidadeSegmentos());
+        }
+
+        assertEquals(store.quantidadeSegmentos(), arquivos());
+        assertEquals(639, store.tamanho());
+        assertFalse(store.existe("3-3"));
+        assertEquals(1, store.consultar("4-4").orElseThrow().getValorTotalCentavos());
+        assertEquals(esperados, valores(store));
+    }
+
+    /**
+     * Testa a fusão de segmentos que juntos passariam do tamanho máximo.
+     * Verifica se os segmentos acima do limite deixam de ser fundidos, se os
+     * mais novos continuam sendo fundidos entre si e se todos os pedidos
+     * continuam sendo consultados.
+     */
+    @Test
+    void naoDeveFundirSegmentos_quandoTamanhoMaximoUltrapassado() throws IOException {
+        long bytesSegmento;
+        try (CamadasPedidoStore medida = store(1_000)) {
+            for (int i = 0; i < 10; i++) {
+                medida.salvar(new Pedido("0-" + i, "Cliente", i));
+            }
+            relogio.addAndGet(IDADE_MAXIMA.toNanos() * 2);
+            medida.envelhecer();
+            bytesSegmento = medida.bytesEmDisco();
+        }
+        long maximoBytes = bytesSegmento * 4;
+        CamadasPedidoStore store = new CamadasPedidoStore(configuracao(diretorio, 1_000), relogio::get, maximoBytes);
+        Map<String, Long> esperados = new HashMap<>();
+        int maximoSegmentos = 0;
+        for (int rodada = 0; rodada < 64; rodada++) {
+            for (int i = 0; i < 10; i++) {
+                String id = rodada + "-" + i;
+                store.salvar(new Pedido(id, "Cliente", rodada * 10 + i));
+                esperados.put(id, rodada * 10L + i);
+            }
+            relogio.addAndGet(IDADE_MAXIMA.toNanos() * 2);
+            store.envelhecer();
+            maximoSegmentos = Math.max(maximoSegmentos, store.quantidadeSegmentos());
+        }
+
+        assertTrue(store.quantidadeSegmentos() > 8, "segmentos: " + store.quantidadeSegmentos());
+        assertTrue(maximoSegmentos < 64, "segmentos: " + maximoSegmentos);
+        assertTrue(store.bytesEmDisco() <= maximoBytes * store.quantidadeSegmentos());
+        assertEquals(640, store.tamanho());
+        assertEquals(esperados, valores(store));
+    }
+
+    /**
+     * Testa a remoção de pedidos concorrente com o envelhecimento que os move
+     * para o disco.
+     * Verifica se nenhum pedido removido volta a ser consultado depois que o
+     * segmento que o contém é publicado.
+     */
+    @Test
+    void naoDeveRestaurarPedidoRemovido_quandoRemocaoConcorreComEnvelhecimento() throws Exception {
+        CamadasPedidoStore store = store(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 500; i++) {
+                String id = "removido-" + i;
+                store.salvarSeAusente(new Pedido(id, "Cliente", i));
+                store.salvarSeAusente(new Pedido("mantido-" + i + "-a", "Cliente", i));
+                store.salvarSeAusente(new Pedido("mantido-" + i + "-b", "Cliente", i));
+                CyclicBarrier largada = new CyclicBarrier(2);
+
+                Future<?> envelhecimento = executor.submit(() -> {
+                    largada.await();
+                    return store.envelhecer();
+                });
+                Future<?> remocao = executor.submit(() -> {
+                    largada.await();
+                    store.remover(id);
+                    return null;
+                });
+                envelhecimento.get();
+                remocao.get();
+
+                assertFalse(store.existe(id), id);
+            }
+            assertEquals(1_000, store.tamanho());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Testa uma falha na gravação do segmento.
+     * Verifica se os pedidos permanecem na camada quente e se são movidos na
+     * verificação seguinte.
+     */
+    @Test
+    void deveManterPedidosNoHeap_quandoGravacaoDoSegmentoFalha() throws IOException {
+        Path segmentos = diretorio.resolve("segmentos");
+        CamadasPedidoStore store = new CamadasPedidoStore(configuracao(segmentos, 1_000), relogio::get);
+        store.salvar(new Pedido("1", "Cliente", 100));
+        store.salvar(new Pedido("2", "Cliente", 200));
+        store.salvar(new Pedido("3", "Cliente", 300));
+        relogio.addAndGet(IDADE_MAXIMA.toNanos() * 2);
+        Files.delete(segmentos);
+        Files.writeString(segmentos, "não é um diretório");
+
+        assertThrows(UncheckedIOException.class, store::envelhecer);
+        assertEquals(3, store.pedidosQuentes());
+
+        Files.delete(segmentos);
+        Files.createDirectory(segmentos);
+        assertEquals(3, store.envelhecer());
+        assertEquals(300, store.consultar("3").orElseThrow().getValorTotalCentavos());
+    }
+
+    /**
+     * Testa o fechamento do armazenamento.
+     * Verifica se os arquivos dos segmentos são apagados.
+     */
+    @Test
+    void deveApagarSegmentos_quandoFechado() throws IOException {
+        CamadasPedidoStore store = store(2);
+        for (int i = 0; i < 10; i++) {
+            store.salvar(new Pedido(String.valueOf(i), "Cliente", i));
+        }
+        store.envelhecer();
+        assertEquals(1, arquivos());
+
+        store.close();
+
+        assertEquals(0, arquivos());
+    }
+
+    /**
+     * Testa os índices com pedidos e entradas em disco.
+     * Verifica se as consultas pelos índices encontram os pedidos das duas
+     * camadas e se os arquivos dos índices são apagados ao fechar.
+     */
+    @Test
+    void deveConsultarIndices_quandoPedidosEEntradasEmDisco() throws IOException {
+        CamadasPedidoStore store = store(100);
+        for (int i = 0; i < 300; i++) {
+            store.salvar(new Pedido(String.format("%03d", i), "Cliente " + i % 2, i * 10));
+        }
+        store.envelhecer();
+        store.descarregarIndices();
+        store.salvar(new Pedido("300", "Cliente 0", 3_000));
+        store.salvar(new Pedido("000", "Cliente 1", 5));
+
+        assertTrue(arquivos() > store.quantidadeSegmentos());
+        List<String> ids = lista(store.ids("297"));
+        assertEquals(List.of("298", "299", "300"), ids);
+        assertEquals(301, lista(store.ids(null)).size());
+        assertEquals(List.of("296", "298", "300"), lista(store.idsDoCliente("Cliente 0", "294")));
+        assertEquals(List.of(new EntradaValor(5, "000"), new EntradaValor(10, "001")),
+                lista(store.valoresNaFaixa(1, 10, null)));
+        assertEquals(new EntradaValor(3_000, "300"), store.maioresValores().next());
+
+        store.close();
+
+        assertEquals(0, arquivos());
+    }
+
+    private CamadasPedidoStore store(long maximoPedidosQuentes) {
+        return new CamadasPedidoStore(configuracao(diretorio, maximoPedidosQuentes), relogio::get);
+    }
+
+    private static ArmazenamentoProperties.Camadas configuracao(Path diretorio, long maximoPedidosQuentes) {
+        return new ArmazenamentoProperties.Camadas(diretorio, IDADE_MAXIMA, maximoPedidosQuentes,
+                Duration.ofSeconds(10), DataSize.ofBytes(256));
+    }
+
+    private static Map<String, Long> valores(PedidoStore store) {
+        Map<String, Long> valores = new HashMap<>();
+        for (Pedido pedido : store.pedidos()) {
+            assertNull(valores.put(pedido.getId(), pedido.getValorTotalCentavos()));
+        }
+        return valores;
+    }
+
+    private static <T> List<T> lista(Iterator<T> iterador) {
+        List<T> elementos = new ArrayList<>();
+        iterador.forEachRemaining(elementos::add);
+        return elementos;
+    }
+
+    private long arquivos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.count();
+        }
+    }
+}
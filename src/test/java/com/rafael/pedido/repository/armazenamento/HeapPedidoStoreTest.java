@@ -0,0 +1,60 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Classe de teste para o HeapPedidoStore.
+ * Verifica a canonização dos nomes dos clientes na gravação e o limite do
+ * mapa de nomes canônicos.
+ */
+class HeapPedidoStoreTest {
+
+    /**
+     * Testa a gravação de pedidos de um mesmo cliente com instâncias
+     * diferentes do nome.
+     * Verifica se os pedidos armazenados compartilham a mesma instância e se
+     * mantêm os demais dados e a versão.
+     */
+    @Test
+    void deveCompartilharNomeDoCliente_quandoPedidosDoMesmoCliente() {
+        HeapPedidoStore store = new HeapPedidoStore();
+        Pedido segundo = new Pedido("2", new String("Cliente"), 200);
+
+        store.salvarSeAusente(new Pedido("1", new String("Cliente"), 100));
+        store.salvar(segundo);
+
+        Pedido armazenado = store.consultar("2").orElseThrow();
+        assertSame(store.consultar("1").orElseThrow().getCliente(), armazenado.getCliente());
+        assertEquals(200, armazenado.getValorTotalCentavos());
+        assertEquals(segundo.getVersao(), armazenado.getVersao());
+    }
+
+    /**
+     * Testa a gravação de pedidos de mais clientes que o máximo de nomes
+     * canonizados.
+     * Verifica se o mapa de nomes não passa do máximo e se os clientes
+     * excedentes são guardados sem canonização.
+     */
+    @Test
+    void deveLimitarNomesCanonizados_quandoMaximoDeClientesAtingido() {
+        HeapPedidoStore store = new HeapPedidoStore(2);
+
+        for (int i = 0; i < 10; i++) {
+            store.salvar(new Pedido("a-" + i, "Cliente " + i % 5, i));
+            store.salvar(new Pedido("b-" + i, "Cliente " + i % 5, i));
+        }
+
+        assertEquals(2, store.clientesCanonizados());
+        assertEquals(20, store.tamanho());
+        assertSame(store.consultar("a-0").orElseThrow().getCliente(),
+                store.consultar("b-5").orElseThrow().getCliente());
+        assertNotSame(store.consultar("a-4").orElseThrow().getCliente(),
+                store.consultar("b-4").orElseThrow().getCliente());
+    }
+}
@@ -0,0 +1,200 @@
+package com.rafael.pedido.repository.armazenamento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Classe de teste para o OffHeapPedidoStore.
+ * Verifica se os pedidos gravados fora do heap são lidos, substituídos,
+ * removidos e percorridos corretamente, e se os índices encontram os pedidos
+ * gravados nos trechos fora do heap.
+ */
+class OffHeapPedidoStoreTest {
+
+    private final OffHeapPedidoStore store = new OffHeapPedidoStore();
+
+    /**
+     * Testa a gravação e a leitura de um pedido.
+     * Verifica se todos os campos são preservados, inclusive a versão gravada.
+     */
+    @Test
+    void deveRetornarPedido_quandoPedidoSalvo() {
+        Pedido salvo = new Pedido("1", "Cliente Ção", 35_075);
+        store.salvar(salvo);
+        store.salvar(new Pedido("3", null, 7, 42));
+
+        Pedido pedido = store.consultar("1").orElseThrow();
+
+        assertEquals("1", pedido.getId());
+        assertEquals("Cliente Ção", pedido.getCliente());
+        assertEquals(35_075, pedido.getValorTotalCentavos());
+        assertEquals(salvo.getVersao(), pedido.getVersao());
+        assertEquals(42, store.consultar("3").orElseThrow().getVersao());
+        assertFalse(store.consultar("2").isPresent());
+    }
+
+    /**
+     * Testa o método salvarSeAusente.
+     * Verifica se um segundo pedido com o mesmo ID é recusado.
+     */
+    @Test
+    void deveRecusarPedido_quandoIdJaExistente() {
+        assertTrue(store.salvarSeAusente(new Pedido("1", "Cliente A", 1_000)));
+        assertFalse(store.salvarSeAusente(new Pedido("1", "Cliente B", 2_000)));
+
+        assertEquals("Cliente A", store.consultar("1").orElseThrow().getCliente());
+        assertEquals(1, store.tamanho());
+    }
+
+    /**
+     * Testa a substituição e a remoção de pedidos.
+     * Verifica se a iteração percorre somente a versão atual de cada pedido.
+     */
+    @Test
+    void devePercorrerSomentePedidosAtuais_quandoPedidosSubstituidosERemovidos() {
+        for (int i = 0; i < 5_000; i++) {
+            store.salvar(new Pedido(String.valueOf(i), "Cliente", i));
+        }
+        store.salvar(new Pedido("10", "Cliente Novo", 100));
+        store.remover("20");
+
+        Set<String> ids = new HashSet<>();
+        for (Pedido pedido : store.pedidos()) {
+            assertTrue(ids.add(pedido.getId()));
+            if (pedido.getId().equals("10")) {
+                assertEquals("Cliente Novo", pedido.getCliente());
+            }
+        }
+
+        assertEquals(4_999, ids.size());
+        assertEquals(4_999, store.tamanho());
+        assertFalse(store.existe("20"));
+    }
+
+    /**
+     * Testa o método salvarSeAusente sob concorrência.
+     * Verifica se cada ID é aceito exatamente uma vez.
+     */
+    @Test
+    void deveSalvarCadaIdUmaUnicaVez_quandoThreadsConcorrem() throws Exception {
+        int threads = 8;
+        int pedidos = 20_000;
+        AtomicInteger aceitos = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < pedidos; i++) {
+                        if (store.salvarSeAusente(new Pedido(String.valueOf(i), "Cliente", 100))) {
+                            aceitos.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(pedidos, aceitos.get());
+        assertEquals(pedidos, store.tamanho());
+    }
+
+    /**
+     * Testa os índices com entradas gravadas em vários trechos fora do heap.
+     * Verifica se as consultas fundem os trechos e as entradas recentes em
+     * ordem, sem repetições e a partir do cursor.
+     */
+    @Test
+    void deveConsultarIndices_quandoEntradasGravadasForaDoHeap() {
+        OffHeapPedidoStore indexado = new OffHeapPedidoStore(Runnable::run, 64);
+        for (int i = 0; i < 1_000; i++) {
+            indexado.salvar(new Pedido(String.format("%04d", i), "Cliente " + i % 3, i % 10 * 100));
+        }
+        indexado.salvar(new Pedido("0005", "Cliente 0", 500));
+        assertTrue(indexado.bytesForaDoHeap() > 0);
+
+        List<String> ids = lista(indexado.ids(null));
+        assertEquals(IntStream.range(0, 1_000).mapToObj(i -> String.format("%04d", i)).toList(), ids);
+        assertEquals(List.of("0998", "0999"), lista(indexado.ids("0997")));
+
+        List<String> doCliente = lista(indexado.idsDoCliente("Cliente 1", "0900"));
+        assertEquals(33, doCliente.size());
+        assertEquals("0901", doCliente.get(0));
+        assertEquals("0997", doCliente.get(32));
+        assertTrue(lista(indexado.idsDoCliente("Cliente", null)).isEmpty());
+
+        List<EntradaValor> faixa = lista(indexado.valoresNaFaixa(200, 300, new EntradaValor(200, "0992")));
+        assertEquals(new EntradaValor(300, "0003"), faixa.get(0));
+        assertEquals(new EntradaValor(300, "0993"), faixa.get(faixa.size() - 1));
+        assertEquals(100, faixa.size());
+
+        Iterator<EntradaValor> maiores = indexado.maioresValores();
+        assertEquals(new EntradaValor(900, "0999"), maiores.next());
+        assertEquals(new EntradaValor(900, "0989"), maiores.next());
+    }
+
+    /**
+     * Testa os índices enquanto as entradas são gravadas fora do heap por
+     * outra thread.
+     * Verifica se nenhum pedido deixa de ser encontrado durante as descargas.
+     */
+    @Test
+    void deveEncontrarTodosOsIds_quandoDescargasConcorremComGravacoes() throws Exception {
+        ExecutorService manutencao = Executors.newSingleThreadExecutor();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        OffHeapPedidoStore indexado = new OffHeapPedidoStore(manutencao, 100);
+
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        String id = thread + "-" + i;
+                        indexado.salvarSeAusente(new Pedido(id, "Cliente", i));
+                        assertTrue(lista(indexado.valoresNaFaixa(i, i, null)).contains(new EntradaValor(i, id)));
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            manutencao.shutdown();
+            manutencao.awaitTermination(30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(20_000, lista(indexado.ids(null)).size());
+        assertEquals(20_000, lista(indexado.idsDoCliente("Cliente", null)).size());
+        assertEquals(20_000, lista(indexado.maioresValores()).size());
+    }
+
+    private static <T> List<T> lista(Iterator<T> iterador) {
+        List<T> elementos = new ArrayList<>();
+        iterador.forEachRemaining(elementos::add);
+        return elementos;
+    }
+}
@@ -0,0 +1,277 @@
+package com.rafael.pedido.repository.persistencia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.rafael.pedido.model.Pedido;
+
+/**
+ * Classe de teste para o PedidoLog.
+ * Verifica se os pedidos registrados são recuperados após a reabertura do log
+ * em todos os modos de durabilidade.
+ */
+class PedidoLogTest {
+
+    @TempDir
+    Path diretorio;
+
+    /**
+     * Testa o registro e a recuperação de pedidos.
+     * Verifica se os pedidos são recuperados na ordem em que foram registrados.
+     */
+    @ParameterizedTest
+    @EnumSource(ModoDurabilidade.class)
+    void deveRecuperarPedidos_quandoLogReaberto(ModoDurabilidade modo) throws IOException {
+        try (PedidoLog log = new PedidoLog(diretorio, modo, Duration.ofMillis(1))) {
+            log.registrar(new Pedido("1", "Cliente A", 1_000));
+            log.registrar(new Pedido("2", "Cliente B", 2_050));
+        }
+
+        List<Pedido> recuperados = new ArrayList<>();
+        try (PedidoLog log = new PedidoLog(diretorio, modo, Duration.ofMillis(1))) {
+            log.recuperar(recuperados::add);
+        }
+
+        assertEquals(2, recuperados.size());
+        assertEquals("1", recuperados.get(0).getId());
+        assertEquals("Cliente B", recuperados.get(1).getCliente());
+        assertEquals(2_050, recuperados.get(1).getValorTotalCentavos());
+    }
+
+    /**
+     * Testa o registro concorrente no modo em grupo.
+     * Verifica se nenhum pedido registrado por várias threads é perdido.
+     */
+    @Test
+    void deveRecuperarTodosOsPedidos_quandoRegistradosConcorrentemente() throws Exception {
+        int threads = 8;
+        int pedidosPorThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ZERO)) {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < pedidosPorThread; i++) {
+                        log.registrar(new Pedido(thread + "-" + i, "Cliente", 100));
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Pedido> recuperados = new ConcurrentHashMap<>();
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ZERO)) {
+            log.recuperar(pedido -> recuperados.put(pedido.getId(), pedido));
+        }
+
+        assertEquals(threads * pedidosPorThread, recuperados.size());
+    }
+
+    /**
+     * Testa o registro de um lote de pedidos.
+     * Verifica se todos os pedidos do lote são recuperados na ordem do lote.
+     */
+    @ParameterizedTest
+    @EnumSource(ModoDurabilidade.class)
+    void deveRecuperarLote_quandoRegistradoDeUmaVez(ModoDurabilidade modo) throws IOException {
+        List<Pedido> lote = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            lote.add(new Pedido(String.valueOf(i), "Cliente " + i, i * 100 + 50));
+        }
+        try (PedidoLog log = new PedidoLog(diretorio, modo, Duration.ofMillis(1))) {
+            log.registrarTodos(lote);
+            log.registrarTodos(List.of());
+        }
+
+        List<Pedido> recuperados = new ArrayList<>();
+        try (PedidoLog log = new PedidoLog(diretorio, modo, Duration.ofMillis(1))) {
+            log.recuperar(recuperados::add);
+        }
+
+        assertEquals(lote.stream().map(Pedido::getId).toList(), recuperados.stream().map(Pedido::getId).toList());
+        assertEquals(99_950, recuperados.get(999).getValorTotalCentavos());
+    }
+
+    /**
+     * Testa a recuperação de um log com a última escrita interrompida.
+     * Verifica se o registro incompleto é ignorado e os anteriores são mantidos.
+     */
+    @Test
+    void deveIgnorarRegistroIncompleto_quandoEscritaInterrompida() throws IOException {
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.SINCRONO, Duration.ZERO)) {
+            log.registrar(new Pedido("1", "Cliente A", 1_000));
+            log.registrar(new Pedido("2", "Cliente B", 2_000));
+        }
+        Path segmento = segmentos().get(0);
+        long tamanho = Files.size(segmento);
+        try (var canal = Files.newByteChannel(segmento, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanho - 3);
+        }
+
+        List<Pedido> recuperados = new ArrayList<>();
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.SINCRONO, Duration.ZERO)) {
+            log.recuperar(recuperados::add);
+        }
+
+        assertEquals(1, recuperados.size());
+        assertEquals("1", recuperados.get(0).getId());
+    }
+
+    /**
+     * Testa a recuperação de um registro gravado com o valor total em
+     * {@code double}, antes de os valores serem guardados em centavos.
+     * Verifica se o valor é convertido para centavos na recuperação.
+     */
+    @Test
+    void deveConverterValorParaCentavos_quandoRegistroAntigo() throws IOException {
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.SINCRONO, Duration.ZERO)) {
+            log.registrar(new Pedido("1", "Cliente A", 1_000));
+        }
+        byte[] id = "2".getBytes(StandardCharsets.UTF_8);
+        byte[] cliente = "Cliente B".getBytes(StandardCharsets.UTF_8);
+        int tamanho = 1 + Integer.BYTES * 2 + id.length + cliente.length + Double.BYTES;
+        ByteBuffer registro = ByteBuffer.allocate(CodificadorPedido.CABECALHO_REGISTRO + tamanho)
+                .putInt(tamanho).putInt(0).put(CodificadorPedido.TIPO_PEDIDO)
+                .putInt(id.length).put(id).putInt(cliente.length).put(cliente).putDouble(0.1 + 0.2);
+        registro.putInt(Integer.BYTES, CodificadorPedido.crc(registro, CodificadorPedido.CABECALHO_REGISTRO, tamanho));
+        Files.write(segmentos().get(0), registro.array(), StandardOpenOption.APPEND);
+
+        List<Pedido> recuperados = new ArrayList<>();
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.SINCRONO, Duration.ZERO)) {
+            log.recuperar(recuperados::add);
+        }
+
+        assertEquals(2, recuperados.size());
+        assertEquals("Cliente B", recuperados.get(1).getCliente());
+        assertEquals(30, recuperados.get(1).getValorTotalCentavos());
+    }
+
+    /**
+     * Testa a compactação do log.
+     * Verifica se os segmentos anteriores ao snapshot são descartados e se a
+     * recuperação combina o snapshot com os registros posteriores a ele.
+     */
+    @Test
+    void deveRecuperarSnapshotEFinalDoLog_quandoLogCompactado() throws IOException {
+        Map<String, Pedido> pedidos = new ConcurrentHashMap<>();
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ZERO)) {
+            for (int i = 0; i < 100; i++) {
+                Pedido pedido = new Pedido(String.valueOf(i), "Cliente " + i, (i + 1) * 100);
+                log.registrar(pedido);
+                pedidos.put(pedido.getId(), pedido);
+            }
+
+            assertTrue(log.compactar(pedidos.values()));
+            assertFalse(log.compactar(pedidos.values()));
+            log.registrar(new Pedido("100", "Cliente 100", 10_100));
+        }
+
+        assertEquals(1, segmentos().stream().filter(arquivo -> arquivo.toString().endsWith(".snap")).count());
+        assertEquals(1, segmentos().stream().filter(arquivo -> arquivo.toString().endsWith(".wal")).count());
+
+        Map<String, Pedido> recuperados = new ConcurrentHashMap<>();
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ZERO)) {
+            log.recuperar(pedido -> recuperados.put(pedido.getId(), pedido));
+        }
+
+        assertEquals(101, recuperados.size());
+        assertEquals("Cliente 42", recuperados.get("42").getCliente());
+        assertEquals(10_100, recuperados.get("100").getValorTotalCentavos());
+    }
+
+    /**
+     * Testa a recuperação do outbox de publicação.
+     * Verifica se as entregas registradas antes e depois da compactação são
+     * descontadas dos envios pendentes recuperados.
+     */
+    @Test
+    void deveRecuperarEnviosPendentes_quandoEntregasRegistradasAntesEDepoisDaCompactacao() throws IOException {
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ZERO)) {
+            List<Pedido> pedidos = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                pedidos.add(new Pedido(String.valueOf(i), "Cliente " + i, (i + 1) * 100));
+            }
+            log.registrarTodos(pedidos);
+            log.registrarEntregas(List.of("0", "1"));
+
+            assertTrue(log.compactar(pedidos, List.of("2", "3", "4")));
+            log.registrar(new Pedido("5", "Cliente 5", 600));
+            log.registrarEntregas(List.of("3", "5"));
+        }
+
+        List<String> recuperados = new ArrayList<>();
+        Set<String> pendentes = new TreeSet<>();
+        try (PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ZERO)) {
+            log.recuperar(new RecuperacaoLog() {
+
+                @Override
+                public void pedido(Pedido pedido) {
+                    recuperados.add(pedido.getId());
+                }
+
+                @Override
+                public void envioPendente(String idPedido) {
+                    pendentes.add(idPedido);
+                }
+
+                @Override
+                public void envioConfirmado(String idPedido) {
+                    pendentes.remove(idPedido);
+                }
+            });
+        }
+
+        assertEquals(6, recuperados.size());
+        assertEquals(Set.of("2", "4"), pendentes);
+    }
+
+    /**
+     * Testa o registro após o fechamento do log.
+     * Verifica se o registro é recusado.
+     */
+    @Test
+    void deveLancarExcecao_quandoLogFechado() throws IOException {
+        PedidoLog log = new PedidoLog(diretorio, ModoDurabilidade.GRUPO, Duration.ZERO);
+        log.close();
+
+        assertThrows(IllegalStateException.class, () -> log.registrar(new Pedido("1", "Cliente", 100)));
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.sorted().toList();
+        }
+    }
+}
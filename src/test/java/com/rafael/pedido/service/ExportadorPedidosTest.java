@@ -0,0 +1,74 @@
+package com.rafael.pedido.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.model.Pedido;
+import com.rafael.pedido.repository.PedidoRepository;
+
+/**
+ * Classe de teste para o ExportadorPedidos.
+ * Verifica se os pedidos são exportados em NDJSON, em ordem de ID, e se a
+ * exportação pode ser retomada a partir de um ID.
+ */
+class ExportadorPedidosTest {
+
+    private final PedidoRepository repositorio = new PedidoRepository();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExportadorPedidos exportador = new ExportadorPedidos(repositorio, objectMapper);
+
+    /**
+     * Testa a exportação de todos os pedidos.
+     * Verifica se cada pedido é escrito em uma linha JSON, em ordem crescente
+     * de ID.
+     */
+    @Test
+    void deveExportarUmPedidoPorLinha_quandoExportarTodos() throws IOException {
+        repositorio.salvar(new Pedido("2", "Cliente B", 2_050));
+        repositorio.salvar(new Pedido("1", "Cliente A", 1_000));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        long exportados = exportador.exportar(null, saida);
+
+        assertEquals(2, exportados);
+        assertEquals("""
+                {"id":"1","cliente":"Cliente A","valorTotal":10.00}
+                {"id":"2","cliente":"Cliente B","valorTotal":20.50}
+                """, saida.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Testa a retomada de uma exportação.
+     * Verifica se somente os pedidos posteriores ao ID informado são
+     * exportados e se as linhas podem ser lidas de volta como pedidos.
+     */
+    @Test
+    void deveExportarSomentePedidosPosteriores_quandoRetomarExportacao() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            repositorio.salvar(new Pedido("pedido-" + i, "Cliente", (i + 1) * 100));
+        }
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        exportador.exportar("pedido-6", saida);
+
+        List<PedidoDTO> pedidos = saida.toString(StandardCharsets.UTF_8).lines()
+                .map(linha -> {
+                    try {
+                        return objectMapper.readValue(linha, PedidoDTO.class);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+        assertEquals(List.of("pedido-7", "pedido-8", "pedido-9"), pedidos.stream().map(PedidoDTO::id).toList());
+        assertEquals(1_000, pedidos.get(2).valorTotalCentavos());
+    }
+}
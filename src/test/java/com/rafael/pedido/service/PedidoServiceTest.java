@@ -1,26 +1,49 @@
 package com.rafael.pedido.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.NoSuchElementException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import com.rafael.pedido.dto.PaginaPedidosDTO;
 import com.rafael.pedido.dto.PedidoDTO;
+import com.rafael.pedido.dto.ResultadoBuscaDTO;
+import com.rafael.pedido.dto.ResultadoLoteDTO;
+import com.rafael.pedido.dto.StatusItemLote;
+import com.rafael.pedido.metricas.PedidoMetricas;
 import com.rafael.pedido.model.Pedido;
 import com.rafael.pedido.publisher.PedidoPublisher;
+import com.rafael.pedido.publisher.PublicacaoRejeitadaException;
 import com.rafael.pedido.repository.PedidoRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
 /**
  * Classe de teste para o serviço de pedidos.
  * Esta classe contém testes unitários para verificar o funcionamento do
@@ -29,15 +52,25 @@ import com.rafael.pedido.repository.PedidoRepository;
 @SpringBootTest
 class PedidoServiceTest {
 
+    private static final Validator VALIDADOR = Validation.buildDefaultValidatorFactory().getValidator();
+
     @Mock
     private PedidoRepository repository;
 
     @Mock
     private PedidoPublisher publisher;
 
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+
+    @Spy
+    private PedidoMetricas metricas = new PedidoMetricas(registro);
+
     @InjectMocks
     private PedidoService service;
 
+    @Captor
+    private ArgumentCaptor<List<Pedido>> pedidos;
+
     /**
      * Testa o método criarPedido do PedidoService.
      * Verifica se o pedido é criado corretamente quando os dados são válidos.
@@ -45,60 +78,302 @@ class PedidoServiceTest {
      */
     @Test
     void deveCriarPedido_quandoPedidoValido() {
-        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente Teste", 10.0);
-        when(repository.existePorId("1")).thenReturn(false);
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente Teste", 1_000);
+        when(repository.salvarSeAusente(any())).thenReturn(true);
 
-        Pedido pedido = service.criarPedido(pedidoDTO).toEntity();
+        Pedido pedido = ((ResultadoCriacao.Criado) service.criarPedido(pedidoDTO)).pedido().toEntity();
 
         assertNotNull(pedido);
         assertEquals("1", pedido.getId());
         assertEquals("Cliente Teste", pedido.getCliente());
-        assertEquals(10.0, pedido.getValorTotal());
-        verify(repository).existePorId(pedido.getId());
-        verify(repository).salvar(any());
+        assertEquals(1_000, pedido.getValorTotalCentavos());
+        verify(repository).salvarSeAusente(any());
         verify(publisher).enviarPedido(any());
     }
 
     /**
      * Testa o método criarPedido do PedidoService.
-     * Verifica se lança exceção quando o pedido já existe.
+     * Verifica se retorna o resultado de duplicado quando o pedido já existe.
+     */
+    @Test
+    void deveRetornarDuplicado_quandoPedidoDuplicado() {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente Teste", 15_000);
+        when(repository.salvarSeAusente(any())).thenReturn(false);
+
+        assertEquals(new ResultadoCriacao.Duplicado("1"), service.criarPedido(pedidoDTO));
+        verify(publisher, never()).enviarPedido(any());
+    }
+
+    /**
+     * Testa o método criarPedido do PedidoService.
+     * Verifica se o pedido é criado mesmo quando a fila de publicação está
+     * cheia, já que ele permanece no outbox até ser publicado.
+     */
+    @Test
+    void deveCriarPedido_quandoFilaDePublicacaoCheia() {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente Teste", 1_000);
+        when(repository.salvarSeAusente(any())).thenReturn(true);
+        doThrow(new PublicacaoRejeitadaException("Fila de publicação de pedidos cheia."))
+                .when(publisher).enviarPedido(any());
+
+        assertEquals(new ResultadoCriacao.Criado(pedidoDTO), service.criarPedido(pedidoDTO));
+        verify(repository).salvarSeAusente(any());
+    }
+
+    /**
+     * Testa o método criarPedidoAssincrono do PedidoService.
+     * Verifica se o resultado é concluído somente depois da publicação, se é
+     * o pedido criado mesmo quando a publicação falha e se o duplicado não é
+     * publicado.
      */
     @Test
-    void deveLancarExcecao_quandoPedidoDuplicado() {
-        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente Teste", 150.0);
-        when(repository.existePorId("1")).thenReturn(true);
+    void deveConcluirCriacao_quandoPedidoPublicado() {
+        PedidoDTO pedidoDTO = new PedidoDTO("1", "Cliente Teste", 1_000);
+        CompletableFuture<Void> publicacao = new CompletableFuture<>();
+        when(repository.salvarSeAusente(any())).thenReturn(true, true, false);
+        CompletableFuture<Void> rejeitada = CompletableFuture.failedFuture(
+                new PublicacaoRejeitadaException("Fila de publicação de pedidos cheia."));
+        when(publisher.publicarPedido(any())).thenReturn(publicacao, rejeitada);
+
+        CompletableFuture<ResultadoCriacao> criacao = service.criarPedidoAssincrono(pedidoDTO);
+        assertFalse(criacao.isDone());
+        publicacao.complete(null);
 
-        assertThrows(IllegalArgumentException.class, () -> service.criarPedido(pedidoDTO));
-        verify(repository, never()).salvar(any());
+        assertEquals(new ResultadoCriacao.Criado(pedidoDTO), criacao.join());
+        assertEquals(new ResultadoCriacao.Criado(pedidoDTO), service.criarPedidoAssincrono(pedidoDTO).join());
+        assertEquals(new ResultadoCriacao.Duplicado("1"), service.criarPedidoAssincrono(pedidoDTO).join());
+        verify(publisher, times(2)).publicarPedido(any());
         verify(publisher, never()).enviarPedido(any());
     }
 
+    /**
+     * Testa o método criarPedidos do PedidoService.
+     * Verifica se cada pedido do lote recebe o status correto, se somente os
+     * pedidos válidos são enviados ao repositório e se somente os criados são
+     * publicados, em um único envio.
+     */
+    @Test
+    void deveInformarStatusDeCadaPedido_quandoLoteMisto() {
+        PedidoService servicoLote = new PedidoService(repository, publisher, VALIDADOR);
+        List<PedidoDTO> lote = List.of(
+                new PedidoDTO("1", "Cliente A", 1_000),
+                new PedidoDTO("2", "", 2_000),
+                new PedidoDTO("3", "Cliente C", 3_000));
+        when(repository.salvarTodosSeAusentes(anyList())).thenReturn(new boolean[] { true, false });
+
+        ResultadoLoteDTO resultado = servicoLote.criarPedidos(lote);
+
+        assertEquals(1, resultado.criados());
+        assertEquals(1, resultado.duplicados());
+        assertEquals(1, resultado.invalidos());
+        assertEquals(StatusItemLote.CRIADO, resultado.itens().get(0).status());
+        assertNull(resultado.itens().get(0).mensagem());
+        assertEquals(StatusItemLote.INVALIDO, resultado.itens().get(1).status());
+        assertEquals("Cliente não pode ser nulo ou vazio.", resultado.itens().get(1).mensagem());
+        assertEquals(StatusItemLote.DUPLICADO, resultado.itens().get(2).status());
+        assertEquals("3", resultado.itens().get(2).id());
+
+
+        verify(repository).salvarTodosSeAusentes(pedidos.capture());
+        assertEquals(List.of("1", "3"), pedidos.getValue().stream().map(Pedido::getId).toList());
+        verify(publisher).enviarPedidos(pedidos.capture());
+        assertEquals(List.of("1"), pedidos.getValue().stream().map(Pedido::getId).toList());
+    }
+
+    /**
+     * Testa o método criarPedidos do PedidoService.
+     * Verifica se nada é publicado quando nenhum pedido do lote é criado.
+     */
+    @Test
+    void naoDevePublicar_quandoNenhumPedidoDoLoteCriado() {
+        PedidoService servicoLote = new PedidoService(repository, publisher, VALIDADOR);
+        when(repository.salvarTodosSeAusentes(anyList())).thenReturn(new boolean[0]);
+
+        ResultadoLoteDTO resultado = servicoLote.criarPedidos(Collections.singletonList(null));
+
+        assertEquals(1, resultado.invalidos());
+        verify(publisher, never()).enviarPedidos(anyList());
+    }
+
+    /**
+     * Testa o método criarPedidos do PedidoService.
+     * Verifica se lança exceção quando o lote está vazio ou excede o tamanho
+     * máximo.
+     */
+    @Test
+    void deveLancarExcecao_quandoLoteVazioOuGrandeDemais() {
+        PedidoService servicoLote = new PedidoService(repository, publisher, VALIDADOR);
+        List<PedidoDTO> loteGrande = Collections.nCopies(PedidoService.MAXIMO_PEDIDOS_LOTE + 1,
+                new PedidoDTO("1", "Cliente", 100));
+
+        assertThrows(IllegalArgumentException.class, () -> servicoLote.criarPedidos(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> servicoLote.criarPedidos(loteGrande));
+    }
+
     /**
      * Testa o método consultar do PedidoService.
-     * Verifica se retorna o pedido corretamente quando existe.
-     * Verifica se lança exceção quando o pedido não existe.
+     * Verifica se retorna o pedido corretamente quando existe, com a versão
+     * calculada a partir dos seus dados.
      */
     @Test
     void deveRetornarPedidoDTO_quandoConsultarPedidoExistente() {
-        Pedido pedido = new Pedido("1", "Cliente Teste", 200.0);
+        Pedido pedido = new Pedido("1", "Cliente Teste", 20_000);
         when(repository.consultar("1")).thenReturn(Optional.of(pedido));
 
-        PedidoDTO result = service.consultar("1");
+        ResultadoConsulta.Encontrado encontrado = (ResultadoConsulta.Encontrado) service.consultar("1");
+        PedidoDTO result = encontrado.pedido();
 
+        assertEquals(new Pedido("1", "Cliente Teste", 20_000).getVersao(), encontrado.versao());
+        assertNotEquals(new Pedido("1", "Cliente Teste", 20_001).getVersao(), encontrado.versao());
         assertNotNull(result);
         assertEquals("1", result.id());
         assertEquals("Cliente Teste", result.cliente());
-        assertEquals(200.0, result.valorTotal());
+        assertEquals(20_000, result.valorTotalCentavos());
+    }
+
+    /**
+     * Testa o método consultarPedidos do PedidoService.
+     * Verifica se os pedidos encontrados e os IDs ausentes são separados, sem
+     * lançar exceção, e se IDs repetidos são consultados uma única vez.
+     */
+    @Test
+    void deveSepararEncontradosEAusentes_quandoConsultarVariosPedidos() {
+        Pedido pedido = new Pedido("1", "Cliente Teste", 20_000);
+        when(repository.consultarTodos(any())).thenReturn(Map.of("1", pedido));
+
+        ResultadoBuscaDTO resultado = service.consultarPedidos(List.of("1", "999", "1"));
+
+        assertEquals(List.of(new PedidoDTO(pedido)), resultado.encontrados());
+        assertEquals(List.of("999"), resultado.ausentes());
+    }
+
+    /**
+     * Testa o método consultarPedidos do PedidoService.
+     * Verifica se lança exceção quando a consulta não contém IDs ou contém um ID
+     * nulo.
+     */
+    @Test
+    void deveLancarExcecao_quandoConsultaSemIdsOuComIdNulo() {
+        assertThrows(IllegalArgumentException.class, () -> service.consultarPedidos(List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.consultarPedidos(Collections.singletonList(null)));
+    }
+
+    /**
+     * Testa o método consultarPorCliente do PedidoService.
+     * Verifica se a página é limitada, se o cursor da próxima página é o ID do
+     * último pedido retornado e se a última página não tem cursor.
+     */
+    @Test
+    void devePaginarPedidosDoCliente_quandoHaMaisPedidosQueOLimite() {
+        when(repository.consultarPorCliente("Cliente", null, 3)).thenReturn(List.of(
+                new Pedido("1", "Cliente", 100), new Pedido("2", "Cliente", 200), new Pedido("3", "Cliente", 300)));
+        when(repository.consultarPorCliente("Cliente", "2", 3)).thenReturn(List.of(new Pedido("3", "Cliente", 300)));
+
+        PaginaPedidosDTO primeira = service.consultarPorCliente("Cliente", null, 2);
+        PaginaPedidosDTO segunda = service.consultarPorCliente("Cliente", primeira.proximoCursor(), 2);
+
+        assertEquals(List.of("1", "2"), primeira.pedidos().stream().map(PedidoDTO::id).toList());
+        assertEquals("2", primeira.proximoCursor());
+        assertEquals(List.of("3"), segunda.pedidos().stream().map(PedidoDTO::id).toList());
+        assertNull(segunda.proximoCursor());
+    }
+
+    /**
+     * Testa o método consultarPorCliente do PedidoService.
+     * Verifica se lança exceção quando o cliente não é informado ou o limite
+     * está fora do intervalo permitido.
+     */
+    @Test
+    void deveLancarExcecao_quandoConsultaPorClienteInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> service.consultarPorCliente(" ", null, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.consultarPorCliente("Cliente", null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.consultarPorCliente("Cliente", null, PedidoService.MAXIMO_PEDIDOS_PAGINA + 1));
+    }
+
+    /**
+     * Testa o método consultarPorValor do PedidoService.
+     * Verifica se os valores da faixa são convertidos para centavos e se o
+     * cursor da próxima página identifica o valor e o ID do último pedido.
+     */
+    @Test
+    void devePaginarPedidosDaFaixa_quandoConsultarPorValor() {
+        when(repository.consultarPorValor(1_000, 5_000, 0, null, 2)).thenReturn(List.of(
+                new Pedido("1", "Cliente", 1_500), new Pedido("2", "Cliente", 2_500)));
+        when(repository.consultarPorValor(1_000, 5_000, 1_500, "1", 2)).thenReturn(List.of(
+                new Pedido("2", "Cliente", 2_500)));
+
+        PaginaPedidosDTO primeira = service.consultarPorValor(new BigDecimal("10"), new BigDecimal("50.00"), null, 1);
+        PaginaPedidosDTO segunda = service.consultarPorValor(new BigDecimal("10"), new BigDecimal("50.00"),
+                primeira.proximoCursor(), 1);
+
+        assertEquals(List.of("1"), primeira.pedidos().stream().map(PedidoDTO::id).toList());
+        assertEquals("1500:1", primeira.proximoCursor());
+        assertEquals(List.of("2"), segunda.pedidos().stream().map(PedidoDTO::id).toList());
+        assertNull(segunda.proximoCursor());
+    }
+
+    /**
+     * Testa o método consultarPorValor do PedidoService.
+     * Verifica se lança exceção quando a faixa, o valor ou o cursor são
+     * inválidos.
+     */
+    @Test
+    void deveLancarExcecao_quandoConsultaPorValorInvalida() {
+        BigDecimal dez = BigDecimal.TEN;
+        assertThrows(IllegalArgumentException.class, () -> service.consultarPorValor(dez, BigDecimal.ONE, null, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.consultarPorValor(new BigDecimal("0.001"), dez, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.consultarPorValor(null, dez, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.consultarPorValor(dez, dez, "sem-valor", 10));
     }
 
     /**
      * Testa o método consultar do PedidoService.
-     * Verifica se lança exceção quando o pedido não existe.
+     * Verifica se retorna o resultado de não encontrado quando o pedido não
+     * existe.
      */
     @Test
-    void deveRetornar400_QuandoConsultarPedidoInexistente() {
+    void deveRetornarNaoEncontrado_QuandoConsultarPedidoInexistente() {
         when(repository.consultar("999")).thenReturn(Optional.empty());
 
-        assertThrows(NoSuchElementException.class, () -> service.consultar("999"));
+        assertEquals(new ResultadoConsulta.NaoEncontrado("999"), service.consultar("999"));
+    }
+
+    /**
+     * Testa as métricas do método criarPedido do PedidoService.
+     * Verifica se os pedidos criados e duplicados são contados e se as etapas
+     * de gravação e publicação são medidas.
+     */
+    @Test
+    void deveContarCriadosEDuplicados_quandoCriarPedidos() {
+        when(repository.salvarSeAusente(any())).thenReturn(true, false);
+
+        service.criarPedido(new PedidoDTO("1", "Cliente Teste", 1_000));
+        service.criarPedido(new PedidoDTO("1", "Cliente", 100));
+
+        assertEquals(1.0, registro.get("pedido.criados").counter().count());
+        assertEquals(1.0, registro.get("pedido.duplicados").counter().count());
+        assertEquals(2, registro.get("pedido.etapa").tags("etapa", "repositorio", "operacao", "criar").timer().count());
+        assertEquals(1, registro.get("pedido.etapa").tags("etapa", "publicacao", "operacao", "criar").timer().count());
+    }
+
+    /**
+     * Testa as métricas do método consultar do PedidoService.
+     * Verifica se as consultas de pedidos inexistentes são contadas e se todas
+     * as consultas são medidas.
+     */
+    @Test
+    void deveContarNaoEncontrados_quandoConsultarPedidos() {
+        when(repository.consultar("1")).thenReturn(Optional.of(new Pedido("1", "Cliente Teste", 1_000)));
+        when(repository.consultar("999")).thenReturn(Optional.empty());
+
+        service.consultar("1");
+        service.consultar("999");
+
+        assertEquals(1.0, registro.get("pedido.nao.encontrados").counter().count());
+        assertEquals(2, registro.get("pedido.etapa").tags("etapa", "repositorio", "operacao", "consultar").timer()
+                .count());
     }
 }